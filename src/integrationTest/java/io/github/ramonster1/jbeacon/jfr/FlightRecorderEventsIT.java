@@ -0,0 +1,140 @@
+package io.github.ramonster1.jbeacon.jfr;
+
+import io.github.ramonster1.jbeacon.aeron.command.AeronOnPollResponseTryClaimCommand;
+import io.github.ramonster1.jbeacon.poll.PollSelector;
+import io.github.ramonster1.jbeacon.poll.UDPPollingService;
+import io.github.ramonster1.jbeacon.poll.scheduling.PollSchedulingService;
+import io.github.ramonster1.jbeacon.util.UDPTestServer;
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.BufferClaim;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlightRecorderEventsIT {
+	private static final String IPC_CHANNEL = "aeron:ipc";
+	private static final int STREAM_ID = 1003;
+
+	@AutoClose
+	private static UDPTestServer testServer;
+	@AutoClose
+	private static MediaDriver mediaDriver;
+	@AutoClose
+	private static Aeron aeron;
+	private static InetSocketAddress localhostAddress;
+
+	@TempDir
+	private Path tempDir;
+
+	@BeforeAll
+	static void setUp() throws SocketException {
+		testServer = new UDPTestServer();
+		localhostAddress = new InetSocketAddress(testServer.getSocket().getLocalAddress(), testServer.getSocket().getLocalPort());
+		// This thread should terminate when testServer, which has @AutoClose, is closed
+		Thread serverThread = new Thread(testServer::startServer);
+		serverThread.setDaemon(true);
+		serverThread.start();
+
+		mediaDriver = MediaDriver.launchEmbedded();
+		aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+	}
+
+	@Test
+	void testPollLifecycleIsRecorded() throws Exception {
+		Path recordingPath = tempDir.resolve("poll.jfr");
+
+		try (Recording recording = new Recording()) {
+			recording.enable(PollScheduledEvent.class);
+			recording.enable(RequestSentEvent.class);
+			recording.enable(ResponseReceivedEvent.class);
+			recording.enable(CommandExecutedEvent.class);
+			recording.enable(SelectorWakeupEvent.class);
+			recording.start();
+
+			try (PollSelector pollSelector = new PollSelector(Selector.open(), 1000L);
+				 var nonBlockingPoller = UDPPollingService.builder()
+						 .serverSocketAddress(localhostAddress)
+						 .outBuffer(ByteBuffer.allocate(1))
+						 .inBuffer(ByteBuffer.allocate(100))
+						 .onPollResponseCommand(buffer -> {
+						 })
+						 .blocks(false)
+						 .pollSelector(pollSelector)
+						 .persistentChannel(true)
+						 .build();
+				 var pollSchedulingService = PollSchedulingService.builder()
+						 .pollingService(nonBlockingPoller)
+						 .period(10L)
+						 .timeUnit(TimeUnit.MILLISECONDS)
+						 .build()) {
+
+				pollSchedulingService.executePeriodically();
+				Thread.sleep(200);
+			}
+
+			recording.stop();
+			recording.dump(recordingPath);
+		}
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath);
+
+		assertRecorded(events, "io.github.ramonster1.jbeacon.PollScheduled");
+		assertRecorded(events, "io.github.ramonster1.jbeacon.SelectorWakeup");
+		RecordedEvent requestSent = assertRecorded(events, "io.github.ramonster1.jbeacon.RequestSent");
+		assertEquals(localhostAddress.toString(), requestSent.getString("target"));
+		assertEquals(1, requestSent.getLong("bytes"));
+		RecordedEvent responseReceived = assertRecorded(events, "io.github.ramonster1.jbeacon.ResponseReceived");
+		assertEquals(localhostAddress.toString(), responseReceived.getString("target"));
+		assertEquals(testServer.getData().length, responseReceived.getLong("bytes"));
+		assertEquals(localhostAddress.toString(), assertRecorded(events, "io.github.ramonster1.jbeacon.CommandExecuted").getString("target"));
+	}
+
+	@Test
+	void testAeronPublicationIsRecorded() throws Exception {
+		Path recordingPath = tempDir.resolve("aeron.jfr");
+
+		try (Publication publication = aeron.addPublication(IPC_CHANNEL, STREAM_ID);
+			 Recording recording = new Recording()) {
+			recording.enable(AeronPublicationEvent.class);
+			recording.start();
+
+			// Without a subscription the publication is not connected, which is recorded as the result
+			new AeronOnPollResponseTryClaimCommand(publication, new BufferClaim()).execute(ByteBuffer.wrap(new byte[8]));
+
+			recording.stop();
+			recording.dump(recordingPath);
+		}
+
+		RecordedEvent publicationEvent = assertRecorded(RecordingFile.readAllEvents(recordingPath), "io.github.ramonster1.jbeacon.AeronPublication");
+		assertEquals(IPC_CHANNEL, publicationEvent.getString("channel"));
+		assertEquals(STREAM_ID, publicationEvent.getInt("streamId"));
+		assertEquals("tryClaim", publicationEvent.getString("method"));
+		assertEquals("NOT_CONNECTED", publicationEvent.getString("result"));
+		assertEquals(8, publicationEvent.getLong("bytes"));
+	}
+
+	private static RecordedEvent assertRecorded(List<RecordedEvent> events, String name) {
+		List<RecordedEvent> matching = events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+		assertFalse(matching.isEmpty(), "No " + name + " event was recorded");
+		assertTrue(matching.getFirst().getEndTime().compareTo(matching.getFirst().getStartTime()) >= 0);
+		return matching.getFirst();
+	}
+}
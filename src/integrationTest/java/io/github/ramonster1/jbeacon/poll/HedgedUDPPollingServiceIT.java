@@ -0,0 +1,167 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.util.UDPTestServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedUDPPollingServiceIT {
+
+	private static Thread serverThread;
+	@AutoClose
+	private static UDPTestServer echoServer;
+	private static InetSocketAddress echoServerAddress;
+
+	@BeforeAll
+	static void setUp() throws SocketException {
+		echoServer = new UDPTestServer(true);
+		echoServerAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), echoServer.getSocket().getLocalPort());
+		serverThread = new Thread(echoServer::startServer);
+		serverThread.start();
+	}
+
+	@AfterAll
+	static void tearDown() {
+		serverThread.interrupt();
+	}
+
+	@Test
+	void testUnansweredPrimaryIsHedgedToNextEndpoint() throws Exception {
+		AtomicInteger responses = new AtomicInteger();
+		AtomicInteger timeouts = new AtomicInteger();
+
+		try (DatagramChannel silentPrimary = openSilentServer();
+			 var hedgedPoller = UDPPollingService.builder()
+					 .serverSocketAddress((InetSocketAddress) silentPrimary.getLocalAddress())
+					 .hedgeEndpoint(echoServerAddress)
+					 .hedgePolicy(HedgePolicy.builder().initialDelay(20L).build())
+					 .pollCorrelator(PollCorrelator.builder().sequenceOffset(0).build())
+					 .outBuffer(ByteBuffer.allocate(Integer.BYTES))
+					 .inBuffer(ByteBuffer.allocate(100))
+					 .onPollResponseCommand(countingCommand(responses, timeouts))
+					 .persistentChannel(true)
+					 .pollTimeout(2000L)
+					 .build()) {
+
+			long start = System.nanoTime();
+			hedgedPoller.poll();
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			assertEquals(1, responses.get());
+			assertEquals(0, timeouts.get());
+			assertTrue(elapsedMillis < 2000, "Poll took " + elapsedMillis + " ms");
+			// The primary was polled first
+			assertNotNull(silentPrimary.receive(ByteBuffer.allocate(Integer.BYTES)));
+		}
+	}
+
+	@Test
+	void testLateResponseFromPrimaryIsDiscarded() throws Exception {
+		List<Integer> sequences = new CopyOnWriteArrayList<>();
+
+		try (DatagramChannel slowPrimary = openSilentServer();
+			 var hedgedPoller = UDPPollingService.builder()
+					 .serverSocketAddress((InetSocketAddress) slowPrimary.getLocalAddress())
+					 .hedgeEndpoint(echoServerAddress)
+					 .hedgePolicy(HedgePolicy.builder().initialDelay(20L).build())
+					 .pollCorrelator(PollCorrelator.builder().sequenceOffset(0).build())
+					 .outBuffer(ByteBuffer.allocate(Integer.BYTES))
+					 .inBuffer(ByteBuffer.allocate(100))
+					 .onPollResponseCommand(buffer -> sequences.add(buffer.getInt(0)))
+					 .persistentChannel(true)
+					 .pollTimeout(2000L)
+					 .build()) {
+
+			hedgedPoller.poll();
+
+			// The primary answers the first poll only after the hedge has already won
+			ByteBuffer lateResponse = ByteBuffer.allocate(Integer.BYTES);
+			SocketAddress poller = slowPrimary.receive(lateResponse);
+			lateResponse.flip();
+			slowPrimary.send(lateResponse, poller);
+
+			hedgedPoller.poll();
+		}
+
+		assertEquals(List.of(0, 1), sequences);
+	}
+
+	@Test
+	void testHedgedRequestsAreReportedUnderThePrimaryTarget() throws Exception {
+		List<InetSocketAddress> sentTargets = new CopyOnWriteArrayList<>();
+		List<InetSocketAddress> receivedTargets = new CopyOnWriteArrayList<>();
+		PollEventListener listener = new PollEventListener() {
+			@Override
+			public void onSent(InetSocketAddress target, int length, long sequence) {
+				sentTargets.add(target);
+			}
+
+			@Override
+			public void onReceived(InetSocketAddress target, int length, long latencyNanos) {
+				receivedTargets.add(target);
+			}
+		};
+
+		try (DatagramChannel silentPrimary = openSilentServer();
+			 var hedgedPoller = UDPPollingService.builder()
+					 .serverSocketAddress((InetSocketAddress) silentPrimary.getLocalAddress())
+					 .hedgeEndpoint(echoServerAddress)
+					 .hedgePolicy(HedgePolicy.builder().initialDelay(20L).build())
+					 .pollCorrelator(PollCorrelator.builder().sequenceOffset(0).build())
+					 .outBuffer(ByteBuffer.allocate(Integer.BYTES))
+					 .inBuffer(ByteBuffer.allocate(100))
+					 .onPollResponseCommand(buffer -> {
+					 })
+					 .pollEventListener(listener)
+					 .persistentChannel(true)
+					 .pollTimeout(2000L)
+					 .build()) {
+
+			hedgedPoller.poll();
+
+			InetSocketAddress primary = (InetSocketAddress) silentPrimary.getLocalAddress();
+			// The request to the primary and the request hedged to the echo server
+			assertEquals(List.of(primary, primary), sentTargets);
+			assertEquals(List.of(primary), receivedTargets);
+		}
+	}
+
+	private static DatagramChannel openSilentServer() throws Exception {
+		DatagramChannel silentServer = DatagramChannel.open();
+		silentServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		silentServer.configureBlocking(false);
+		return silentServer;
+	}
+
+	private static OnPollResponseCommand countingCommand(AtomicInteger responses, AtomicInteger timeouts) {
+		return new OnPollResponseCommand() {
+			@Override
+			public void execute(ByteBuffer buffer) {
+				responses.incrementAndGet();
+			}
+
+			@Override
+			public void onTimeout() {
+				timeouts.incrementAndGet();
+			}
+		};
+	}
+}
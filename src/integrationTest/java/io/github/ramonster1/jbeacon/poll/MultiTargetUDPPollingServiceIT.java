@@ -0,0 +1,100 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.util.UDPTestServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiTargetUDPPollingServiceIT {
+	private static final int TARGET_COUNT = 3;
+	private static final int WAVES = 5;
+
+	private static final List<UDPTestServer> testServers = new ArrayList<>();
+	private static final List<Thread> serverThreads = new ArrayList<>();
+
+	@BeforeAll
+	static void setUp() throws SocketException {
+		for (int i = 0; i < TARGET_COUNT; i++) {
+			UDPTestServer testServer = new UDPTestServer();
+			Thread serverThread = new Thread(testServer::startServer);
+			serverThread.setDaemon(true);
+			serverThread.start();
+
+			testServers.add(testServer);
+			serverThreads.add(serverThread);
+		}
+	}
+
+	@AfterAll
+	static void tearDown() {
+		serverThreads.forEach(Thread::interrupt);
+		testServers.forEach(UDPTestServer::close);
+	}
+
+	private static InetSocketAddress addressOf(UDPTestServer testServer) {
+		return new InetSocketAddress(testServer.getSocket().getLocalAddress(), testServer.getSocket().getLocalPort());
+	}
+
+	@Test
+	void testEveryTargetRespondsInEachWave() throws Exception {
+		AtomicIntegerArray responseCounts = new AtomicIntegerArray(TARGET_COUNT);
+
+		try (Selector selector = Selector.open()) {
+			var builder = MultiTargetUDPPollingService.builder()
+					.pollSelector(new PollSelector(selector, 1000L))
+					.waveTimeout(5000L);
+
+			for (int i = 0; i < TARGET_COUNT; i++) {
+				final int index = i;
+				final UDPTestServer testServer = testServers.get(i);
+				builder.target(new PollTarget(addressOf(testServer), ByteBuffer.allocate(1), ByteBuffer.allocate(100), buffer -> {
+					assertEquals(testServer.getDate(), UDPTestServer.CHARSET.decode(buffer).toString());
+					responseCounts.incrementAndGet(index);
+				}));
+			}
+
+			try (var poller = builder.build()) {
+				for (int wave = 0; wave < WAVES; wave++) {
+					poller.poll();
+				}
+			}
+		}
+
+		for (int i = 0; i < TARGET_COUNT; i++) {
+			assertEquals(WAVES, responseCounts.get(i));
+		}
+	}
+
+	@Test
+	void testEventLoopCollectsResponsesFromEveryTarget() throws Exception {
+		CountDownLatch responsesProcessed = new CountDownLatch(TARGET_COUNT);
+
+		try (PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 1000L))) {
+			pollEventLoop.start();
+
+			var builder = MultiTargetUDPPollingService.builder().pollEventLoop(pollEventLoop);
+			for (UDPTestServer testServer : testServers) {
+				builder.target(new PollTarget(addressOf(testServer), ByteBuffer.allocate(1), ByteBuffer.allocate(100), buffer -> responsesProcessed.countDown()));
+			}
+
+			try (var poller = builder.build()) {
+				poller.poll();
+
+				assertTrue(responsesProcessed.await(5, TimeUnit.SECONDS));
+			}
+		}
+	}
+}
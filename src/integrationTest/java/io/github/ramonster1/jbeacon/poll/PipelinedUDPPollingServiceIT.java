@@ -0,0 +1,106 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.util.UDPTestServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelinedUDPPollingServiceIT {
+	private static final int IN_FLIGHT_POLLS = 8;
+
+	private static Thread serverThread;
+	@AutoClose
+	private static UDPTestServer echoServer;
+	private static InetSocketAddress localhostAddress;
+
+	@BeforeAll
+	static void setUp() throws SocketException {
+		echoServer = new UDPTestServer(true);
+		localhostAddress = new InetSocketAddress(echoServer.getSocket().getLocalAddress(), echoServer.getSocket().getLocalPort());
+		serverThread = new Thread(echoServer::startServer);
+		serverThread.start();
+	}
+
+	@AfterAll
+	static void tearDown() {
+		serverThread.interrupt();
+	}
+
+	@Test
+	void testEventLoopPollsAreMatchedToTheirRequestsWhileInFlight() throws Exception {
+		PollCorrelator pollCorrelator = PollCorrelator.builder()
+				.sequenceOffset(0)
+				.sequenceLength(Integer.BYTES)
+				.maxInFlight(IN_FLIGHT_POLLS)
+				.build();
+		CountDownLatch responsesProcessed = new CountDownLatch(IN_FLIGHT_POLLS);
+		List<Integer> sequences = new CopyOnWriteArrayList<>();
+
+		try (PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 1000L))) {
+			pollEventLoop.start();
+
+			try (var pipelinedPoller = UDPPollingService.builder()
+					.serverSocketAddress(localhostAddress)
+					.outBuffer(ByteBuffer.allocate(Integer.BYTES))
+					.inBuffer(ByteBuffer.allocate(100))
+					.onPollResponseCommand(buffer -> {
+						sequences.add(buffer.getInt(0));
+						responsesProcessed.countDown();
+					})
+					.blocks(false)
+					.pollEventLoop(pollEventLoop)
+					.pollCorrelator(pollCorrelator)
+					.build()) {
+
+				// Every poll is sent before any response is awaited
+				for (int i = 0; i < IN_FLIGHT_POLLS; i++) {
+					pipelinedPoller.poll();
+				}
+
+				assertTrue(responsesProcessed.await(5, TimeUnit.SECONDS));
+			}
+		}
+
+		assertEquals(IN_FLIGHT_POLLS, sequences.stream().distinct().count());
+		assertEquals(0, pollCorrelator.inFlight());
+		assertEquals(0, pollCorrelator.droppedResponses());
+	}
+
+	@Test
+	void testBlockingPollWithCorrelatorReceivesMatchingResponse() throws Exception {
+		PollCorrelator pollCorrelator = PollCorrelator.builder()
+				.sequenceOffset(0)
+				.build();
+		List<Integer> sequences = new CopyOnWriteArrayList<>();
+
+		try (var blockingPoller = UDPPollingService.builder()
+				.serverSocketAddress(localhostAddress)
+				.outBuffer(ByteBuffer.allocate(Integer.BYTES))
+				.inBuffer(ByteBuffer.allocate(100))
+				.onPollResponseCommand(buffer -> sequences.add(buffer.getInt(0)))
+				.persistentChannel(true)
+				.pollCorrelator(pollCorrelator)
+				.build()) {
+
+			for (int i = 0; i < 3; i++) {
+				blockingPoller.poll();
+			}
+		}
+
+		assertEquals(List.of(0, 1, 2), sequences);
+		assertEquals(0, pollCorrelator.inFlight());
+	}
+}
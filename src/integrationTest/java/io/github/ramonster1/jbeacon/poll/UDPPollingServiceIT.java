@@ -1,19 +1,32 @@
 package io.github.ramonster1.jbeacon.poll;
 
+import io.github.ramonster1.jbeacon.buffer.SlabBufferPool;
 import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.event.PollEventType;
+import io.github.ramonster1.jbeacon.journal.PollEventJournal;
+import io.github.ramonster1.jbeacon.journal.PollEventJournalDecoder;
 import io.github.ramonster1.jbeacon.util.PollingTestService;
 import io.github.ramonster1.jbeacon.util.UDPTestServer;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AutoClose;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.nio.channels.Selector;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class UDPPollingServiceIT {
 
@@ -97,4 +110,300 @@ public class UDPPollingServiceIT {
 			nonBlockingPollTestService.pollRepeatedly();
 		}
 	}
+
+	@Test
+	void testPersistentBlockingPollReusesChannelForMultipleRequests() throws Exception {
+		try (var persistentPoller = UDPPollingService.builder()
+				.serverSocketAddress(localhostAddress)
+				.outBuffer(ByteBuffer.allocate(1))
+				.inBuffer(ByteBuffer.allocate(100))
+				.onPollResponseCommand(testBufferReadyForDrainingCommand)
+				.persistentChannel(true)
+				.build()) {
+
+			PollingTestService persistentPollTestService = new PollingTestService(testServer, localhostAddress, persistentPoller);
+			persistentPollTestService.pollRepeatedly();
+		}
+	}
+
+	@Test
+	void testPersistentNonBlockingPollReusesChannelForMultipleRequests() throws Exception {
+		try (Selector selector = Selector.open()) {
+			var pollSelector = new PollSelector(selector, 1000L);
+
+			try (var persistentPoller = UDPPollingService.builder()
+					.serverSocketAddress(localhostAddress)
+					.outBuffer(ByteBuffer.allocate(1))
+					.inBuffer(ByteBuffer.allocate(100))
+					.onPollResponseCommand(testBufferReadyForDrainingCommand)
+					.blocks(false)
+					.pollSelector(pollSelector)
+					.persistentChannel(true)
+					.build()) {
+
+				PollingTestService persistentPollTestService = new PollingTestService(testServer, localhostAddress, persistentPoller);
+				persistentPollTestService.pollRepeatedly();
+
+				// The persistent channel is registered once and stays registered across polls
+				assertEquals(1, selector.keys().size());
+			}
+		}
+	}
+
+	@Test
+	void testEventLoopPollReturnsBeforeResponseIsProcessed() throws Exception {
+		CountDownLatch responsesProcessed = new CountDownLatch(3);
+		OnPollResponseCommand countingCommand = buffer -> {
+			testBufferReadyForDrainingCommand.execute(buffer);
+			responsesProcessed.countDown();
+		};
+
+		try (PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 1000L))) {
+			pollEventLoop.start();
+
+			try (var eventLoopPoller = UDPPollingService.builder()
+					.serverSocketAddress(localhostAddress)
+					.outBuffer(ByteBuffer.allocate(1))
+					.inBuffer(ByteBuffer.allocate(100))
+					.onPollResponseCommand(countingCommand)
+					.blocks(false)
+					.pollEventLoop(pollEventLoop)
+					.build()) {
+
+				for (int i = 0; i < 3; i++) {
+					eventLoopPoller.poll();
+					// Each response is checked against the latest server data, so wait for it before updating
+					awaitCount(responsesProcessed, 2 - i);
+				}
+
+				assertTrue(responsesProcessed.await(5, TimeUnit.SECONDS));
+			}
+		}
+	}
+
+	@Test
+	void testBlockingPollTimesOutWithoutResponse() throws Exception {
+		AtomicInteger timeouts = new AtomicInteger();
+
+		try (DatagramChannel silentServer = openSilentServer();
+			 var blockingPoller = UDPPollingService.builder()
+					 .serverSocketAddress((InetSocketAddress) silentServer.getLocalAddress())
+					 .outBuffer(ByteBuffer.allocate(1))
+					 .inBuffer(ByteBuffer.allocate(100))
+					 .onPollResponseCommand(timeoutCountingCommand(timeouts))
+					 .persistentChannel(true)
+					 .pollTimeout(100L)
+					 .build()) {
+
+			long start = System.nanoTime();
+			blockingPoller.poll();
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			assertTrue(elapsedMillis >= 100 && elapsedMillis < 5000, "Poll took " + elapsedMillis + " ms");
+			assertEquals(1, timeouts.get());
+			assertEquals(1, blockingPoller.timedOutPolls());
+		}
+	}
+
+	@Test
+	void testUnansweredPollIsRetransmittedBeforeTimingOut() throws Exception {
+		AtomicInteger timeouts = new AtomicInteger();
+
+		try (DatagramChannel silentServer = openSilentServer();
+			 var retransmittingPoller = UDPPollingService.builder()
+					 .serverSocketAddress((InetSocketAddress) silentServer.getLocalAddress())
+					 .outBuffer(ByteBuffer.allocate(1))
+					 .inBuffer(ByteBuffer.allocate(100))
+					 .onPollResponseCommand(timeoutCountingCommand(timeouts))
+					 .persistentChannel(true)
+					 .pollTimeout(1000L)
+					 .retransmitPolicy(RetransmitPolicy.builder().initialTimeout(50L).maxRetransmits(2).build())
+					 .build()) {
+
+			retransmittingPoller.poll();
+
+			int requests = 0;
+			while (silentServer.receive(ByteBuffer.allocate(1)) != null) {
+				requests++;
+			}
+
+			assertEquals(3, requests);
+			assertEquals(1, timeouts.get());
+		}
+	}
+
+	@Test
+	void testRetransmitPolicyMeasuresRoundTripTime() throws Exception {
+		RetransmitPolicy retransmitPolicy = RetransmitPolicy.builder().build();
+
+		try (var measuredPoller = UDPPollingService.builder()
+				.serverSocketAddress(localhostAddress)
+				.outBuffer(ByteBuffer.allocate(1))
+				.inBuffer(ByteBuffer.allocate(100))
+				.onPollResponseCommand(buffer -> {
+				})
+				.persistentChannel(true)
+				.retransmitPolicy(retransmitPolicy)
+				.build()) {
+
+			measuredPoller.poll();
+		}
+
+		assertTrue(retransmitPolicy.smoothedRttNanos() > 0);
+	}
+
+	@Test
+	void testEventLoopReportsTimedOutPoll() throws Exception {
+		CountDownLatch timedOut = new CountDownLatch(1);
+
+		try (DatagramChannel silentServer = openSilentServer();
+			 PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 10L))) {
+			pollEventLoop.start();
+
+			try (var eventLoopPoller = UDPPollingService.builder()
+					.serverSocketAddress((InetSocketAddress) silentServer.getLocalAddress())
+					.outBuffer(ByteBuffer.allocate(1))
+					.inBuffer(ByteBuffer.allocate(100))
+					.onPollResponseCommand(new OnPollResponseCommand() {
+						@Override
+						public void execute(ByteBuffer buffer) {
+						}
+
+						@Override
+						public void onTimeout() {
+							timedOut.countDown();
+						}
+					})
+					.blocks(false)
+					.pollEventLoop(pollEventLoop)
+					.pollTimeout(50L)
+					.build()) {
+
+				eventLoopPoller.poll();
+
+				assertTrue(timedOut.await(5, TimeUnit.SECONDS));
+				assertEquals(1, eventLoopPoller.timedOutPolls());
+			}
+		}
+	}
+
+	@Test
+	void testAnsweredPollDoesNotTimeOut() throws Exception {
+		AtomicInteger timeouts = new AtomicInteger();
+		testServer.updateTestServerResponse();
+
+		try (var blockingPoller = UDPPollingService.builder()
+				.serverSocketAddress(localhostAddress)
+				.outBuffer(ByteBuffer.allocate(1))
+				.inBuffer(ByteBuffer.allocate(100))
+				.onPollResponseCommand(timeoutCountingCommand(timeouts))
+				.pollTimeout(1000L)
+				.build()) {
+
+			blockingPoller.poll();
+		}
+
+		assertEquals(0, timeouts.get());
+	}
+
+	@Test
+	void testPooledResponseBuffersAreReleasedAfterEachPoll() throws Exception {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(128).slicesPerClass(1).build();
+		AtomicInteger responses = new AtomicInteger();
+		OnPollResponseCommand pooledBufferCommand = buffer -> {
+			assertTrue(buffer.isDirect());
+			assertEquals(testServer.getData().length, buffer.remaining());
+			responses.incrementAndGet();
+		};
+
+		try (Selector selector = Selector.open()) {
+			var pollSelector = new PollSelector(selector, 1000L);
+
+			try (var blockingPoller = UDPPollingService.builder()
+					.serverSocketAddress(localhostAddress)
+					.outBuffer(ByteBuffer.allocate(1))
+					.onPollResponseCommand(pooledBufferCommand)
+					.persistentChannel(true)
+					.bufferPool(bufferPool)
+					.responseBufferSize(100)
+					.build();
+				 var nonBlockingPoller = UDPPollingService.builder()
+						 .serverSocketAddress(localhostAddress)
+						 .outBuffer(ByteBuffer.allocate(1))
+						 .onPollResponseCommand(pooledBufferCommand)
+						 .blocks(false)
+						 .pollSelector(pollSelector)
+						 .persistentChannel(true)
+						 .bufferPool(bufferPool)
+						 .build()) {
+
+				// The pool holds a single slice, so each poll must release it for the next one to succeed
+				for (int i = 0; i < 3; i++) {
+					blockingPoller.poll();
+					nonBlockingPoller.poll();
+				}
+			}
+		}
+
+		assertEquals(6, responses.get());
+		assertEquals(0, bufferPool.metrics().leasedSlices());
+	}
+
+	@Test
+	void testPollEventsAreRecordedInJournal(@TempDir Path tempDir) throws Exception {
+		Path journalPath = tempDir.resolve("poll-events.journal");
+		testServer.updateTestServerResponse();
+
+		try (PollEventJournal journal = PollEventJournal.builder().path(journalPath).capacity(16).build();
+			 var blockingPoller = UDPPollingService.builder()
+					 .serverSocketAddress(localhostAddress)
+					 .outBuffer(ByteBuffer.allocate(1))
+					 .inBuffer(ByteBuffer.allocate(100))
+					 .onPollResponseCommand(testBufferReadyForDrainingCommand)
+					 .persistentChannel(true)
+					 .pollEventListener(journal)
+					 .build()) {
+
+			blockingPoller.poll();
+		}
+
+		List<PollEventJournalDecoder.JournalRecord> journalRecords = PollEventJournalDecoder.read(journalPath);
+		String target = localhostAddress.getAddress().getHostAddress() + ":" + localhostAddress.getPort();
+
+		assertEquals(2, journalRecords.size());
+		assertEquals(PollEventType.SENT, journalRecords.get(0).type());
+		assertEquals(target, journalRecords.get(0).target());
+		assertEquals(PollEventType.RECEIVED, journalRecords.get(1).type());
+		assertEquals(target, journalRecords.get(1).target());
+		assertEquals(testServer.getData().length, journalRecords.get(1).length());
+		assertTrue(journalRecords.get(1).value() >= 0);
+	}
+
+	private static DatagramChannel openSilentServer() throws Exception {
+		DatagramChannel silentServer = DatagramChannel.open();
+		silentServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		silentServer.configureBlocking(false);
+		return silentServer;
+	}
+
+	private static OnPollResponseCommand timeoutCountingCommand(AtomicInteger timeouts) {
+		return new OnPollResponseCommand() {
+			@Override
+			public void execute(ByteBuffer buffer) {
+				testBufferReadyForDrainingCommand.execute(buffer);
+			}
+
+			@Override
+			public void onTimeout() {
+				timeouts.incrementAndGet();
+			}
+		};
+	}
+
+	private static void awaitCount(CountDownLatch latch, long count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (latch.getCount() > count && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+	}
 }
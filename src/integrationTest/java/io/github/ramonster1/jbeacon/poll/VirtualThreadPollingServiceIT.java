@@ -0,0 +1,121 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.util.UDPTestServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPollingServiceIT {
+	private static final int TARGET_COUNT = 3;
+	private static final int WAVES = 5;
+
+	private static final List<UDPTestServer> testServers = new ArrayList<>();
+	private static final List<Thread> serverThreads = new ArrayList<>();
+
+	@BeforeAll
+	static void setUp() throws SocketException {
+		for (int i = 0; i < TARGET_COUNT; i++) {
+			UDPTestServer testServer = new UDPTestServer();
+			Thread serverThread = new Thread(testServer::startServer);
+			serverThread.setDaemon(true);
+			serverThread.start();
+
+			testServers.add(testServer);
+			serverThreads.add(serverThread);
+		}
+	}
+
+	@AfterAll
+	static void tearDown() {
+		serverThreads.forEach(Thread::interrupt);
+		testServers.forEach(UDPTestServer::close);
+	}
+
+	private static InetSocketAddress addressOf(UDPTestServer testServer) {
+		return new InetSocketAddress(testServer.getSocket().getLocalAddress(), testServer.getSocket().getLocalPort());
+	}
+
+	@Test
+	void testEveryTargetRespondsInEachWave() throws Exception {
+		AtomicIntegerArray responseCounts = new AtomicIntegerArray(TARGET_COUNT);
+		AtomicBoolean executedOnPlatformThread = new AtomicBoolean();
+
+		var builder = VirtualThreadPollingService.builder();
+		for (int i = 0; i < TARGET_COUNT; i++) {
+			final int index = i;
+			final UDPTestServer testServer = testServers.get(i);
+			builder.pollingService(UDPPollingService.builder()
+					.serverSocketAddress(addressOf(testServer))
+					.outBuffer(ByteBuffer.allocate(1))
+					// Heap and direct buffers are received differently on a virtual thread
+					.inBuffer(i % 2 == 0 ? ByteBuffer.allocate(100) : ByteBuffer.allocateDirect(100))
+					.persistentChannel(true)
+					.pollTimeout(5000L)
+					.onPollResponseCommand(buffer -> {
+						assertEquals(testServer.getDate(), UDPTestServer.CHARSET.decode(buffer).toString());
+						executedOnPlatformThread.compareAndSet(false, !Thread.currentThread().isVirtual());
+						responseCounts.incrementAndGet(index);
+					})
+					.build());
+		}
+
+		try (var poller = builder.build()) {
+			for (int wave = 0; wave < WAVES; wave++) {
+				poller.poll();
+			}
+		}
+
+		for (int i = 0; i < TARGET_COUNT; i++) {
+			assertEquals(WAVES, responseCounts.get(i));
+		}
+		assertFalse(executedOnPlatformThread.get());
+	}
+
+	@Test
+	void testUnresponsiveTargetTimesOut() throws Exception {
+		AtomicInteger timeouts = new AtomicInteger();
+
+		// A bound socket that never answers
+		try (DatagramSocket silentServer = new DatagramSocket(0);
+			 var poller = VirtualThreadPollingService.builder()
+					 .pollingService(UDPPollingService.builder()
+							 .serverSocketAddress(new InetSocketAddress("localhost", silentServer.getLocalPort()))
+							 .outBuffer(ByteBuffer.allocate(1))
+							 .inBuffer(ByteBuffer.allocate(100))
+							 .persistentChannel(true)
+							 .pollTimeout(200L)
+							 .onPollResponseCommand(new OnPollResponseCommand() {
+								 @Override
+								 public void execute(ByteBuffer buffer) {
+								 }
+
+								 @Override
+								 public void onTimeout() {
+									 timeouts.incrementAndGet();
+								 }
+							 })
+							 .build())
+					 .build()) {
+
+			long start = System.nanoTime();
+			poller.poll();
+
+			assertEquals(1, timeouts.get());
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		}
+	}
+}
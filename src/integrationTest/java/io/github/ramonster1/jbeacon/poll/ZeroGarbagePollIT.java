@@ -0,0 +1,195 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.aeron.command.AeronOnPollResponseOfferCommand;
+import io.github.ramonster1.jbeacon.aeron.command.AeronOnPollResponseTryClaimCommand;
+import io.github.ramonster1.jbeacon.buffer.SlabBufferPool;
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.util.UDPTestServer;
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.BufferClaim;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the zero-garbage mode of {@link UDPPollingService}: once warmed up, polls over a persistent channel, and the
+ * Aeron commands executed for their responses, from a heap or a direct inBuffer, must not allocate on the polling
+ * thread.
+ */
+public class ZeroGarbagePollIT {
+	private static final int WARM_UP_POLLS = 20_000;
+	private static final int MEASURED_POLLS = 10_000;
+	// Tolerates one-off allocations, such as a late JIT deoptimization, but not a single object for every poll
+	private static final long ALLOCATION_BUDGET_BYTES = 16 * 1024;
+	private static final String IPC_CHANNEL = "aeron:ipc";
+	private static final int STREAM_ID = 1002;
+
+	@AutoClose
+	private static UDPTestServer testServer;
+	@AutoClose
+	private static MediaDriver mediaDriver;
+	@AutoClose
+	private static Aeron aeron;
+	private static InetSocketAddress localhostAddress;
+
+	@BeforeAll
+	static void setUp() throws SocketException {
+		testServer = new UDPTestServer();
+		localhostAddress = new InetSocketAddress(testServer.getSocket().getLocalAddress(), testServer.getSocket().getLocalPort());
+		// This thread should terminate when testServer, which has @AutoClose, is closed
+		Thread serverThread = new Thread(testServer::startServer);
+		serverThread.setDaemon(true);
+		serverThread.start();
+
+		mediaDriver = MediaDriver.launchEmbedded();
+		aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+	}
+
+	@Test
+	void testPersistentBlockingPollDoesNotAllocate() throws Exception {
+		AtomicInteger responses = new AtomicInteger();
+
+		try (var blockingPoller = UDPPollingService.builder()
+				.serverSocketAddress(localhostAddress)
+				.outBuffer(ByteBuffer.allocate(1))
+				.inBuffer(ByteBuffer.allocate(100))
+				.onPollResponseCommand(buffer -> responses.incrementAndGet())
+				.blocks(true)
+				.persistentChannel(true)
+				.build()) {
+
+			assertPollsDoNotAllocate(blockingPoller, responses);
+		}
+	}
+
+	@Test
+	void testPersistentNonBlockingPollDoesNotAllocate() throws Exception {
+		AtomicInteger responses = new AtomicInteger();
+
+		try (PollSelector pollSelector = new PollSelector(Selector.open(), 1000L);
+			 var nonBlockingPoller = UDPPollingService.builder()
+					 .serverSocketAddress(localhostAddress)
+					 .outBuffer(ByteBuffer.allocate(1))
+					 .inBuffer(ByteBuffer.allocate(100))
+					 .onPollResponseCommand(buffer -> responses.incrementAndGet())
+					 .blocks(false)
+					 .pollSelector(pollSelector)
+					 .persistentChannel(true)
+					 .build()) {
+
+			assertPollsDoNotAllocate(nonBlockingPoller, responses);
+		}
+	}
+
+	@Test
+	void testPooledNonBlockingPollDoesNotAllocate() throws Exception {
+		AtomicInteger responses = new AtomicInteger();
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(128).slicesPerClass(1).build();
+
+		try (PollSelector pollSelector = new PollSelector(Selector.open(), 1000L);
+			 var nonBlockingPoller = UDPPollingService.builder()
+					 .serverSocketAddress(localhostAddress)
+					 .outBuffer(ByteBuffer.allocate(1))
+					 .onPollResponseCommand(buffer -> responses.incrementAndGet())
+					 .blocks(false)
+					 .pollSelector(pollSelector)
+					 .persistentChannel(true)
+					 .bufferPool(bufferPool)
+					 .build()) {
+
+			assertPollsDoNotAllocate(nonBlockingPoller, responses);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void testOfferCommandDoesNotAllocate(boolean directInBuffer) throws Exception {
+		assertAeronCommandDoesNotAllocate(publication -> new AeronOnPollResponseOfferCommand(publication, new UnsafeBuffer()), inBuffer(directInBuffer));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void testTryClaimCommandDoesNotAllocate(boolean directInBuffer) throws Exception {
+		assertAeronCommandDoesNotAllocate(publication -> new AeronOnPollResponseTryClaimCommand(publication, new BufferClaim()), inBuffer(directInBuffer));
+	}
+
+	private static ByteBuffer inBuffer(boolean direct) {
+		return direct ? ByteBuffer.allocateDirect(100) : ByteBuffer.allocate(100);
+	}
+
+	private static void assertAeronCommandDoesNotAllocate(Function<Publication, OnPollResponseCommand> commandFactory, ByteBuffer inBuffer) throws Exception {
+		AtomicInteger published = new AtomicInteger();
+		FragmentHandler fragmentHandler = (buffer, offset, length, header) -> published.incrementAndGet();
+
+		try (Subscription subscription = aeron.addSubscription(IPC_CHANNEL, STREAM_ID);
+			 Publication publication = aeron.addPublication(IPC_CHANNEL, STREAM_ID)) {
+			awaitConnected(publication);
+
+			OnPollResponseCommand command = commandFactory.apply(publication);
+			// Draining the subscription on the polling thread keeps the publication from being back pressured
+			OnPollResponseCommand publishingCommand = buffer -> {
+				command.execute(buffer);
+				subscription.poll(fragmentHandler, 1);
+			};
+
+			try (var blockingPoller = UDPPollingService.builder()
+					.serverSocketAddress(localhostAddress)
+					.outBuffer(ByteBuffer.allocate(1))
+					.inBuffer(inBuffer)
+					.onPollResponseCommand(publishingCommand)
+					.blocks(true)
+					.persistentChannel(true)
+					.build()) {
+
+				assertPollsDoNotAllocate(blockingPoller, published);
+			}
+		}
+	}
+
+	private static void assertPollsDoNotAllocate(PollingService pollingService, AtomicInteger responses) throws IOException {
+		for (int i = 0; i < WARM_UP_POLLS; i++) {
+			pollingService.poll();
+		}
+		responses.set(0);
+
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < MEASURED_POLLS; i++) {
+			pollingService.poll();
+		}
+		long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+		// A timed out poll is logged, which allocates, so the measurement is only valid if every poll was answered
+		assertEquals(MEASURED_POLLS, responses.get());
+		assertTrue(allocatedBytes <= ALLOCATION_BUDGET_BYTES,
+				String.format("Allocated %d bytes over %d polls, %.2f bytes per poll", allocatedBytes, MEASURED_POLLS, (double) allocatedBytes / MEASURED_POLLS));
+	}
+
+	private static void awaitConnected(Publication publication) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!publication.isConnected()) {
+			assertTrue(System.nanoTime() < deadline, "Publication did not connect");
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+	}
+}
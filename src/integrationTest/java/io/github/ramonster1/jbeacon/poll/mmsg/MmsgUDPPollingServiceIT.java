@@ -0,0 +1,137 @@
+package io.github.ramonster1.jbeacon.poll.mmsg;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.poll.PollSelector;
+import io.github.ramonster1.jbeacon.poll.PollTarget;
+import io.github.ramonster1.jbeacon.poll.PollingService;
+import io.github.ramonster1.jbeacon.util.UDPTestServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@EnabledOnOs(OS.LINUX)
+class MmsgUDPPollingServiceIT {
+	private static final int TARGET_COUNT = 4;
+	private static final int WAVES = 5;
+
+	private static final List<UDPTestServer> testServers = new ArrayList<>();
+	private static final List<Thread> serverThreads = new ArrayList<>();
+
+	@BeforeAll
+	static void setUp() throws SocketException {
+		for (int i = 0; i < TARGET_COUNT; i++) {
+			UDPTestServer testServer = new UDPTestServer();
+			Thread serverThread = new Thread(testServer::startServer);
+			serverThread.setDaemon(true);
+			serverThread.start();
+
+			testServers.add(testServer);
+			serverThreads.add(serverThread);
+		}
+	}
+
+	@AfterAll
+	static void tearDown() {
+		serverThreads.forEach(Thread::interrupt);
+		testServers.forEach(UDPTestServer::close);
+	}
+
+	@Test
+	void testBatchedTransportReceivesEveryResponseInEachWave() throws Exception {
+		assumeTrue(BatchedUDPPollingServices.isNativeTransportAvailable(), "Native transport is unavailable");
+
+		AtomicIntegerArray responseCounts = new AtomicIntegerArray(TARGET_COUNT);
+		List<PollTarget> targets = targets(responseCounts);
+
+		try (Selector selector = Selector.open();
+			 PollingService pollingService = BatchedUDPPollingServices.create(targets, 5000L, new PollSelector(selector, 100L))) {
+			assertInstanceOf(MmsgUDPPollingService.class, pollingService);
+
+			for (int wave = 0; wave < WAVES; wave++) {
+				pollingService.poll();
+			}
+		}
+
+		for (int i = 0; i < TARGET_COUNT; i++) {
+			assertEquals(WAVES, responseCounts.get(i));
+		}
+	}
+
+	@Test
+	void testBatchedTransportReportsEachRequestAndResponseToTheListener() throws Exception {
+		assumeTrue(BatchedUDPPollingServices.isNativeTransportAvailable(), "Native transport is unavailable");
+
+		List<PollTarget> targets = targets(new AtomicIntegerArray(TARGET_COUNT));
+		Set<InetSocketAddress> addresses = targets.stream().map(PollTarget::serverSocketAddress).collect(Collectors.toSet());
+		AtomicInteger sent = new AtomicInteger();
+		AtomicInteger received = new AtomicInteger();
+		AtomicInteger timedOut = new AtomicInteger();
+		PollEventListener listener = new PollEventListener() {
+			@Override
+			public void onSent(InetSocketAddress target, int length, long sequence) {
+				assertTrue(addresses.contains(target));
+				assertEquals(1, length);
+				sent.incrementAndGet();
+			}
+
+			@Override
+			public void onReceived(InetSocketAddress target, int length, long latencyNanos) {
+				assertTrue(addresses.contains(target));
+				assertTrue(latencyNanos >= 0);
+				received.incrementAndGet();
+			}
+
+			@Override
+			public void onTimeout(InetSocketAddress target, long sequence) {
+				timedOut.incrementAndGet();
+			}
+		};
+
+		try (Selector selector = Selector.open();
+			 PollingService pollingService = BatchedUDPPollingServices.create(targets, 5000L, new PollSelector(selector, 100L), listener)) {
+			assertInstanceOf(MmsgUDPPollingService.class, pollingService);
+
+			for (int wave = 0; wave < WAVES; wave++) {
+				pollingService.poll();
+			}
+		}
+
+		assertEquals(TARGET_COUNT * WAVES, sent.get());
+		assertEquals(TARGET_COUNT * WAVES, received.get());
+		assertEquals(0, timedOut.get());
+	}
+
+	private static List<PollTarget> targets(AtomicIntegerArray responseCounts) {
+		List<PollTarget> targets = new ArrayList<>();
+		for (int i = 0; i < TARGET_COUNT; i++) {
+			final int index = i;
+			final UDPTestServer testServer = testServers.get(i);
+			InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), testServer.getSocket().getLocalPort());
+
+			targets.add(new PollTarget(address, ByteBuffer.allocate(1), ByteBuffer.allocate(100), buffer -> {
+				assertEquals(testServer.getDate(), UDPTestServer.CHARSET.decode(buffer).toString());
+				responseCounts.incrementAndGet(index);
+			}));
+		}
+		return targets;
+	}
+}
@@ -14,15 +14,25 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class UDPTestServer implements AutoCloseable {
 	public static final Charset CHARSET = Charset.defaultCharset();
 	private static final int TIMEOUT = Math.toIntExact(TimeUnit.SECONDS.toMillis(10));
+	private static final int MAX_REQUEST_SIZE = 64;
 	@Getter
 	private final DatagramSocket socket;
 	private final AtomicBoolean running = new AtomicBoolean(true);
+	private final boolean echoesRequests;
 	@Getter
 	private byte[] data;
 	@Getter
 	private String date;
 
 	public UDPTestServer() throws SocketException {
+		this(false);
+	}
+
+	/**
+	 * @param echoesRequests whether each request is sent back as its own response, instead of the current date
+	 */
+	public UDPTestServer(boolean echoesRequests) throws SocketException {
+		this.echoesRequests = echoesRequests;
 		this.socket = new DatagramSocket(0);
 		socket.setSoTimeout(TIMEOUT);
 		updateTestServerResponse();
@@ -30,13 +40,15 @@ public class UDPTestServer implements AutoCloseable {
 
 	public void startServer() {
 		while (!Thread.currentThread().isInterrupted()) {
-			var request = new DatagramPacket(new byte[1], 1);
+			var request = new DatagramPacket(new byte[MAX_REQUEST_SIZE], MAX_REQUEST_SIZE);
 
 			try {
 				// Block thread until datagram is received
 				socket.receive(request);
 
-				DatagramPacket packet = new DatagramPacket(data, data.length, request.getAddress(), request.getPort());
+				DatagramPacket packet = echoesRequests
+						? new DatagramPacket(request.getData(), request.getLength(), request.getAddress(), request.getPort())
+						: new DatagramPacket(data, data.length, request.getAddress(), request.getPort());
 				socket.send(packet);
 			} catch (SocketException e) {
 				if (!running.get()) {
@@ -0,0 +1,94 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.BufferClaim;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link AeronOnPollResponseOfferCommand} with {@link AeronOnPollResponseTryClaimCommand}, publishing a poll
+ * response over IPC to an embedded media driver. The subscription is drained after every response, so that the
+ * publication is never back pressured and every invocation publishes. Responses are published from both heap and direct
+ * buffers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AeronCommandBenchmark {
+	private static final String IPC_CHANNEL = "aeron:ipc";
+	private static final int STREAM_ID = 1001;
+
+	@Param({"offer", "tryClaim"})
+	private String command;
+
+	@Param({"64", "1024"})
+	private int responseLength;
+
+	@Param({"heap", "direct"})
+	private String responseBuffer;
+
+	private MediaDriver mediaDriver;
+	private Aeron aeron;
+	private Publication publication;
+	private Subscription subscription;
+	private OnPollResponseCommand onPollResponseCommand;
+	private ByteBuffer response;
+	private final FragmentHandler fragmentHandler = (buffer, offset, length, header) -> {
+	};
+
+	@Setup
+	public void setUp() throws InterruptedException {
+		mediaDriver = MediaDriver.launchEmbedded(new MediaDriver.Context()
+				.threadingMode(ThreadingMode.SHARED)
+				.dirDeleteOnStart(true)
+				.dirDeleteOnShutdown(true));
+		aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+		subscription = aeron.addSubscription(IPC_CHANNEL, STREAM_ID);
+		publication = aeron.addPublication(IPC_CHANNEL, STREAM_ID);
+		while (!publication.isConnected()) {
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+
+		onPollResponseCommand = "offer".equals(command)
+				? new AeronOnPollResponseOfferCommand(publication, new UnsafeBuffer())
+				: new AeronOnPollResponseTryClaimCommand(publication, new BufferClaim());
+		response = "direct".equals(responseBuffer) ? ByteBuffer.allocateDirect(responseLength) : ByteBuffer.allocate(responseLength);
+	}
+
+	@TearDown
+	public void tearDown() {
+		publication.close();
+		subscription.close();
+		aeron.close();
+		mediaDriver.close();
+	}
+
+	@Benchmark
+	public int publish() {
+		onPollResponseCommand.execute(response);
+		return subscription.poll(fragmentHandler, 1);
+	}
+}
@@ -0,0 +1,107 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.poll.mmsg.BatchedUDPPollingServices;
+import io.github.ramonster1.jbeacon.poll.mmsg.MmsgUDPPollingService;
+import io.github.ramonster1.jbeacon.util.LoopbackEchoFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the batched sendmmsg/recvmmsg transport of {@link MmsgUDPPollingService} with the NIO transport of
+ * {@link MultiTargetUDPPollingService}, polling a wave across a number of targets over loopback. Every target is a
+ * separate server of a {@link LoopbackEchoFleet}, since the batched transport matches responses to targets by source
+ * address, so the score is the cost of a wave of round trips through each transport.
+ * <p>
+ * The batched transport is only available on Linux, and the mmsg mode fails its setup on other platforms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchedTransportBenchmark {
+	private static final int RESPONSE_LENGTH = 64;
+
+	@Param({"16", "256", "1024"})
+	private int targetCount;
+
+	@Param({"nio", "mmsg"})
+	private String transport;
+
+	private final LongAdder responses = new LongAdder();
+	private LoopbackEchoFleet fleet;
+	private PollSelector pollSelector;
+	private PollingService pollingService;
+
+	@Setup
+	public void setUp() throws IOException {
+		if ("mmsg".equals(transport) && !BatchedUDPPollingServices.isNativeTransportAvailable()) {
+			throw new UnsupportedOperationException("The batched sendmmsg/recvmmsg transport is not available on this platform");
+		}
+
+		fleet = new LoopbackEchoFleet(targetCount, RESPONSE_LENGTH);
+
+		if ("mmsg".equals(transport)) {
+			var builder = MmsgUDPPollingService.builder()
+					.waveTimeout(5000L)
+					// Large enough for the responses of a whole wave
+					.receiveBufferSize(targetCount * 2048);
+			for (InetSocketAddress address : fleet.addresses()) {
+				builder.target(target(address));
+			}
+			pollingService = builder.build();
+		} else {
+			pollSelector = new PollSelector(Selector.open(), 1000L);
+			var builder = MultiTargetUDPPollingService.builder()
+					.pollSelector(pollSelector)
+					.waveTimeout(5000L);
+			for (InetSocketAddress address : fleet.addresses()) {
+				builder.target(target(address));
+			}
+			pollingService = builder.build();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		pollingService.close();
+		if (pollSelector != null) {
+			pollSelector.close();
+		}
+		fleet.close();
+	}
+
+	@Benchmark
+	public long pollWave() throws IOException {
+		long responsesBefore = responses.sum();
+		pollingService.poll();
+
+		long answered = responses.sum() - responsesBefore;
+		if (answered < targetCount) {
+			throw new IllegalStateException("Datagrams were lost on loopback, " + answered + " of " + targetCount + " answered");
+		}
+		return answered;
+	}
+
+	private PollTarget target(InetSocketAddress address) {
+		return new PollTarget(address, ByteBuffer.allocate(1), ByteBuffer.allocate(RESPONSE_LENGTH), buffer -> responses.increment());
+	}
+}
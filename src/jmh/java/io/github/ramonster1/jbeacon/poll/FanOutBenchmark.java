@@ -0,0 +1,101 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.util.LoopbackEchoServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures a poll wave across a number of targets, fanned out either through a {@link MultiTargetUDPPollingService}
+ * and a single {@link PollSelector}, or through a {@link VirtualThreadPollingService} of blocking
+ * {@link UDPPollingService}s, one virtual thread per target. Every target is answered by the same
+ * {@link LoopbackEchoServer}, so the score is the cost of a wave of round trips, and shows at what target count one
+ * mode overtakes the other.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutBenchmark {
+	private static final int RESPONSE_LENGTH = 64;
+
+	@Param({"16", "256", "1024"})
+	private int targetCount;
+
+	@Param({"selector", "virtualThreads"})
+	private String mode;
+
+	private final LongAdder responses = new LongAdder();
+	private LoopbackEchoServer server;
+	private PollSelector pollSelector;
+	private PollingService pollingService;
+
+	@Setup
+	public void setUp() throws IOException {
+		server = new LoopbackEchoServer(RESPONSE_LENGTH);
+		InetSocketAddress address = server.address();
+
+		if ("selector".equals(mode)) {
+			pollSelector = new PollSelector(Selector.open(), 1000L);
+			var builder = MultiTargetUDPPollingService.builder()
+					.pollSelector(pollSelector)
+					.waveTimeout(5000L);
+			for (int i = 0; i < targetCount; i++) {
+				builder.target(new PollTarget(address, ByteBuffer.allocate(1), ByteBuffer.allocate(RESPONSE_LENGTH), buffer -> responses.increment()));
+			}
+			pollingService = builder.build();
+		} else {
+			var builder = VirtualThreadPollingService.builder();
+			for (int i = 0; i < targetCount; i++) {
+				builder.pollingService(UDPPollingService.builder()
+						.serverSocketAddress(address)
+						.outBuffer(ByteBuffer.allocate(1))
+						.inBuffer(ByteBuffer.allocate(RESPONSE_LENGTH))
+						.onPollResponseCommand(buffer -> responses.increment())
+						.persistentChannel(true)
+						.pollTimeout(5000L)
+						.build());
+			}
+			pollingService = builder.build();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		pollingService.close();
+		if (pollSelector != null) {
+			pollSelector.close();
+		}
+		server.close();
+	}
+
+	@Benchmark
+	public long pollWave() throws IOException {
+		long responsesBefore = responses.sum();
+		pollingService.poll();
+
+		long answered = responses.sum() - responsesBefore;
+		if (answered < targetCount) {
+			throw new IllegalStateException("Datagrams were lost on loopback, " + answered + " of " + targetCount + " answered");
+		}
+		return answered;
+	}
+}
@@ -0,0 +1,92 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PollSelector#process()} with a number of registered channels. Each invocation sends one datagram to
+ * every channel, then processes the selector until every datagram has been received, so the score is the cost of a
+ * poll wave across all channels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PollSelectorBenchmark {
+	private static final int DATAGRAM_LENGTH = 64;
+
+	@Param({"1", "16", "256"})
+	private int channelCount;
+
+	private final List<DatagramChannel> channels = new ArrayList<>();
+	private final List<InetSocketAddress> channelAddresses = new ArrayList<>();
+	private final ByteBuffer datagram = ByteBuffer.allocateDirect(DATAGRAM_LENGTH);
+	private DatagramChannel sender;
+	private PollSelector pollSelector;
+	private int received;
+
+	@Setup
+	public void setUp() throws IOException {
+		pollSelector = new PollSelector(Selector.open(), 1000L);
+		sender = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+		for (int i = 0; i < channelCount; i++) {
+			DatagramChannel channel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			channel.configureBlocking(false);
+			channel.register(pollSelector.selector(), SelectionKey.OP_READ,
+					new ProcessPollAttachment(buffer -> received++, ByteBuffer.allocate(DATAGRAM_LENGTH), false));
+			channels.add(channel);
+			channelAddresses.add((InetSocketAddress) channel.getLocalAddress());
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		for (DatagramChannel channel : channels) {
+			channel.close();
+		}
+		sender.close();
+		pollSelector.close();
+	}
+
+	@Benchmark
+	public int processWave() throws IOException {
+		received = 0;
+		for (int i = 0; i < channelCount; i++) {
+			datagram.rewind();
+			sender.send(datagram, channelAddresses.get(i));
+		}
+
+		while (received < channelCount) {
+			int receivedBefore = received;
+			pollSelector.process();
+			if (received == receivedBefore) {
+				throw new IllegalStateException("Datagrams were lost on loopback, " + received + " of " + channelCount + " received");
+			}
+		}
+		return received;
+	}
+}
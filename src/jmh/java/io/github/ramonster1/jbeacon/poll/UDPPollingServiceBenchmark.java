@@ -0,0 +1,76 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.util.LoopbackEchoServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single poll of {@link UDPPollingService} over loopback, in blocking and non-blocking mode, receiving into
+ * a heap or a direct inBuffer. Every poll sends a request and waits for the response of a {@link LoopbackEchoServer},
+ * so the score is a full round trip through the polling service.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UDPPollingServiceBenchmark {
+	private static final int RESPONSE_LENGTH = 64;
+
+	@Param({"true", "false"})
+	private boolean blocks;
+
+	@Param({"heap", "direct"})
+	private String inBufferType;
+
+	private LoopbackEchoServer server;
+	private PollSelector pollSelector;
+	private UDPPollingService pollingService;
+	private long responses;
+
+	@Setup
+	public void setUp() throws IOException {
+		server = new LoopbackEchoServer(RESPONSE_LENGTH);
+		pollSelector = blocks ? null : new PollSelector(Selector.open(), 1000L);
+		pollingService = UDPPollingService.builder()
+				.serverSocketAddress(server.address())
+				.outBuffer(ByteBuffer.allocate(1))
+				.inBuffer("direct".equals(inBufferType) ? ByteBuffer.allocateDirect(RESPONSE_LENGTH) : ByteBuffer.allocate(RESPONSE_LENGTH))
+				.onPollResponseCommand(buffer -> responses += buffer.remaining())
+				.blocks(blocks)
+				.pollSelector(pollSelector)
+				.persistentChannel(true)
+				.build();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		pollingService.close();
+		if (pollSelector != null) {
+			pollSelector.close();
+		}
+		server.close();
+	}
+
+	@Benchmark
+	public long poll() throws IOException {
+		pollingService.poll();
+		return responses;
+	}
+}
@@ -0,0 +1,105 @@
+package io.github.ramonster1.jbeacon.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fleet of UDP servers on the loopback interface, each bound to its own port, that answer every request with a
+ * fixed-length response from a single daemon thread.
+ * <p>
+ * Unlike a {@link LoopbackEchoServer}, every target of a wave gets a distinct address, which transports that match
+ * responses to targets by source address, such as the batched sendmmsg/recvmmsg transport, require. Like the
+ * LoopbackEchoServer, the fleet does not allocate per request.
+ */
+public class LoopbackEchoFleet implements AutoCloseable {
+	private static final int MAX_REQUEST_SIZE = 64;
+
+	private final Selector selector;
+	private final List<DatagramChannel> channels = new ArrayList<>();
+	private final List<InetSocketAddress> addresses = new ArrayList<>();
+	private final ByteBuffer request = ByteBuffer.allocateDirect(MAX_REQUEST_SIZE);
+	private final ByteBuffer response;
+	private final Thread serverThread;
+
+	/**
+	 * Binds the given number of servers to ephemeral loopback ports and starts answering requests.
+	 *
+	 * @param serverCount    the number of servers, each with its own port
+	 * @param responseLength the length in bytes of every response
+	 * @throws IOException if a server channel cannot be opened or bound
+	 */
+	public LoopbackEchoFleet(int serverCount, int responseLength) throws IOException {
+		this.selector = Selector.open();
+		this.response = ByteBuffer.allocateDirect(responseLength);
+
+		try {
+			for (int i = 0; i < serverCount; i++) {
+				DatagramChannel channel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+				channels.add(channel);
+				channel.configureBlocking(false);
+				channel.register(selector, SelectionKey.OP_READ);
+				addresses.add((InetSocketAddress) channel.getLocalAddress());
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+
+		this.serverThread = new Thread(this::serve, "loopback-echo-fleet");
+		serverThread.setDaemon(true);
+		serverThread.start();
+	}
+
+	/**
+	 * Returns the addresses requests should be sent to, one per server.
+	 *
+	 * @return the loopback addresses and ports of the servers
+	 */
+	public List<InetSocketAddress> addresses() {
+		return addresses;
+	}
+
+	private void serve() {
+		try {
+			while (selector.isOpen()) {
+				selector.select(this::answer);
+			}
+		} catch (ClosedSelectorException e) {
+			// Expected when the fleet is closed
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void answer(SelectionKey key) {
+		DatagramChannel channel = (DatagramChannel) key.channel();
+		try {
+			SocketAddress source;
+			while ((source = channel.receive(request.clear())) != null) {
+				channel.send(response.rewind(), source);
+			}
+		} catch (IOException e) {
+			if (channel.isOpen()) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		selector.close();
+		for (DatagramChannel channel : channels) {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package io.github.ramonster1.jbeacon.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * A UDP server on the loopback interface that answers every request with a fixed-length response, on a daemon thread.
+ * <p>
+ * Unlike the UDPTestServer of the integration tests, the server does not allocate per request, so that the
+ * allocation profile of a benchmark only shows the allocations of the code being measured.
+ */
+public class LoopbackEchoServer implements AutoCloseable {
+	private static final int MAX_REQUEST_SIZE = 64;
+
+	private final DatagramChannel channel;
+	private final ByteBuffer request = ByteBuffer.allocateDirect(MAX_REQUEST_SIZE);
+	private final ByteBuffer response;
+	private final Thread serverThread;
+
+	/**
+	 * Binds the server to an ephemeral loopback port and starts answering requests.
+	 *
+	 * @param responseLength the length in bytes of every response
+	 * @throws IOException if the server channel cannot be opened or bound
+	 */
+	public LoopbackEchoServer(int responseLength) throws IOException {
+		this.channel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		this.response = ByteBuffer.allocateDirect(responseLength);
+		this.serverThread = new Thread(this::serve, "loopback-echo-server");
+		serverThread.setDaemon(true);
+		serverThread.start();
+	}
+
+	/**
+	 * Returns the address requests should be sent to.
+	 *
+	 * @return the loopback address and port of the server
+	 * @throws IOException if the server has been closed
+	 */
+	public InetSocketAddress address() throws IOException {
+		return (InetSocketAddress) channel.getLocalAddress();
+	}
+
+	private void serve() {
+		try {
+			while (channel.isOpen()) {
+				request.clear();
+				SocketAddress source = channel.receive(request);
+				response.rewind();
+				channel.send(response, source);
+			}
+		} catch (ClosedChannelException e) {
+			// Expected when the server is closed
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
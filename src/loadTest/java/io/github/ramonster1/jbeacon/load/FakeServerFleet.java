@@ -0,0 +1,218 @@
+package io.github.ramonster1.jbeacon.load;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fleet of simulated UDP servers on the loopback interface, for load testing pollers against many endpoints.
+ * <p>
+ * Every server is a non-blocking channel bound to its own ephemeral port, and the whole fleet is served by a single
+ * selector thread, so that thousands of servers cost one thread. A server answers a request by echoing it back, padded
+ * to the response length, so that correlated polls still match their responses. According to the {@link FleetProfile},
+ * each response is delayed by a latency drawn from a distribution, and a request may be dropped, or its response
+ * duplicated or oversized. A fraction of the servers are slow responders with their own latency distribution.
+ * <p>
+ * Delayed responses are held in a queue ordered by due time. The selector waits until the next response is due, and
+ * spins when it is due within a millisecond, so that sub-millisecond latencies are injected precisely at the cost of a
+ * busy core.
+ */
+public class FakeServerFleet implements AutoCloseable {
+	private static final int MAX_REQUEST_SIZE = 1024;
+
+	private final FleetProfile profile;
+	private final SplittableRandom random;
+	private final Selector selector;
+	private final List<DatagramChannel> channels = new ArrayList<>();
+	private final List<InetSocketAddress> addresses = new ArrayList<>();
+	private final PriorityQueue<PendingResponse> pendingResponses = new PriorityQueue<>();
+	private final ByteBuffer requestBuffer = ByteBuffer.allocateDirect(MAX_REQUEST_SIZE);
+	private final ByteBuffer responseBuffer;
+	private final Thread serverThread;
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder responses = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder duplicated = new LongAdder();
+	private final LongAdder oversized = new LongAdder();
+
+	/**
+	 * Binds the servers of the fleet and starts serving requests.
+	 *
+	 * @param servers the number of servers, each bound to its own port
+	 * @param profile the behaviour of the servers
+	 * @param seed    the seed of the random number generator, so that runs can be repeated
+	 * @throws IOException if a server channel cannot be opened or bound
+	 */
+	public FakeServerFleet(int servers, FleetProfile profile, long seed) throws IOException {
+		this.profile = profile;
+		this.random = new SplittableRandom(seed);
+		this.selector = Selector.open();
+		this.responseBuffer = ByteBuffer.allocateDirect(profile.oversizedLength());
+
+		try {
+			for (int i = 0; i < servers; i++) {
+				DatagramChannel channel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+				channel.configureBlocking(false);
+				boolean slow = random.nextDouble() < profile.slowFraction();
+				channel.register(selector, SelectionKey.OP_READ, slow ? profile.slowLatency() : profile.latency());
+				channels.add(channel);
+				addresses.add((InetSocketAddress) channel.getLocalAddress());
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+
+		this.serverThread = new Thread(this::serve, "fake-server-fleet");
+		serverThread.setDaemon(true);
+		serverThread.start();
+	}
+
+	/**
+	 * Returns the addresses of the servers, in the order they were bound.
+	 *
+	 * @return the loopback addresses of the servers
+	 */
+	public List<InetSocketAddress> addresses() {
+		return Collections.unmodifiableList(addresses);
+	}
+
+	private void serve() {
+		try {
+			while (selector.isOpen()) {
+				long dueInNanos = sendDueResponses();
+				if (dueInNanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+					if (selector.selectNow(this::receive) == 0) {
+						Thread.onSpinWait();
+					}
+				} else {
+					selector.select(this::receive, TimeUnit.NANOSECONDS.toMillis(dueInNanos));
+				}
+			}
+		} catch (ClosedSelectorException e) {
+			// Expected when the fleet is closed
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void receive(SelectionKey key) {
+		DatagramChannel channel = (DatagramChannel) key.channel();
+		LatencyDistribution latency = (LatencyDistribution) key.attachment();
+
+		try {
+			SocketAddress source;
+			requestBuffer.clear();
+			while ((source = channel.receive(requestBuffer)) != null) {
+				requestBuffer.flip();
+				onRequest(channel, latency, source);
+				requestBuffer.clear();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void onRequest(DatagramChannel channel, LatencyDistribution latency, SocketAddress source) {
+		requests.increment();
+		if (random.nextDouble() < profile.dropRate()) {
+			dropped.increment();
+			return;
+		}
+
+		boolean isOversized = random.nextDouble() < profile.oversizedRate();
+		boolean isDuplicated = random.nextDouble() < profile.duplicateRate();
+		if (isOversized) {
+			oversized.increment();
+		}
+		if (isDuplicated) {
+			duplicated.increment();
+		}
+
+		byte[] request = new byte[requestBuffer.remaining()];
+		requestBuffer.get(request);
+		pendingResponses.add(new PendingResponse(System.nanoTime() + latency.sampleNanos(random), channel, source, request,
+				isOversized ? profile.oversizedLength() : profile.responseLength(), isDuplicated ? 2 : 1));
+	}
+
+	private long sendDueResponses() throws IOException {
+		long now = System.nanoTime();
+		PendingResponse pendingResponse;
+		while ((pendingResponse = pendingResponses.peek()) != null && pendingResponse.dueNanos() - now <= 0) {
+			pendingResponses.poll();
+			for (int i = 0; i < pendingResponse.copies(); i++) {
+				send(pendingResponse);
+			}
+		}
+
+		return pendingResponse == null ? Long.MAX_VALUE : pendingResponse.dueNanos() - now;
+	}
+
+	private void send(PendingResponse pendingResponse) throws IOException {
+		int length = Math.max(pendingResponse.length(), pendingResponse.request().length);
+		responseBuffer.clear().limit(length);
+		responseBuffer.put(pendingResponse.request());
+		while (responseBuffer.hasRemaining()) {
+			responseBuffer.put((byte) 0);
+		}
+		responseBuffer.flip();
+
+		pendingResponse.channel().send(responseBuffer, pendingResponse.destination());
+		responses.increment();
+	}
+
+	/**
+	 * Returns the statistics of the fleet since it was started.
+	 *
+	 * @return the fleet statistics
+	 */
+	public FleetStats stats() {
+		return new FleetStats(requests.sum(), responses.sum(), dropped.sum(), duplicated.sum(), oversized.sum());
+	}
+
+	/**
+	 * Stops serving requests and closes every server channel. Pending responses are never sent.
+	 */
+	@Override
+	public void close() throws IOException {
+		selector.close();
+		for (DatagramChannel channel : channels) {
+			channel.close();
+		}
+	}
+
+	private record PendingResponse(long dueNanos, DatagramChannel channel, SocketAddress destination, byte[] request,
+								   int length, int copies) implements Comparable<PendingResponse> {
+		@Override
+		public int compareTo(PendingResponse other) {
+			return Long.compare(dueNanos - other.dueNanos, 0);
+		}
+	}
+
+	/**
+	 * The statistics of a {@link FakeServerFleet}.
+	 *
+	 * @param requests   the number of requests received
+	 * @param responses  the number of responses sent, including duplicates
+	 * @param dropped    the number of requests dropped without a response
+	 * @param duplicated the number of responses sent twice
+	 * @param oversized  the number of oversized responses
+	 */
+	public record FleetStats(long requests, long responses, long dropped, long duplicated, long oversized) {
+	}
+}
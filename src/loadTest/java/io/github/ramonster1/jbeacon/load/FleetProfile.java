@@ -0,0 +1,34 @@
+package io.github.ramonster1.jbeacon.load;
+
+/**
+ * The behaviour of the servers of a {@link FakeServerFleet}.
+ *
+ * @param latency        the latency distribution of a normal server
+ * @param slowFraction   the fraction of servers, between 0 and 1, that are slow responders
+ * @param slowLatency    the latency distribution of a slow responder
+ * @param dropRate       the probability, between 0 and 1, that a request is never answered
+ * @param duplicateRate  the probability, between 0 and 1, that a response is sent twice
+ * @param oversizedRate  the probability, between 0 and 1, that a response is oversized
+ * @param responseLength the length in bytes of a normal response
+ * @param oversizedLength the length in bytes of an oversized response, which should exceed the response buffer of the poller
+ */
+public record FleetProfile(LatencyDistribution latency, double slowFraction, LatencyDistribution slowLatency,
+						   double dropRate, double duplicateRate, double oversizedRate, int responseLength,
+						   int oversizedLength) {
+
+	public FleetProfile {
+		requireProbability("slowFraction", slowFraction);
+		requireProbability("dropRate", dropRate);
+		requireProbability("duplicateRate", duplicateRate);
+		requireProbability("oversizedRate", oversizedRate);
+		if (responseLength < 1 || oversizedLength < responseLength) {
+			throw new IllegalArgumentException("Invalid response lengths: " + responseLength + ", " + oversizedLength);
+		}
+	}
+
+	private static void requireProbability(String name, double value) {
+		if (value < 0 || value > 1) {
+			throw new IllegalArgumentException(name + " must be between 0 and 1: " + value);
+		}
+	}
+}
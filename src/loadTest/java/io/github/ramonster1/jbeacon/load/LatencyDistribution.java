@@ -0,0 +1,119 @@
+package io.github.ramonster1.jbeacon.load;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A distribution of response latencies injected by a {@link FakeServerFleet}.
+ * <p>
+ * Distributions are written as {@code <type>:<parameters>}, with durations suffixed by ns, us, ms or s:
+ * - {@code fixed:200us} answers every request after the same delay.
+ * - {@code uniform:100us-2ms} draws delays uniformly between a minimum and a maximum.
+ * - {@code exponential:500us} draws delays from an exponential distribution with the given mean, which has the long
+ * tail of a real network.
+ */
+public sealed interface LatencyDistribution {
+
+	/**
+	 * Answers every request immediately.
+	 */
+	LatencyDistribution NONE = new Fixed(0);
+
+	/**
+	 * Draws the delay of a single response.
+	 *
+	 * @param random the random number generator of the fleet
+	 * @return the delay in nanoseconds
+	 */
+	long sampleNanos(SplittableRandom random);
+
+	/**
+	 * Parses a distribution written as {@code <type>:<parameters>}.
+	 *
+	 * @param spec the distribution, such as {@code exponential:500us}
+	 * @return the parsed distribution
+	 * @throws IllegalArgumentException if the distribution cannot be parsed
+	 */
+	static LatencyDistribution parse(String spec) {
+		int separator = spec.indexOf(':');
+		if (separator < 0) {
+			throw new IllegalArgumentException("Latency distribution must be written as <type>:<parameters>: " + spec);
+		}
+
+		String parameters = spec.substring(separator + 1);
+		return switch (spec.substring(0, separator)) {
+			case "fixed" -> new Fixed(parseNanos(parameters));
+			case "uniform" -> {
+				String[] bounds = parameters.split("-", 2);
+				if (bounds.length != 2) {
+					throw new IllegalArgumentException("Uniform latency must be written as uniform:<min>-<max>: " + spec);
+				}
+				yield new Uniform(parseNanos(bounds[0]), parseNanos(bounds[1]));
+			}
+			case "exponential" -> new Exponential(parseNanos(parameters));
+			default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+		};
+	}
+
+	/**
+	 * Parses a duration suffixed by ns, us, ms or s.
+	 *
+	 * @param duration the duration, such as {@code 200us}
+	 * @return the duration in nanoseconds
+	 * @throws IllegalArgumentException if the duration cannot be parsed
+	 */
+	static long parseNanos(String duration) {
+		String value = duration.strip();
+		try {
+			if (value.endsWith("ns")) {
+				return Long.parseLong(value.substring(0, value.length() - 2));
+			} else if (value.endsWith("us")) {
+				return TimeUnit.MICROSECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 2)));
+			} else if (value.endsWith("ms")) {
+				return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 2)));
+			} else if (value.endsWith("s")) {
+				return TimeUnit.SECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 1)));
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid duration: " + duration, e);
+		}
+		throw new IllegalArgumentException("Duration must end with ns, us, ms or s: " + duration);
+	}
+
+	/**
+	 * @param delayNanos the delay of every response
+	 */
+	record Fixed(long delayNanos) implements LatencyDistribution {
+		@Override
+		public long sampleNanos(SplittableRandom random) {
+			return delayNanos;
+		}
+	}
+
+	/**
+	 * @param minNanos the shortest delay
+	 * @param maxNanos the longest delay
+	 */
+	record Uniform(long minNanos, long maxNanos) implements LatencyDistribution {
+		public Uniform {
+			if (maxNanos < minNanos) {
+				throw new IllegalArgumentException("Maximum latency is below the minimum: " + maxNanos + " < " + minNanos);
+			}
+		}
+
+		@Override
+		public long sampleNanos(SplittableRandom random) {
+			return minNanos == maxNanos ? minNanos : random.nextLong(minNanos, maxNanos + 1);
+		}
+	}
+
+	/**
+	 * @param meanNanos the mean delay
+	 */
+	record Exponential(long meanNanos) implements LatencyDistribution {
+		@Override
+		public long sampleNanos(SplittableRandom random) {
+			return (long) (-Math.log(1.0 - random.nextDouble()) * meanNanos);
+		}
+	}
+}
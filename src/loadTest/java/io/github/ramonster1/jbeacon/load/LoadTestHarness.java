@@ -0,0 +1,201 @@
+package io.github.ramonster1.jbeacon.load;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.poll.MultiTargetUDPPollingService;
+import io.github.ramonster1.jbeacon.poll.PollSelector;
+import io.github.ramonster1.jbeacon.poll.PollTarget;
+import io.github.ramonster1.jbeacon.poll.scheduling.PollSchedulingService;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a {@link MultiTargetUDPPollingService} against a {@link FakeServerFleet} at increasing target counts, and
+ * reports the throughput, timeouts and latency of each step, so that the point at which the poller stops keeping up
+ * with its schedule, the knee of the curve, is known before production finds it.
+ * <p>
+ * Each step polls its targets in waves scheduled at a fixed period by a {@link PollSchedulingService}. The offered load
+ * of a step is therefore its target count divided by the period. The round trip latency is measured from the request
+ * being sent, and the corrected latency from the intended start of its wave, which includes the delay of waves that
+ * started late because an earlier one overran the period.
+ * <p>
+ * The harness is configured with {@code key=value} arguments:
+ * <pre>
+ * ./gradlew loadTest -PloadTestArgs="targets=16,256,1024 period=10ms latency=exponential:500us drop=0.01"
+ * </pre>
+ * <table>
+ *     <caption>Arguments</caption>
+ *     <tr><td>targets</td><td>the target counts of the steps. Defaults to 16,64,256,1024</td></tr>
+ *     <tr><td>duration</td><td>the duration of each step. Defaults to 10s</td></tr>
+ *     <tr><td>period</td><td>the period between waves. Defaults to 10ms</td></tr>
+ *     <tr><td>waveTimeout</td><td>the time to wait for the responses of a wave. Defaults to the period</td></tr>
+ *     <tr><td>latency</td><td>the latency distribution of the servers. Defaults to exponential:200us</td></tr>
+ *     <tr><td>slow</td><td>the fraction of servers that are slow responders. Defaults to 0</td></tr>
+ *     <tr><td>slowLatency</td><td>the latency distribution of slow responders. Defaults to uniform:5ms-20ms</td></tr>
+ *     <tr><td>drop</td><td>the probability that a request is dropped. Defaults to 0</td></tr>
+ *     <tr><td>duplicate</td><td>the probability that a response is duplicated. Defaults to 0</td></tr>
+ *     <tr><td>oversized</td><td>the probability that a response is oversized. Defaults to 0</td></tr>
+ *     <tr><td>responseLength</td><td>the length of a response in bytes. Defaults to 64</td></tr>
+ *     <tr><td>seed</td><td>the seed of the fleet, so that runs can be repeated. Defaults to 42</td></tr>
+ * </table>
+ */
+public final class LoadTestHarness {
+	// A step has reached the knee once it answers less than this fraction of its offered load
+	private static final double KNEE_THRESHOLD = 0.95;
+	private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private LoadTestHarness() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> arguments = parseArguments(args);
+		int[] targetCounts = Arrays.stream(arguments.getOrDefault("targets", "16,64,256,1024").split(","))
+				.mapToInt(count -> Integer.parseInt(count.strip()))
+				.toArray();
+		long durationNanos = LatencyDistribution.parseNanos(arguments.getOrDefault("duration", "10s"));
+		long periodNanos = LatencyDistribution.parseNanos(arguments.getOrDefault("period", "10ms"));
+		long waveTimeoutNanos = LatencyDistribution.parseNanos(arguments.getOrDefault("waveTimeout", arguments.getOrDefault("period", "10ms")));
+		int responseLength = Integer.parseInt(arguments.getOrDefault("responseLength", "64"));
+		FleetProfile profile = new FleetProfile(
+				LatencyDistribution.parse(arguments.getOrDefault("latency", "exponential:200us")),
+				Double.parseDouble(arguments.getOrDefault("slow", "0")),
+				LatencyDistribution.parse(arguments.getOrDefault("slowLatency", "uniform:5ms-20ms")),
+				Double.parseDouble(arguments.getOrDefault("drop", "0")),
+				Double.parseDouble(arguments.getOrDefault("duplicate", "0")),
+				Double.parseDouble(arguments.getOrDefault("oversized", "0")),
+				responseLength,
+				// Larger than the response buffer of every target, so oversized responses are truncated on receipt
+				responseLength * 4);
+
+		System.out.printf("%8s %12s %12s %10s %9s %10s %10s %10s %10s %12s %12s%n", "targets", "offered/s", "answered/s",
+				"timeouts", "overruns", "p50 us", "p99 us", "p99.9 us", "max us", "corr p99 us", "corr max us");
+
+		Integer knee = null;
+		try (FakeServerFleet fleet = new FakeServerFleet(Arrays.stream(targetCounts).max().orElse(0), profile,
+				Long.parseLong(arguments.getOrDefault("seed", "42")))) {
+			for (int targetCount : targetCounts) {
+				StepResult result = runStep(fleet.addresses().subList(0, targetCount), responseLength, durationNanos, periodNanos, waveTimeoutNanos);
+				System.out.println(result.format());
+				if (knee == null && result.answeredPerSecond() < result.offeredPerSecond() * KNEE_THRESHOLD) {
+					knee = targetCount;
+				}
+			}
+
+			FakeServerFleet.FleetStats fleetStats = fleet.stats();
+			System.out.printf("%nFleet: %d requests, %d responses, %d dropped, %d duplicated, %d oversized%n", fleetStats.requests(),
+					fleetStats.responses(), fleetStats.dropped(), fleetStats.duplicated(), fleetStats.oversized());
+		}
+
+		System.out.println(knee == null
+				? "No knee: every step answered at least " + (int) (KNEE_THRESHOLD * 100) + "% of its offered load"
+				: "Knee: fewer than " + (int) (KNEE_THRESHOLD * 100) + "% of the offered load was answered from " + knee + " targets");
+	}
+
+	private static StepResult runStep(List<InetSocketAddress> addresses, int responseLength, long durationNanos, long periodNanos,
+									  long waveTimeoutNanos) throws IOException, InterruptedException {
+		StepRecorder recorder = new StepRecorder();
+		List<PollTarget> targets = new ArrayList<>();
+		for (InetSocketAddress address : addresses) {
+			targets.add(new PollTarget(address, ByteBuffer.allocate(8), ByteBuffer.allocate(responseLength), buffer -> {
+			}));
+		}
+
+		try (PollSelector pollSelector = new PollSelector(Selector.open(), 1L);
+			 MultiTargetUDPPollingService pollingService = MultiTargetUDPPollingService.builder()
+					 .targets(targets)
+					 .pollSelector(pollSelector)
+					 .waveTimeout(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waveTimeoutNanos)))
+					 .pollEventListener(recorder)
+					 .build();
+			 PollSchedulingService pollSchedulingService = PollSchedulingService.builder()
+					 .pollingService(pollingService)
+					 .period(periodNanos)
+					 .timeUnit(TimeUnit.NANOSECONDS)
+					 .pollEventListener(recorder)
+					 .build()) {
+
+			pollSchedulingService.executePeriodically();
+			TimeUnit.NANOSECONDS.sleep(durationNanos);
+
+			// The recorder is only read once the last wave has completed
+			pollSchedulingService.close();
+			pollSchedulingService.getExecutor().awaitTermination(1, TimeUnit.MINUTES);
+		}
+
+		double seconds = durationNanos / 1e9;
+		return new StepResult(addresses.size(), addresses.size() * 1e9 / periodNanos, recorder.received.sum() / seconds,
+				recorder.timeouts.sum(), recorder.overruns.sum(), recorder.roundTrip, recorder.correctedRoundTrip);
+	}
+
+	private static Map<String, String> parseArguments(String[] args) {
+		Map<String, String> arguments = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (separator < 1) {
+				throw new IllegalArgumentException("Arguments must be written as key=value: " + arg);
+			}
+			arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		return arguments;
+	}
+
+	/**
+	 * Records the events of a step. Waves are polled inline by a PollSelector on the scheduling thread, so every event
+	 * of a wave is recorded on that thread, after the intended start of the wave.
+	 */
+	private static final class StepRecorder implements PollEventListener {
+		private final LongAdder received = new LongAdder();
+		private final LongAdder timeouts = new LongAdder();
+		private final LongAdder overruns = new LongAdder();
+		private final Histogram roundTrip = new Histogram(HIGHEST_TRACKABLE_NANOS, 2);
+		private final Histogram correctedRoundTrip = new Histogram(HIGHEST_TRACKABLE_NANOS, 2);
+		private long intendedStartNanos;
+
+		@Override
+		public void onScheduled(long intendedStartNanos) {
+			this.intendedStartNanos = intendedStartNanos;
+		}
+
+		@Override
+		public void onReceived(InetSocketAddress target, int length, long latencyNanos) {
+			received.increment();
+			roundTrip.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+			correctedRoundTrip.recordValue(Math.min(System.nanoTime() - intendedStartNanos, HIGHEST_TRACKABLE_NANOS));
+		}
+
+		@Override
+		public void onTimeout(InetSocketAddress target, long sequence) {
+			timeouts.increment();
+		}
+
+		@Override
+		public void onScheduleOverrun(long overrunNanos) {
+			overruns.increment();
+		}
+	}
+
+	private record StepResult(int targets, double offeredPerSecond, double answeredPerSecond, long timeouts, long overruns,
+							  Histogram roundTrip, Histogram correctedRoundTrip) {
+
+		String format() {
+			return String.format("%8d %12.0f %12.0f %10d %9d %10.1f %10.1f %10.1f %10.1f %12.1f %12.1f", targets, offeredPerSecond,
+					answeredPerSecond, timeouts, overruns, micros(roundTrip.getValueAtPercentile(50)), micros(roundTrip.getValueAtPercentile(99)),
+					micros(roundTrip.getValueAtPercentile(99.9)), micros(roundTrip.getMaxValue()),
+					micros(correctedRoundTrip.getValueAtPercentile(99)), micros(correctedRoundTrip.getMaxValue()));
+		}
+
+		private static double micros(long nanos) {
+			return nanos / 1e3;
+		}
+	}
+}
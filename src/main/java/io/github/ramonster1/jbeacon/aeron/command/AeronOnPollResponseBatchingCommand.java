@@ -0,0 +1,176 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.poll.PollEventLoop;
+import io.aeron.Publication;
+import lombok.Builder;
+import org.agrona.ExpandableArrayBuffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An implementation of the {@link OnPollResponseCommand} interface that batches responses into a single Aeron
+ * {@link Publication#offer} of length-prefixed responses.
+ * <p>
+ * A fan-out poll receives many small responses in the same cycle of a {@link PollEventLoop}, and publishing each of
+ * them costs a frame header and an update of the publication position. This command appends each response, prefixed
+ * with its length as a little-endian int, to a batch, and publishes the whole batch as one message. A
+ * {@link BatchDecoder} on the subscriber side splits the batch into its responses again.
+ * <p>
+ * A batch is published:
+ * - At the end of every cycle of the event loop, if one is given, so responses received in one cycle are published
+ * together. If a maximum batch delay is also given, batches span cycles until the delay has passed.
+ * - When the next response would not fit in the maximum batch length, before it is appended.
+ * - When the oldest response in the batch is older than the maximum batch delay, which is checked on every response
+ * and at the end of every cycle.
+ * - When {@link #flush()} is called, such as after each poll of a polling service that does not use an event loop.
+ * <p>
+ * Key Features:
+ * - Handles the results of {@link Publication#offer} like {@link AeronOnPollResponseOfferCommand}, including
+ * retrying admin actions, and reports them to the {@link PollEventListener}. A batch that could not be published is
+ * dropped, like a single response would be.
+ * - A response longer than the maximum batch length is published as a batch of its own.
+ * - The batch is kept in a buffer that only grows for such a response, so batching does not allocate.
+ * <p>
+ * Usage Notes:
+ * - The command can be shared by every target of a polling service. The batch does not identify the target of each
+ * response, so responses should identify themselves if subscribers need to know.
+ * - The default maximum batch length is the maximum payload length of the publication, so a batch is never
+ * fragmented.
+ * - Closing the command publishes the last batch. With an event loop, it is published at the end of the next cycle.
+ * <p>
+ * Thread Safety:
+ * - The class is not thread-safe. With an event loop, responses and flushes all run on the event loop thread.
+ */
+public class AeronOnPollResponseBatchingCommand implements OnPollResponseCommand, AutoCloseable {
+	static final int LENGTH_PREFIX = Integer.BYTES;
+	private static final Logger logger = LogManager.getLogger();
+
+	private final Publication publication;
+	private final PollEventListener pollEventListener;
+	private final int maxBatchLength;
+	private final long maxBatchDelayNanos;
+	private final boolean flushEveryCycle;
+	private final boolean flushedByEventLoop;
+	private final ExpandableArrayBuffer batch;
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private int batchLength;
+	private int batchResponses;
+	private long batchStartNanos;
+	private long batches;
+
+	/**
+	 * Constructs an AeronOnPollResponseBatchingCommand.
+	 *
+	 * @param publication       the Aeron publication to publish to
+	 * @param pollEventListener the {@link PollEventListener} notified of each published, back-pressured and
+	 *                          not-connected batch. Defaults to a no-op listener
+	 * @param pollEventLoop     the {@link PollEventLoop} at the end of whose cycles batches are published. Batches are
+	 *                          only published by length, delay or flush if it is null
+	 * @param maxBatchLength    the maximum length of a batch in bytes, including the length prefixes. Defaults to the
+	 *                          maximum payload length of the publication
+	 * @param maxBatchDelay     the maximum time, in microseconds, that a response waits in a batch. No time budget
+	 *                          applies if it is null
+	 * @throws IllegalArgumentException if the maximum batch length cannot hold a length prefix, or the maximum batch
+	 *                                  delay is negative
+	 */
+	@Builder
+	AeronOnPollResponseBatchingCommand(Publication publication, PollEventListener pollEventListener, PollEventLoop pollEventLoop, Integer maxBatchLength, Long maxBatchDelay) {
+		this.publication = publication;
+		this.pollEventListener = pollEventListener == null ? PollEventListener.NO_OP : pollEventListener;
+		this.maxBatchLength = maxBatchLength == null ? publication.maxPayloadLength() : maxBatchLength;
+		this.maxBatchDelayNanos = maxBatchDelay == null ? Long.MAX_VALUE : TimeUnit.MICROSECONDS.toNanos(maxBatchDelay);
+		this.flushEveryCycle = maxBatchDelay == null;
+		this.flushedByEventLoop = pollEventLoop != null;
+
+		if (this.maxBatchLength <= LENGTH_PREFIX) {
+			throw new IllegalArgumentException("Maximum batch length must be greater than " + LENGTH_PREFIX + ": " + maxBatchLength);
+		}
+		if (maxBatchDelayNanos < 0) {
+			throw new IllegalArgumentException("Maximum batch delay must not be negative: " + maxBatchDelay);
+		}
+
+		this.batch = new ExpandableArrayBuffer(this.maxBatchLength);
+		if (pollEventLoop != null) {
+			pollEventLoop.addCycleTask(this::onCycle);
+		}
+	}
+
+	@Override
+	public void execute(ByteBuffer byteBuffer) {
+		int length = byteBuffer.remaining();
+		if (batchLength > 0 && batchLength + LENGTH_PREFIX + length > maxBatchLength) {
+			flush();
+		}
+
+		long now = System.nanoTime();
+		if (batchLength == 0) {
+			batchStartNanos = now;
+		}
+		batch.putInt(batchLength, length);
+		batch.putBytes(batchLength + LENGTH_PREFIX, byteBuffer, byteBuffer.position(), length);
+		batchLength += LENGTH_PREFIX + length;
+		batchResponses++;
+
+		if (batchLength >= maxBatchLength || now - batchStartNanos >= maxBatchDelayNanos) {
+			flush();
+		}
+	}
+
+	/**
+	 * Publishes the current batch, if it holds any response.
+	 */
+	public void flush() {
+		if (batchLength == 0) {
+			return;
+		}
+
+		int length = batchLength;
+		int responses = batchResponses;
+		// A batch that could not be published is dropped, so the next batch starts empty either way
+		batchLength = 0;
+		batchResponses = 0;
+
+		if (Publications.offer(publication, batch, 0, length, pollEventListener) > 0L) {
+			batches++;
+			logger.debug("Offered batch of {} responses in {} bytes", responses, length);
+		}
+	}
+
+	/**
+	 * Returns the number of batches published.
+	 *
+	 * @return the number of batches
+	 */
+	public long batchCount() {
+		return batches;
+	}
+
+	/**
+	 * Publishes the last batch and stops publishing at the end of event loop cycles. With an event loop, the last batch
+	 * is published by the event loop thread at the end of its next cycle.
+	 */
+	@Override
+	public void close() {
+		if (closed.compareAndSet(false, true) && !flushedByEventLoop) {
+			flush();
+		}
+	}
+
+	private boolean onCycle() {
+		if (closed.get()) {
+			flush();
+			return false;
+		}
+
+		if (flushEveryCycle || System.nanoTime() - batchStartNanos >= maxBatchDelayNanos) {
+			flush();
+		}
+		return true;
+	}
+}
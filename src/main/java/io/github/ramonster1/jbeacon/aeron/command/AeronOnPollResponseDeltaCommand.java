@@ -0,0 +1,186 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.aeron.Publication;
+import lombok.Builder;
+import org.agrona.ExpandableArrayBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An implementation of the {@link OnPollResponseCommand} interface that publishes each response to an Aeron
+ * {@link Publication} as a compact delta against the previous response, with a full snapshot every so often.
+ * <p>
+ * Responses that are a few kilobytes long, of which only a handful of bytes change between polls, are published as
+ * the runs of changed bytes XORed with the previous response, so each message is a few bytes long instead of a few
+ * kilobytes. A {@link DeltaDecoder} on the subscriber side rebuilds the full responses.
+ * <p>
+ * Key Features:
+ * - Publishes a full snapshot as the first message, every snapshot interval messages, and after
+ * {@link #requestSnapshot()}, so that subscribers joining late can start decoding.
+ * - Publishes a snapshot instead of a delta whenever the delta would be no shorter than the response.
+ * - Publishes a snapshot after any response that could not be published, such as when the publication is back
+ * pressured or not connected, so a subscriber never applies a delta to the wrong response.
+ * - Handles the results of {@link Publication#offer} like {@link AeronOnPollResponseOfferCommand}, including
+ * retrying admin actions, and reports them to the {@link PollEventListener}.
+ * <p>
+ * Usage Notes:
+ * - Use one command per target and publication, as the deltas are against the previous response of one target.
+ * - A subscriber joining after the first snapshot cannot decode until the next snapshot, so the snapshot interval
+ * bounds how long it waits.
+ * - The previous response and the delta are kept in buffers that grow to the longest response, after which
+ * publishing does not allocate.
+ * <p>
+ * Thread Safety:
+ * - The class is not thread-safe, except for {@link #requestSnapshot()}, which can be called from any thread.
+ */
+public class AeronOnPollResponseDeltaCommand implements OnPollResponseCommand {
+	private final Publication publication;
+	private final PollEventListener pollEventListener;
+	private final int snapshotInterval;
+	private final ExpandableArrayBuffer previous;
+	private final ExpandableArrayBuffer frame;
+	private int previousLength;
+	private boolean hasPrevious;
+	private int messagesSinceSnapshot;
+	private volatile boolean snapshotRequested;
+	private long snapshots;
+	private long deltas;
+
+	/**
+	 * Constructs an AeronOnPollResponseDeltaCommand.
+	 *
+	 * @param publication       the Aeron publication to publish to
+	 * @param pollEventListener the {@link PollEventListener} notified of each published, back-pressured and
+	 *                          not-connected message. Defaults to a no-op listener
+	 * @param snapshotInterval  the number of messages after which a snapshot is published, counting the snapshot.
+	 *                          Defaults to 64
+	 * @param initialCapacity   the initial capacity, in bytes, of the buffers holding the previous response and the
+	 *                          delta. Defaults to 1500, and the buffers grow if a response is longer
+	 * @throws IllegalArgumentException if the snapshot interval is not positive
+	 */
+	@Builder
+	AeronOnPollResponseDeltaCommand(Publication publication, PollEventListener pollEventListener, Integer snapshotInterval, Integer initialCapacity) {
+		this.publication = publication;
+		this.pollEventListener = pollEventListener == null ? PollEventListener.NO_OP : pollEventListener;
+		this.snapshotInterval = snapshotInterval == null ? 64 : snapshotInterval;
+		int capacity = initialCapacity == null ? 1500 : initialCapacity;
+		this.previous = new ExpandableArrayBuffer(capacity);
+		this.frame = new ExpandableArrayBuffer(capacity + DeltaFrame.HEADER_LENGTH);
+
+		if (this.snapshotInterval <= 0) {
+			throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+		}
+	}
+
+	@Override
+	public void execute(ByteBuffer byteBuffer) {
+		int length = byteBuffer.remaining();
+		boolean snapshotDue = !hasPrevious || snapshotRequested || messagesSinceSnapshot >= snapshotInterval;
+		int frameLength = snapshotDue ? -1 : encodeDelta(byteBuffer);
+
+		// The previous response is only needed for encoding, so it is replaced before publishing, and a snapshot is published straight from it
+		previous.putBytes(0, byteBuffer, byteBuffer.position(), length);
+		previousLength = length;
+
+		long response;
+		if (frameLength < 0) {
+			snapshotRequested = false;
+			frame.putByte(DeltaFrame.TYPE_OFFSET, DeltaFrame.SNAPSHOT);
+			frame.putInt(DeltaFrame.LENGTH_OFFSET, length);
+			// The snapshot is made of the header in the frame buffer and the previous response
+			response = Publications.offer(publication, frame, DeltaFrame.HEADER_LENGTH, previous, length, pollEventListener);
+			if (response > 0L) {
+				snapshots++;
+				messagesSinceSnapshot = 1;
+			}
+		} else {
+			response = Publications.offer(publication, frame, 0, frameLength, pollEventListener);
+			if (response > 0L) {
+				deltas++;
+				messagesSinceSnapshot++;
+			}
+		}
+
+		// A subscriber never received this response, so the next delta would be against the wrong response
+		hasPrevious = response > 0L;
+	}
+
+	/**
+	 * Requests that the next response is published as a snapshot, such as when a new subscriber joins.
+	 */
+	public void requestSnapshot() {
+		snapshotRequested = true;
+	}
+
+	/**
+	 * Returns the number of snapshots published.
+	 *
+	 * @return the number of snapshots
+	 */
+	public long snapshotCount() {
+		return snapshots;
+	}
+
+	/**
+	 * Returns the number of deltas published.
+	 *
+	 * @return the number of deltas
+	 */
+	public long deltaCount() {
+		return deltas;
+	}
+
+	/**
+	 * Encodes the response as a delta against the previous response into the frame buffer.
+	 *
+	 * @return the length of the delta message, or -1 if the delta would be no shorter than the response
+	 */
+	private int encodeDelta(ByteBuffer byteBuffer) {
+		int position = byteBuffer.position();
+		int length = byteBuffer.remaining();
+		int index = DeltaFrame.HEADER_LENGTH;
+		int maxIndex = DeltaFrame.HEADER_LENGTH + length;
+		int runStart = 0;
+		int i = 0;
+
+		while (i < length) {
+			if (xor(byteBuffer, position, i) == 0) {
+				i++;
+				continue;
+			}
+
+			// Extends the run of changed bytes over any gap of unchanged bytes shorter than the minimum skip
+			int runEnd = i + 1;
+			int unchanged = 0;
+			for (int j = runEnd; j < length && unchanged < DeltaFrame.MIN_SKIP_LENGTH; j++) {
+				if (xor(byteBuffer, position, j) == 0) {
+					unchanged++;
+				} else {
+					unchanged = 0;
+					runEnd = j + 1;
+				}
+			}
+
+			index = DeltaFrame.putVarInt(frame, index, i - runStart);
+			index = DeltaFrame.putVarInt(frame, index, runEnd - i);
+			if (index + runEnd - i >= maxIndex) {
+				return -1;
+			}
+			for (; i < runEnd; i++) {
+				frame.putByte(index++, xor(byteBuffer, position, i));
+			}
+			runStart = runEnd;
+		}
+
+		frame.putByte(DeltaFrame.TYPE_OFFSET, DeltaFrame.DELTA);
+		frame.putInt(DeltaFrame.LENGTH_OFFSET, length);
+		return index;
+	}
+
+	private byte xor(ByteBuffer byteBuffer, int position, int i) {
+		byte previousByte = i < previousLength ? previous.getByte(i) : 0;
+		return (byte) (byteBuffer.get(position + i) ^ previousByte);
+	}
+}
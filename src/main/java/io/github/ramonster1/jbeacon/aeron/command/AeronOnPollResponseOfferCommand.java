@@ -1,11 +1,11 @@
 package io.github.ramonster1.jbeacon.aeron.command;
 
 import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.jfr.AeronPublicationEvent;
 import io.aeron.Publication;
 import io.aeron.exceptions.AeronException;
 import org.agrona.DirectBuffer;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import java.nio.ByteBuffer;
 
@@ -19,48 +19,44 @@ import java.nio.ByteBuffer;
  * Aeron publication and acts accordingly based on the response.
  * <p>
  * The command processes various outcomes of the {@link Publication#offer} operation, including:
- * - Successful offer: The data is delivered to the publication.
- * - NOT_CONNECTED: Logs an informational message indicating the publication is not connected.
- * - BACK_PRESSURED: Logs an informational message when the publication is experiencing backpressure.
+ * - Successful offer: The data is delivered to the publication, and reported to the {@link PollEventListener}.
+ * - NOT_CONNECTED: Logs an informational message indicating the publication is not connected, and reports it to the {@link PollEventListener}.
+ * - BACK_PRESSURED: Reports the back pressure to the {@link PollEventListener}.
  * - ADMIN_ACTION: Retries the operation due to an administrative action (e.g., log rotation).
  * - CLOSED: Throws a fatal {@link AeronException} indicating the publication is closed.
  * - MAX_POSITION_EXCEEDED: Throws a fatal {@link AeronException} indicating the publication has reached the maximum allowed position.
  * - Unrecognized response: Logs a warning with the unknown response value.
  * <p>
  * This command will retry the offer operation in the case of a ADMIN_ACTION until a terminal state is reached or the operation succeeds.
+ * <p>
+ * Every attempt to publish is recorded as an {@link AeronPublicationEvent} when JDK Flight Recorder is recording.
+ * <p>
+ * The bytes between the position and the limit of the byte buffer are offered, without being copied, from either a
+ * heap or a direct byte buffer. Delivering a response does not allocate, so the command can be used with a polling
+ * service in zero-garbage mode.
  *
  * @param publication  Defines the Aeron publication to operate on.
  * @param directBuffer The Aeron {@link DirectBuffer} that wraps the {@link ByteBuffer} for data transfer within the publication.
+ * @param pollEventListener The {@link PollEventListener} notified of each published, back-pressured and not-connected response.
  */
 public record AeronOnPollResponseOfferCommand(Publication publication,
-											  DirectBuffer directBuffer) implements OnPollResponseCommand {
-	private static final Logger logger = LogManager.getLogger();
-
-	@Override
-	public void execute(ByteBuffer byteBuffer) {
-		directBuffer.wrap(byteBuffer, byteBuffer.position(), byteBuffer.limit());
+											  DirectBuffer directBuffer,
+											  PollEventListener pollEventListener) implements OnPollResponseCommand {
 
-		final long response = publication.offer(directBuffer, 0, byteBuffer.limit());
-
-		if (response == Publication.NOT_CONNECTED) {
-			logger.info("Publication is not connected");
-		} else if (response == Publication.BACK_PRESSURED) {
-			logger.info("Publication is back pressured");
-		} else if (response == Publication.ADMIN_ACTION) {
-			logger.info("Publication is in admin action. Attempting a retry");
+	public AeronOnPollResponseOfferCommand {
+		pollEventListener = pollEventListener == null ? PollEventListener.NO_OP : pollEventListener;
+	}
 
-			// Retry offer(). The action is an operation such as log rotation which is likely to have succeeded by the next retry attempt.
-			execute(byteBuffer);
-		} else if (response == Publication.CLOSED) {
-			logger.warn("Publication is closed");
+	public AeronOnPollResponseOfferCommand(Publication publication, DirectBuffer directBuffer) {
+		this(publication, directBuffer, PollEventListener.NO_OP);
+	}
 
-			throw new AeronException("Publication is closed", AeronException.Category.FATAL);
-		} else if (response == Publication.MAX_POSITION_EXCEEDED) {
-			logger.info("Publication reached max position");
+	@Override
+	public void execute(ByteBuffer byteBuffer) {
+		final int length = byteBuffer.remaining();
+		// Wraps the remaining bytes in place, at the address of a direct buffer or in the array of a heap buffer
+		directBuffer.wrap(byteBuffer, byteBuffer.position(), length);
 
-			throw new AeronException("Publication reached max position", AeronException.Category.FATAL);
-		} else {
-			logger.warn("Unknown try claim response: {}", response);
-		}
+		Publications.offer(publication, directBuffer, 0, length, pollEventListener);
 	}
 }
@@ -1,11 +1,11 @@
 package io.github.ramonster1.jbeacon.aeron.command;
 
 import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.jfr.AeronPublicationEvent;
 import io.aeron.Publication;
 import io.aeron.exceptions.AeronException;
 import io.aeron.logbuffer.BufferClaim;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import java.nio.ByteBuffer;
 
@@ -20,51 +20,58 @@ import java.nio.ByteBuffer;
  * the response from the tryClaim operation.
  * <p>
  * The command processes various outcomes of the {@link Publication#tryClaim} operation, including:
- * - Successful claim: Copies data to the claimed buffer and commits it.
- * - NOT_CONNECTED: Logs an informational message indicating the publication is not connected.
- * - BACK_PRESSURED: Logs an informational message when the publication is experiencing backpressure.
+ * - Successful claim: Copies data to the claimed buffer and commits it, and reports it to the {@link PollEventListener}.
+ * - NOT_CONNECTED: Logs an informational message indicating the publication is not connected, and reports it to the {@link PollEventListener}.
+ * - BACK_PRESSURED: Reports the back pressure to the {@link PollEventListener}.
  * - ADMIN_ACTION: Retries the operation due to an administrative action (e.g., log rotation).
  * - CLOSED: Throws a fatal {@link AeronException} indicating the publication is closed.
  * - MAX_POSITION_EXCEEDED: Throws a fatal {@link AeronException} indicating the publication has reached the maximum allowed position.
  * - Unrecognized response: Logs a warning with the unknown response value.
  * <p>
  * This command will retry the tryClaim operation in the case of a ADMIN_ACTION until a terminal state is reached or the operation succeeds.
+ * <p>
+ * Every attempt to publish is recorded as an {@link AeronPublicationEvent} when JDK Flight Recorder is recording.
+ * <p>
+ * The bytes between the position and the limit of the byte buffer are copied into the claimed buffer in a single
+ * copy, from either a heap or a direct byte buffer. Delivering a response does not allocate, so the command can be
+ * used with a polling service in zero-garbage mode.
  *
  * @param publication Defines the Aeron publication to operate on.
  * @param bufferClaim The buffer claim instance used for data transfer within the Aeron publication.
+ * @param pollEventListener The {@link PollEventListener} notified of each published, back-pressured and not-connected response.
  */
 public record AeronOnPollResponseTryClaimCommand(Publication publication,
-												 BufferClaim bufferClaim) implements OnPollResponseCommand {
-	private static final Logger logger = LogManager.getLogger();
+												 BufferClaim bufferClaim,
+												 PollEventListener pollEventListener) implements OnPollResponseCommand {
+
+	public AeronOnPollResponseTryClaimCommand {
+		pollEventListener = pollEventListener == null ? PollEventListener.NO_OP : pollEventListener;
+	}
+
+	public AeronOnPollResponseTryClaimCommand(Publication publication, BufferClaim bufferClaim) {
+		this(publication, bufferClaim, PollEventListener.NO_OP);
+	}
 
 	@Override
 	public void execute(ByteBuffer byteBuffer) {
-		long tryClaimResponse = publication.tryClaim(byteBuffer.limit(), bufferClaim);
+		final int length = byteBuffer.remaining();
+
+		long tryClaimResponse;
+		do {
+			AeronPublicationEvent aeronPublicationEvent = new AeronPublicationEvent();
+			aeronPublicationEvent.begin();
+			tryClaimResponse = publication.tryClaim(length, bufferClaim);
+			aeronPublicationEvent.emit(publication, "tryClaim", length, tryClaimResponse);
+		} while (Publications.isAdminAction(tryClaimResponse));
+
 		if (tryClaimResponse > 0L) {
 			try {
-				bufferClaim.buffer().putBytes(bufferClaim.offset(), byteBuffer.array(), byteBuffer.position(), byteBuffer.limit());
+				// Copies straight from the address of a direct buffer or the array of a heap buffer, without moving its position
+				bufferClaim.buffer().putBytes(bufferClaim.offset(), byteBuffer, byteBuffer.position(), length);
 			} finally {
 				bufferClaim.commit();
 			}
-		} else if (tryClaimResponse == Publication.NOT_CONNECTED) {
-			logger.info("Publication is not connected");
-		} else if (tryClaimResponse == Publication.BACK_PRESSURED) {
-			logger.info("Publication is back pressured");
-		} else if (tryClaimResponse == Publication.ADMIN_ACTION) {
-			logger.info("Publication is in admin action. Attempting a retry");
-
-			// Retry tryClaim(). The action is an operation such as log rotation which is likely to have succeeded by the next retry attempt.
-			execute(byteBuffer);
-		} else if (tryClaimResponse == Publication.CLOSED) {
-			logger.warn("Publication is closed");
-
-			throw new AeronException("Publication is closed", AeronException.Category.FATAL);
-		} else if (tryClaimResponse == Publication.MAX_POSITION_EXCEEDED) {
-			logger.info("Publication reached max position");
-
-			throw new AeronException("Publication reached max position", AeronException.Category.FATAL);
-		} else {
-			logger.warn("Unknown try claim response: {}", tryClaimResponse);
 		}
+		Publications.report("try claim", tryClaimResponse, length, pollEventListener);
 	}
 }
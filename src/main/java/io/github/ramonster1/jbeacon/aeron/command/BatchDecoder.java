@@ -0,0 +1,55 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link FragmentHandler} that splits the batches published by an {@link AeronOnPollResponseBatchingCommand} into
+ * their responses, and hands each response to a delegate fragment handler.
+ * <p>
+ * The responses are handed over in the order they were batched, as slices of the received buffer, so splitting a
+ * batch does not copy or allocate.
+ * <p>
+ * Usage Notes:
+ * - Batches are no longer than the maximum payload length of the publication by default, and so are never
+ * fragmented. Wrap the decoder in a {@link io.aeron.FragmentAssembler} if a longer maximum batch length is used.
+ * - The delegate receives the header of the whole batch with every response.
+ * <p>
+ * Thread Safety:
+ * - The class is stateless, and is thread-safe if its delegate is.
+ */
+public class BatchDecoder implements FragmentHandler {
+	private static final Logger logger = LogManager.getLogger();
+
+	private final FragmentHandler fragmentHandler;
+
+	/**
+	 * Constructs a BatchDecoder.
+	 *
+	 * @param fragmentHandler the {@link FragmentHandler} that each response in a batch is handed to
+	 */
+	public BatchDecoder(FragmentHandler fragmentHandler) {
+		this.fragmentHandler = fragmentHandler;
+	}
+
+	@Override
+	public void onFragment(DirectBuffer buffer, int offset, int length, Header header) {
+		int index = offset;
+		int limit = offset + length;
+
+		while (index + AeronOnPollResponseBatchingCommand.LENGTH_PREFIX <= limit) {
+			int responseLength = buffer.getInt(index);
+			index += AeronOnPollResponseBatchingCommand.LENGTH_PREFIX;
+			if (responseLength < 0 || responseLength > limit - index) {
+				logger.warn("Malformed batch, response length {} exceeds the {} bytes left", responseLength, limit - index);
+				return;
+			}
+
+			fragmentHandler.onFragment(buffer, index, responseLength, header);
+			index += responseLength;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import lombok.Builder;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link FragmentHandler} that rebuilds the full responses published by an {@link AeronOnPollResponseDeltaCommand}
+ * and hands each of them to a delegate fragment handler.
+ * <p>
+ * A snapshot replaces the current response, and a delta is applied to it. Deltas received before the first snapshot,
+ * such as by a subscriber that joined late, cannot be applied, so they are dropped and counted until a snapshot
+ * arrives.
+ * <p>
+ * Usage Notes:
+ * - Messages longer than the MTU of the channel are fragmented, so wrap the decoder in a
+ * {@link io.aeron.FragmentAssembler}.
+ * - Use one decoder per publishing command, as each decoder holds the current response of one publisher. Messages of
+ * several publishers on the same stream can be told apart by the session id of their header.
+ * - The delegate receives a buffer holding the full response at offset zero, which is only valid until the next
+ * message, and is not a fragment of the image, so the header it receives describes the original message.
+ * - The current response is kept in a buffer that grows to the longest response, after which decoding does not
+ * allocate.
+ * <p>
+ * Thread Safety:
+ * - The class is not thread-safe, like the subscription it polls.
+ */
+public class DeltaDecoder implements FragmentHandler {
+	private static final Logger logger = LogManager.getLogger();
+
+	private final FragmentHandler fragmentHandler;
+	private final ExpandableArrayBuffer current;
+	private int currentLength;
+	private boolean hasCurrent;
+	private long droppedDeltas;
+
+	/**
+	 * Constructs a DeltaDecoder.
+	 *
+	 * @param fragmentHandler the {@link FragmentHandler} that each rebuilt response is handed to
+	 * @param initialCapacity the initial capacity, in bytes, of the buffer holding the current response. Defaults to
+	 *                        1500, and the buffer grows if a response is longer
+	 */
+	@Builder
+	DeltaDecoder(FragmentHandler fragmentHandler, Integer initialCapacity) {
+		this.fragmentHandler = fragmentHandler;
+		this.current = new ExpandableArrayBuffer(initialCapacity == null ? 1500 : initialCapacity);
+	}
+
+	@Override
+	public void onFragment(DirectBuffer buffer, int offset, int length, Header header) {
+		byte type = buffer.getByte(offset + DeltaFrame.TYPE_OFFSET);
+		int responseLength = buffer.getInt(offset + DeltaFrame.LENGTH_OFFSET);
+
+		if (type == DeltaFrame.SNAPSHOT) {
+			current.putBytes(0, buffer, offset + DeltaFrame.HEADER_LENGTH, responseLength);
+			hasCurrent = true;
+		} else if (type == DeltaFrame.DELTA) {
+			if (!hasCurrent) {
+				droppedDeltas++;
+				logger.debug("Dropped delta received before the first snapshot");
+				return;
+			}
+			applyDelta(buffer, offset + DeltaFrame.HEADER_LENGTH, offset + length, responseLength);
+		} else {
+			logger.warn("Unknown delta frame type: {}", type);
+			return;
+		}
+
+		currentLength = responseLength;
+		fragmentHandler.onFragment(current, 0, currentLength, header);
+	}
+
+	/**
+	 * Returns the number of deltas dropped because no snapshot had been received yet.
+	 *
+	 * @return the number of dropped deltas
+	 */
+	public long droppedDeltaCount() {
+		return droppedDeltas;
+	}
+
+	private void applyDelta(DirectBuffer buffer, int index, int limit, int responseLength) {
+		// Bytes past the end of the previous response were XORed with zero
+		if (responseLength > currentLength) {
+			current.setMemory(currentLength, responseLength - currentLength, (byte) 0);
+		}
+
+		int i = 0;
+		while (index < limit) {
+			int skip = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = buffer.getByte(index++);
+				skip |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+
+			int runLength = 0;
+			shift = 0;
+			do {
+				b = buffer.getByte(index++);
+				runLength |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+
+			i += skip;
+			for (int end = i + runLength; i < end; i++) {
+				current.putByte(i, (byte) (current.getByte(i) ^ buffer.getByte(index++)));
+			}
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * The layout of the messages published by {@link AeronOnPollResponseDeltaCommand} and read by {@link DeltaDecoder}.
+ * <p>
+ * Every message starts with a one byte type and the length of the full response as a little-endian int. A snapshot
+ * is followed by the full response. A delta is followed by runs against the previous response, each made of the
+ * number of unchanged bytes to skip and the number of changed bytes, as unsigned LEB128 varints, and then the changed
+ * bytes XORed with the previous response. Bytes past the end of the previous response are XORed with zero.
+ */
+final class DeltaFrame {
+	static final byte SNAPSHOT = 1;
+	static final byte DELTA = 2;
+	static final int TYPE_OFFSET = 0;
+	static final int LENGTH_OFFSET = 1;
+	static final int HEADER_LENGTH = 5;
+	// Shorter runs of unchanged bytes are cheaper to send inside a run of changed bytes than as a new run
+	static final int MIN_SKIP_LENGTH = 4;
+
+	private DeltaFrame() {
+	}
+
+	/**
+	 * Writes an unsigned LEB128 varint.
+	 *
+	 * @return the index after the varint
+	 */
+	static int putVarInt(MutableDirectBuffer buffer, int index, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.putByte(index++, (byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.putByte(index++, (byte) value);
+		return index;
+	}
+}
@@ -0,0 +1,125 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.jfr.AeronPublicationEvent;
+import io.aeron.Publication;
+import io.aeron.exceptions.AeronException;
+import org.agrona.DirectBuffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Publishes to an Aeron {@link Publication} on behalf of the Aeron response commands, so that every command handles
+ * the result of publishing in the same way:
+ * - Success: Reports the length and new position to the {@link PollEventListener}.
+ * - NOT_CONNECTED: Logs an informational message, and reports it to the {@link PollEventListener}.
+ * - BACK_PRESSURED: Reports the back pressure to the {@link PollEventListener}.
+ * - ADMIN_ACTION: Retries the operation, since the action, such as log rotation, is likely to have completed by then.
+ * - CLOSED: Throws a fatal {@link AeronException} indicating the publication is closed.
+ * - MAX_POSITION_EXCEEDED: Throws a fatal {@link AeronException} indicating the publication has reached the maximum allowed position.
+ * - Unrecognized response: Logs a warning with the unknown response value.
+ * <p>
+ * Every attempt to publish is recorded as an {@link AeronPublicationEvent} when JDK Flight Recorder is recording.
+ * Nothing here allocates, so the commands can still be used with a polling service in zero-garbage mode.
+ */
+final class Publications {
+	private static final Logger logger = LogManager.getLogger();
+
+	private Publications() {
+	}
+
+	/**
+	 * Offers a range of a buffer as one message, and reports the result.
+	 *
+	 * @param publication       the publication to offer to
+	 * @param buffer            the buffer holding the message
+	 * @param offset            the offset of the message in the buffer
+	 * @param length            the length of the message in bytes
+	 * @param pollEventListener the listener the result is reported to
+	 * @return the new position of the publication, or the negative result of the last attempt
+	 * @throws AeronException if the publication is closed or has reached its maximum position
+	 */
+	static long offer(Publication publication, DirectBuffer buffer, int offset, int length, PollEventListener pollEventListener) {
+		long response;
+		do {
+			AeronPublicationEvent aeronPublicationEvent = new AeronPublicationEvent();
+			aeronPublicationEvent.begin();
+			response = publication.offer(buffer, offset, length);
+			aeronPublicationEvent.emit(publication, "offer", length, response);
+		} while (isAdminAction(response));
+
+		report("offer", response, length, pollEventListener);
+		return response;
+	}
+
+	/**
+	 * Offers the start of two buffers, one after the other, as one message, and reports the result.
+	 *
+	 * @param publication       the publication to offer to
+	 * @param header            the buffer whose first bytes start the message
+	 * @param headerLength      the number of bytes of the header buffer in the message
+	 * @param body              the buffer whose first bytes end the message
+	 * @param bodyLength        the number of bytes of the body buffer in the message
+	 * @param pollEventListener the listener the result is reported to
+	 * @return the new position of the publication, or the negative result of the last attempt
+	 * @throws AeronException if the publication is closed or has reached its maximum position
+	 */
+	static long offer(Publication publication, DirectBuffer header, int headerLength, DirectBuffer body, int bodyLength, PollEventListener pollEventListener) {
+		int length = headerLength + bodyLength;
+		long response;
+		do {
+			AeronPublicationEvent aeronPublicationEvent = new AeronPublicationEvent();
+			aeronPublicationEvent.begin();
+			response = publication.offer(header, 0, headerLength, body, 0, bodyLength);
+			aeronPublicationEvent.emit(publication, "offer", length, response);
+		} while (isAdminAction(response));
+
+		report("offer", response, length, pollEventListener);
+		return response;
+	}
+
+	/**
+	 * Returns whether the publication was in an admin action, in which case the operation should be retried.
+	 *
+	 * @param response the result of {@link Publication#offer} or {@link Publication#tryClaim}
+	 * @return {@code true} if the operation should be retried
+	 */
+	static boolean isAdminAction(long response) {
+		if (response == Publication.ADMIN_ACTION) {
+			logger.info("Publication is in admin action. Attempting a retry");
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reports the final result of an attempt to publish.
+	 *
+	 * @param operation         the name of the publishing operation, for logging
+	 * @param response          the result of the operation, other than ADMIN_ACTION
+	 * @param length            the length of the message in bytes
+	 * @param pollEventListener the listener the result is reported to
+	 * @throws AeronException if the publication is closed or has reached its maximum position
+	 */
+	static void report(String operation, long response, int length, PollEventListener pollEventListener) {
+		if (response > 0L) {
+			pollEventListener.onPublished(length, response);
+		} else if (response == Publication.NOT_CONNECTED) {
+			logger.info("Publication is not connected");
+			pollEventListener.onNotConnected(length);
+		} else if (response == Publication.BACK_PRESSURED) {
+			logger.debug("Publication is back pressured");
+			pollEventListener.onBackPressured(length);
+		} else if (response == Publication.CLOSED) {
+			logger.warn("Publication is closed");
+
+			throw new AeronException("Publication is closed", AeronException.Category.FATAL);
+		} else if (response == Publication.MAX_POSITION_EXCEEDED) {
+			logger.info("Publication reached max position");
+
+			throw new AeronException("Publication reached max position", AeronException.Category.FATAL);
+		} else {
+			logger.warn("Unknown {} response: {}", operation, response);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package io.github.ramonster1.jbeacon.aeron.counter;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.aeron.Aeron;
+import lombok.Builder;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+import java.net.InetSocketAddress;
+
+/**
+ * AeronPollCounters is a {@link PollEventListener} that counts poll lifecycle events in Aeron counters, so that
+ * JBeacon's metrics appear next to the media driver's in the CnC counters file and can be watched live with the
+ * standard AeronStat tool, without running any additional service.
+ * <p>
+ * The counters are allocated through {@link Aeron#addCounter(int, String)} when an Aeron client is provided, which
+ * places them in the media driver's CnC file. Alternatively, they can be allocated from any Agrona
+ * {@link CountersManager}, such as one backing a custom counters file.
+ * <p>
+ * Key Features:
+ * - Counts polls sent, responses received, timeouts, bytes sent and received, responses published, publications that
+ * were back pressured or not connected, and scheduled polls that overran their period.
+ * - Each counter has its own type id, and is labelled with a name, so that several polling services can be told apart.
+ * - Counting an event is a lock-free atomic increment, without allocating.
+ * <p>
+ * Usage Notes:
+ * - Exactly one of an Aeron client or a CountersManager must be provided.
+ * - The counters are freed when this instance is closed.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. Events may be counted concurrently by polling threads and a
+ * {@link io.github.ramonster1.jbeacon.poll.PollEventLoop} thread.
+ */
+public class AeronPollCounters implements PollEventListener, AutoCloseable {
+	public static final int POLLS_SENT_TYPE_ID = 4101;
+	public static final int BYTES_SENT_TYPE_ID = 4102;
+	public static final int RESPONSES_RECEIVED_TYPE_ID = 4103;
+	public static final int BYTES_RECEIVED_TYPE_ID = 4104;
+	public static final int TIMEOUTS_TYPE_ID = 4105;
+	public static final int PUBLISHED_TYPE_ID = 4106;
+	public static final int BACK_PRESSURED_TYPE_ID = 4107;
+	public static final int NOT_CONNECTED_TYPE_ID = 4108;
+	public static final int SCHEDULE_OVERRUNS_TYPE_ID = 4109;
+	private static final String DEFAULT_NAME = "jbeacon";
+
+	private final AtomicCounter pollsSent;
+	private final AtomicCounter bytesSent;
+	private final AtomicCounter responsesReceived;
+	private final AtomicCounter bytesReceived;
+	private final AtomicCounter timeouts;
+	private final AtomicCounter published;
+	private final AtomicCounter backPressured;
+	private final AtomicCounter notConnected;
+	private final AtomicCounter scheduleOverruns;
+
+	/**
+	 * Constructs an AeronPollCounters instance and allocates its counters.
+	 *
+	 * @param aeron           the Aeron client to allocate the counters in the media driver's CnC file with
+	 * @param countersManager the CountersManager to allocate the counters from, if no Aeron client is provided
+	 * @param name            the name included in the label of every counter. Defaults to "jbeacon"
+	 * @throws IllegalArgumentException if neither or both of an Aeron client and a CountersManager are provided
+	 */
+	@Builder
+	AeronPollCounters(Aeron aeron, CountersManager countersManager, String name) {
+		if ((aeron == null) == (countersManager == null)) {
+			throw new IllegalArgumentException("Exactly one of an Aeron client or a CountersManager is required");
+		}
+
+		CounterFactory counterFactory = aeron != null ? aeron::addCounter : (typeId, label) -> countersManager.newCounter(label, typeId);
+		String counterName = name == null ? DEFAULT_NAME : name;
+
+		this.pollsSent = counterFactory.newCounter(POLLS_SENT_TYPE_ID, "Polls sent: " + counterName);
+		this.bytesSent = counterFactory.newCounter(BYTES_SENT_TYPE_ID, "Poll bytes sent: " + counterName);
+		this.responsesReceived = counterFactory.newCounter(RESPONSES_RECEIVED_TYPE_ID, "Poll responses received: " + counterName);
+		this.bytesReceived = counterFactory.newCounter(BYTES_RECEIVED_TYPE_ID, "Poll bytes received: " + counterName);
+		this.timeouts = counterFactory.newCounter(TIMEOUTS_TYPE_ID, "Poll timeouts: " + counterName);
+		this.published = counterFactory.newCounter(PUBLISHED_TYPE_ID, "Poll responses published: " + counterName);
+		this.backPressured = counterFactory.newCounter(BACK_PRESSURED_TYPE_ID, "Poll publications back pressured: " + counterName);
+		this.notConnected = counterFactory.newCounter(NOT_CONNECTED_TYPE_ID, "Poll publications not connected: " + counterName);
+		this.scheduleOverruns = counterFactory.newCounter(SCHEDULE_OVERRUNS_TYPE_ID, "Poll schedule overruns: " + counterName);
+	}
+
+	@Override
+	public void onSent(InetSocketAddress target, int length, long sequence) {
+		pollsSent.increment();
+		bytesSent.getAndAdd(length);
+	}
+
+	@Override
+	public void onReceived(InetSocketAddress target, int length, long latencyNanos) {
+		responsesReceived.increment();
+		bytesReceived.getAndAdd(length);
+	}
+
+	@Override
+	public void onTimeout(InetSocketAddress target, long sequence) {
+		timeouts.increment();
+	}
+
+	@Override
+	public void onPublished(int length, long position) {
+		published.increment();
+	}
+
+	@Override
+	public void onBackPressured(int length) {
+		backPressured.increment();
+	}
+
+	@Override
+	public void onNotConnected(int length) {
+		notConnected.increment();
+	}
+
+	@Override
+	public void onScheduleOverrun(long overrunNanos) {
+		scheduleOverruns.increment();
+	}
+
+	/**
+	 * Returns a snapshot of the values of all counters.
+	 *
+	 * @return the current counter values
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(pollsSent.get(), bytesSent.get(), responsesReceived.get(), bytesReceived.get(), timeouts.get(),
+				published.get(), backPressured.get(), notConnected.get(), scheduleOverruns.get());
+	}
+
+	/**
+	 * Frees all counters.
+	 */
+	@Override
+	public void close() {
+		CloseHelper.closeAll(pollsSent, bytesSent, responsesReceived, bytesReceived, timeouts, published, backPressured,
+				notConnected, scheduleOverruns);
+	}
+
+	/**
+	 * A snapshot of the values of {@link AeronPollCounters}.
+	 *
+	 * @param pollsSent         the number of requests sent, including retransmitted and hedged requests
+	 * @param bytesSent         the number of request bytes sent
+	 * @param responsesReceived the number of responses accepted
+	 * @param bytesReceived     the number of response bytes accepted
+	 * @param timeouts          the number of polls that timed out
+	 * @param published         the number of responses published
+	 * @param backPressured     the number of responses not published because the publication was back pressured
+	 * @param notConnected      the number of responses not published because the publication was not connected
+	 * @param scheduleOverruns  the number of scheduled polls that took longer than their period
+	 */
+	public record Snapshot(long pollsSent, long bytesSent, long responsesReceived, long bytesReceived, long timeouts,
+						   long published, long backPressured, long notConnected, long scheduleOverruns) {
+	}
+
+	@FunctionalInterface
+	private interface CounterFactory {
+		AtomicCounter newCounter(int typeId, String label);
+	}
+}
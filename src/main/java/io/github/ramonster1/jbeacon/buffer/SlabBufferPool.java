@@ -0,0 +1,255 @@
+package io.github.ramonster1.jbeacon.buffer;
+
+import io.github.ramonster1.jbeacon.exception.BufferPoolExhaustedException;
+import lombok.Builder;
+import lombok.Singular;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SlabBufferPool is a fixed-size, off-heap allocator for poll request and response buffers.
+ * <p>
+ * The pool allocates one large direct slab per size class up front and splits it into equally sized slices. A buffer
+ * is leased from the smallest size class that fits the requested size, used for the duration of a poll, and released
+ * back to the pool once the response command has executed. Polling thousands of targets then costs a handful of
+ * contiguous slabs instead of thousands of scattered buffers, each sized for the worst case.
+ * <p>
+ * Key Features:
+ * - Off-heap usage is fixed when the pool is created and never grows.
+ * - If every slice of the best fitting size class is leased, the next larger size class is used.
+ * - Leasing and releasing do not allocate.
+ * - Reports occupancy, exhaustion and leak metrics through {@link #metrics()}. A leased slice is counted as leaked once
+ * it has been leased for longer than the leak timeout.
+ * <p>
+ * Usage Notes:
+ * - Leased buffers are cleared, and their contents are undefined. They must not be used after they are released.
+ * - Only buffers leased from this pool can be released to it.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. Buffers may be leased on one thread and released on another, such as a
+ * {@link io.github.ramonster1.jbeacon.poll.PollEventLoop} thread.
+ */
+public class SlabBufferPool {
+	private static final Logger logger = LogManager.getLogger();
+	private static final List<Integer> DEFAULT_SIZE_CLASSES = List.of(256, 1024, 4096, 65536);
+	private static final int DEFAULT_SLICES_PER_CLASS = 64;
+	private static final long DEFAULT_LEAK_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	private final SizeClass[] sizeClasses;
+	private final Map<ByteBuffer, Slice> slices;
+	private final long leakTimeoutNanos;
+	private final AtomicLong exhaustions = new AtomicLong();
+	private final AtomicLong invalidReleases = new AtomicLong();
+
+	/**
+	 * Constructs a SlabBufferPool and allocates its slabs.
+	 *
+	 * @param sizeClasses    the slice sizes in bytes. Defaults to 256, 1024, 4096 and 65536
+	 * @param slicesPerClass the number of slices of each size class. Defaults to 64
+	 * @param leakTimeout    the time, in milliseconds, after which a leased slice is reported as leaked. Defaults to 30 seconds
+	 * @throws IllegalArgumentException if a size class or the number of slices is not positive, or a slab would exceed
+	 *                                  the maximum buffer capacity
+	 */
+	@Builder
+	SlabBufferPool(@Singular List<Integer> sizeClasses, Integer slicesPerClass, Long leakTimeout) {
+		List<Integer> sizes = sizeClasses == null || sizeClasses.isEmpty() ? DEFAULT_SIZE_CLASSES : sizeClasses.stream().sorted().distinct().toList();
+		int sliceCount = slicesPerClass == null ? DEFAULT_SLICES_PER_CLASS : slicesPerClass;
+		this.leakTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(leakTimeout == null ? DEFAULT_LEAK_TIMEOUT_MILLIS : leakTimeout);
+
+		if (sliceCount < 1) {
+			throw new IllegalArgumentException("Slices per class must be positive: " + sliceCount);
+		}
+
+		this.sizeClasses = new SizeClass[sizes.size()];
+		Map<ByteBuffer, Slice> sliceIndex = new IdentityHashMap<>();
+		for (int i = 0; i < sizes.size(); i++) {
+			int sliceSize = sizes.get(i);
+			if (sliceSize < 1 || (long) sliceSize * sliceCount > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Invalid size class: " + sliceSize);
+			}
+
+			this.sizeClasses[i] = new SizeClass(sliceSize, sliceCount);
+			for (int j = 0; j < sliceCount; j++) {
+				sliceIndex.put(this.sizeClasses[i].buffers[j], new Slice(i, j));
+			}
+		}
+
+		// Only read after construction, so it can be shared between threads without synchronization
+		this.slices = Collections.unmodifiableMap(sliceIndex);
+
+		logger.info("Allocated {} bytes of slabs for size classes {}", capacityBytes(), sizes);
+	}
+
+	/**
+	 * Leases a cleared buffer with a capacity of at least the requested size.
+	 *
+	 * @param size the minimum capacity of the buffer in bytes
+	 * @return a direct buffer whose limit is the requested size
+	 * @throws BufferPoolExhaustedException if no size class that fits the requested size has a free slice
+	 * @throws IllegalArgumentException     if the requested size exceeds the largest size class
+	 */
+	public ByteBuffer lease(int size) throws BufferPoolExhaustedException {
+		if (size > maxLeaseSize()) {
+			throw new IllegalArgumentException("Requested size " + size + " exceeds the largest size class " + maxLeaseSize());
+		}
+
+		for (SizeClass sizeClass : sizeClasses) {
+			if (sizeClass.sliceSize >= size) {
+				ByteBuffer buffer = sizeClass.lease();
+				if (buffer != null) {
+					return buffer.clear().limit(size);
+				}
+			}
+		}
+
+		exhaustions.incrementAndGet();
+		throw new BufferPoolExhaustedException("No free slice of at least " + size + " bytes");
+	}
+
+	/**
+	 * Releases a leased buffer back to the pool. Releasing a buffer that is not leased from this pool is counted
+	 * and logged, but has no other effect.
+	 *
+	 * @param buffer the buffer returned by {@link #lease(int)}
+	 */
+	public void release(ByteBuffer buffer) {
+		Slice slice = slices.get(buffer);
+		if (slice == null || !sizeClasses[slice.sizeClassIndex()].release(slice.sliceIndex())) {
+			invalidReleases.incrementAndGet();
+			logger.warn("Released a buffer that is not leased from this pool: {}", buffer);
+		}
+	}
+
+	/**
+	 * Returns the largest size that can be leased from this pool.
+	 *
+	 * @return the size of the largest size class in bytes
+	 */
+	public int maxLeaseSize() {
+		return sizeClasses[sizeClasses.length - 1].sliceSize;
+	}
+
+	/**
+	 * Returns a snapshot of the occupancy, exhaustion and leak metrics of the pool.
+	 *
+	 * @return the current metrics of the pool
+	 */
+	public Metrics metrics() {
+		long now = System.nanoTime();
+		int totalSlices = 0;
+		int leasedSlices = 0;
+		int peakLeasedSlices = 0;
+		int leakedSlices = 0;
+		long leasedBytes = 0;
+		for (SizeClass sizeClass : sizeClasses) {
+			synchronized (sizeClass) {
+				totalSlices += sizeClass.buffers.length;
+				leasedSlices += sizeClass.leased;
+				peakLeasedSlices += sizeClass.peakLeased;
+				leasedBytes += (long) sizeClass.leased * sizeClass.sliceSize;
+				leakedSlices += sizeClass.leakedSlices(now, leakTimeoutNanos);
+			}
+		}
+
+		return new Metrics(capacityBytes(), leasedBytes, totalSlices, leasedSlices, peakLeasedSlices, leakedSlices,
+				exhaustions.get(), invalidReleases.get());
+	}
+
+	private long capacityBytes() {
+		long capacityBytes = 0;
+		for (SizeClass sizeClass : sizeClasses) {
+			capacityBytes += (long) sizeClass.buffers.length * sizeClass.sliceSize;
+		}
+
+		return capacityBytes;
+	}
+
+	/**
+	 * A snapshot of the metrics of a {@link SlabBufferPool}.
+	 *
+	 * @param capacityBytes    the total size of all slabs in bytes
+	 * @param leasedBytes      the total size of all leased slices in bytes
+	 * @param totalSlices      the number of slices across all size classes
+	 * @param leasedSlices     the number of slices currently leased
+	 * @param peakLeasedSlices the sum of the highest number of slices leased at once in each size class
+	 * @param leakedSlices     the number of slices leased for longer than the leak timeout
+	 * @param exhaustions      the number of leases that failed because the pool was exhausted
+	 * @param invalidReleases  the number of releases of buffers that were not leased from the pool
+	 */
+	public record Metrics(long capacityBytes, long leasedBytes, int totalSlices, int leasedSlices, int peakLeasedSlices,
+						  int leakedSlices, long exhaustions, long invalidReleases) {
+	}
+
+	private record Slice(int sizeClassIndex, int sliceIndex) {
+	}
+
+	private static final class SizeClass {
+		private final int sliceSize;
+		private final ByteBuffer[] buffers;
+		private final long[] leasedAtNanos;
+		private final boolean[] leasedSlices;
+		private final int[] freeSlices;
+		private int freeCount;
+		private int leased;
+		private int peakLeased;
+
+		private SizeClass(int sliceSize, int sliceCount) {
+			ByteBuffer slab = ByteBuffer.allocateDirect(sliceSize * sliceCount);
+
+			this.sliceSize = sliceSize;
+			this.buffers = new ByteBuffer[sliceCount];
+			this.leasedAtNanos = new long[sliceCount];
+			this.leasedSlices = new boolean[sliceCount];
+			this.freeSlices = new int[sliceCount];
+			for (int i = 0; i < sliceCount; i++) {
+				buffers[i] = slab.slice(i * sliceSize, sliceSize);
+				// Lease the lowest slices first, keeping the busy part of the slab contiguous
+				freeSlices[i] = sliceCount - 1 - i;
+			}
+			this.freeCount = sliceCount;
+		}
+
+		private synchronized ByteBuffer lease() {
+			if (freeCount == 0) {
+				return null;
+			}
+
+			int sliceIndex = freeSlices[--freeCount];
+			leasedSlices[sliceIndex] = true;
+			leasedAtNanos[sliceIndex] = System.nanoTime();
+			peakLeased = Math.max(peakLeased, ++leased);
+
+			return buffers[sliceIndex];
+		}
+
+		private synchronized boolean release(int sliceIndex) {
+			if (!leasedSlices[sliceIndex]) {
+				return false;
+			}
+
+			leasedSlices[sliceIndex] = false;
+			freeSlices[freeCount++] = sliceIndex;
+			leased--;
+			return true;
+		}
+
+		private int leakedSlices(long nowNanos, long leakTimeoutNanos) {
+			int leaked = 0;
+			for (int i = 0; i < leasedSlices.length; i++) {
+				if (leasedSlices[i] && nowNanos - leasedAtNanos[i] >= leakTimeoutNanos) {
+					leaked++;
+				}
+			}
+
+			return leaked;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package io.github.ramonster1.jbeacon.command;
+
+import lombok.Builder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link OnPollResponseCommand} that only forwards a response to its delegate command when the response differs
+ * from the last one forwarded, so that unchanged responses are not published again.
+ * <p>
+ * Each response is identified by its length and its 64-bit {@link PayloadHash}, so no copy of the previous response is
+ * kept and deduplicating does not allocate. Placed in front of an Aeron publishing command, it stops identical
+ * responses from using term buffer space and waking every subscriber.
+ * <p>
+ * Key Features:
+ * - An optional keepalive interval forwards an unchanged response once the interval has passed since the last
+ * forwarded response, so that subscribers can tell an unchanged target from a dead publisher.
+ * - A timed out poll is forwarded to the delegate, and the next response is always forwarded, even if it is the same
+ * as the last response before the timeout.
+ * - Counts the suppressed responses.
+ * <p>
+ * Usage Notes:
+ * - Use one DeduplicatingCommand per target, as it only remembers the last response of one target. With a
+ * {@link io.github.ramonster1.jbeacon.poll.MultiTargetUDPPollingService}, wrap the command of each
+ * {@link io.github.ramonster1.jbeacon.poll.PollTarget}.
+ * - The delegate receives the response buffer with its position unchanged.
+ * <p>
+ * Thread Safety:
+ * - The class is not thread-safe, as the responses of a target are never executed concurrently.
+ */
+public class DeduplicatingCommand implements OnPollResponseCommand {
+	private final OnPollResponseCommand onPollResponseCommand;
+	private final long keepaliveIntervalNanos;
+	private long lastHash;
+	private int lastLength = -1;
+	private long lastForwardedNanos;
+	private long suppressedResponses;
+
+	/**
+	 * Constructs a DeduplicatingCommand.
+	 *
+	 * @param onPollResponseCommand the {@link OnPollResponseCommand} that changed responses are forwarded to
+	 * @param keepaliveInterval     the time, in milliseconds, after which an unchanged response is forwarded again.
+	 *                              Unchanged responses are never forwarded if it is null
+	 * @throws IllegalArgumentException if the keepalive interval is not positive
+	 */
+	@Builder
+	DeduplicatingCommand(OnPollResponseCommand onPollResponseCommand, Long keepaliveInterval) {
+		if (keepaliveInterval != null && keepaliveInterval <= 0) {
+			throw new IllegalArgumentException("Keepalive interval must be positive: " + keepaliveInterval);
+		}
+
+		this.onPollResponseCommand = onPollResponseCommand;
+		this.keepaliveIntervalNanos = keepaliveInterval == null ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(keepaliveInterval);
+	}
+
+	@Override
+	public void execute(ByteBuffer buffer) {
+		long hash = PayloadHash.hash(buffer);
+		int length = buffer.remaining();
+		long nowNanos = System.nanoTime();
+
+		if (hash == lastHash && length == lastLength && nowNanos - lastForwardedNanos < keepaliveIntervalNanos) {
+			suppressedResponses++;
+			return;
+		}
+
+		lastHash = hash;
+		lastLength = length;
+		lastForwardedNanos = nowNanos;
+		onPollResponseCommand.execute(buffer);
+	}
+
+	@Override
+	public void onTimeout() {
+		// Forgets the last response, so that the first response after the timeout is forwarded
+		lastLength = -1;
+		onPollResponseCommand.onTimeout();
+	}
+
+	/**
+	 * Returns the number of responses that were not forwarded because they were unchanged.
+	 *
+	 * @return the number of suppressed responses
+	 */
+	public long suppressedCount() {
+		return suppressedResponses;
+	}
+}
@@ -32,4 +32,12 @@ public interface OnPollResponseCommand {
 	 * @param buffer the flipped {@link ByteBuffer} containing the data to process.
 	 */
 	void execute(ByteBuffer buffer);
+
+	/**
+	 * Called instead of {@link #execute(ByteBuffer)} when a poll is not answered before its deadline, including
+	 * any retransmissions. Implementations can use this to mark data as stale or to raise an alert.
+	 * The default implementation does nothing.
+	 */
+	default void onTimeout() {
+	}
 }
@@ -0,0 +1,42 @@
+package io.github.ramonster1.jbeacon.command;
+
+import io.github.ramonster1.jbeacon.util.SplitMix64;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * PayloadHash computes a 64-bit hash of the remaining bytes of a response, to tell whether a response differs from the
+ * one before it without keeping a copy of the previous response.
+ * <p>
+ * The hash reads eight bytes at a time with absolute gets, so it neither allocates nor moves the position of the
+ * buffer, and is the same for equal bytes in heap and direct buffers of either byte order. It is not a cryptographic
+ * hash. Two different responses have the same hash with a probability of about 2^-64, which is negligible for
+ * detecting changes, but a target that can choose its responses can choose colliding ones.
+ */
+public final class PayloadHash {
+	private PayloadHash() {
+	}
+
+	/**
+	 * Hashes the bytes between the position and the limit of the buffer.
+	 *
+	 * @param buffer the flipped {@link ByteBuffer} to hash. Its position and limit are not changed
+	 * @return the 64-bit hash of the remaining bytes
+	 */
+	public static long hash(ByteBuffer buffer) {
+		int index = buffer.position();
+		int limit = buffer.limit();
+		boolean littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+		long hash = (limit - index) * SplitMix64.GOLDEN_GAMMA;
+
+		for (; index + Long.BYTES <= limit; index += Long.BYTES) {
+			long word = buffer.getLong(index);
+			hash = Long.rotateLeft(hash ^ SplitMix64.mix(littleEndian ? Long.reverseBytes(word) : word), 27) * SplitMix64.GOLDEN_GAMMA;
+		}
+		for (; index < limit; index++) {
+			hash = Long.rotateLeft(hash ^ SplitMix64.mix(buffer.get(index) & 0xFF), 27) * SplitMix64.GOLDEN_GAMMA;
+		}
+		return SplitMix64.mix(hash);
+	}
+}
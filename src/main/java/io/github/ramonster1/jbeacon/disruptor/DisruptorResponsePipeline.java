@@ -0,0 +1,351 @@
+package io.github.ramonster1.jbeacon.disruptor;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import lombok.Builder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * DisruptorResponsePipeline hands poll responses from the thread that receives them to one or more consumer threads
+ * that execute the response commands, through an LMAX Disruptor ring.
+ * <p>
+ * Without a pipeline, {@link OnPollResponseCommand#execute(java.nio.ByteBuffer)} runs inline on the receiving thread,
+ * so a slow command, such as one writing to disk or publishing to a back-pressured Aeron publication, stalls the I/O
+ * of every other target received on that thread. A command decorated by the pipeline instead copies each response into
+ * a preallocated slot of the ring and returns, and the command itself is executed on a consumer thread.
+ * <p>
+ * Key Features:
+ * - Each slot of the ring holds a direct buffer large enough for any response, allocated when the pipeline is
+ * created, so handing a response over does not allocate.
+ * - Timeouts are handed over through the ring too, in order with the responses of their target.
+ * - The commands of each target always execute on the same consumer thread, in the order the responses were
+ * received. Targets are spread over the consumer threads as they are decorated.
+ * - The Disruptor {@link WaitStrategy} of the consumer threads is configurable, trading CPU for latency.
+ * - The {@link FullRingPolicy} decides whether the receiving thread waits for a free slot, drops the response, or
+ * conflates it with the target's earlier responses, when the commands fall behind.
+ * <p>
+ * Usage Notes:
+ * - Decorate the command of every target with {@link #decorate(OnPollResponseCommand)}, and pass the decorated command
+ * to the polling service.
+ * - Responses longer than the maximum response length are dropped, and counted.
+ * - An exception thrown by a command is logged, and does not stop the consumer thread.
+ * - Closing the pipeline waits for the responses already in the ring to be executed, up to the close timeout.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. Decorated commands may be executed concurrently by polling threads and
+ * {@link io.github.ramonster1.jbeacon.poll.PollEventLoop} threads.
+ */
+public class DisruptorResponsePipeline implements AutoCloseable {
+	private static final Logger logger = LogManager.getLogger();
+	private static final int DEFAULT_RING_SIZE = 1024;
+	private static final int DEFAULT_MAX_RESPONSE_LENGTH = 2048;
+	private static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+	private final int maxResponseLength;
+	private final int consumers;
+	private final FullRingPolicy fullRingPolicy;
+	private final long closeTimeoutMillis;
+	private final Disruptor<ResponseEvent> disruptor;
+	private final RingBuffer<ResponseEvent> ringBuffer;
+	private final AtomicInteger nextShard = new AtomicInteger();
+	private final Queue<PipelinedCommand> conflatedCommands = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean flushing = new AtomicBoolean();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong conflations = new AtomicLong();
+	private final AtomicLong oversized = new AtomicLong();
+
+	/**
+	 * Constructs a DisruptorResponsePipeline and starts its consumer threads.
+	 *
+	 * @param ringSize          the number of slots in the ring, which must be a power of 2. Defaults to 1024
+	 * @param maxResponseLength the length in bytes of the buffer of each slot, and so of the longest response that can be
+	 *                          handed over. Defaults to 2048
+	 * @param consumers         the number of consumer threads executing commands. Defaults to 1
+	 * @param waitStrategy      the Disruptor {@link WaitStrategy} of the consumer threads. Defaults to a
+	 *                          {@link BlockingWaitStrategy}, which uses the least CPU
+	 * @param fullRingPolicy    the {@link FullRingPolicy} applied when the ring is full. Defaults to BLOCK
+	 * @param closeTimeout      the maximum time, in milliseconds, to wait for the ring to drain when closing. Defaults to 5 seconds
+	 * @throws IllegalArgumentException if the ring size is not a power of 2, or the maximum response length or number of
+	 *                                  consumers is not positive
+	 */
+	@Builder
+	DisruptorResponsePipeline(Integer ringSize, Integer maxResponseLength, Integer consumers, WaitStrategy waitStrategy,
+							  FullRingPolicy fullRingPolicy, Long closeTimeout) {
+		int slots = ringSize == null ? DEFAULT_RING_SIZE : ringSize;
+		this.maxResponseLength = maxResponseLength == null ? DEFAULT_MAX_RESPONSE_LENGTH : maxResponseLength;
+		this.consumers = consumers == null ? 1 : consumers;
+		this.fullRingPolicy = fullRingPolicy == null ? FullRingPolicy.BLOCK : fullRingPolicy;
+		this.closeTimeoutMillis = closeTimeout == null ? DEFAULT_CLOSE_TIMEOUT_MILLIS : closeTimeout;
+
+		if (slots < 1 || Integer.bitCount(slots) != 1) {
+			throw new IllegalArgumentException("Ring size must be a power of 2: " + slots);
+		}
+		if (this.maxResponseLength < 1) {
+			throw new IllegalArgumentException("Maximum response length must be positive: " + this.maxResponseLength);
+		}
+		if (this.consumers < 1) {
+			throw new IllegalArgumentException("Consumers must be positive: " + this.consumers);
+		}
+
+		AtomicInteger threadIndex = new AtomicInteger();
+		this.disruptor = new Disruptor<>(() -> new ResponseEvent(this.maxResponseLength), slots,
+				runnable -> {
+					Thread thread = new Thread(runnable, "jbeacon-response-" + threadIndex.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				},
+				ProducerType.MULTI, waitStrategy == null ? new BlockingWaitStrategy() : waitStrategy);
+
+		ShardHandler[] handlers = new ShardHandler[this.consumers];
+		for (int i = 0; i < this.consumers; i++) {
+			handlers[i] = new ShardHandler(i);
+		}
+		disruptor.handleEventsWith(handlers);
+		disruptor.setDefaultExceptionHandler(new LoggingExceptionHandler());
+		this.ringBuffer = disruptor.start();
+
+		logger.info("Started response pipeline with {} slots of {} bytes, {} consumers and full ring policy {}",
+				slots, this.maxResponseLength, this.consumers, this.fullRingPolicy);
+	}
+
+	/**
+	 * Decorates the command of a target, so that it is executed on a consumer thread of this pipeline.
+	 *
+	 * @param command the command of the target
+	 * @return the command to pass to the polling service in its place
+	 */
+	public OnPollResponseCommand decorate(OnPollResponseCommand command) {
+		int shard = Math.floorMod(nextShard.getAndIncrement(), consumers);
+		return new PipelinedCommand(this, command, shard, fullRingPolicy == FullRingPolicy.CONFLATE ? maxResponseLength : 0);
+	}
+
+	void publish(PipelinedCommand command, ByteBuffer response) {
+		if (response.remaining() > maxResponseLength) {
+			oversized.incrementAndGet();
+			logger.warn("Dropped response of {} bytes, longer than the maximum response length of {}", response.remaining(), maxResponseLength);
+			return;
+		}
+
+		switch (fullRingPolicy) {
+			case BLOCK -> {
+				long sequence = ringBuffer.next();
+				ringBuffer.get(sequence).set(command, response);
+				ringBuffer.publish(sequence);
+			}
+			case DROP -> {
+				if (!tryPublish(command, response)) {
+					dropped.incrementAndGet();
+				}
+			}
+			case CONFLATE -> {
+				flushConflated();
+				synchronized (command) {
+					// A newer response must not overtake the conflated one, so it replaces it instead
+					if (command.hasConflated || !tryPublish(command, response)) {
+						conflate(command, response);
+					}
+				}
+			}
+		}
+	}
+
+	void publishTimeout(PipelinedCommand command) {
+		if (fullRingPolicy == FullRingPolicy.BLOCK) {
+			long sequence = ringBuffer.next();
+			ringBuffer.get(sequence).setTimeout(command);
+			ringBuffer.publish(sequence);
+			return;
+		}
+
+		synchronized (command) {
+			// A timeout behind a conflated response is dropped, as the response will still be executed
+			if (command.hasConflated || !tryPublishTimeout(command)) {
+				dropped.incrementAndGet();
+			}
+		}
+	}
+
+	private boolean tryPublish(PipelinedCommand command, ByteBuffer response) {
+		long sequence;
+		try {
+			sequence = ringBuffer.tryNext();
+		} catch (InsufficientCapacityException e) {
+			return false;
+		}
+
+		ringBuffer.get(sequence).set(command, response);
+		ringBuffer.publish(sequence);
+		return true;
+	}
+
+	private boolean tryPublishTimeout(PipelinedCommand command) {
+		long sequence;
+		try {
+			sequence = ringBuffer.tryNext();
+		} catch (InsufficientCapacityException e) {
+			return false;
+		}
+
+		ringBuffer.get(sequence).setTimeout(command);
+		ringBuffer.publish(sequence);
+		return true;
+	}
+
+	// Called while holding the lock of the command
+	private void conflate(PipelinedCommand command, ByteBuffer response) {
+		command.conflated.clear().put(0, response, response.position(), response.remaining()).limit(response.remaining());
+		conflations.incrementAndGet();
+		if (!command.hasConflated) {
+			command.hasConflated = true;
+			conflatedCommands.add(command);
+		}
+	}
+
+	/**
+	 * Publishes the conflated responses of targets, oldest first, for as long as the ring has free slots. Called by the
+	 * receiving threads before publishing, and by the consumer threads whenever they have caught up.
+	 */
+	private void flushConflated() {
+		if (conflatedCommands.isEmpty() || !flushing.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			PipelinedCommand command;
+			while ((command = conflatedCommands.peek()) != null) {
+				synchronized (command) {
+					if (!tryPublish(command, command.conflated)) {
+						return;
+					}
+					command.hasConflated = false;
+				}
+				conflatedCommands.poll();
+			}
+		} finally {
+			flushing.set(false);
+		}
+	}
+
+	/**
+	 * Returns the number of responses and timeouts dropped, either because the ring was full under the DROP policy,
+	 * or because a timeout found a conflated response of its target waiting under the CONFLATE policy.
+	 *
+	 * @return the number of dropped responses and timeouts
+	 */
+	public long droppedResponses() {
+		return dropped.get();
+	}
+
+	/**
+	 * Returns the number of responses set aside because the ring was full under the CONFLATE policy. Every conflated
+	 * response after the first of a target overwrites the one before it.
+	 *
+	 * @return the number of conflated responses
+	 */
+	public long conflatedResponses() {
+		return conflations.get();
+	}
+
+	/**
+	 * Returns the number of responses dropped because they were longer than the maximum response length.
+	 *
+	 * @return the number of oversized responses
+	 */
+	public long oversizedResponses() {
+		return oversized.get();
+	}
+
+	/**
+	 * Waits for the responses already in the ring to be executed, up to the close timeout, then stops the consumer
+	 * threads. Conflated responses that have not been published by then are discarded.
+	 */
+	@Override
+	public void close() {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeTimeoutMillis);
+		// The ring can look drained while conflated responses are still waiting for a slot
+		while (!conflatedCommands.isEmpty() && System.nanoTime() < deadline) {
+			flushConflated();
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+
+		try {
+			disruptor.shutdown(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			logger.warn("Response pipeline did not drain within {} ms, halting", closeTimeoutMillis);
+			disruptor.halt();
+		}
+	}
+
+	/**
+	 * Executes the commands of the targets assigned to one consumer thread, and skips every other event.
+	 */
+	private final class ShardHandler implements EventHandler<ResponseEvent> {
+		private final int shard;
+		private Sequence sequenceCallback;
+
+		private ShardHandler(int shard) {
+			this.shard = shard;
+		}
+
+		@Override
+		public void setSequenceCallback(Sequence sequenceCallback) {
+			this.sequenceCallback = sequenceCallback;
+		}
+
+		@Override
+		public void onEvent(ResponseEvent event, long sequence, boolean endOfBatch) {
+			try {
+				if (event.command.shard == shard) {
+					if (event.timeout) {
+						event.command.delegate.onTimeout();
+					} else {
+						event.command.delegate.execute(event.buffer);
+					}
+				}
+			} finally {
+				if (endOfBatch && fullRingPolicy == FullRingPolicy.CONFLATE) {
+					// Frees the slots of the batch before flushing, so a batch that drained a full ring makes room
+					sequenceCallback.set(sequence);
+					flushConflated();
+				}
+			}
+		}
+	}
+
+	private static final class LoggingExceptionHandler implements ExceptionHandler<ResponseEvent> {
+
+		@Override
+		public void handleEventException(Throwable ex, long sequence, ResponseEvent event) {
+			logger.error("Exception from response command at sequence {}", sequence, ex);
+		}
+
+		@Override
+		public void handleOnStartException(Throwable ex) {
+			logger.error("Exception starting response pipeline consumer", ex);
+		}
+
+		@Override
+		public void handleOnShutdownException(Throwable ex) {
+			logger.error("Exception stopping response pipeline consumer", ex);
+		}
+	}
+}
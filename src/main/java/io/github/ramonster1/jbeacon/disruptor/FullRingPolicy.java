@@ -0,0 +1,27 @@
+package io.github.ramonster1.jbeacon.disruptor;
+
+/**
+ * Defines what a {@link DisruptorResponsePipeline} does with a response when its ring is full, because the response
+ * commands are not keeping up with the responses being received.
+ */
+public enum FullRingPolicy {
+
+	/**
+	 * Waits for the response commands to free a slot. No response is lost, but a slow command stalls the receiving
+	 * thread, and with it the I/O of every other target received on that thread.
+	 */
+	BLOCK,
+
+	/**
+	 * Drops the response, and counts it. The receiving thread never waits.
+	 */
+	DROP,
+
+	/**
+	 * Keeps the latest response of each target aside, overwriting any earlier response of that target that is still
+	 * waiting, and publishes it once a slot is free. The receiving thread never waits, and the commands of a target
+	 * eventually see its latest response. This suits responses that carry the current state of the target, rather
+	 * than a sequence of updates.
+	 */
+	CONFLATE
+}
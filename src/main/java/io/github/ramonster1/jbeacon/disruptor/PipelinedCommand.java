@@ -0,0 +1,38 @@
+package io.github.ramonster1.jbeacon.disruptor;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@link OnPollResponseCommand} of a single target handed to a polling service in place of its own command, which
+ * publishes each response to a {@link DisruptorResponsePipeline} instead of executing the command inline.
+ * <p>
+ * Created through {@link DisruptorResponsePipeline#decorate(OnPollResponseCommand)}.
+ */
+final class PipelinedCommand implements OnPollResponseCommand {
+	final OnPollResponseCommand delegate;
+	final int shard;
+	private final DisruptorResponsePipeline pipeline;
+	// The latest response of the target that did not fit in the ring, only allocated with the CONFLATE policy
+	final ByteBuffer conflated;
+	// Guarded by this
+	boolean hasConflated;
+
+	PipelinedCommand(DisruptorResponsePipeline pipeline, OnPollResponseCommand delegate, int shard, int conflatedLength) {
+		this.pipeline = pipeline;
+		this.delegate = delegate;
+		this.shard = shard;
+		this.conflated = conflatedLength > 0 ? ByteBuffer.allocateDirect(conflatedLength) : null;
+	}
+
+	@Override
+	public void execute(ByteBuffer buffer) {
+		pipeline.publish(this, buffer);
+	}
+
+	@Override
+	public void onTimeout() {
+		pipeline.publishTimeout(this);
+	}
+}
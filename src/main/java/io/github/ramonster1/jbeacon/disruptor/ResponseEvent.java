@@ -0,0 +1,30 @@
+package io.github.ramonster1.jbeacon.disruptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A slot of the ring of a {@link DisruptorResponsePipeline}, preallocated with a buffer large enough for any response.
+ * The receiving thread copies a response into the slot, and a consumer thread executes the command of its target.
+ */
+final class ResponseEvent {
+	final ByteBuffer buffer;
+	PipelinedCommand command;
+	boolean timeout;
+
+	ResponseEvent(int maxResponseLength) {
+		this.buffer = ByteBuffer.allocateDirect(maxResponseLength);
+	}
+
+	void set(PipelinedCommand command, ByteBuffer response) {
+		this.command = command;
+		this.timeout = false;
+		// Copies without moving the position of either buffer
+		buffer.clear().put(0, response, response.position(), response.remaining()).limit(response.remaining());
+	}
+
+	void setTimeout(PipelinedCommand command) {
+		this.command = command;
+		this.timeout = true;
+		buffer.clear().limit(0);
+	}
+}
@@ -0,0 +1,78 @@
+package io.github.ramonster1.jbeacon.event;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Forwards every poll event to each of a fixed set of listeners, in order. Created through
+ * {@link PollEventListener#of(PollEventListener...)}.
+ */
+final class CompositePollEventListener implements PollEventListener {
+	private final PollEventListener[] listeners;
+
+	CompositePollEventListener(PollEventListener... listeners) {
+		this.listeners = listeners.clone();
+	}
+
+	@Override
+	public void onScheduled(long intendedStartNanos) {
+		for (PollEventListener listener : listeners) {
+			listener.onScheduled(intendedStartNanos);
+		}
+	}
+
+	@Override
+	public void onSent(InetSocketAddress target, int length, long sequence) {
+		for (PollEventListener listener : listeners) {
+			listener.onSent(target, length, sequence);
+		}
+	}
+
+	@Override
+	public void onReceived(InetSocketAddress target, int length, long latencyNanos) {
+		for (PollEventListener listener : listeners) {
+			listener.onReceived(target, length, latencyNanos);
+		}
+	}
+
+	@Override
+	public void onExecuted(InetSocketAddress target, int length, long durationNanos) {
+		for (PollEventListener listener : listeners) {
+			listener.onExecuted(target, length, durationNanos);
+		}
+	}
+
+	@Override
+	public void onTimeout(InetSocketAddress target, long sequence) {
+		for (PollEventListener listener : listeners) {
+			listener.onTimeout(target, sequence);
+		}
+	}
+
+	@Override
+	public void onPublished(int length, long position) {
+		for (PollEventListener listener : listeners) {
+			listener.onPublished(length, position);
+		}
+	}
+
+	@Override
+	public void onBackPressured(int length) {
+		for (PollEventListener listener : listeners) {
+			listener.onBackPressured(length);
+		}
+	}
+
+	@Override
+	public void onNotConnected(int length) {
+		for (PollEventListener listener : listeners) {
+			listener.onNotConnected(length);
+		}
+	}
+
+	@Override
+	public void onScheduleOverrun(long overrunNanos) {
+		for (PollEventListener listener : listeners) {
+			listener.onScheduleOverrun(overrunNanos);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package io.github.ramonster1.jbeacon.event;
+
+import java.net.InetSocketAddress;
+
+
+/**
+ * Receives the lifecycle events of polls, such as requests being sent and responses being received or published.
+ * <p>
+ * Listeners are called on the polling thread, or on a {@link io.github.ramonster1.jbeacon.poll.PollEventLoop}
+ * thread, on every poll. Implementations should therefore be cheap and must not block or allocate, so that recording
+ * events does not disturb the latency being observed. Every method has an empty default implementation, so a
+ * listener only needs to override the events it is interested in.
+ * <p>
+ * Example usage:
+ * <pre>
+ * PollEventListener timeoutCounter = new PollEventListener() {
+ *     &#64;Override
+ *     public void onTimeout(InetSocketAddress target, long sequence) {
+ *         timeouts.increment();
+ *     }
+ * };
+ * </pre>
+ */
+public interface PollEventListener {
+
+	/**
+	 * A listener that ignores every event.
+	 */
+	PollEventListener NO_OP = new PollEventListener() {
+	};
+
+	/**
+	 * Returns a listener that forwards every event to each of the given listeners, in order.
+	 *
+	 * @param listeners the listeners to forward events to
+	 * @return a listener forwarding to all of the given listeners
+	 */
+	static PollEventListener of(PollEventListener... listeners) {
+		return listeners.length == 1 ? listeners[0] : new CompositePollEventListener(listeners);
+	}
+
+	/**
+	 * Called by a {@link io.github.ramonster1.jbeacon.poll.scheduling.PollSchedulingService} on the scheduling thread,
+	 * immediately before a scheduled poll starts. The intended start time is when the poll should have started had every
+	 * earlier poll finished within its period, so that latency can be measured from it rather than from the actual,
+	 * possibly delayed, start of the poll.
+	 *
+	 * @param intendedStartNanos the {@link System#nanoTime()} at which the poll was scheduled to start
+	 */
+	default void onScheduled(long intendedStartNanos) {
+	}
+
+	/**
+	 * Called after a request has been sent, including retransmitted and hedged requests. A hedged request is reported
+	 * under the target that was polled, not the hedge endpoint it was sent to.
+	 *
+	 * @param target   the target that was polled
+	 * @param length   the length of the request in bytes
+	 * @param sequence the sequence number stamped into the request, or -1 if requests are not correlated
+	 */
+	default void onSent(InetSocketAddress target, int length, long sequence) {
+	}
+
+	/**
+	 * Called when a response has been accepted, before the response command is executed.
+	 *
+	 * @param target       the target that was polled
+	 * @param length       the length of the response in bytes
+	 * @param latencyNanos the time in nanoseconds since the answered request was sent, or -1 if it is unknown
+	 */
+	default void onReceived(InetSocketAddress target, int length, long latencyNanos) {
+	}
+
+	/**
+	 * Called after the response command has executed for an accepted response. For the Aeron response commands, this
+	 * is once the response has been published, or has failed to be.
+	 *
+	 * @param target        the target that was polled
+	 * @param length        the length of the response in bytes
+	 * @param durationNanos the time in nanoseconds from the response being received to the command completing
+	 */
+	default void onExecuted(InetSocketAddress target, int length, long durationNanos) {
+	}
+
+	/**
+	 * Called when a poll was not answered before its deadline.
+	 *
+	 * @param target   the target that was polled
+	 * @param sequence the sequence number of the unanswered request, or -1 if it is unknown
+	 */
+	default void onTimeout(InetSocketAddress target, long sequence) {
+	}
+
+	/**
+	 * Called when a response has been published to a downstream transport, such as an Aeron publication.
+	 *
+	 * @param length   the length of the published data in bytes
+	 * @param position the position of the transport after publishing, or -1 if it is unknown
+	 */
+	default void onPublished(int length, long position) {
+	}
+
+	/**
+	 * Called when a response could not be published because the downstream transport is back pressured.
+	 *
+	 * @param length the length of the data that was not published in bytes
+	 */
+	default void onBackPressured(int length) {
+	}
+
+	/**
+	 * Called when a response could not be published because the downstream transport is not connected.
+	 *
+	 * @param length the length of the data that was not published in bytes
+	 */
+	default void onNotConnected(int length) {
+	}
+
+	/**
+	 * Called when a scheduled poll took longer than its period, so that the next poll starts late.
+	 *
+	 * @param overrunNanos the time in nanoseconds by which the poll exceeded its period
+	 */
+	default void onScheduleOverrun(long overrunNanos) {
+	}
+}
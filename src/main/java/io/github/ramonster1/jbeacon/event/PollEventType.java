@@ -0,0 +1,49 @@
+package io.github.ramonster1.jbeacon.event;
+
+import java.util.Arrays;
+
+
+/**
+ * The kinds of poll lifecycle events reported to a {@link PollEventListener}, each with a stable code used to
+ * identify it in binary records.
+ */
+public enum PollEventType {
+	SENT(1),
+	RECEIVED(2),
+	TIMEOUT(3),
+	PUBLISHED(4),
+	BACK_PRESSURED(5),
+	NOT_CONNECTED(6),
+	SCHEDULE_OVERRUN(7);
+
+	private static final PollEventType[] BY_CODE = new PollEventType[8];
+
+	static {
+		Arrays.stream(values()).forEach(type -> BY_CODE[type.code] = type);
+	}
+
+	private final int code;
+
+	PollEventType(int code) {
+		this.code = code;
+	}
+
+	/**
+	 * Returns the stable code of this event type.
+	 *
+	 * @return the code identifying this event type in binary records
+	 */
+	public int code() {
+		return code;
+	}
+
+	/**
+	 * Returns the event type with the given code.
+	 *
+	 * @param code the code of the event type
+	 * @return the event type, or {@code null} if no event type has the given code
+	 */
+	public static PollEventType fromCode(int code) {
+		return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+	}
+}
@@ -0,0 +1,23 @@
+package io.github.ramonster1.jbeacon.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown to indicate that a buffer could not be leased from a {@code SlabBufferPool}, because every slice large
+ * enough for the requested size is already leased.
+ * <p>
+ * The pool never grows beyond the slabs it was created with, so this exception signals that the pool is undersized
+ * for the number of polls in flight, or that leased buffers are not being released.
+ */
+public class BufferPoolExhaustedException extends IOException {
+
+
+	/**
+	 * Constructs a new {@code BufferPoolExhaustedException} with the specified detail message.
+	 *
+	 * @param msg the detail message, providing additional context about the exception
+	 */
+	public BufferPoolExhaustedException(String msg) {
+		super(msg);
+	}
+}
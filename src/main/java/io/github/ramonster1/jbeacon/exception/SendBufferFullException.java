@@ -0,0 +1,23 @@
+package io.github.ramonster1.jbeacon.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown to indicate that a request could not be sent, because the send buffer of a non-blocking channel had no room
+ * for the datagram.
+ * <p>
+ * A non-blocking {@code DatagramChannel} sends either the whole datagram or nothing at all. The request is left ready
+ * to be sent again, so the poll can be retried once the socket has drained its send buffer.
+ */
+public class SendBufferFullException extends IOException {
+
+
+	/**
+	 * Constructs a new {@code SendBufferFullException} with the specified detail message.
+	 *
+	 * @param msg the detail message, providing additional context about the exception
+	 */
+	public SendBufferFullException(String msg) {
+		super(msg);
+	}
+}
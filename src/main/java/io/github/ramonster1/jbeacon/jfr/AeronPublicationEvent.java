@@ -0,0 +1,81 @@
+package io.github.ramonster1.jbeacon.jfr;
+
+import io.aeron.Publication;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event spanning a single attempt to publish a poll response to an Aeron {@link Publication},
+ * through either {@link Publication#offer} or {@link Publication#tryClaim}.
+ * <p>
+ * An attempt retried because of an admin action is recorded as a separate event.
+ */
+@Name("io.github.ramonster1.jbeacon.AeronPublication")
+@Label("Aeron Publication")
+@Description("An attempt to publish a poll response to an Aeron publication")
+@Category({"JBeacon", "Aeron"})
+@StackTrace(false)
+public final class AeronPublicationEvent extends Event {
+	@Label("Channel")
+	String channel;
+
+	@Label("Stream Id")
+	int streamId;
+
+	@Label("Method")
+	String method;
+
+	@Label("Result")
+	String result;
+
+	@Label("Position")
+	@Description("The new position of the publication, or the negative result code if the response was not published")
+	long position;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	/**
+	 * Ends and commits the event, if a recording has the event enabled and its duration exceeds the threshold.
+	 *
+	 * @param publication the publication the response was published to
+	 * @param method      the name of the publication method, such as "offer" or "tryClaim"
+	 * @param bytes       the length of the response in bytes
+	 * @param position    the result of the publication method
+	 */
+	public void emit(Publication publication, String method, int bytes, long position) {
+		end();
+		if (shouldCommit()) {
+			this.channel = publication.channel();
+			this.streamId = publication.streamId();
+			this.method = method;
+			this.result = result(position);
+			this.position = position;
+			this.bytes = bytes;
+			commit();
+		}
+	}
+
+	private static String result(long position) {
+		if (position > 0) {
+			return "PUBLISHED";
+		} else if (position == Publication.NOT_CONNECTED) {
+			return "NOT_CONNECTED";
+		} else if (position == Publication.BACK_PRESSURED) {
+			return "BACK_PRESSURED";
+		} else if (position == Publication.ADMIN_ACTION) {
+			return "ADMIN_ACTION";
+		} else if (position == Publication.CLOSED) {
+			return "CLOSED";
+		} else if (position == Publication.MAX_POSITION_EXCEEDED) {
+			return "MAX_POSITION_EXCEEDED";
+		}
+		return "UNKNOWN";
+	}
+}
@@ -0,0 +1,46 @@
+package io.github.ramonster1.jbeacon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.net.InetSocketAddress;
+
+/**
+ * A JDK Flight Recorder event spanning the execution of the response command for a poll response.
+ * <p>
+ * The event is begun before the command executes, and committed with {@link #emit(InetSocketAddress, int)} once it
+ * has completed.
+ */
+@Name("io.github.ramonster1.jbeacon.CommandExecuted")
+@Label("Poll Response Command Executed")
+@Description("The response command executed for a poll response")
+@Category({"JBeacon", "Poll"})
+@StackTrace(false)
+public final class CommandExecutedEvent extends Event {
+	@Label("Target")
+	String target;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	/**
+	 * Ends and commits the event, if a recording has the event enabled and its duration exceeds the threshold.
+	 *
+	 * @param target the target that was polled
+	 * @param bytes  the length of the response in bytes
+	 */
+	public void emit(InetSocketAddress target, int bytes) {
+		end();
+		if (shouldCommit()) {
+			this.target = String.valueOf(target);
+			this.bytes = bytes;
+			commit();
+		}
+	}
+}
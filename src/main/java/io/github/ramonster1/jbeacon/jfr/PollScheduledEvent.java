@@ -0,0 +1,41 @@
+package io.github.ramonster1.jbeacon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JDK Flight Recorder event spanning a poll run by a
+ * {@link io.github.ramonster1.jbeacon.poll.scheduling.PollSchedulingService}.
+ * <p>
+ * The targets and bytes of the poll are carried by the nested {@link RequestSentEvent}s and
+ * {@link ResponseReceivedEvent}s.
+ */
+@Name("io.github.ramonster1.jbeacon.PollScheduled")
+@Label("Scheduled Poll")
+@Description("A poll run by a poll scheduling service")
+@Category({"JBeacon", "Scheduling"})
+@StackTrace(false)
+public final class PollScheduledEvent extends Event {
+	@Label("Schedule Delay")
+	@Description("The time by which the poll started later than scheduled, because an earlier poll overran its period")
+	@Timespan
+	long scheduleDelay;
+
+	/**
+	 * Ends and commits the event, if a recording has the event enabled and its duration exceeds the threshold.
+	 *
+	 * @param scheduleDelayNanos the time in nanoseconds by which the poll started later than scheduled
+	 */
+	public void emit(long scheduleDelayNanos) {
+		end();
+		if (shouldCommit()) {
+			this.scheduleDelay = scheduleDelayNanos;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package io.github.ramonster1.jbeacon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.net.InetSocketAddress;
+
+/**
+ * A JDK Flight Recorder event for a poll request sent to a target, including retransmitted and hedged requests.
+ */
+@Name("io.github.ramonster1.jbeacon.RequestSent")
+@Label("Poll Request Sent")
+@Description("A poll request was sent to a target")
+@Category({"JBeacon", "Poll"})
+@StackTrace(false)
+public final class RequestSentEvent extends Event {
+	@Label("Target")
+	String target;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	@Label("Sequence")
+	@Description("The sequence number stamped into the request, or -1 if requests are not correlated")
+	long sequence;
+
+	/**
+	 * Commits an event for a sent request, if a recording has the event enabled.
+	 *
+	 * @param target   the target that was polled, also for requests hedged to another endpoint
+	 * @param bytes    the length of the request in bytes
+	 * @param sequence the sequence number stamped into the request, or -1 if requests are not correlated
+	 */
+	public static void emit(InetSocketAddress target, int bytes, long sequence) {
+		RequestSentEvent event = new RequestSentEvent();
+		if (event.shouldCommit()) {
+			event.target = String.valueOf(target);
+			event.bytes = bytes;
+			event.sequence = sequence;
+			event.commit();
+		}
+	}
+}
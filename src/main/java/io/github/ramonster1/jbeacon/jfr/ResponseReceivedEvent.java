@@ -0,0 +1,51 @@
+package io.github.ramonster1.jbeacon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.net.InetSocketAddress;
+
+/**
+ * A JDK Flight Recorder event for a poll response accepted from a target, before its response command is executed.
+ */
+@Name("io.github.ramonster1.jbeacon.ResponseReceived")
+@Label("Poll Response Received")
+@Description("A poll response was accepted from a target")
+@Category({"JBeacon", "Poll"})
+@StackTrace(false)
+public final class ResponseReceivedEvent extends Event {
+	@Label("Target")
+	String target;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	@Label("Latency")
+	@Description("The time since the answered request was sent, or -1 if it is unknown")
+	@Timespan
+	long latency;
+
+	/**
+	 * Commits an event for a received response, if a recording has the event enabled.
+	 *
+	 * @param target       the target that was polled
+	 * @param bytes        the length of the response in bytes
+	 * @param latencyNanos the time in nanoseconds since the answered request was sent, or -1 if it is unknown
+	 */
+	public static void emit(InetSocketAddress target, int bytes, long latencyNanos) {
+		ResponseReceivedEvent event = new ResponseReceivedEvent();
+		if (event.shouldCommit()) {
+			event.target = String.valueOf(target);
+			event.bytes = bytes;
+			event.latency = latencyNanos;
+			event.commit();
+		}
+	}
+}
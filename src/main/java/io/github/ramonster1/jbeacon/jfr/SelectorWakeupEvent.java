@@ -0,0 +1,47 @@
+package io.github.ramonster1.jbeacon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event spanning a single select of a {@link io.github.ramonster1.jbeacon.poll.PollSelector},
+ * from the wait for ready channels to the last response command executed.
+ * <p>
+ * A selector serves many targets, so the event carries the number of ready channels and the total bytes received
+ * rather than a single target. The targets of the responses are carried by the nested
+ * {@link CommandExecutedEvent}s.
+ */
+@Name("io.github.ramonster1.jbeacon.SelectorWakeup")
+@Label("Poll Selector Wakeup")
+@Description("A select of a poll selector, and the processing of the channels it found ready")
+@Category({"JBeacon", "Poll"})
+@StackTrace(false)
+public final class SelectorWakeupEvent extends Event {
+	@Label("Ready Channels")
+	int readyChannels;
+
+	@Label("Bytes")
+	@Description("The total length of the datagrams received from the ready channels")
+	@DataAmount
+	long bytes;
+
+	/**
+	 * Ends and commits the event, if a recording has the event enabled and its duration exceeds the threshold.
+	 *
+	 * @param readyChannels the number of channels found ready
+	 * @param bytes         the total length of the datagrams received in bytes
+	 */
+	public void emit(int readyChannels, long bytes) {
+		end();
+		if (shouldCommit()) {
+			this.readyChannels = readyChannels;
+			this.bytes = bytes;
+			commit();
+		}
+	}
+}
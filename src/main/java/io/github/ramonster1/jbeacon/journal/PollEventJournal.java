@@ -0,0 +1,199 @@
+package io.github.ramonster1.jbeacon.journal;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.event.PollEventType;
+import lombok.Builder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PollEventJournal is a {@link PollEventListener} that records poll lifecycle events as fixed-size binary records in
+ * a memory-mapped ring file, as a low-overhead alternative to logging every poll as text.
+ * <p>
+ * The file starts with a header, followed by a ring of records. Once the ring is full, each new record overwrites the
+ * oldest one, so the file always holds the most recent events and never grows. Recording an event is a handful of
+ * writes to the mapped file, without allocating, formatting or calling into the operating system, and the operating
+ * system writes the pages back in the background. The records survive a crash of the JVM, and can be decoded offline
+ * with {@link PollEventJournalDecoder}.
+ * <p>
+ * Key Features:
+ * - Records requests sent, responses received, timeouts, responses published, publications that were back pressured
+ * or not connected, and scheduled polls that overran their period.
+ * - Each record holds a nanosecond timestamp, the event type, the target address and port, a length and a value, such
+ * as the sequence number of a request or the latency of a response.
+ * - The capacity of the ring is fixed when the journal is opened.
+ * <p>
+ * Usage Notes:
+ * - Opening a journal truncates any existing file at its path.
+ * - IPv6 target addresses are recorded as a hash, so the decoder can only print IPv4 addresses in full.
+ * - Records being written while the file is decoded may be skipped, so the journal should be decoded once the writer
+ * has been closed or has stopped.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. Events may be recorded concurrently by polling threads and a
+ * {@link io.github.ramonster1.jbeacon.poll.PollEventLoop} thread.
+ */
+public class PollEventJournal implements PollEventListener, Closeable {
+	private static final Logger logger = LogManager.getLogger();
+	private static final int DEFAULT_CAPACITY = 1 << 16;
+
+	static final int MAGIC = 0x4A42454A;
+	static final int VERSION = 1;
+	static final int HEADER_LENGTH = 64;
+	static final int RECORD_LENGTH = 40;
+
+	// Header layout
+	static final int MAGIC_OFFSET = 0;
+	static final int VERSION_OFFSET = 4;
+	static final int RECORD_LENGTH_OFFSET = 8;
+	static final int CAPACITY_OFFSET = 12;
+	static final int EPOCH_NANOS_OFFSET = 16;
+	static final int NANO_TIME_OFFSET = 24;
+
+	// Record layout. The index is the one-based number of the record, written last, or 0 while the record is incomplete
+	static final int INDEX_OFFSET = 0;
+	static final int TIMESTAMP_OFFSET = 8;
+	static final int TYPE_OFFSET = 16;
+	static final int FAMILY_OFFSET = 18;
+	static final int PORT_OFFSET = 20;
+	static final int ADDRESS_OFFSET = 24;
+	static final int LENGTH_OFFSET = 28;
+	static final int VALUE_OFFSET = 32;
+
+	static final short FAMILY_NONE = 0;
+	static final short FAMILY_IPV4 = 4;
+	static final short FAMILY_IPV6 = 6;
+
+	private final Path path;
+	private final MappedByteBuffer buffer;
+	private final int capacity;
+	private final AtomicLong nextRecord = new AtomicLong();
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	/**
+	 * Opens a PollEventJournal, creating or truncating the file at the given path.
+	 *
+	 * @param path     the path of the journal file
+	 * @param capacity the number of records kept in the ring before the oldest are overwritten. Defaults to 65536
+	 * @throws IOException              if the file cannot be created or mapped
+	 * @throws IllegalArgumentException if the capacity is not positive or the file would exceed 2 GB
+	 */
+	@Builder
+	PollEventJournal(Path path, Integer capacity) throws IOException {
+		this.path = path;
+		this.capacity = capacity == null ? DEFAULT_CAPACITY : capacity;
+
+		if (this.capacity < 1 || HEADER_LENGTH + (long) this.capacity * RECORD_LENGTH > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid journal capacity: " + this.capacity);
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			// The mapping stays valid after the channel is closed
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + (long) this.capacity * RECORD_LENGTH);
+		}
+
+		buffer.putInt(MAGIC_OFFSET, MAGIC);
+		buffer.putInt(VERSION_OFFSET, VERSION);
+		buffer.putInt(RECORD_LENGTH_OFFSET, RECORD_LENGTH);
+		buffer.putInt(CAPACITY_OFFSET, this.capacity);
+		// Anchors the monotonic record timestamps to the wall clock
+		buffer.putLong(EPOCH_NANOS_OFFSET, TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+		buffer.putLong(NANO_TIME_OFFSET, System.nanoTime());
+
+		logger.info("Opened poll event journal {} with a capacity of {} records", path, this.capacity);
+	}
+
+	@Override
+	public void onSent(InetSocketAddress target, int length, long sequence) {
+		record(PollEventType.SENT, target, length, sequence);
+	}
+
+	@Override
+	public void onReceived(InetSocketAddress target, int length, long latencyNanos) {
+		record(PollEventType.RECEIVED, target, length, latencyNanos);
+	}
+
+	@Override
+	public void onTimeout(InetSocketAddress target, long sequence) {
+		record(PollEventType.TIMEOUT, target, 0, sequence);
+	}
+
+	@Override
+	public void onPublished(int length, long position) {
+		record(PollEventType.PUBLISHED, null, length, position);
+	}
+
+	@Override
+	public void onBackPressured(int length) {
+		record(PollEventType.BACK_PRESSURED, null, length, -1);
+	}
+
+	@Override
+	public void onNotConnected(int length) {
+		record(PollEventType.NOT_CONNECTED, null, length, -1);
+	}
+
+	@Override
+	public void onScheduleOverrun(long overrunNanos) {
+		record(PollEventType.SCHEDULE_OVERRUN, null, 0, overrunNanos);
+	}
+
+	/**
+	 * Returns the total number of events recorded since the journal was opened, including those already overwritten.
+	 *
+	 * @return the number of recorded events
+	 */
+	public long recordedEvents() {
+		return nextRecord.get();
+	}
+
+	private void record(PollEventType type, InetSocketAddress target, int length, long value) {
+		long index = nextRecord.getAndIncrement();
+		int offset = HEADER_LENGTH + (int) (index % capacity) * RECORD_LENGTH;
+
+		// Marks the record as incomplete, in case the ring has wrapped around and a reader finds it half-written
+		buffer.putLong(offset + INDEX_OFFSET, 0);
+		buffer.putLong(offset + TIMESTAMP_OFFSET, System.nanoTime());
+		buffer.putShort(offset + TYPE_OFFSET, (short) type.code());
+		putTarget(offset, target);
+		buffer.putInt(offset + LENGTH_OFFSET, length);
+		buffer.putLong(offset + VALUE_OFFSET, value);
+		buffer.putLong(offset + INDEX_OFFSET, index + 1);
+	}
+
+	private void putTarget(int offset, InetSocketAddress target) {
+		InetAddress address = target == null ? null : target.getAddress();
+		short family = address == null ? FAMILY_NONE : address instanceof Inet4Address ? FAMILY_IPV4 : FAMILY_IPV6;
+
+		buffer.putShort(offset + FAMILY_OFFSET, family);
+		buffer.putInt(offset + PORT_OFFSET, target == null ? 0 : target.getPort());
+		// The hash code of an IPv4 address is the address itself, and unlike getAddress() it does not allocate
+		buffer.putInt(offset + ADDRESS_OFFSET, address == null ? 0 : address.hashCode());
+	}
+
+	/**
+	 * Flushes the recorded events to the file. Events recorded after the journal is closed are still written to the
+	 * mapped file, but are not guaranteed to be flushed.
+	 */
+	@Override
+	public void close() {
+		if (closed.compareAndSet(false, true)) {
+			buffer.force();
+			logger.info("Closed poll event journal {} after {} events", path, nextRecord.get());
+		}
+	}
+}
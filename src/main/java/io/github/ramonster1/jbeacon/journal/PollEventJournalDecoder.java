@@ -0,0 +1,141 @@
+package io.github.ramonster1.jbeacon.journal;
+
+import io.github.ramonster1.jbeacon.event.PollEventType;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static io.github.ramonster1.jbeacon.journal.PollEventJournal.*;
+
+/**
+ * Decodes the binary records of a {@link PollEventJournal} file, oldest first.
+ * <p>
+ * The decoder can be run as a command line tool, which prints one line per event:
+ * <pre>
+ * java -cp jbeacon.jar io.github.ramonster1.jbeacon.journal.PollEventJournalDecoder poll-events.journal
+ * </pre>
+ * or through the {@code decodeJournal} Gradle task:
+ * <pre>
+ * ./gradlew decodeJournal -Pjournal=poll-events.journal
+ * </pre>
+ */
+public final class PollEventJournalDecoder {
+
+	private PollEventJournalDecoder() {
+	}
+
+	/**
+	 * Prints every event in the given journal file to standard output, oldest first.
+	 *
+	 * @param args the path of the journal file
+	 * @throws IOException if the file cannot be read or is not a poll event journal
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: PollEventJournalDecoder <journal file>");
+			System.exit(2);
+		}
+
+		for (JournalRecord journalRecord : read(Path.of(args[0]))) {
+			System.out.println(journalRecord.format());
+		}
+	}
+
+	/**
+	 * Reads every complete record in the given journal file.
+	 *
+	 * @param path the path of the journal file
+	 * @return the records in the order they were recorded
+	 * @throws IOException if the file cannot be read or is not a poll event journal
+	 */
+	public static List<JournalRecord> read(Path path) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_LENGTH) {
+				throw new IOException("Not a poll event journal: " + path);
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+			throw new IOException("Not a poll event journal: " + path);
+		}
+		if (buffer.getInt(VERSION_OFFSET) != VERSION || buffer.getInt(RECORD_LENGTH_OFFSET) != RECORD_LENGTH) {
+			throw new IOException("Unsupported poll event journal version " + buffer.getInt(VERSION_OFFSET) + ": " + path);
+		}
+
+		int capacity = buffer.getInt(CAPACITY_OFFSET);
+		long epochNanos = buffer.getLong(EPOCH_NANOS_OFFSET);
+		long nanoTime = buffer.getLong(NANO_TIME_OFFSET);
+		if (HEADER_LENGTH + (long) capacity * RECORD_LENGTH > buffer.capacity()) {
+			throw new IOException("Truncated poll event journal: " + path);
+		}
+
+		List<JournalRecord> journalRecords = new ArrayList<>();
+		for (int slot = 0; slot < capacity; slot++) {
+			int offset = HEADER_LENGTH + slot * RECORD_LENGTH;
+			long index = buffer.getLong(offset + INDEX_OFFSET);
+			PollEventType type = PollEventType.fromCode(buffer.getShort(offset + TYPE_OFFSET));
+			// Skips slots that were never written, incomplete records and records of an unknown type
+			if (index == 0 || (index - 1) % capacity != slot || type == null) {
+				continue;
+			}
+
+			long timestampNanos = epochNanos + buffer.getLong(offset + TIMESTAMP_OFFSET) - nanoTime;
+			journalRecords.add(new JournalRecord(index,
+					Instant.ofEpochSecond(0, timestampNanos),
+					type,
+					target(buffer.getShort(offset + FAMILY_OFFSET), buffer.getInt(offset + ADDRESS_OFFSET), buffer.getInt(offset + PORT_OFFSET)),
+					buffer.getInt(offset + LENGTH_OFFSET),
+					buffer.getLong(offset + VALUE_OFFSET)));
+		}
+
+		journalRecords.sort(Comparator.comparingLong(JournalRecord::index));
+		return journalRecords;
+	}
+
+	private static String target(short family, int address, int port) {
+		return switch (family) {
+			case FAMILY_IPV4 -> String.format("%d.%d.%d.%d:%d", address >>> 24, (address >>> 16) & 0xFF, (address >>> 8) & 0xFF, address & 0xFF, port);
+			case FAMILY_IPV6 -> String.format("[ipv6#%08x]:%d", address, port);
+			default -> port == 0 ? "-" : "unresolved:" + port;
+		};
+	}
+
+	/**
+	 * A decoded journal record.
+	 *
+	 * @param index     the one-based number of the record, in the order events were recorded
+	 * @param timestamp the time at which the event was recorded
+	 * @param type      the type of the event
+	 * @param target    the address and port of the target, or "-" for events without a target
+	 * @param length    the length in bytes of the request, response or published data, or 0
+	 * @param value     the sequence number, latency or overrun in nanoseconds, or publication position, depending on the type
+	 */
+	public record JournalRecord(long index, Instant timestamp, PollEventType type, String target, int length, long value) {
+
+		/**
+		 * Formats the record as a single line of text, naming the value after the event type.
+		 *
+		 * @return the formatted record
+		 */
+		public String format() {
+			String valueName = switch (type) {
+				case SENT, TIMEOUT -> "sequence";
+				case RECEIVED -> "latencyNanos";
+				case PUBLISHED -> "position";
+				case SCHEDULE_OVERRUN -> "overrunNanos";
+				case BACK_PRESSURED, NOT_CONNECTED -> "value";
+			};
+
+			return String.format("%d %s %-14s %s length=%d %s=%d", index, timestamp, type, target, length, valueName, value);
+		}
+	}
+}
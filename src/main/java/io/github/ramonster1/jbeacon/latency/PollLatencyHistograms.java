@@ -0,0 +1,199 @@
+package io.github.ramonster1.jbeacon.latency;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import lombok.Builder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PollLatencyHistograms is a {@link PollEventListener} that records the latency of polls in a set of HdrHistogram
+ * histograms per target, from which percentiles can be reported on demand.
+ * <p>
+ * Three latencies are recorded for every response:
+ * - The round trip, from the answered request being sent to the response being received. This is the latency of the
+ * target itself, and is the figure to watch for a degrading upstream.
+ * - The corrected round trip, from the intended start of the poll to the response being received. When polls are run
+ * by a {@link io.github.ramonster1.jbeacon.poll.scheduling.PollSchedulingService}, a slow poll delays the polls
+ * scheduled after it. Measuring only the round trips of the delayed polls hides that delay, which is known as
+ * coordinated omission. The corrected round trip includes it, and is the latency actually seen by a consumer of the
+ * responses. Without a scheduler, it is the same as the round trip.
+ * - The publish latency, from the response being received to the response command completing. For the Aeron response
+ * commands, this is the time taken to publish the response.
+ * <p>
+ * Key Features:
+ * - Recording a latency is a wait-free histogram update, without allocating. Only the first event for a target
+ * allocates its histograms.
+ * - Histograms are log-linear, so their precision is relative to the latency being recorded, from microseconds to
+ * seconds, in a fixed amount of memory.
+ * - {@link #snapshot()} reports the count, p50, p99, p99.9 and maximum of every histogram, in nanoseconds.
+ * <p>
+ * Usage Notes:
+ * - The intended start of a poll is reported to the listener on the scheduling thread, and applies to the requests
+ * sent by that thread until the next scheduled poll. A thread that runs scheduled polls should therefore not also
+ * run unscheduled ones.
+ * - Retransmitted and hedged requests do not restart the corrected round trip of a poll.
+ * - Latencies above the highest trackable latency are recorded as the highest trackable latency.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. Events may be recorded concurrently by polling threads and a
+ * {@link io.github.ramonster1.jbeacon.poll.PollEventLoop} thread, and snapshots may be taken from any thread.
+ */
+public class PollLatencyHistograms implements PollEventListener {
+	private static final long DEFAULT_HIGHEST_TRACKABLE_LATENCY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+	private static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+	private static final long NOT_SCHEDULED = Long.MIN_VALUE;
+	private static final long NOT_PENDING = -1;
+
+	private final long highestTrackableNanos;
+	private final int significantDigits;
+	private final Map<InetSocketAddress, TargetHistograms> targets = new ConcurrentHashMap<>();
+	// Holds the intended start of the current scheduled poll of each thread, in a mutable holder so that updating it
+	// does not allocate
+	private final ThreadLocal<long[]> intendedStartNanos = ThreadLocal.withInitial(() -> new long[]{NOT_SCHEDULED});
+
+	/**
+	 * Constructs a PollLatencyHistograms instance. Histograms are created for each target as it is first polled.
+	 *
+	 * @param highestTrackableLatency the highest latency, in milliseconds, that can be recorded precisely. Defaults to one minute
+	 * @param significantDigits       the number of significant decimal digits to which latencies are recorded, between
+	 *                                1 and 5. Defaults to 2, so that latencies are recorded to within 1%
+	 * @throws IllegalArgumentException if the highest trackable latency is not positive or the number of significant
+	 *                                  digits is out of range
+	 */
+	@Builder
+	PollLatencyHistograms(Long highestTrackableLatency, Integer significantDigits) {
+		this.highestTrackableNanos = TimeUnit.MILLISECONDS.toNanos(highestTrackableLatency == null ? DEFAULT_HIGHEST_TRACKABLE_LATENCY_MILLIS : highestTrackableLatency);
+		this.significantDigits = significantDigits == null ? DEFAULT_SIGNIFICANT_DIGITS : significantDigits;
+
+		if (this.highestTrackableNanos <= 0) {
+			throw new IllegalArgumentException("Highest trackable latency must be positive: " + highestTrackableLatency);
+		}
+		if (this.significantDigits < 1 || this.significantDigits > 5) {
+			throw new IllegalArgumentException("Significant digits must be between 1 and 5: " + significantDigits);
+		}
+	}
+
+	@Override
+	public void onScheduled(long intendedStartNanos) {
+		this.intendedStartNanos.get()[0] = intendedStartNanos;
+	}
+
+	@Override
+	public void onSent(InetSocketAddress target, int length, long sequence) {
+		TargetHistograms targetHistograms = targetHistograms(target);
+		if (targetHistograms.scheduleDelayNanos == NOT_PENDING) {
+			long intendedStart = intendedStartNanos.get()[0];
+			targetHistograms.scheduleDelayNanos = intendedStart == NOT_SCHEDULED ? 0 : Math.max(0, System.nanoTime() - intendedStart);
+		}
+	}
+
+	@Override
+	public void onReceived(InetSocketAddress target, int length, long latencyNanos) {
+		TargetHistograms targetHistograms = targetHistograms(target);
+		long scheduleDelayNanos = targetHistograms.scheduleDelayNanos;
+		targetHistograms.scheduleDelayNanos = NOT_PENDING;
+
+		if (latencyNanos >= 0) {
+			record(targetHistograms.roundTrip, latencyNanos);
+			record(targetHistograms.correctedRoundTrip, latencyNanos + Math.max(0, scheduleDelayNanos));
+		}
+	}
+
+	@Override
+	public void onExecuted(InetSocketAddress target, int length, long durationNanos) {
+		record(targetHistograms(target).publish, durationNanos);
+	}
+
+	@Override
+	public void onTimeout(InetSocketAddress target, long sequence) {
+		TargetHistograms targetHistograms = targets.get(target);
+		if (targetHistograms != null) {
+			targetHistograms.scheduleDelayNanos = NOT_PENDING;
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the latency percentiles of every target that has received a response.
+	 *
+	 * @return the latency snapshots, keyed by target
+	 */
+	public Map<InetSocketAddress, TargetLatencySnapshot> snapshot() {
+		Map<InetSocketAddress, TargetLatencySnapshot> snapshots = new HashMap<>();
+		targets.forEach((target, targetHistograms) -> {
+			if (targetHistograms.roundTrip.getTotalCount() > 0) {
+				snapshots.put(target, new TargetLatencySnapshot(LatencySnapshot.of(targetHistograms.roundTrip),
+						LatencySnapshot.of(targetHistograms.correctedRoundTrip), LatencySnapshot.of(targetHistograms.publish)));
+			}
+		});
+		return snapshots;
+	}
+
+	/**
+	 * Clears the histograms of every target, for example after reporting a snapshot, so that the next snapshot only
+	 * covers the latencies recorded since.
+	 */
+	public void reset() {
+		targets.values().forEach(targetHistograms -> {
+			targetHistograms.roundTrip.reset();
+			targetHistograms.correctedRoundTrip.reset();
+			targetHistograms.publish.reset();
+		});
+	}
+
+	private TargetHistograms targetHistograms(InetSocketAddress target) {
+		TargetHistograms targetHistograms = targets.get(target);
+		return targetHistograms != null ? targetHistograms : targets.computeIfAbsent(target, ignored -> new TargetHistograms(highestTrackableNanos, significantDigits));
+	}
+
+	private void record(Histogram histogram, long latencyNanos) {
+		histogram.recordValue(Math.min(latencyNanos, highestTrackableNanos));
+	}
+
+	private static final class TargetHistograms {
+		private final Histogram roundTrip;
+		private final Histogram correctedRoundTrip;
+		private final Histogram publish;
+		// The delay of the outstanding poll from its intended start to its first request, or NOT_PENDING
+		private volatile long scheduleDelayNanos = NOT_PENDING;
+
+		private TargetHistograms(long highestTrackableNanos, int significantDigits) {
+			this.roundTrip = new ConcurrentHistogram(highestTrackableNanos, significantDigits);
+			this.correctedRoundTrip = new ConcurrentHistogram(highestTrackableNanos, significantDigits);
+			this.publish = new ConcurrentHistogram(highestTrackableNanos, significantDigits);
+		}
+	}
+
+	/**
+	 * The latency percentiles of a target.
+	 *
+	 * @param roundTrip          the latency from sending the answered request to receiving the response
+	 * @param correctedRoundTrip the latency from the intended start of the poll to receiving the response
+	 * @param publish            the latency from receiving the response to the response command completing
+	 */
+	public record TargetLatencySnapshot(LatencySnapshot roundTrip, LatencySnapshot correctedRoundTrip, LatencySnapshot publish) {
+	}
+
+	/**
+	 * The percentiles of a latency histogram, in nanoseconds.
+	 *
+	 * @param count the number of latencies recorded
+	 * @param p50   the median latency
+	 * @param p99   the 99th percentile latency
+	 * @param p999  the 99.9th percentile latency
+	 * @param max   the highest latency recorded
+	 */
+	public record LatencySnapshot(long count, long p50, long p99, long p999, long max) {
+
+		static LatencySnapshot of(Histogram histogram) {
+			Histogram copy = histogram.copy();
+			return new LatencySnapshot(copy.getTotalCount(), copy.getValueAtPercentile(50.0), copy.getValueAtPercentile(99.0),
+					copy.getValueAtPercentile(99.9), copy.getMaxValue());
+		}
+	}
+}
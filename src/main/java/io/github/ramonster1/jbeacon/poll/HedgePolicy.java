@@ -0,0 +1,116 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import lombok.Builder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a poll that has not been answered by its primary endpoint is hedged to the next equivalent endpoint.
+ * <p>
+ * The policy keeps a window of the most recent poll latencies and hedges once a poll has been outstanding for longer
+ * than the configured latency percentile of that window. Hedging at the 95th percentile sends roughly one extra
+ * request for every twenty polls, while cutting off the slowest tail of the latency distribution.
+ * <p>
+ * Key Features:
+ * - The hedge delay follows the measured latency of the target, with a configurable lower bound.
+ * - A fixed initial delay is used until enough latencies have been measured.
+ * - Bounds the number of hedge requests per poll.
+ * - The latency window is a fixed ring, and the percentile is only recomputed after new samples, without allocating.
+ * <p>
+ * Usage Notes:
+ * - A policy holds the latencies of one polling service, so each polling service needs its own instance.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe.
+ */
+public class HedgePolicy {
+	private static final double DEFAULT_PERCENTILE = 0.95;
+	private static final long DEFAULT_INITIAL_DELAY_MILLIS = 50;
+	private static final long DEFAULT_MIN_DELAY_MILLIS = 1;
+	private static final int DEFAULT_SAMPLE_WINDOW = 128;
+	private static final int DEFAULT_MAX_HEDGES = 1;
+	private static final int MIN_SAMPLES = 16;
+
+	private final double percentile;
+	private final long initialDelayNanos;
+	private final long minDelayNanos;
+	private final int maxHedges;
+	private final long[] samples;
+	private final long[] sortedSamples;
+	private int sampleCount;
+	private int nextSample;
+	private long hedgeDelayNanos;
+	private boolean stale;
+
+	/**
+	 * Constructs a HedgePolicy with no latency measurements yet.
+	 *
+	 * @param percentile   the latency percentile, between 0 and 1, after which a poll is hedged. Defaults to 0.95
+	 * @param initialDelay the hedge delay, in milliseconds, used until enough latencies have been measured. Defaults to 50
+	 * @param minDelay     the lower bound of the hedge delay in milliseconds. Defaults to 1
+	 * @param sampleWindow the number of most recent latencies the percentile is computed from. Defaults to 128
+	 * @param maxHedges    the maximum number of hedge requests per poll, each to the next endpoint. Defaults to 1
+	 */
+	@Builder
+	HedgePolicy(Double percentile, Long initialDelay, Long minDelay, Integer sampleWindow, Integer maxHedges) {
+		this.percentile = percentile == null ? DEFAULT_PERCENTILE : percentile;
+		this.initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(initialDelay == null ? DEFAULT_INITIAL_DELAY_MILLIS : initialDelay);
+		this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelay == null ? DEFAULT_MIN_DELAY_MILLIS : minDelay);
+		this.maxHedges = maxHedges == null ? DEFAULT_MAX_HEDGES : maxHedges;
+		int window = sampleWindow == null ? DEFAULT_SAMPLE_WINDOW : sampleWindow;
+
+		if (this.percentile <= 0 || this.percentile >= 1) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 1: " + this.percentile);
+		}
+		if (window < 1) {
+			throw new IllegalArgumentException("Sample window must be positive: " + window);
+		}
+		if (this.maxHedges < 0) {
+			throw new IllegalArgumentException("Max hedges must not be negative: " + this.maxHedges);
+		}
+
+		this.samples = new long[window];
+		this.sortedSamples = new long[window];
+		this.hedgeDelayNanos = Math.max(minDelayNanos, initialDelayNanos);
+	}
+
+	/**
+	 * Records the latency of an answered poll, measured from the request to its primary endpoint.
+	 *
+	 * @param latencyNanos the latency of the poll in nanoseconds
+	 */
+	public synchronized void onLatencySample(long latencyNanos) {
+		samples[nextSample] = latencyNanos;
+		nextSample = (nextSample + 1) % samples.length;
+		sampleCount = Math.min(sampleCount + 1, samples.length);
+		stale = true;
+	}
+
+	/**
+	 * Returns how long to wait for a response before hedging a poll to the next endpoint.
+	 *
+	 * @return the hedge delay in nanoseconds
+	 */
+	public synchronized long hedgeDelayNanos() {
+		if (stale && sampleCount >= Math.min(MIN_SAMPLES, samples.length)) {
+			System.arraycopy(samples, 0, sortedSamples, 0, sampleCount);
+			Arrays.sort(sortedSamples, 0, sampleCount);
+
+			int index = (int) Math.ceil(percentile * sampleCount) - 1;
+			hedgeDelayNanos = Math.max(minDelayNanos, sortedSamples[Math.max(0, index)]);
+			stale = false;
+		}
+
+		return hedgeDelayNanos;
+	}
+
+	/**
+	 * Returns the maximum number of hedge requests per poll.
+	 *
+	 * @return the maximum number of hedge requests
+	 */
+	public int maxHedges() {
+		return maxHedges;
+	}
+}
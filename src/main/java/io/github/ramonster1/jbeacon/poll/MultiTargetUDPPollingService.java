@@ -0,0 +1,272 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.exception.SelectorClosedException;
+import io.github.ramonster1.jbeacon.exception.SendBufferFullException;
+import io.github.ramonster1.jbeacon.jfr.CommandExecutedEvent;
+import io.github.ramonster1.jbeacon.jfr.RequestSentEvent;
+import io.github.ramonster1.jbeacon.jfr.ResponseReceivedEvent;
+import lombok.Builder;
+import lombok.Singular;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MultiTargetUDPPollingService is an implementation of the PollingService interface that polls a set of UDP
+ * targets in a single wave, collecting all of their responses through one selector.
+ * <p>
+ * Each {@link PollTarget} has its own request data, response buffer and response command, and is polled over
+ * its own persistent, connected channel. A call to {@link #poll()} sends a request to every target and then
+ * dispatches the responses as they become ready, so a whole wave costs one selector wakeup path instead of one
+ * blocking round trip per target.
+ * <p>
+ * Key Features:
+ * - Fans out a single poll to any number of targets, replacing one polling service and scheduled task per target.
+ * - Collects responses either inline through a {@link PollSelector}, or continuously on a {@link PollEventLoop}.
+ * - Optionally reports every request sent, response received and executed, and target timed out to a {@link PollEventListener}.
+ * - A failure to send to one target is logged and does not prevent the rest of the wave from being polled.
+ * - Each target is answered at most once per wave. Duplicate responses are dropped, and datagrams left over from an
+ * earlier wave are discarded before the next request is sent to the target.
+ * <p>
+ * Usage Notes:
+ * - Either a valid PollSelector or a running PollEventLoop must be provided, otherwise a SelectorClosedException
+ * will be thrown.
+ * - With a PollSelector, poll() returns once every target has responded, or once the wave timeout has elapsed.
+ * Targets that have not responded by then are reported to {@link io.github.ramonster1.jbeacon.command.OnPollResponseCommand#onTimeout()}.
+ * Since each selection waits up to the PollSelector timeout, the wave may overrun its timeout by up to that amount.
+ * - With a PollEventLoop, poll() only sends the requests. Response commands are executed on the event loop thread, and
+ * targets that have not responded within the wave timeout are reported by the event loop at the end of each cycle.
+ * - A response that arrives only after the next request has been sent to its target cannot be told apart from an
+ * answer to that request, so the wave timeout should be shorter than the poll period.
+ * - The service holds a channel per target and should be closed after use.
+ * <p>
+ * Thread Safety:
+ * - The class is not inherently thread-safe. If used in a multi-threaded environment, external
+ * synchronization is required for thread safety.
+ */
+public class MultiTargetUDPPollingService implements PollingService {
+	private static final Logger logger = LogManager.getLogger();
+	private static final long DEFAULT_WAVE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+	private final List<PollTarget> targets;
+	private final PollSelector pollSelector;
+	private final PollEventLoop pollEventLoop;
+	private final long waveTimeoutNanos;
+	private final PollEventListener pollEventListener;
+	private final List<TargetChannel> targetChannels = new ArrayList<>();
+	private final List<ProcessPollAttachment> attachments = new ArrayList<>();
+	private final OutstandingPoll[] outstandingPolls;
+	// Stale datagrams are received into this buffer to discard them, any bytes that do not fit are dropped with them
+	private final ByteBuffer discardBuffer = ByteBuffer.allocateDirect(1);
+	private final AtomicBoolean deadlineTaskAdded = new AtomicBoolean();
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private int outstandingResponses;
+
+	/**
+	 * Constructs a MultiTargetUDPPollingService that polls the given targets through a single selector.
+	 *
+	 * @param targets       the {@link PollTarget}s polled in each wave
+	 * @param pollSelector  the {@link PollSelector} used to collect responses inline within each poll
+	 * @param pollEventLoop the running {@link PollEventLoop} used to collect responses, in which case poll() only sends
+	 * @param waveTimeout   the maximum time, in milliseconds, to wait for the response of each target in a wave.
+	 *                      Defaults to one second
+	 * @param pollEventListener the {@link PollEventListener} notified of each request sent, response received and target
+	 *                          timed out. Events are not reported if it is null
+	 */
+	@Builder
+	MultiTargetUDPPollingService(@Singular List<PollTarget> targets, PollSelector pollSelector, PollEventLoop pollEventLoop, Long waveTimeout, PollEventListener pollEventListener) {
+		if (targets.isEmpty()) {
+			throw new IllegalArgumentException("At least one poll target is required");
+		}
+
+		this.targets = List.copyOf(targets);
+		this.pollSelector = pollSelector;
+		this.pollEventLoop = pollEventLoop;
+		this.waveTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(waveTimeout == null ? DEFAULT_WAVE_TIMEOUT_MILLIS : waveTimeout);
+		this.pollEventListener = pollEventListener == null ? PollEventListener.NO_OP : pollEventListener;
+		this.outstandingPolls = new OutstandingPoll[this.targets.size()];
+
+		for (int i = 0; i < this.targets.size(); i++) {
+			final int index = i;
+
+			outstandingPolls[i] = new OutstandingPoll();
+			targetChannels.add(new TargetChannel());
+			attachments.add(new ProcessPollAttachment(buffer -> onResponse(index, buffer), this.targets.get(i).inBuffer(), false));
+		}
+	}
+
+	/**
+	 * Sends a request to every target, then collects the responses of the wave. With a {@link PollSelector} this
+	 * method returns once all targets have responded or the wave timeout has elapsed; with a {@link PollEventLoop}
+	 * it returns as soon as all requests have been sent.
+	 *
+	 * @throws IOException if an I/O error occurs while selecting or reading responses
+	 */
+	@Override
+	public void poll() throws IOException {
+		validateSelector();
+
+		if (pollEventLoop != null && deadlineTaskAdded.compareAndSet(false, true)) {
+			pollEventLoop.addCycleTask(this::expireOutstandingPolls);
+		}
+
+		int sent = 0;
+		for (int i = 0; i < targets.size(); i++) {
+			if (send(i)) {
+				sent++;
+			}
+		}
+
+		logger.debug("Sent poll wave to {} of {} targets", sent, targets.size());
+
+		if (pollEventLoop != null) {
+			return;
+		}
+
+		outstandingResponses = sent;
+
+		final long deadline = System.nanoTime() + waveTimeoutNanos;
+		while (outstandingResponses > 0 && System.nanoTime() - deadline < 0) {
+			pollSelector.process();
+		}
+
+		if (outstandingResponses > 0) {
+			logger.warn("{} of {} targets did not respond within the wave timeout", outstandingResponses, targets.size());
+			long now = System.nanoTime();
+			for (int i = 0; i < targets.size(); i++) {
+				if (outstandingPolls[i].complete(now) >= 0) {
+					onTimeout(i);
+				}
+			}
+		}
+	}
+
+	private void validateSelector() throws SelectorClosedException {
+		if (pollEventLoop != null) {
+			if (!pollEventLoop.isRunning()) {
+				logger.warn("Event loop is not running");
+				throw new SelectorClosedException("Event loop is not running");
+			}
+		} else if (pollSelector == null || pollSelector.selector() == null || !pollSelector.selector().isOpen()) {
+			logger.warn("Selector is null or not open");
+			throw new SelectorClosedException("Selector is " + (pollSelector == null ? "null" : "closed"));
+		}
+	}
+
+	private boolean send(int index) {
+		PollTarget target = targets.get(index);
+		TargetChannel targetChannel = targetChannels.get(index);
+
+		try {
+			DatagramChannel datagramChannel = targetChannel.open(target.serverSocketAddress(), false);
+			if (pollEventLoop != null) {
+				targetChannel.register(pollEventLoop, attachments.get(index));
+			} else {
+				targetChannel.register(pollSelector.selector(), attachments.get(index));
+			}
+
+			discardStaleDatagrams(datagramChannel);
+
+			// Tracked before sending, so that a fast response can never arrive before its poll is tracked
+			outstandingPolls[index].sent(System.nanoTime());
+			int sent = datagramChannel.send(target.outBuffer(), target.serverSocketAddress());
+			if (sent == 0 && target.outBuffer().hasRemaining()) {
+				throw new SendBufferFullException("Send buffer is full, request to " + target.serverSocketAddress() + " was not sent");
+			}
+			target.outBuffer().flip();
+			pollEventListener.onSent(target.serverSocketAddress(), sent, -1);
+			RequestSentEvent.emit(target.serverSocketAddress(), sent, -1);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			logger.error("Failed to send poll request to {}", target.serverSocketAddress(), e);
+			outstandingPolls[index].complete(System.nanoTime());
+			target.outBuffer().rewind();
+			return false;
+		}
+	}
+
+	private void discardStaleDatagrams(DatagramChannel datagramChannel) throws IOException {
+		// Responses to an earlier wave that arrived after it timed out would otherwise answer this wave
+		int discarded = 0;
+		while (datagramChannel.receive(discardBuffer.clear()) != null) {
+			discarded++;
+		}
+
+		if (discarded > 0) {
+			logger.debug("Discarded {} stale datagrams from {}", discarded, datagramChannel);
+		}
+	}
+
+	private void onResponse(int index, ByteBuffer buffer) {
+		long receivedAt = System.nanoTime();
+		PollTarget target = targets.get(index);
+
+		// Duplicates, and responses that arrive once the wave has timed out, are dropped
+		long latencyNanos = outstandingPolls[index].complete(receivedAt);
+		if (latencyNanos < 0) {
+			logger.debug("Dropped duplicate or late response from {}", target.serverSocketAddress());
+			return;
+		}
+
+		// Only the inline mode waits for the wave to complete
+		if (pollEventLoop == null) {
+			outstandingResponses--;
+		}
+
+		int length = buffer.remaining();
+		pollEventListener.onReceived(target.serverSocketAddress(), length, latencyNanos);
+		ResponseReceivedEvent.emit(target.serverSocketAddress(), length, latencyNanos);
+
+		CommandExecutedEvent commandExecutedEvent = new CommandExecutedEvent();
+		commandExecutedEvent.begin();
+		target.onPollResponseCommand().execute(buffer);
+		commandExecutedEvent.emit(target.serverSocketAddress(), length);
+		pollEventListener.onExecuted(target.serverSocketAddress(), length, System.nanoTime() - receivedAt);
+	}
+
+	private boolean expireOutstandingPolls() {
+		if (closed.get()) {
+			return false;
+		}
+
+		long now = System.nanoTime();
+		for (int i = 0; i < targets.size(); i++) {
+			if (outstandingPolls[i].expire(now, waveTimeoutNanos)) {
+				logger.warn("Poll to {} timed out after {} ms", targets.get(i).serverSocketAddress(), TimeUnit.NANOSECONDS.toMillis(waveTimeoutNanos));
+				onTimeout(i);
+			}
+		}
+
+		return true;
+	}
+
+	private void onTimeout(int index) {
+		PollTarget target = targets.get(index);
+		pollEventListener.onTimeout(target.serverSocketAddress(), -1);
+		target.onPollResponseCommand().onTimeout();
+	}
+
+	/**
+	 * Closes the channels held for every target. Failures to close individual channels are logged so that the
+	 * remaining channels are still closed.
+	 */
+	@Override
+	public void close() {
+		closed.set(true);
+		for (TargetChannel targetChannel : targetChannels) {
+			try {
+				targetChannel.close();
+			} catch (IOException e) {
+				logger.warn("Failed to close target channel", e);
+			}
+		}
+	}
+}
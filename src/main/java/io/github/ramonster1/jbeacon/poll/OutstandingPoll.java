@@ -0,0 +1,92 @@
+package io.github.ramonster1.jbeacon.poll;
+
+/**
+ * Tracks the most recent poll sent by a {@link UDPPollingService} until it is answered or times out.
+ * <p>
+ * It records when the poll was sent, so that a response yields a latency measurement, and whether it was
+ * retransmitted or hedged, in which case it is unknown which request a response answers.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe, since polls may be sent on one thread and answered or expired on a
+ * {@link PollEventLoop} thread.
+ */
+final class OutstandingPoll {
+	private long sentAtNanos;
+	private boolean awaiting;
+	private boolean retransmitted;
+	private boolean hedged;
+
+	/**
+	 * Starts tracking a new poll, replacing any poll still awaiting a response.
+	 *
+	 * @param nowNanos the {@link System#nanoTime()} at which the poll is sent
+	 */
+	synchronized void sent(long nowNanos) {
+		sentAtNanos = nowNanos;
+		awaiting = true;
+		retransmitted = false;
+		hedged = false;
+	}
+
+	/**
+	 * Marks the tracked poll as retransmitted to its primary endpoint.
+	 */
+	synchronized void retransmitted() {
+		retransmitted = true;
+	}
+
+	/**
+	 * Marks the tracked poll as hedged to another endpoint.
+	 */
+	synchronized void hedged() {
+		hedged = true;
+	}
+
+	/**
+	 * Returns whether the tracked poll is still awaiting a response.
+	 *
+	 * @return {@code true} if the poll has neither been answered nor timed out
+	 */
+	synchronized boolean isAwaiting() {
+		return awaiting;
+	}
+
+	/**
+	 * Returns whether the tracked poll has been sent more than once, so that a response cannot be attributed to a
+	 * single request.
+	 *
+	 * @return {@code true} if the poll was retransmitted or hedged
+	 */
+	synchronized boolean isAmbiguous() {
+		return retransmitted || hedged;
+	}
+
+	/**
+	 * Stops tracking the poll once it has been answered or given up on.
+	 *
+	 * @param nowNanos the {@link System#nanoTime()} of the response
+	 * @return the time in nanoseconds since the poll was first sent, or -1 if no poll was awaiting a response
+	 */
+	synchronized long complete(long nowNanos) {
+		long elapsedNanos = awaiting ? nowNanos - sentAtNanos : -1;
+		awaiting = false;
+
+		return elapsedNanos;
+	}
+
+	/**
+	 * Stops tracking the poll if it has been awaiting a response for at least the given timeout.
+	 *
+	 * @param nowNanos     the current {@link System#nanoTime()}
+	 * @param timeoutNanos the poll timeout in nanoseconds
+	 * @return {@code true} if the poll timed out
+	 */
+	synchronized boolean expire(long nowNanos, long timeoutNanos) {
+		if (awaiting && nowNanos - sentAtNanos >= timeoutNanos) {
+			awaiting = false;
+			return true;
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,254 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import lombok.Builder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Matches poll responses to the requests that caused them through a sequence number carried in the request and
+ * response data, so that several polls to the same target can be in flight at once.
+ * <p>
+ * Before each request is sent, {@link #stamp(ByteBuffer)} writes the next sequence number into the request at the
+ * configured offset and records it as in flight. When a response arrives, {@link #accept(ByteBuffer)} reads the
+ * sequence number back from the same offset of the response. A response is only accepted if its sequence number is
+ * still in flight, which also retires it, so late responses and duplicates are dropped.
+ * <p>
+ * Key Features:
+ * - The sequence field has a configurable offset, length of one to eight bytes, and byte order, to fit the target's
+ * protocol. Sequence numbers wrap around within the field length.
+ * - At most {@code maxInFlight} requests are tracked. Once the window is full, stamping a new request retires the
+ * oldest one, whose response is then dropped as late. The window is a power of two, so that it divides the sequence
+ * number range and consecutive sequence numbers keep distinct slots when they wrap around.
+ * - In-flight sequence numbers are kept in a fixed ring, so stamping and accepting do not allocate.
+ * - The send time of each in-flight request is recorded, so that matched responses yield a round trip time and
+ * unanswered requests can be expired after a timeout.
+ * <p>
+ * Usage Notes:
+ * - The server must copy the sequence field of the request into its response at the same offset.
+ * - Offsets are relative to the buffer position, so the request must be ready for draining when stamped and the
+ * response must be flipped when accepted.
+ * <p>
+ * Thread Safety:
+ * - {@link #stamp(ByteBuffer)} must only be called by one thread at a time. The other methods can be called
+ * concurrently from another thread, such as a {@link PollEventLoop}.
+ */
+public class PollCorrelator {
+	private static final Logger logger = LogManager.getLogger();
+	private static final int DEFAULT_SEQUENCE_LENGTH = Integer.BYTES;
+	private static final int DEFAULT_MAX_IN_FLIGHT = 16;
+	private static final long RETIRED = -1L;
+	/**
+	 * Returned by {@link #match(ByteBuffer)} when a response does not match an in-flight request.
+	 */
+	public static final long NO_MATCH = -1L;
+
+	private final int sequenceOffset;
+	private final int sequenceLength;
+	private final boolean bigEndian;
+	private final long sequenceMask;
+	private final AtomicLongArray inFlight;
+	private final AtomicLongArray sentAtNanos;
+	private final AtomicLong droppedResponses = new AtomicLong();
+	private long nextSequence;
+
+	/**
+	 * Constructs a PollCorrelator for the given sequence field.
+	 *
+	 * @param sequenceOffset the offset of the sequence field from the start of the request and response data
+	 * @param sequenceLength the length of the sequence field in bytes, from one to eight. Defaults to four
+	 * @param byteOrder      the byte order of the sequence field. Defaults to big-endian
+	 * @param maxInFlight    the maximum number of requests tracked as in flight at once, a power of two smaller than
+	 *                       the sequence number range. Defaults to sixteen
+	 * @throws IllegalArgumentException if the offset is negative, the length is not between one and eight bytes, or
+	 *                                  the maximum in flight is not a power of two smaller than the sequence number range
+	 */
+	@Builder
+	PollCorrelator(int sequenceOffset, Integer sequenceLength, ByteOrder byteOrder, Integer maxInFlight) {
+		this.sequenceOffset = sequenceOffset;
+		this.sequenceLength = sequenceLength == null ? DEFAULT_SEQUENCE_LENGTH : sequenceLength;
+		this.bigEndian = byteOrder == null || byteOrder == ByteOrder.BIG_ENDIAN;
+		int window = maxInFlight == null ? DEFAULT_MAX_IN_FLIGHT : maxInFlight;
+
+		if (sequenceOffset < 0) {
+			throw new IllegalArgumentException("Sequence offset must not be negative: " + sequenceOffset);
+		}
+		if (this.sequenceLength < 1 || this.sequenceLength > Long.BYTES) {
+			throw new IllegalArgumentException("Sequence length must be between 1 and 8 bytes: " + this.sequenceLength);
+		}
+		if (window < 1 || Integer.bitCount(window) != 1) {
+			throw new IllegalArgumentException("Max in flight must be a positive power of two: " + window);
+		}
+
+		// The top bit is kept clear so that a sequence number can never collide with the retired marker
+		this.sequenceMask = this.sequenceLength == Long.BYTES ? Long.MAX_VALUE : (1L << (Byte.SIZE * this.sequenceLength)) - 1;
+		if (window > this.sequenceMask) {
+			throw new IllegalArgumentException("Max in flight exceeds the sequence number range: " + window);
+		}
+
+		this.inFlight = new AtomicLongArray(window);
+		this.sentAtNanos = new AtomicLongArray(window);
+		for (int i = 0; i < window; i++) {
+			inFlight.set(i, RETIRED);
+		}
+	}
+
+	/**
+	 * Writes the next sequence number into the given request and records it as in flight. If the window is full,
+	 * the oldest in-flight request is retired to make room.
+	 *
+	 * @param request the request data, ready for draining. Its position and limit are not changed
+	 * @return the sequence number written to the request
+	 * @throws IndexOutOfBoundsException if the request is too short to hold the sequence field
+	 */
+	public long stamp(ByteBuffer request) {
+		long sequence = nextSequence;
+		nextSequence = (nextSequence + 1) & sequenceMask;
+
+		write(request, sequence);
+
+		int slot = slot(sequence);
+		sentAtNanos.set(slot, System.nanoTime());
+		long evicted = inFlight.getAndSet(slot, sequence);
+		if (evicted != RETIRED) {
+			logger.debug("Retired unanswered request {} to make room for request {}", evicted, sequence);
+		}
+
+		return sequence;
+	}
+
+	/**
+	 * Reads the sequence number from the given response and retires it if it is in flight.
+	 *
+	 * @param response the flipped response data. Its position and limit are not changed
+	 * @return {@code true} if the response matches an in-flight request, or {@code false} if it is late, duplicated,
+	 * unknown or too short to hold the sequence field
+	 */
+	public boolean accept(ByteBuffer response) {
+		return match(response) != NO_MATCH;
+	}
+
+	/**
+	 * Reads the sequence number from the given response and retires it if it is in flight, like
+	 * {@link #accept(ByteBuffer)}, and measures how long the matched request was in flight.
+	 *
+	 * @param response the flipped response data. Its position and limit are not changed
+	 * @return the time in nanoseconds since the matched request was stamped, or {@link #NO_MATCH} if the response is
+	 * late, duplicated, unknown or too short to hold the sequence field
+	 */
+	public long match(ByteBuffer response) {
+		if (response.remaining() < sequenceOffset + sequenceLength) {
+			droppedResponses.incrementAndGet();
+			logger.debug("Dropped response too short to hold a sequence number: {}", response);
+			return NO_MATCH;
+		}
+
+		long sequence = read(response);
+		int slot = slot(sequence);
+		long sentAt = sentAtNanos.get(slot);
+		if (inFlight.compareAndSet(slot, sequence, RETIRED)) {
+			return Math.max(0, System.nanoTime() - sentAt);
+		}
+
+		droppedResponses.incrementAndGet();
+		logger.debug("Dropped late or duplicate response {}", sequence);
+		return NO_MATCH;
+	}
+
+	/**
+	 * Retires the given request if it is still in flight, so that a response arriving for it later is dropped.
+	 *
+	 * @param sequence the sequence number returned when the request was stamped
+	 * @return {@code true} if the request was in flight
+	 */
+	public boolean retire(long sequence) {
+		return inFlight.compareAndSet(slot(sequence), sequence, RETIRED);
+	}
+
+	/**
+	 * Retires every request that has been in flight for at least the given timeout.
+	 *
+	 * @param nowNanos     the current {@link System#nanoTime()}
+	 * @param timeoutNanos the poll timeout in nanoseconds
+	 * @return the number of requests retired
+	 */
+	public int expire(long nowNanos, long timeoutNanos) {
+		int expired = 0;
+		for (int i = 0; i < inFlight.length(); i++) {
+			long sequence = inFlight.get(i);
+			if (sequence != RETIRED && nowNanos - sentAtNanos.get(i) >= timeoutNanos && inFlight.compareAndSet(i, sequence, RETIRED)) {
+				expired++;
+			}
+		}
+
+		return expired;
+	}
+
+	/**
+	 * Wraps the given command so that it is only executed for responses accepted by this correlator.
+	 *
+	 * @param onPollResponseCommand the command to execute for accepted responses
+	 * @return a command that drops late, duplicate and unknown responses
+	 */
+	public OnPollResponseCommand correlate(OnPollResponseCommand onPollResponseCommand) {
+		return buffer -> {
+			if (accept(buffer)) {
+				onPollResponseCommand.execute(buffer);
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of requests currently tracked as in flight.
+	 *
+	 * @return the number of in-flight requests
+	 */
+	public int inFlight() {
+		int count = 0;
+		for (int i = 0; i < inFlight.length(); i++) {
+			if (inFlight.get(i) != RETIRED) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the total number of responses dropped because they were late, duplicated, unknown or too short.
+	 *
+	 * @return the number of dropped responses
+	 */
+	public long droppedResponses() {
+		return droppedResponses.get();
+	}
+
+	private int slot(long sequence) {
+		// The window divides the sequence number range, so a sequence number keeps its slot across the wraparound
+		return (int) (sequence & (inFlight.length() - 1));
+	}
+
+	private void write(ByteBuffer buffer, long sequence) {
+		int index = buffer.position() + sequenceOffset;
+		for (int i = 0; i < sequenceLength; i++) {
+			int shift = Byte.SIZE * (bigEndian ? sequenceLength - 1 - i : i);
+			buffer.put(index + i, (byte) (sequence >>> shift));
+		}
+	}
+
+	private long read(ByteBuffer buffer) {
+		int index = buffer.position() + sequenceOffset;
+		long sequence = 0;
+		for (int i = 0; i < sequenceLength; i++) {
+			int shift = Byte.SIZE * (bigEndian ? sequenceLength - 1 - i : i);
+			sequence |= (buffer.get(index + i) & 0xFFL) << shift;
+		}
+
+		return sequence & sequenceMask;
+	}
+}
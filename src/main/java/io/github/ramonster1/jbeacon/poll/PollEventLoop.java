@@ -0,0 +1,190 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.exception.SelectorClosedException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * PollEventLoop is a reactor that owns a {@link PollSelector} and runs it on a dedicated, long-running thread.
+ * <p>
+ * Each cycle of the loop registers any channels handed over by polling services, selects on the underlying
+ * {@link java.nio.channels.Selector}, and dispatches every ready key to the {@link ProcessPollAttachment}
+ * registered with it. Ready keys are drained and cleared each cycle, so a single thread can keep thousands of
+ * outstanding polls in flight while the threads calling {@link PollingService#poll()} only send requests.
+ * <p>
+ * Key Features:
+ * - Channel registration is queued and performed on the event loop thread, so callers never contend with an
+ * in-progress select.
+ * - Exceptions thrown while processing a cycle are logged and the loop carries on with the next cycle.
+ * - Cycle tasks, such as poll deadline checks, run on the event loop thread at the end of every cycle.
+ * - Closing the event loop stops the thread and closes the owned selector.
+ * <p>
+ * Usage Notes:
+ * - Call {@link #start()} once before handing the event loop to a polling service.
+ * - Response commands run on the event loop thread, so slow commands delay every other registered channel.
+ * - A cycle ends at least once per selector timeout, which bounds how late a cycle task can run.
+ * <p>
+ * Thread Safety:
+ * - {@link #register(DatagramChannel, ProcessPollAttachment)}, {@link #addCycleTask(BooleanSupplier)},
+ * {@link #start()} and {@link #close()} may be called from any thread.
+ */
+public class PollEventLoop implements Runnable, AutoCloseable {
+	private static final Logger logger = LogManager.getLogger();
+	private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+	private final PollSelector pollSelector;
+	private final Queue<Registration> pendingRegistrations = new ConcurrentLinkedQueue<>();
+	private final Queue<BooleanSupplier> pendingCycleTasks = new ConcurrentLinkedQueue<>();
+	private final List<BooleanSupplier> cycleTasks = new ArrayList<>();
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private Thread thread;
+
+	/**
+	 * Constructs a PollEventLoop that takes ownership of the given {@link PollSelector}. The selector's timeout
+	 * bounds how long each cycle blocks when no channel is ready.
+	 *
+	 * @param pollSelector the {@link PollSelector} to run, which is closed when the event loop is closed
+	 */
+	public PollEventLoop(PollSelector pollSelector) {
+		this.pollSelector = pollSelector;
+	}
+
+	/**
+	 * Starts the event loop on a new daemon thread.
+	 *
+	 * @throws IllegalStateException if the event loop has already been started
+	 */
+	public synchronized void start() {
+		if (!running.compareAndSet(false, true)) {
+			throw new IllegalStateException("Event loop already started");
+		}
+
+		thread = new Thread(this, "jbeacon-poll-event-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Returns whether the event loop is running and able to accept registrations.
+	 *
+	 * @return {@code true} if the event loop has been started and not yet closed
+	 */
+	public boolean isRunning() {
+		return running.get() && pollSelector.selector().isOpen();
+	}
+
+	/**
+	 * Queues a non-blocking channel for registration with the owned selector for read events, and wakes up the
+	 * selector so the registration takes effect on the next cycle.
+	 *
+	 * @param channel    the non-blocking channel to register
+	 * @param attachment the attachment to dispatch to when the channel becomes readable
+	 * @throws SelectorClosedException if the event loop is not running
+	 */
+	public void register(DatagramChannel channel, ProcessPollAttachment attachment) throws SelectorClosedException {
+		if (!isRunning()) {
+			throw new SelectorClosedException("Event loop is not running");
+		}
+
+		pendingRegistrations.add(new Registration(channel, attachment));
+		pollSelector.selector().wakeup();
+	}
+
+	/**
+	 * Adds a task that runs on the event loop thread at the end of every cycle, for as long as it returns
+	 * {@code true}. Exceptions thrown by the task are logged and do not remove it.
+	 *
+	 * @param cycleTask the task to run, returning {@code false} once it should no longer run
+	 */
+	public void addCycleTask(BooleanSupplier cycleTask) {
+		pendingCycleTasks.add(cycleTask);
+	}
+
+	/**
+	 * Runs the event loop until it is closed. Each cycle registers pending channels, selects and dispatches
+	 * all ready keys through {@link PollSelector#process()}, then runs the cycle tasks.
+	 */
+	@Override
+	public void run() {
+		logger.info("Poll event loop started");
+
+		while (running.get()) {
+			try {
+				registerPendingChannels();
+				pollSelector.process();
+				runCycleTasks();
+			} catch (ClosedSelectorException e) {
+				break;
+			} catch (IOException | RuntimeException e) {
+				logger.error("Exception in poll event loop", e);
+			}
+		}
+
+		logger.info("Poll event loop stopped");
+	}
+
+	private void registerPendingChannels() {
+		Registration registration;
+		while ((registration = pendingRegistrations.poll()) != null) {
+			try {
+				registration.channel().register(pollSelector.selector(), SelectionKey.OP_READ, registration.attachment());
+			} catch (IOException e) {
+				logger.error("Failed to register channel {}", registration.channel(), e);
+			}
+		}
+	}
+
+	private void runCycleTasks() {
+		BooleanSupplier pendingCycleTask;
+		while ((pendingCycleTask = pendingCycleTasks.poll()) != null) {
+			cycleTasks.add(pendingCycleTask);
+		}
+
+		for (int i = cycleTasks.size() - 1; i >= 0; i--) {
+			try {
+				if (!cycleTasks.get(i).getAsBoolean()) {
+					cycleTasks.remove(i);
+				}
+			} catch (RuntimeException e) {
+				logger.error("Exception in poll event loop cycle task", e);
+			}
+		}
+	}
+
+	/**
+	 * Stops the event loop, waits for its thread to finish the current cycle, and closes the owned selector.
+	 *
+	 * @throws IOException          if an error occurs while closing the selector
+	 * @throws InterruptedException if interrupted while waiting for the event loop thread to stop
+	 */
+	@Override
+	public void close() throws IOException, InterruptedException {
+		running.set(false);
+		pollSelector.selector().wakeup();
+
+		Thread loopThread;
+		synchronized (this) {
+			loopThread = thread;
+		}
+		if (loopThread != null && loopThread != Thread.currentThread()) {
+			loopThread.join(CLOSE_TIMEOUT_MILLIS);
+		}
+
+		pollSelector.close();
+	}
+
+	private record Registration(DatagramChannel channel, ProcessPollAttachment attachment) {
+	}
+}
@@ -1,13 +1,19 @@
 package io.github.ramonster1.jbeacon.poll;
 
+import io.github.ramonster1.jbeacon.buffer.SlabBufferPool;
+import io.github.ramonster1.jbeacon.jfr.SelectorWakeupEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * PollSelector facilitates the monitoring and processing of readiness states for
@@ -27,8 +33,10 @@ import java.nio.channels.Selector;
  * Key Features:
  * - Monitors a Selector for channels ready for operations, specifically read events.
  * - Processes selected keys with associated attachments, like buffers and callbacks.
- * - Logs received data at both info and debug levels for better observability.
+ * - Logs received data at debug level for better observability, so that logging costs nothing when disabled.
  * - Automatically closes the Selector when the PollSelector is closed.
+ * - Can be run inline by a polling service, or continuously on a dedicated thread by a {@link PollEventLoop}.
+ * - Emits a {@link SelectorWakeupEvent} to JDK Flight Recorder for every select, while a recording has it enabled.
  * <p>
  * Usage Notes:
  * - The Selector instance provided during construction must be initialized appropriately
@@ -37,43 +45,151 @@ import java.nio.channels.Selector;
  * carefully based on application latency requirements.
  * - Ensure that resources like buffers and attachments are managed correctly outside the
  * PollSelector to avoid memory leaks or unintended behavior.
- *
- * @param selector the selector instance to monitor for channel readiness states
- * @param timeout  the maximum time (in milliseconds) the selector will block while waiting
- *                 for channels to become ready before returning
+ * - Ready keys are handed to a cached action through {@link Selector#select(Consumer, long)}, rather than iterated
+ * from the selected-key set, so that processing a persistent channel allocates nothing once warmed up.
+ * - Two PollSelectors are equal if they monitor the same selector with the same timeout.
  */
-public record PollSelector(Selector selector, Long timeout) implements AutoCloseable {
+public final class PollSelector implements AutoCloseable {
 	private static final Logger logger = LogManager.getLogger();
+	// Only asked whether the event is enabled, so that a select allocates no event while nothing is recording
+	private static final SelectorWakeupEvent WAKEUP_EVENT_TYPE = new SelectorWakeupEvent();
+
+	private final Selector selector;
+	private final Long timeout;
+	private final Consumer<SelectionKey> keyAction = this::processKey;
+	// The bytes received during the current select, reported in its SelectorWakeupEvent
+	private long receivedBytes;
+
+	/**
+	 * Constructs a PollSelector for the given selector.
+	 *
+	 * @param selector the selector instance to monitor for channel readiness states
+	 * @param timeout  the maximum time (in milliseconds) the selector will block while waiting
+	 *                 for channels to become ready before returning
+	 */
+	public PollSelector(Selector selector, Long timeout) {
+		this.selector = selector;
+		this.timeout = timeout;
+	}
 
 	/**
 	 * Processes channels registered with the Selector. This method checks for channels that
 	 * are ready for read operations, reads data from those channels, and executes the associated
-	 * process logic defined in the channel's attachment.
+	 * process logic defined in the channel's attachment. Ready keys are not added to the selector's
+	 * selected-key set, and the channel is closed only if the attachment marks it as single-use. The attachment's
+	 * buffer is cleared once its command has executed, ready for the next response. If the attachment has a buffer
+	 * pool, a buffer is leased for each response instead, and released once its command has executed.
 	 *
 	 * @throws IOException if an I/O error occurs while selecting channels or reading data
 	 */
 
 	public void process() throws IOException {
-		if (selector.select(timeout) >= 0) {
-			for (SelectionKey selectedKey : selector.selectedKeys()) {
-				if (selectedKey.isReadable()) {
-					ProcessPollAttachment attachment;
-					ByteBuffer buffer;
-					try (DatagramChannel channel = (DatagramChannel) selectedKey.channel()) {
-						attachment = (ProcessPollAttachment) selectedKey.attachment();
-						buffer = attachment.buffer();
-						channel.receive(buffer);
-					}
-					buffer.flip();
-					logger.info("Received response buffer: {}", buffer);
-					logger.debug("Response buffer: {}", buffer.array());
-
-					attachment.onPollResponseCommand().execute(buffer);
+		receivedBytes = 0;
+		if (!WAKEUP_EVENT_TYPE.isEnabled()) {
+			select();
+			return;
+		}
+
+		SelectorWakeupEvent selectorWakeupEvent = new SelectorWakeupEvent();
+		selectorWakeupEvent.begin();
+		int readyChannels = select();
+		selectorWakeupEvent.emit(readyChannels, receivedBytes);
+	}
+
+	private int select() throws IOException {
+		try {
+			return selector.select(keyAction, timeout);
+		} catch (UncheckedIOException e) {
+			// Thrown by the key action, which cannot throw checked exceptions
+			throw e.getCause();
+		}
+	}
+
+	private void processKey(SelectionKey selectedKey) {
+		if (!selectedKey.isReadable()) {
+			return;
+		}
+
+		ProcessPollAttachment attachment = (ProcessPollAttachment) selectedKey.attachment();
+		SlabBufferPool bufferPool = attachment.bufferPool();
+		try {
+			ByteBuffer buffer = bufferPool == null ? attachment.buffer() : bufferPool.lease(attachment.leaseSize());
+			try {
+				process(selectedKey, attachment, buffer);
+			} finally {
+				if (bufferPool == null) {
+					buffer.clear();
+				} else {
+					bufferPool.release(buffer);
 				}
 			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
 
+	private void process(SelectionKey selectedKey, ProcessPollAttachment attachment, ByteBuffer buffer) throws IOException {
+		DatagramChannel channel = (DatagramChannel) selectedKey.channel();
+		SocketAddress source;
+		try {
+			source = channel.receive(buffer);
+		} finally {
+			if (attachment.closesChannel()) {
+				channel.close();
+			}
+		}
+
+		if (source == null) {
+			logger.debug("No datagram available on {}", channel);
+			return;
+		}
+
+		buffer.flip();
+		logger.debug("Received response buffer: {}", buffer);
+		receivedBytes += buffer.remaining();
+
+		attachment.onPollResponseCommand().execute(buffer);
+	}
+
+	/**
+	 * Returns the selector monitored by this PollSelector.
+	 *
+	 * @return the selector instance to monitor for channel readiness states
+	 */
+	public Selector selector() {
+		return selector;
+	}
+
+	/**
+	 * Returns the maximum time the selector blocks while waiting for channels to become ready.
+	 *
+	 * @return the select timeout in milliseconds
+	 */
+	public Long timeout() {
+		return timeout;
+	}
+
+	/**
+	 * Returns whether the given object is a PollSelector monitoring the same selector with the same timeout.
+	 *
+	 * @param o the object to compare with
+	 * @return {@code true} if both PollSelectors have equal selectors and timeouts
+	 */
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof PollSelector other && Objects.equals(selector, other.selector) && Objects.equals(timeout, other.timeout);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Objects.hashCode(selector) + Objects.hashCode(timeout);
+	}
+
+	@Override
+	public String toString() {
+		return "PollSelector[selector=" + selector + ", timeout=" + timeout + "]";
+	}
+
 	/**
 	 * Closes the underlying Selector instance, releasing any associated resources.
 	 *
@@ -0,0 +1,25 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Represents a single endpoint polled by a {@link MultiTargetUDPPollingService}.
+ * <p>
+ * Each target carries its own request data, response buffer and {@link OnPollResponseCommand}, so that the
+ * responses of a whole poll wave can be dispatched to the right command through a single selector.
+ * <p>
+ * Usage Notes:
+ * - The outBuffer must be ready for draining (flipped), as it is sent unchanged on every poll.
+ * - The inBuffer must be large enough to hold the largest expected response from the target.
+ *
+ * @param serverSocketAddress   the target server's address and port
+ * @param outBuffer             the {@link ByteBuffer} holding the request data sent to the target
+ * @param inBuffer              the {@link ByteBuffer} used to store the response data received from the target
+ * @param onPollResponseCommand the {@link OnPollResponseCommand} implementation to process the target's responses
+ */
+public record PollTarget(InetSocketAddress serverSocketAddress, ByteBuffer outBuffer, ByteBuffer inBuffer,
+						 OnPollResponseCommand onPollResponseCommand) {
+}
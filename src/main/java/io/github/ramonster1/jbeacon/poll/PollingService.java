@@ -1,5 +1,6 @@
 package io.github.ramonster1.jbeacon.poll;
 
+import java.io.Closeable;
 import java.io.IOException;
 
 /**
@@ -7,9 +8,10 @@ import java.io.IOException;
  * <p>
  * The `PollingService` interface defines a contract for implementing services
  * capable of performing polling operations, potentially to communicate with
- * external systems or perform periodic checks.
+ * external systems or perform periodic checks. Polling services may hold network resources
+ * between polls, so they should be closed after use.
  */
-public interface PollingService {
+public interface PollingService extends Closeable {
 
 	/**
 	 * Performs a polling operation, potentially communicating with an external service
@@ -24,4 +26,14 @@ public interface PollingService {
 	 * @throws IOException if an I/O error occurs during the polling operation
 	 */
 	void poll() throws IOException;
+
+	/**
+	 * Releases any resources held between polls, such as persistent channels. Implementations that hold no
+	 * resources between polls do not need to override this method.
+	 *
+	 * @throws IOException if an I/O error occurs while releasing resources
+	 */
+	@Override
+	default void close() throws IOException {
+	}
 }
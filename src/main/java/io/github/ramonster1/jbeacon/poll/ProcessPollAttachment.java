@@ -1,5 +1,6 @@
 package io.github.ramonster1.jbeacon.poll;
 
+import io.github.ramonster1.jbeacon.buffer.SlabBufferPool;
 import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
 
 import java.nio.ByteBuffer;
@@ -19,6 +20,9 @@ import java.nio.ByteBuffer;
  * Key responsibilities:
  * - Provide storage for a {@link ByteBuffer} to hold received data.
  * - Define the command to execute upon processing the response.
+ * - Define whether the channel is closed after a response is received, or kept open for further polls.
+ * - Alternatively, define a {@link SlabBufferPool} from which a buffer is leased for each received response, and
+ * released once the command has executed.
  * <p>
  * Thread Safety:
  * - Instances of this record are immutable if the associated {@link ByteBuffer} is not modified externally.
@@ -29,6 +33,45 @@ import java.nio.ByteBuffer;
  *
  * @param onPollResponseCommand The command that defines the behavior to execute when a poll response is received.
  * @param buffer A {@link ByteBuffer} used to store data received during the polling process.
+ * @param closesChannel Whether the channel is closed once a response has been received. Persistent channels
+ *                      that are reused across polls set this to {@code false}.
+ * @param bufferPool The {@link SlabBufferPool} to lease a buffer from for each response, or {@code null} to use the
+ *                   fixed buffer.
+ * @param leaseSize The size of the buffer leased for each response, if a buffer pool is used.
  */
-public record ProcessPollAttachment(OnPollResponseCommand onPollResponseCommand, ByteBuffer buffer) {
+public record ProcessPollAttachment(OnPollResponseCommand onPollResponseCommand, ByteBuffer buffer, boolean closesChannel,
+									SlabBufferPool bufferPool, int leaseSize) {
+
+	/**
+	 * Creates an attachment that receives every response into the given fixed buffer.
+	 *
+	 * @param onPollResponseCommand The command that defines the behavior to execute when a poll response is received.
+	 * @param buffer A {@link ByteBuffer} used to store data received during the polling process.
+	 * @param closesChannel Whether the channel is closed once a response has been received.
+	 */
+	public ProcessPollAttachment(OnPollResponseCommand onPollResponseCommand, ByteBuffer buffer, boolean closesChannel) {
+		this(onPollResponseCommand, buffer, closesChannel, null, 0);
+	}
+
+	/**
+	 * Creates an attachment that receives each response into a buffer leased from the given pool.
+	 *
+	 * @param onPollResponseCommand The command that defines the behavior to execute when a poll response is received.
+	 * @param bufferPool The {@link SlabBufferPool} to lease a buffer from for each response.
+	 * @param leaseSize The size of the buffer leased for each response.
+	 * @param closesChannel Whether the channel is closed once a response has been received.
+	 */
+	public ProcessPollAttachment(OnPollResponseCommand onPollResponseCommand, SlabBufferPool bufferPool, int leaseSize, boolean closesChannel) {
+		this(onPollResponseCommand, null, closesChannel, bufferPool, leaseSize);
+	}
+
+	/**
+	 * Creates an attachment for a single-use channel, which is closed once a response has been received.
+	 *
+	 * @param onPollResponseCommand The command that defines the behavior to execute when a poll response is received.
+	 * @param buffer A {@link ByteBuffer} used to store data received during the polling process.
+	 */
+	public ProcessPollAttachment(OnPollResponseCommand onPollResponseCommand, ByteBuffer buffer) {
+		this(onPollResponseCommand, buffer, true);
+	}
 }
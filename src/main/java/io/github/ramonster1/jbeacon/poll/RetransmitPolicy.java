@@ -0,0 +1,131 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import lombok.Builder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when an unanswered poll is retransmitted, adapting the retransmission timeout to the measured round trip
+ * time of a single target.
+ * <p>
+ * The timeout follows the estimator of RFC 6298: the smoothed round trip time and its variation are updated from
+ * every unambiguous response, and the timeout is the smoothed round trip time plus four times its variation. Each
+ * retransmission doubles the timeout, until the next measurement replaces it. Fast targets are therefore retried
+ * quickly, while slow or congested targets are not flooded with retransmissions.
+ * <p>
+ * Key Features:
+ * - Adapts to each target's latency, with configurable lower and upper bounds on the timeout.
+ * - Bounds the number of retransmissions per poll.
+ * - Exposes the current round trip time estimates for monitoring.
+ * <p>
+ * Usage Notes:
+ * - A policy holds the estimates of one target, so each polling service needs its own instance.
+ * - Responses to retransmitted polls must not be measured, since it is unknown which transmission they answer.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe.
+ */
+public class RetransmitPolicy {
+	private static final long DEFAULT_INITIAL_TIMEOUT_MILLIS = 200;
+	private static final long DEFAULT_MIN_TIMEOUT_MILLIS = 10;
+	private static final long DEFAULT_MAX_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(2);
+	private static final int DEFAULT_MAX_RETRANSMITS = 2;
+	private static final long CLOCK_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final long minTimeoutNanos;
+	private final long maxTimeoutNanos;
+	private final int maxRetransmits;
+	private long smoothedRttNanos;
+	private long rttVariationNanos;
+	private long retransmitTimeoutNanos;
+	private boolean measured;
+
+	/**
+	 * Constructs a RetransmitPolicy with no round trip time measurements yet.
+	 *
+	 * @param initialTimeout the retransmission timeout, in milliseconds, used until the first measurement. Defaults to 200
+	 * @param minTimeout     the lower bound of the retransmission timeout in milliseconds. Defaults to 10
+	 * @param maxTimeout     the upper bound of the retransmission timeout in milliseconds. Defaults to 2000
+	 * @param maxRetransmits the maximum number of retransmissions of a single poll. Defaults to 2
+	 */
+	@Builder
+	RetransmitPolicy(Long initialTimeout, Long minTimeout, Long maxTimeout, Integer maxRetransmits) {
+		this.minTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(minTimeout == null ? DEFAULT_MIN_TIMEOUT_MILLIS : minTimeout);
+		this.maxTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(maxTimeout == null ? DEFAULT_MAX_TIMEOUT_MILLIS : maxTimeout);
+		this.maxRetransmits = maxRetransmits == null ? DEFAULT_MAX_RETRANSMITS : maxRetransmits;
+
+		if (minTimeoutNanos <= 0 || maxTimeoutNanos < minTimeoutNanos) {
+			throw new IllegalArgumentException("Timeout bounds must be positive with the minimum not above the maximum");
+		}
+		if (this.maxRetransmits < 0) {
+			throw new IllegalArgumentException("Max retransmits must not be negative: " + this.maxRetransmits);
+		}
+
+		this.retransmitTimeoutNanos = bound(TimeUnit.MILLISECONDS.toNanos(initialTimeout == null ? DEFAULT_INITIAL_TIMEOUT_MILLIS : initialTimeout));
+	}
+
+	/**
+	 * Updates the round trip time estimates and the retransmission timeout with a new measurement.
+	 *
+	 * @param rttNanos the round trip time of a poll that was answered without being retransmitted
+	 */
+	public synchronized void onRttSample(long rttNanos) {
+		if (!measured) {
+			smoothedRttNanos = rttNanos;
+			rttVariationNanos = rttNanos / 2;
+			measured = true;
+		} else {
+			rttVariationNanos = (3 * rttVariationNanos + Math.abs(smoothedRttNanos - rttNanos)) / 4;
+			smoothedRttNanos = (7 * smoothedRttNanos + rttNanos) / 8;
+		}
+
+		retransmitTimeoutNanos = bound(smoothedRttNanos + Math.max(CLOCK_GRANULARITY_NANOS, 4 * rttVariationNanos));
+	}
+
+	/**
+	 * Backs off the retransmission timeout after it expired without a response, by doubling it up to its upper bound.
+	 */
+	public synchronized void onRetransmitTimeout() {
+		retransmitTimeoutNanos = bound(retransmitTimeoutNanos * 2);
+	}
+
+	/**
+	 * Returns how long to wait for a response before retransmitting a poll.
+	 *
+	 * @return the current retransmission timeout in nanoseconds
+	 */
+	public synchronized long retransmitTimeoutNanos() {
+		return retransmitTimeoutNanos;
+	}
+
+	/**
+	 * Returns the maximum number of retransmissions of a single poll.
+	 *
+	 * @return the maximum number of retransmissions
+	 */
+	public int maxRetransmits() {
+		return maxRetransmits;
+	}
+
+	/**
+	 * Returns the smoothed round trip time, or zero if no round trip time has been measured yet.
+	 *
+	 * @return the smoothed round trip time in nanoseconds
+	 */
+	public synchronized long smoothedRttNanos() {
+		return smoothedRttNanos;
+	}
+
+	/**
+	 * Returns the round trip time variation, or zero if no round trip time has been measured yet.
+	 *
+	 * @return the round trip time variation in nanoseconds
+	 */
+	public synchronized long rttVariationNanos() {
+		return rttVariationNanos;
+	}
+
+	private long bound(long timeoutNanos) {
+		return Math.min(maxTimeoutNanos, Math.max(minTimeoutNanos, timeoutNanos));
+	}
+}
@@ -0,0 +1,154 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.function.Supplier;
+
+/**
+ * Holds a long-lived, connected {@link DatagramChannel} to a single polling target.
+ * <p>
+ * The channel is opened, bound to an ephemeral port and optionally connected on first use, and is then reused by
+ * every subsequent poll of the same target until {@link #close()} is called. When used in non-blocking
+ * mode, the channel is registered with a {@link Selector} only once and the resulting {@link SelectionKey}
+ * is kept for the lifetime of the channel.
+ * <p>
+ * Thread Safety:
+ * - The class is not thread-safe. It is expected to be owned by a single polling service.
+ */
+final class TargetChannel implements Closeable {
+	private static final Logger logger = LogManager.getLogger();
+	private static final InetSocketAddress EPHEMERAL_ADDRESS = new InetSocketAddress(0);
+
+	private DatagramChannel datagramChannel;
+	private SelectionKey selectionKey;
+	private boolean registeredWithEventLoop;
+
+	/**
+	 * Opens a new {@link DatagramChannel}, binds it to an ephemeral local port and connects it to the
+	 * given remote address. The channel is closed again if binding or connecting fails.
+	 *
+	 * @param remoteAddress the address of the target to connect to, or {@code null} to leave the channel unconnected,
+	 *                      so that it can exchange datagrams with several endpoints
+	 * @return the bound and, if requested, connected {@link DatagramChannel}
+	 * @throws IOException if the channel cannot be opened, bound or connected
+	 */
+	static DatagramChannel openBound(InetSocketAddress remoteAddress) throws IOException {
+		DatagramChannel channel = DatagramChannel.open();
+		try {
+			logger.debug("Binding to {}", EPHEMERAL_ADDRESS);
+			channel.bind(EPHEMERAL_ADDRESS);
+			if (remoteAddress != null) {
+				channel.connect(remoteAddress);
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+
+		return channel;
+	}
+
+	/**
+	 * Returns the persistent channel to the given remote address, opening and connecting it if it is not
+	 * already open.
+	 *
+	 * @param remoteAddress the address of the target to connect to, or {@code null} to leave the channel unconnected
+	 * @param blocks        whether the channel should be configured in blocking mode
+	 * @return the open and connected {@link DatagramChannel}
+	 * @throws IOException if the channel cannot be opened, bound or connected
+	 */
+	DatagramChannel open(InetSocketAddress remoteAddress, boolean blocks) throws IOException {
+		if (datagramChannel == null || !datagramChannel.isOpen()) {
+			logger.info("Opening persistent channel to {}", remoteAddress == null ? "multiple endpoints" : remoteAddress);
+
+			datagramChannel = openBound(remoteAddress);
+			datagramChannel.configureBlocking(blocks);
+			selectionKey = null;
+			registeredWithEventLoop = false;
+		}
+
+		return datagramChannel;
+	}
+
+	/**
+	 * Registers the persistent channel for read events with the given {@link Selector}, unless it is
+	 * already registered with a valid key.
+	 *
+	 * @param selector   the selector to register the channel with
+	 * @param attachment the attachment to associate with the selection key
+	 * @throws IOException if the channel is not open or cannot be registered
+	 */
+	void register(Selector selector, ProcessPollAttachment attachment) throws IOException {
+		if (selectionKey == null || !selectionKey.isValid()) {
+			selectionKey = datagramChannel.register(selector, SelectionKey.OP_READ, attachment);
+		}
+	}
+
+	/**
+	 * Registers the persistent channel for read events with the given {@link Selector}, like
+	 * {@link #register(Selector, ProcessPollAttachment)}, but only creates the attachment if the channel is registered.
+	 *
+	 * @param selector   the selector to register the channel with
+	 * @param attachment supplies the attachment to associate with the selection key
+	 * @throws IOException if the channel is not open or cannot be registered
+	 */
+	void register(Selector selector, Supplier<ProcessPollAttachment> attachment) throws IOException {
+		if (selectionKey == null || !selectionKey.isValid()) {
+			selectionKey = datagramChannel.register(selector, SelectionKey.OP_READ, attachment.get());
+		}
+	}
+
+	/**
+	 * Hands the persistent channel over to the given {@link PollEventLoop} for registration, unless it has already
+	 * been handed over since it was opened.
+	 *
+	 * @param pollEventLoop the event loop to register the channel with
+	 * @param attachment    the attachment to associate with the selection key
+	 * @throws IOException if the event loop is not running
+	 */
+	void register(PollEventLoop pollEventLoop, ProcessPollAttachment attachment) throws IOException {
+		if (!registeredWithEventLoop) {
+			pollEventLoop.register(datagramChannel, attachment);
+			registeredWithEventLoop = true;
+		}
+	}
+
+	/**
+	 * Hands the persistent channel over to the given {@link PollEventLoop} for registration, like
+	 * {@link #register(PollEventLoop, ProcessPollAttachment)}, but only creates the attachment if the channel is handed over.
+	 *
+	 * @param pollEventLoop the event loop to register the channel with
+	 * @param attachment    supplies the attachment to associate with the selection key
+	 * @throws IOException if the event loop is not running
+	 */
+	void register(PollEventLoop pollEventLoop, Supplier<ProcessPollAttachment> attachment) throws IOException {
+		if (!registeredWithEventLoop) {
+			pollEventLoop.register(datagramChannel, attachment.get());
+			registeredWithEventLoop = true;
+		}
+	}
+
+	/**
+	 * Closes the persistent channel, if open. This also cancels any selection key registered for it.
+	 *
+	 * @throws IOException if an I/O error occurs while closing the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		if (datagramChannel != null) {
+			logger.info("Closing persistent channel {}", datagramChannel);
+
+			datagramChannel.close();
+			datagramChannel = null;
+			selectionKey = null;
+			registeredWithEventLoop = false;
+		}
+	}
+}
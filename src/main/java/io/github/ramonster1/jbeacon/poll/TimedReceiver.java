@@ -0,0 +1,118 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives a datagram from a non-blocking {@link DatagramChannel}, blocking the calling thread until one arrives or a
+ * deadline passes.
+ * <p>
+ * A blocking {@link DatagramChannel#receive(ByteBuffer)} cannot time out, so the wait is performed on a private
+ * {@link Selector} instead. The selector is opened on first use and reused until {@link #close()} is called.
+ * <p>
+ * A virtual thread waiting in {@link Selector#select(long)} pins its carrier thread, so on a virtual thread the wait is
+ * performed by a timed receive on the channel's {@link DatagramSocket} adaptor instead, which parks the virtual thread
+ * and frees its carrier. The datagram is received through a heap array, which is copied to the buffer if the buffer
+ * is direct.
+ * <p>
+ * Thread Safety:
+ * - The class is not thread-safe. It is expected to be owned by a single polling service.
+ */
+final class TimedReceiver implements Closeable {
+	private Selector selector;
+	private DatagramPacket packet;
+
+	/**
+	 * Receives a datagram into the given buffer, waiting until the deadline if none is available yet.
+	 *
+	 * @param channel       the non-blocking channel to receive from
+	 * @param buffer        the buffer to receive into
+	 * @param deadlineNanos the {@link System#nanoTime()} at which to stop waiting
+	 * @return the source address of the datagram, or {@code null} if none arrived before the deadline
+	 * @throws IOException if an I/O error occurs while selecting or receiving
+	 */
+	SocketAddress receive(DatagramChannel channel, ByteBuffer buffer, long deadlineNanos) throws IOException {
+		SocketAddress source = channel.receive(buffer);
+		while (source == null) {
+			long remainingNanos = deadlineNanos - System.nanoTime();
+			if (remainingNanos <= 0) {
+				return null;
+			}
+
+			// A channel already registered with the selector must stay in non-blocking mode
+			if (Thread.currentThread().isVirtual() && !channel.isRegistered()) {
+				return receiveParked(channel, buffer, remainingNanos);
+			}
+
+			if (selector == null) {
+				selector = Selector.open();
+			}
+
+			// Returns the existing key if the channel is already registered
+			channel.register(selector, SelectionKey.OP_READ);
+			selector.select(TimeUnit.NANOSECONDS.toMillis(remainingNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+			selector.selectedKeys().clear();
+
+			source = channel.receive(buffer);
+		}
+
+		return source;
+	}
+
+	private SocketAddress receiveParked(DatagramChannel channel, ByteBuffer buffer, long remainingNanos) throws IOException {
+		DatagramPacket datagramPacket = packetFor(buffer);
+		channel.configureBlocking(true);
+		try {
+			DatagramSocket socket = channel.socket();
+			// A timeout of zero would wait forever
+			socket.setSoTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1)));
+			socket.receive(datagramPacket);
+		} catch (SocketTimeoutException e) {
+			return null;
+		} finally {
+			channel.configureBlocking(false);
+		}
+
+		if (buffer.hasArray()) {
+			buffer.position(buffer.position() + datagramPacket.getLength());
+		} else {
+			buffer.put(datagramPacket.getData(), 0, datagramPacket.getLength());
+		}
+		return datagramPacket.getSocketAddress();
+	}
+
+	private DatagramPacket packetFor(ByteBuffer buffer) {
+		if (buffer.hasArray()) {
+			// Receives straight into the backing array of a heap buffer
+			return new DatagramPacket(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		}
+
+		if (packet == null || packet.getData().length < buffer.remaining()) {
+			packet = new DatagramPacket(new byte[buffer.remaining()], buffer.remaining());
+		}
+		packet.setLength(buffer.remaining());
+		return packet;
+	}
+
+	/**
+	 * Closes the private selector, if it was opened.
+	 *
+	 * @throws IOException if an I/O error occurs while closing the selector
+	 */
+	@Override
+	public void close() throws IOException {
+		if (selector != null) {
+			selector.close();
+			selector = null;
+		}
+	}
+}
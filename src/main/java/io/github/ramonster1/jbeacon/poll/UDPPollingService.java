@@ -1,18 +1,30 @@
 package io.github.ramonster1.jbeacon.poll;
 
+import io.github.ramonster1.jbeacon.buffer.SlabBufferPool;
 import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.event.PollEventListener;
 import io.github.ramonster1.jbeacon.exception.SelectorClosedException;
+import io.github.ramonster1.jbeacon.exception.SendBufferFullException;
+import io.github.ramonster1.jbeacon.jfr.CommandExecutedEvent;
+import io.github.ramonster1.jbeacon.jfr.RequestSentEvent;
+import io.github.ramonster1.jbeacon.jfr.ResponseReceivedEvent;
 import lombok.Builder;
+import lombok.Singular;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * UDPPollingService is an implementation of the PollingService interface, designed for
@@ -23,24 +35,62 @@ import java.util.concurrent.ScheduledExecutorService;
  * This class utilizes a DatagramChannel for UDP communication, and data transfer is handled
  * through ByteBuffers. The response handling is provided by an injected `OnPollResponseCommand`
  * implementation, which is executed after a response is received. For non-blocking operations,
- * it integrates with a PollSelector, which monitors readiness states of the channels.
+ * it integrates with a PollSelector, which monitors readiness states of the channels, either inline within each
+ * poll or continuously on a dedicated {@link PollEventLoop} thread.
  * <p>
  * Key Features:
  * - Configurable blocking or non-blocking operation modes.
  * - Ability to bind and connect to UDP sockets for sending and receiving data.
  * - Provides a mechanism to process incoming responses via callback commands.
  * - Supports flexible configuration through the use of a builder pattern.
+ * - Optionally keeps one persistent, connected channel to the target, so that each poll is only a send
+ * and a receive, rather than opening, binding and closing a new channel every time.
+ * - Optionally correlates responses with requests through a {@link PollCorrelator}, so that several polls to the
+ * target can be in flight at once and late or duplicate responses are dropped.
+ * - Every poll has a deadline. A poll that is not answered in time is reported to
+ * {@link OnPollResponseCommand#onTimeout()} instead of blocking the polling thread indefinitely.
+ * - Optionally retransmits unanswered polls through a {@link RetransmitPolicy}, whose timeout adapts to the measured
+ * round trip time of the target.
+ * - Optionally leases response buffers from a shared {@link SlabBufferPool} for the duration of each poll, instead of
+ * holding a dedicated inBuffer sized for the worst case.
+ * - Optionally reports every request sent, response received and poll timed out to a {@link PollEventListener}, such
+ * as a binary {@link io.github.ramonster1.jbeacon.journal.PollEventJournal}, instead of logging each poll as text.
+ * - Optionally hedges polls to equivalent, redundant endpoints through a {@link HedgePolicy}. If the primary endpoint
+ * has not answered within a latency percentile, the poll is also sent to the next endpoint, and the first response wins.
+ * - Emits JDK Flight Recorder events for every request sent, response received and response command executed, which
+ * cost almost nothing while no recording is running.
  * <p>
  * Usage Notes:
  * - The serverSocketAddress must be provided at initialization to define the remote endpoint.
- * - Buffers inBuffer and outBuffer must be properly configured for respective read and write operations.
- * - For non-blocking mode, a valid PollSelector instance must be provided. If the selector is
- * closed or null, a SelectorClosedException will be thrown.
+ * - Buffers inBuffer and outBuffer must be properly configured for respective read and write operations. The inBuffer
+ * may be omitted if a bufferPool is provided.
+ * - For non-blocking mode, a valid PollSelector or a running PollEventLoop must be provided. If the selector is
+ * closed or null, or the event loop is not running, a SelectorClosedException will be thrown.
+ * - With a PollEventLoop, poll() only sends the request and returns. The response command is executed on the
+ * event loop thread, and the inBuffer must not be touched by any other thread.
  * - Proper synchronization should be considered when sharing a DatagramChannel across threads.
+ * - When persistentChannel is enabled, the channel is only closed when the service is closed, so the
+ * service should be closed after use.
+ * - Pipelining several polls requires a channel that outlives each poll, so a PollCorrelator should be combined with
+ * a persistent channel or a PollEventLoop. In blocking mode, responses that do not match an in-flight request are
+ * dropped and the service keeps waiting for one that does.
+ * - In blocking and inline non-blocking mode, poll() returns once the response has been processed or the poll
+ * timeout has elapsed. Inline non-blocking polls may overrun the timeout by up to the PollSelector timeout.
+ * - With a PollEventLoop, deadlines are checked by the event loop at the end of each cycle. Without a PollCorrelator
+ * only the most recent poll is tracked. Retransmission and hedging are not supported with a PollEventLoop, since the
+ * request buffer is owned by the polling thread.
+ * - Zero-garbage mode: with a persistent channel or a PollEventLoop, and debug logging disabled, a poll that is
+ * answered in time allocates nothing once warmed up, in blocking and non-blocking mode. Polls without a persistent
+ * channel open a new channel, and so allocate, every time.
+ * - Hedged polls use one unconnected channel for all endpoints. Once a poll has been answered, later responses are
+ * discarded. Hedging over a persistent channel requires a PollCorrelator, since a response from a slower endpoint
+ * could otherwise arrive during the next poll and be taken as its answer.
+ * In non-blocking mode, responses are not filtered by their source, so a PollCorrelator is also recommended there.
  * <p>
  * Exception Handling:
  * - Throws IOException for various I/O-related errors during channel operations or selector usage.
  * - Throws SelectorClosedException if the selector is closed or invalid in non-blocking mode.
+ * - Throws SendBufferFullException if the send buffer of the channel has no room for a request.
  * <p>
  * Thread Safety:
  * - The class is not inherently thread-safe. If used in a multi-threaded environment, external
@@ -49,6 +99,8 @@ import java.util.concurrent.ScheduledExecutorService;
 @Builder
 public class UDPPollingService implements PollingService {
 	private static final Logger logger = LogManager.getLogger();
+	private static final long DEFAULT_POLL_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+	private static final long NO_SEQUENCE = -1L;
 
 	private final InetSocketAddress serverSocketAddress;
 	private final ByteBuffer inBuffer;
@@ -58,6 +110,28 @@ public class UDPPollingService implements PollingService {
 	private final OnPollResponseCommand onPollResponseCommand;
 	private PollSelector pollSelector;
 	private ScheduledExecutorService scheduledExecutor;
+	@Builder.Default
+	private final boolean persistentChannel = false;
+	private PollEventLoop pollEventLoop;
+	private final PollCorrelator pollCorrelator;
+	@Builder.Default
+	private final long pollTimeout = DEFAULT_POLL_TIMEOUT_MILLIS;
+	private final RetransmitPolicy retransmitPolicy;
+	@Singular
+	private final List<InetSocketAddress> hedgeEndpoints;
+	private final HedgePolicy hedgePolicy;
+	private final SlabBufferPool bufferPool;
+	private final Integer responseBufferSize;
+	private final PollEventListener pollEventListener;
+	private final TargetChannel targetChannel = new TargetChannel();
+	private final TimedReceiver timedReceiver = new TimedReceiver();
+	private final OutstandingPoll outstandingPoll = new OutstandingPoll();
+	private final AtomicLong timedOutPolls = new AtomicLong();
+	private final AtomicBoolean deadlineTaskAdded = new AtomicBoolean();
+	private final AtomicBoolean closed = new AtomicBoolean();
+	// Created once, so that polls over a persistent channel do not allocate a new command or attachment each time
+	private final OnPollResponseCommand responseHandler = this::onResponse;
+	private final Supplier<ProcessPollAttachment> persistentAttachment = () -> attachment(false);
 
 
 	/**
@@ -72,8 +146,47 @@ public class UDPPollingService implements PollingService {
 	 * @param onPollResponseCommand the {@link OnPollResponseCommand} implementation to process received data
 	 * @param pollSelector the {@link PollSelector} instance responsible for channel readiness monitoring
 	 * @param scheduledExecutor the {@link ScheduledExecutorService} used to manage periodic tasks
+	 * @param persistentChannel a boolean flag indicating whether a single connected channel is kept open and reused across polls
+	 * @param pollEventLoop the running {@link PollEventLoop} that receives responses in non-blocking mode, in which case
+	 *                      {@code poll()} only sends the request and a persistent channel is always used
+	 * @param pollCorrelator the {@link PollCorrelator} that stamps each request with a sequence number and drops responses
+	 *                       that do not match an in-flight request, allowing several polls to be in flight at once
+	 * @param pollTimeout the time, in milliseconds, after which an unanswered poll times out. Defaults to one second
+	 * @param retransmitPolicy the {@link RetransmitPolicy} deciding when an unanswered poll is retransmitted before it
+	 *                         times out. Polls are not retransmitted if it is null
+	 * @param hedgeEndpoints the endpoints equivalent to the server, in the order polls are hedged to them. Polls are not
+	 *                       hedged if it is empty
+	 * @param hedgePolicy the {@link HedgePolicy} deciding when a poll is hedged to the next endpoint. Defaults to a
+	 *                    policy hedging once at the 95th latency percentile if hedge endpoints are given
+	 * @param bufferPool the {@link SlabBufferPool} to lease a response buffer from for each poll, in which case the
+	 *                   inBuffer is not used
+	 * @param responseBufferSize the size of the response buffers leased from the buffer pool. Defaults to the largest
+	 *                           size class of the pool
+	 * @param pollEventListener the {@link PollEventListener} notified of each request sent, response received and poll
+	 *                          timed out, such as a {@link io.github.ramonster1.jbeacon.journal.PollEventJournal}. Events
+	 *                          are not reported if it is null
+	 * @throws IllegalArgumentException if the poll timeout is not positive, a retransmit policy or hedge endpoints
+	 *                                  are combined with a PollEventLoop, hedge endpoints are combined with a
+	 *                                  persistent channel but no poll correlator, or the response buffer size exceeds
+	 *                                  the largest size class of the buffer pool
 	 */
-	UDPPollingService(InetSocketAddress serverSocketAddress, ByteBuffer inBuffer, ByteBuffer outBuffer, boolean blocks, OnPollResponseCommand onPollResponseCommand, PollSelector pollSelector, ScheduledExecutorService scheduledExecutor) {
+	UDPPollingService(InetSocketAddress serverSocketAddress, ByteBuffer inBuffer, ByteBuffer outBuffer, boolean blocks, OnPollResponseCommand onPollResponseCommand, PollSelector pollSelector, ScheduledExecutorService scheduledExecutor, boolean persistentChannel, PollEventLoop pollEventLoop, PollCorrelator pollCorrelator, long pollTimeout, RetransmitPolicy retransmitPolicy, List<InetSocketAddress> hedgeEndpoints, HedgePolicy hedgePolicy, SlabBufferPool bufferPool, Integer responseBufferSize, PollEventListener pollEventListener) {
+		if (pollTimeout <= 0) {
+			throw new IllegalArgumentException("Poll timeout must be positive: " + pollTimeout);
+		}
+		if (retransmitPolicy != null && !blocks && pollEventLoop != null) {
+			throw new IllegalArgumentException("Retransmission is not supported with a PollEventLoop");
+		}
+		if (hedgeEndpoints != null && !hedgeEndpoints.isEmpty() && !blocks && pollEventLoop != null) {
+			throw new IllegalArgumentException("Hedging is not supported with a PollEventLoop");
+		}
+		if (hedgeEndpoints != null && !hedgeEndpoints.isEmpty() && persistentChannel && pollCorrelator == null) {
+			throw new IllegalArgumentException("Hedging over a persistent channel requires a PollCorrelator");
+		}
+		if (bufferPool != null && responseBufferSize != null && (responseBufferSize < 1 || responseBufferSize > bufferPool.maxLeaseSize())) {
+			throw new IllegalArgumentException("Response buffer size must be between 1 and " + bufferPool.maxLeaseSize() + ": " + responseBufferSize);
+		}
+
 		this.serverSocketAddress = serverSocketAddress;
 		this.inBuffer = inBuffer;
 		this.outBuffer = outBuffer;
@@ -81,48 +194,313 @@ public class UDPPollingService implements PollingService {
 		this.onPollResponseCommand = onPollResponseCommand;
 		this.pollSelector = pollSelector;
 		this.scheduledExecutor = scheduledExecutor;
+		this.persistentChannel = persistentChannel;
+		this.pollEventLoop = pollEventLoop;
+		this.pollCorrelator = pollCorrelator;
+		this.pollTimeout = pollTimeout;
+		this.retransmitPolicy = retransmitPolicy;
+		this.hedgeEndpoints = hedgeEndpoints == null ? List.of() : List.copyOf(hedgeEndpoints);
+		this.hedgePolicy = hedgePolicy == null && !this.hedgeEndpoints.isEmpty() ? HedgePolicy.builder().build() : hedgePolicy;
+		this.bufferPool = bufferPool;
+		this.responseBufferSize = bufferPool != null && responseBufferSize == null ? Integer.valueOf(bufferPool.maxLeaseSize()) : responseBufferSize;
+		this.pollEventListener = pollEventListener == null ? PollEventListener.NO_OP : pollEventListener;
 	}
 
 	public void poll() throws IOException {
-		logger.info("Polling in {} mode", blocks ? "blocking" : "non-blocking");
+		logger.debug("Polling in {} mode", blocks ? "blocking" : pollEventLoop != null ? "event loop" : "non-blocking");
 
-		try (DatagramChannel datagramChannel = DatagramChannel.open()) {
-			if (!blocks && (pollSelector == null || pollSelector.selector() == null || !pollSelector.selector().isOpen())) {
-				logger.warn("Selector is null or not open");
-				throw new SelectorClosedException("Selector is " + (pollSelector == null ? "null" : "closed"));
+		if (!blocks && pollEventLoop != null) {
+			if (!pollEventLoop.isRunning()) {
+				logger.warn("Event loop is not running");
+				throw new SelectorClosedException("Event loop is not running");
 			}
 
-			InetSocketAddress inetSocketAddress = new InetSocketAddress(0);
-
-			logger.debug("Binding to {}", inetSocketAddress);
-			datagramChannel.bind(inetSocketAddress);
-			datagramChannel.connect(serverSocketAddress);
+			if (deadlineTaskAdded.compareAndSet(false, true)) {
+				pollEventLoop.addCycleTask(this::expireOutstandingPolls);
+			}
 
-			logger.info("Sending request to {} with buffer {}", serverSocketAddress, outBuffer);
+			DatagramChannel datagramChannel = targetChannel.open(serverSocketAddress, false);
+			targetChannel.register(pollEventLoop, persistentAttachment);
 
-			datagramChannel.send(outBuffer, serverSocketAddress);
-			outBuffer.flip();
+			send(datagramChannel);
+			return;
+		}
 
-			if (blocks) {
-				datagramChannel.configureBlocking(true);
-				datagramChannel.receive(inBuffer);
-				inBuffer.flip();
+		if (!blocks && (pollSelector == null || pollSelector.selector() == null || !pollSelector.selector().isOpen())) {
+			logger.warn("Selector is null or not open");
+			throw new SelectorClosedException("Selector is " + (pollSelector == null ? "null" : "closed"));
+		}
 
-				logger.info("Received response with buffer {}", outBuffer);
+		// Blocking mode also uses a non-blocking channel, so that the wait for a response can time out
+		if (persistentChannel) {
+			DatagramChannel datagramChannel = targetChannel.open(connectedAddress(), false);
+			if (!blocks) {
+				targetChannel.register(pollSelector.selector(), persistentAttachment);
+			}
 
-				onPollResponseCommand.execute(inBuffer);
-			} else {
-				Selector selector = pollSelector.selector();
+			poll(datagramChannel);
+		} else {
+			try (DatagramChannel datagramChannel = TargetChannel.openBound(connectedAddress())) {
 				datagramChannel.configureBlocking(false);
-				ProcessPollAttachment attachment = new ProcessPollAttachment(onPollResponseCommand, inBuffer);
-				datagramChannel.register(selector, SelectionKey.OP_READ, attachment);
+				if (!blocks) {
+					datagramChannel.register(pollSelector.selector(), SelectionKey.OP_READ, attachment(true));
+				}
 
-				logger.info("Registered channel, waiting for response");
+				poll(datagramChannel);
+			}
+		}
+	}
+
+	private ProcessPollAttachment attachment(boolean closesChannel) {
+		return bufferPool == null
+				? new ProcessPollAttachment(responseHandler, inBuffer, closesChannel)
+				: new ProcessPollAttachment(responseHandler, bufferPool, responseBufferSize, closesChannel);
+	}
 
+	private void poll(DatagramChannel datagramChannel) throws IOException {
+		// In non-blocking mode, the PollSelector leases a buffer from the pool only once a response is ready
+		ByteBuffer responseBuffer = blocks && bufferPool != null ? bufferPool.lease(responseBufferSize) : inBuffer;
+		try {
+			poll(datagramChannel, responseBuffer);
+		} finally {
+			if (responseBuffer != inBuffer) {
+				bufferPool.release(responseBuffer);
+			}
+		}
+	}
+
+	private void poll(DatagramChannel datagramChannel, ByteBuffer responseBuffer) throws IOException {
+		long sequence = send(datagramChannel);
+		long sentAt = System.nanoTime();
+		long deadline = sentAt + TimeUnit.MILLISECONDS.toNanos(pollTimeout);
+		long retransmitAt = retransmitPolicy == null ? deadline : sentAt + retransmitPolicy.retransmitTimeoutNanos();
+		long hedgeAt = hedgeEndpoints.isEmpty() ? deadline : sentAt + hedgePolicy.hedgeDelayNanos();
+		int retransmits = 0;
+		int hedges = 0;
+
+		if (!blocks) {
+			logger.debug("Registered channel, waiting for response");
+		}
+
+		while (outstandingPoll.isAwaiting()) {
+			if (blocks) {
+				long waitUntil = deadline - retransmitAt < 0 ? deadline : retransmitAt;
+				receive(datagramChannel, responseBuffer, waitUntil - hedgeAt < 0 ? waitUntil : hedgeAt);
+			} else {
 				pollSelector.process();
 			}
 
-			inBuffer.clear();
+			if (!outstandingPoll.isAwaiting()) {
+				return;
+			}
+
+			long now = System.nanoTime();
+			// A single-use channel is closed by the first datagram it receives, even if that datagram was dropped
+			if (now - deadline >= 0 || !datagramChannel.isOpen()) {
+				timeout(sequence);
+				return;
+			}
+
+			if (now - retransmitAt >= 0) {
+				if (retransmits < retransmitPolicy.maxRetransmits()) {
+					retransmitPolicy.onRetransmitTimeout();
+					outstandingPoll.retransmitted();
+					retransmits++;
+
+					logger.debug("Retransmitting request to {}, attempt {}", serverSocketAddress, retransmits);
+					transmit(datagramChannel, serverSocketAddress, sequence);
+					retransmitAt = now + retransmitPolicy.retransmitTimeoutNanos();
+				} else {
+					retransmitAt = deadline;
+				}
+			}
+
+			if (now - hedgeAt >= 0) {
+				if (hedges < Math.min(hedgePolicy.maxHedges(), hedgeEndpoints.size())) {
+					InetSocketAddress hedgeEndpoint = hedgeEndpoints.get(hedges);
+					outstandingPoll.hedged();
+					hedges++;
+
+					logger.debug("Hedging request to {}", hedgeEndpoint);
+					transmit(datagramChannel, hedgeEndpoint, sequence);
+					hedgeAt = now + hedgePolicy.hedgeDelayNanos();
+				} else {
+					hedgeAt = deadline;
+				}
+			}
+		}
+	}
+
+	private InetSocketAddress connectedAddress() {
+		// Hedged polls need to exchange datagrams with every endpoint over the same channel
+		return hedgeEndpoints.isEmpty() ? serverSocketAddress : null;
+	}
+
+	private boolean isEndpoint(SocketAddress source) {
+		return hedgeEndpoints.isEmpty() || serverSocketAddress.equals(source) || hedgeEndpoints.contains(source);
+	}
+
+	private void receive(DatagramChannel datagramChannel, ByteBuffer responseBuffer, long deadlineNanos) throws IOException {
+		SocketAddress source = timedReceiver.receive(datagramChannel, responseBuffer, deadlineNanos);
+		if (source == null) {
+			return;
+		}
+
+		if (!isEndpoint(source)) {
+			logger.debug("Dropped datagram from unknown source {}", source);
+			responseBuffer.clear();
+			return;
+		}
+
+		responseBuffer.flip();
+
+		logger.debug("Received response with buffer {}", responseBuffer);
+
+		try {
+			onResponse(responseBuffer);
+		} finally {
+			responseBuffer.clear();
+		}
+	}
+
+	private void onResponse(ByteBuffer buffer) {
+		long now = System.nanoTime();
+		long latencyNanos = PollCorrelator.NO_MATCH;
+		if (pollCorrelator != null) {
+			// Responses to earlier polls that were given up on, and duplicates, are dropped
+			latencyNanos = pollCorrelator.match(buffer);
+			if (latencyNanos == PollCorrelator.NO_MATCH) {
+				return;
+			}
+		} else if (!hedgeEndpoints.isEmpty() && !outstandingPoll.isAwaiting()) {
+			logger.debug("Dropped duplicate response to a hedged poll");
+			return;
+		}
+
+		boolean ambiguous = outstandingPoll.isAmbiguous();
+		long elapsedNanos = outstandingPoll.complete(now);
+		if (pollCorrelator == null) {
+			latencyNanos = elapsedNanos;
+		}
+
+		if (latencyNanos >= 0) {
+			// Karn's algorithm: a response to a request sent more than once is not a valid round trip sample
+			if (retransmitPolicy != null && !ambiguous) {
+				retransmitPolicy.onRttSample(latencyNanos);
+			}
+			if (hedgePolicy != null) {
+				hedgePolicy.onLatencySample(latencyNanos);
+			}
+		}
+
+		int length = buffer.remaining();
+		pollEventListener.onReceived(serverSocketAddress, length, latencyNanos);
+		ResponseReceivedEvent.emit(serverSocketAddress, length, latencyNanos);
+
+		CommandExecutedEvent commandExecutedEvent = new CommandExecutedEvent();
+		commandExecutedEvent.begin();
+		onPollResponseCommand.execute(buffer);
+		commandExecutedEvent.emit(serverSocketAddress, length);
+		pollEventListener.onExecuted(serverSocketAddress, length, System.nanoTime() - now);
+	}
+
+	private void timeout(long sequence) {
+		if (pollCorrelator != null) {
+			pollCorrelator.retire(sequence);
+		}
+		outstandingPoll.complete(System.nanoTime());
+
+		onTimeout(sequence);
+	}
+
+	private boolean expireOutstandingPolls() {
+		if (closed.get()) {
+			return false;
+		}
+
+		long now = System.nanoTime();
+		long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(pollTimeout);
+		int expired = pollCorrelator != null ? pollCorrelator.expire(now, timeoutNanos) : outstandingPoll.expire(now, timeoutNanos) ? 1 : 0;
+		for (int i = 0; i < expired; i++) {
+			onTimeout(NO_SEQUENCE);
+		}
+
+		return true;
+	}
+
+	private void onTimeout(long sequence) {
+		timedOutPolls.incrementAndGet();
+		logger.warn("Poll to {} timed out after {} ms", serverSocketAddress, pollTimeout);
+
+		pollEventListener.onTimeout(serverSocketAddress, sequence);
+		onPollResponseCommand.onTimeout();
+	}
+
+	private long send(DatagramChannel datagramChannel) throws IOException {
+		long sequence = pollCorrelator != null ? pollCorrelator.stamp(outBuffer) : NO_SEQUENCE;
+		// Tracked before sending, so that a fast response can never arrive before its poll is tracked
+		outstandingPoll.sent(System.nanoTime());
+
+		try {
+			transmit(datagramChannel, serverSocketAddress, sequence);
+		} catch (IOException | RuntimeException e) {
+			outstandingPoll.complete(System.nanoTime());
+			if (pollCorrelator != null) {
+				pollCorrelator.retire(sequence);
+			}
+			throw e;
+		}
+
+		return sequence;
+	}
+
+	private void transmit(DatagramChannel datagramChannel, InetSocketAddress endpoint, long sequence) throws IOException {
+		logger.debug("Sending request to {} with buffer {}", endpoint, outBuffer);
+
+		int sent = datagramChannel.send(outBuffer, endpoint);
+		if (sent == 0 && outBuffer.hasRemaining()) {
+			// Nothing was sent, so the request is kept for the next attempt instead of being flipped to an empty one
+			outBuffer.rewind();
+			throw new SendBufferFullException("Send buffer is full, request to " + endpoint + " was not sent");
+		}
+		outBuffer.flip();
+		// Hedged requests are reported under the primary target, like their responses, so that listeners keyed by
+		// target pair every request with its response
+		pollEventListener.onSent(serverSocketAddress, sent, sequence);
+		RequestSentEvent.emit(serverSocketAddress, sent, sequence);
+	}
+
+	/**
+	 * Returns the address of the server polled by this service.
+	 *
+	 * @return the server's address and port
+	 */
+	public InetSocketAddress serverSocketAddress() {
+		return serverSocketAddress;
+	}
+
+	/**
+	 * Returns the number of polls that timed out without a response.
+	 *
+	 * @return the number of timed out polls
+	 */
+	public long timedOutPolls() {
+		return timedOutPolls.get();
+	}
+
+	/**
+	 * Closes the persistent channel held by this service, if any, and the private selector used to wait for responses
+	 * in blocking mode. Services that open a new channel for every poll hold no channel between polls.
+	 *
+	 * @throws IOException if an I/O error occurs while closing the channel or selector
+	 */
+	@Override
+	public void close() throws IOException {
+		closed.set(true);
+		try {
+			targetChannel.close();
+		} finally {
+			timedReceiver.close();
 		}
 	}
 }
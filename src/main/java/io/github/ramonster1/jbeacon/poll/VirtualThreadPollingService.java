@@ -0,0 +1,143 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import lombok.Builder;
+import lombok.Singular;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * VirtualThreadPollingService is an implementation of the PollingService interface that polls a set of polling
+ * services in a single wave, each on its own virtual thread.
+ * <p>
+ * It is the virtual-thread counterpart of {@link MultiTargetUDPPollingService}. Rather than multiplexing every target
+ * over one selector, each target keeps its own blocking {@link UDPPollingService}, and a call to {@link #poll()} starts
+ * one virtual thread per service and waits for all of them. A virtual thread blocked waiting for a response parks and
+ * releases its carrier thread, so tens of thousands of blocking polls can be in flight at once on a carrier pool no
+ * larger than the number of cores.
+ * <p>
+ * Key Features:
+ * - Keeps the simple blocking programming model, including retransmission and hedging, for every target.
+ * - Polls of slow or unresponsive targets only hold up their own virtual thread, not the rest of the wave.
+ * - A failure to poll one service is logged and does not prevent the rest of the wave from being polled.
+ * <p>
+ * Usage Notes:
+ * - The polling services should be blocking {@link UDPPollingService}s. Each service is only ever polled by one
+ * virtual thread at a time.
+ * - poll() returns once every service has completed its poll, so the wave lasts as long as the slowest poll,
+ * bounded by the poll timeout of each service.
+ * - Response commands are executed on the virtual thread of their target, concurrently with those of other targets.
+ * Commands shared between targets must be thread-safe.
+ * - The carrier pool is the JDK's virtual thread scheduler, sized by the {@code jdk.virtualThreadScheduler.parallelism}
+ * system property.
+ * - Each virtual thread allocates, so unlike a MultiTargetUDPPollingService with a PollSelector, a wave is not
+ * zero-garbage.
+ * - Closing the service closes every polling service.
+ * <p>
+ * Thread Safety:
+ * - The class is not inherently thread-safe. If used in a multi-threaded environment, external
+ * synchronization is required for thread safety.
+ */
+public class VirtualThreadPollingService implements PollingService {
+	private static final Logger logger = LogManager.getLogger();
+	private static final AtomicInteger SERVICE_COUNT = new AtomicInteger();
+
+	private final List<PollingService> pollingServices;
+	private final ThreadFactory threadFactory;
+	private final Runnable[] polls;
+	private final Thread[] threads;
+
+	/**
+	 * Constructs a VirtualThreadPollingService that polls each of the given polling services on its own virtual thread.
+	 *
+	 * @param pollingServices the {@link PollingService}s polled in each wave
+	 */
+	@Builder
+	VirtualThreadPollingService(@Singular List<PollingService> pollingServices) {
+		if (pollingServices.isEmpty()) {
+			throw new IllegalArgumentException("At least one polling service is required");
+		}
+
+		this.pollingServices = List.copyOf(pollingServices);
+		this.threadFactory = Thread.ofVirtual()
+				.name("jbeacon-virtual-poll-" + SERVICE_COUNT.getAndIncrement() + "-", 0)
+				.factory();
+		this.polls = new Runnable[this.pollingServices.size()];
+		this.threads = new Thread[this.pollingServices.size()];
+
+		for (int i = 0; i < this.pollingServices.size(); i++) {
+			final PollingService pollingService = this.pollingServices.get(i);
+			polls[i] = () -> {
+				try {
+					pollingService.poll();
+				} catch (IOException | RuntimeException e) {
+					logger.error("Exception from polling service", e);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Starts a virtual thread to poll each polling service, and waits for every poll to complete.
+	 *
+	 * @throws InterruptedIOException if the calling thread is interrupted while waiting. The polls already started
+	 *                                still complete on their own virtual threads
+	 */
+	@Override
+	public void poll() throws IOException {
+		for (int i = 0; i < polls.length; i++) {
+			// A poll left running by an interrupted wave is waited for again, rather than polling its service concurrently
+			if (threads[i] != null && threads[i].isAlive()) {
+				logger.warn("Polling service {} is still polling from an interrupted wave", i);
+				continue;
+			}
+
+			threads[i] = threadFactory.newThread(polls[i]);
+			threads[i].start();
+		}
+
+		logger.debug("Started poll wave on {} virtual threads", polls.length);
+
+		try {
+			for (int i = 0; i < threads.length; i++) {
+				threads[i].join();
+				threads[i] = null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the poll wave");
+		}
+	}
+
+	/**
+	 * Closes every polling service. A failure to close one service is logged and does not prevent the others from
+	 * being closed.
+	 *
+	 * @throws IOException if any polling service could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException closeException = null;
+		for (PollingService pollingService : pollingServices) {
+			try {
+				pollingService.close();
+			} catch (IOException e) {
+				logger.error("Failed to close polling service", e);
+				if (closeException == null) {
+					closeException = e;
+				} else {
+					closeException.addSuppressed(e);
+				}
+			}
+		}
+
+		if (closeException != null) {
+			throw closeException;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package io.github.ramonster1.jbeacon.poll.mmsg;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.poll.MultiTargetUDPPollingService;
+import io.github.ramonster1.jbeacon.poll.PollSelector;
+import io.github.ramonster1.jbeacon.poll.PollTarget;
+import io.github.ramonster1.jbeacon.poll.PollingService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.net.Inet4Address;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Creates fan-out polling services that use the batched {@link MmsgUDPPollingService} transport where it is
+ * available, and fall back to the NIO based {@link MultiTargetUDPPollingService} everywhere else.
+ * <p>
+ * The native transport is used when all of the following hold:
+ * - The JVM runs on Linux on x86_64 or aarch64.
+ * - The JVM was started with {@code --enable-preview}, which the Foreign Function &amp; Memory API requires in JDK 21.
+ * - Every target has a resolved IPv4 address.
+ * <p>
+ * The native transport is loaded reflectively, so this class can be used safely on any JVM.
+ */
+public final class BatchedUDPPollingServices {
+	private static final Logger logger = LogManager.getLogger();
+	private static final String NATIVE_SERVICE_CLASS = "io.github.ramonster1.jbeacon.poll.mmsg.MmsgUDPPollingService";
+	private static final Set<String> SUPPORTED_ARCHITECTURES = Set.of("amd64", "x86_64", "aarch64");
+
+	private BatchedUDPPollingServices() {
+	}
+
+	/**
+	 * Returns whether the batched sendmmsg/recvmmsg transport can be used on this platform and JVM.
+	 *
+	 * @return {@code true} if the native transport is available
+	 */
+	public static boolean isNativeTransportAvailable() {
+		String osName = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+		String osArch = System.getProperty("os.arch", "").toLowerCase(Locale.ROOT);
+		if (!osName.startsWith("linux") || !SUPPORTED_ARCHITECTURES.contains(osArch)) {
+			return false;
+		}
+
+		try {
+			Class.forName(NATIVE_SERVICE_CLASS);
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			// Thrown when the JVM was started without --enable-preview, or on a JDK other than 21
+			logger.debug("Native transport is unavailable", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Creates a polling service for the given targets, using the batched native transport if it is available and
+	 * falling back to a {@link MultiTargetUDPPollingService} otherwise.
+	 *
+	 * @param targets          the targets to poll in each wave
+	 * @param waveTimeout      the maximum time, in milliseconds, to wait for all responses of a wave
+	 * @param fallbackSelector the {@link PollSelector} used by the NIO fallback, which remains owned by the caller
+	 * @return a polling service for the given targets, which should be closed after use
+	 */
+	public static PollingService create(List<PollTarget> targets, long waveTimeout, PollSelector fallbackSelector) {
+		return create(targets, waveTimeout, fallbackSelector, PollEventListener.NO_OP);
+	}
+
+	/**
+	 * Creates a polling service for the given targets, using the batched native transport if it is available and
+	 * falling back to a {@link MultiTargetUDPPollingService} otherwise, that reports to the given listener.
+	 *
+	 * @param targets           the targets to poll in each wave
+	 * @param waveTimeout       the maximum time, in milliseconds, to wait for all responses of a wave
+	 * @param fallbackSelector  the {@link PollSelector} used by the NIO fallback, which remains owned by the caller
+	 * @param pollEventListener the {@link PollEventListener} notified of each request sent, response received and
+	 *                          target timed out, whichever transport is used
+	 * @return a polling service for the given targets, which should be closed after use
+	 */
+	public static PollingService create(List<PollTarget> targets, long waveTimeout, PollSelector fallbackSelector, PollEventListener pollEventListener) {
+		boolean ipv4Targets = targets.stream().allMatch(target -> target.serverSocketAddress().getAddress() instanceof Inet4Address);
+
+		if (ipv4Targets && isNativeTransportAvailable()) {
+			try {
+				Object builder = Class.forName(NATIVE_SERVICE_CLASS).getMethod("builder").invoke(null);
+				builder.getClass().getMethod("targets", Collection.class).invoke(builder, targets);
+				builder.getClass().getMethod("waveTimeout", Long.class).invoke(builder, waveTimeout);
+				builder.getClass().getMethod("pollEventListener", PollEventListener.class).invoke(builder, pollEventListener);
+
+				logger.info("Using batched sendmmsg/recvmmsg transport for {} targets", targets.size());
+				return (PollingService) builder.getClass().getMethod("build").invoke(builder);
+			} catch (InvocationTargetException e) {
+				logger.warn("Failed to create native transport, falling back to NIO", e.getCause());
+			} catch (ReflectiveOperationException | LinkageError e) {
+				logger.warn("Failed to load native transport, falling back to NIO", e);
+			}
+		}
+
+		logger.info("Using NIO transport for {} targets", targets.size());
+		return MultiTargetUDPPollingService.builder()
+				.targets(targets)
+				.pollSelector(fallbackSelector)
+				.waveTimeout(waveTimeout)
+				.pollEventListener(pollEventListener)
+				.build();
+	}
+}
@@ -0,0 +1,226 @@
+package io.github.ramonster1.jbeacon.poll.mmsg;
+
+import java.io.IOException;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.nio.ByteOrder;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+/**
+ * Downcall handles and struct layouts for the Linux UDP socket calls used by {@link MmsgUDPPollingService}.
+ * <p>
+ * The struct offsets follow the LP64 ABI used by Linux on x86_64 and aarch64:
+ * - {@code struct sockaddr_in} is 16 bytes: family (host order), port and address (network order), padding.
+ * - {@code struct iovec} is 16 bytes: base pointer and length.
+ * - {@code struct mmsghdr} is 64 bytes: a 56 byte {@code struct msghdr}, followed by the received length.
+ * <p>
+ * Every call captures {@code errno} into a caller-provided segment, which is read back when a call fails.
+ */
+final class LinuxSockets {
+	static final int AF_INET = 2;
+	static final int SOCK_DGRAM = 2;
+	static final int SOL_SOCKET = 1;
+	static final int SO_RCVBUF = 8;
+	static final int SO_RCVTIMEO = 20;
+	static final int MSG_DONTWAIT = 0x40;
+	static final int MSG_WAITFORONE = 0x10000;
+	static final int EINTR = 4;
+	static final int EAGAIN = 11;
+	/**
+	 * The maximum number of messages accepted by a single sendmmsg or recvmmsg call (UIO_MAXIOV).
+	 */
+	static final int MAX_MESSAGES_PER_CALL = 1024;
+
+	static final long SOCKADDR_IN_SIZE = 16;
+	static final long IOVEC_SIZE = 16;
+	static final long IOVEC_BASE_OFFSET = 0;
+	static final long IOVEC_LENGTH_OFFSET = 8;
+	static final long MMSGHDR_SIZE = 64;
+	static final long MSGHDR_NAME_OFFSET = 0;
+	static final long MSGHDR_NAME_LENGTH_OFFSET = 8;
+	static final long MSGHDR_IOV_OFFSET = 16;
+	static final long MSGHDR_IOV_LENGTH_OFFSET = 24;
+	static final long MMSGHDR_LENGTH_OFFSET = 56;
+	static final long TIMEVAL_SIZE = 16;
+
+	private static final ValueLayout.OfShort NETWORK_SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfInt NETWORK_INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+	private static final Linker LINKER = Linker.nativeLinker();
+	private static final StructLayout CAPTURE_STATE_LAYOUT = Linker.Option.captureStateLayout();
+	private static final long ERRNO_OFFSET = CAPTURE_STATE_LAYOUT.byteOffset(MemoryLayout.PathElement.groupElement("errno"));
+
+	private static final MethodHandle SOCKET = downcall("socket", FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT, JAVA_INT));
+	private static final MethodHandle BIND = downcall("bind", FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT));
+	private static final MethodHandle SETSOCKOPT = downcall("setsockopt", FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT));
+	private static final MethodHandle SENDMMSG = downcall("sendmmsg", FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT));
+	private static final MethodHandle RECVMMSG = downcall("recvmmsg", FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT, ADDRESS));
+	private static final MethodHandle CLOSE = downcall("close", FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+
+	private LinuxSockets() {
+	}
+
+	private static MethodHandle downcall(String name, FunctionDescriptor descriptor) {
+		MemorySegment symbol = LINKER.defaultLookup().find(name)
+				.orElseThrow(() -> new UnsupportedOperationException("Native function not found: " + name));
+
+		return LINKER.downcallHandle(symbol, descriptor, Linker.Option.captureCallState("errno"));
+	}
+
+	/**
+	 * Returns the size of the segment required to capture {@code errno} for the calls in this class.
+	 *
+	 * @return the capture state size in bytes
+	 */
+	static long captureStateSize() {
+		return CAPTURE_STATE_LAYOUT.byteSize();
+	}
+
+	/**
+	 * Returns the {@code errno} captured by the last failed call.
+	 *
+	 * @param captureState the segment passed to the failed call
+	 * @return the captured errno value
+	 */
+	static int errno(MemorySegment captureState) {
+		return captureState.get(JAVA_INT, ERRNO_OFFSET);
+	}
+
+	static int socket(MemorySegment captureState) throws IOException {
+		int fd;
+		try {
+			fd = (int) SOCKET.invokeExact(captureState, AF_INET, SOCK_DGRAM, 0);
+		} catch (Throwable t) {
+			throw new IOException("socket() downcall failed", t);
+		}
+
+		return checkResult("socket", fd, captureState);
+	}
+
+	static void bind(MemorySegment captureState, int fd, MemorySegment sockaddr) throws IOException {
+		int result;
+		try {
+			result = (int) BIND.invokeExact(captureState, fd, sockaddr, (int) SOCKADDR_IN_SIZE);
+		} catch (Throwable t) {
+			throw new IOException("bind() downcall failed", t);
+		}
+
+		checkResult("bind", result, captureState);
+	}
+
+	static void setSocketOption(MemorySegment captureState, int fd, int option, MemorySegment value) throws IOException {
+		int result;
+		try {
+			result = (int) SETSOCKOPT.invokeExact(captureState, fd, SOL_SOCKET, option, value, (int) value.byteSize());
+		} catch (Throwable t) {
+			throw new IOException("setsockopt() downcall failed", t);
+		}
+
+		checkResult("setsockopt", result, captureState);
+	}
+
+	/**
+	 * Sends up to {@code count} messages from the given {@code struct mmsghdr} vector.
+	 *
+	 * @return the number of messages sent, or -1 with {@code errno} captured on failure
+	 */
+	static int sendmmsg(MemorySegment captureState, int fd, MemorySegment vector, int count) throws IOException {
+		try {
+			return (int) SENDMMSG.invokeExact(captureState, fd, vector, count, 0);
+		} catch (Throwable t) {
+			throw new IOException("sendmmsg() downcall failed", t);
+		}
+	}
+
+	/**
+	 * Receives up to {@code count} messages into the given {@code struct mmsghdr} vector.
+	 *
+	 * @return the number of messages received, or -1 with {@code errno} captured on failure
+	 */
+	static int recvmmsg(MemorySegment captureState, int fd, MemorySegment vector, int count, int flags) throws IOException {
+		try {
+			return (int) RECVMMSG.invokeExact(captureState, fd, vector, count, flags, MemorySegment.NULL);
+		} catch (Throwable t) {
+			throw new IOException("recvmmsg() downcall failed", t);
+		}
+	}
+
+	static void close(MemorySegment captureState, int fd) throws IOException {
+		int result;
+		try {
+			result = (int) CLOSE.invokeExact(captureState, fd);
+		} catch (Throwable t) {
+			throw new IOException("close() downcall failed", t);
+		}
+
+		checkResult("close", result, captureState);
+	}
+
+	/**
+	 * Writes an IPv4 socket address into a {@code struct sockaddr_in}.
+	 *
+	 * @param sockaddr the 16 byte segment to write to
+	 * @param address  the resolved IPv4 socket address
+	 * @throws IllegalArgumentException if the address is unresolved or not an IPv4 address
+	 */
+	static void writeSockaddr(MemorySegment sockaddr, InetSocketAddress address) {
+		if (!(address.getAddress() instanceof Inet4Address inet4Address)) {
+			throw new IllegalArgumentException("Only resolved IPv4 addresses are supported: " + address);
+		}
+
+		sockaddr.fill((byte) 0);
+		sockaddr.set(ValueLayout.JAVA_SHORT, 0, (short) AF_INET);
+		sockaddr.set(NETWORK_SHORT, 2, (short) address.getPort());
+		byte[] addressBytes = inet4Address.getAddress();
+		for (int i = 0; i < addressBytes.length; i++) {
+			sockaddr.set(ValueLayout.JAVA_BYTE, 4 + i, addressBytes[i]);
+		}
+	}
+
+	/**
+	 * Packs the IPv4 address and port of a {@code struct sockaddr_in} into a single key.
+	 *
+	 * @param segment the segment holding the socket address
+	 * @param offset  the offset of the socket address within the segment
+	 * @return the address in the upper bits and the port in the lower 16 bits
+	 */
+	static long sockaddrKey(MemorySegment segment, long offset) {
+		long address = Integer.toUnsignedLong(segment.get(NETWORK_INT, offset + 4));
+		int port = Short.toUnsignedInt(segment.get(NETWORK_SHORT, offset + 2));
+
+		return address << 16 | port;
+	}
+
+	/**
+	 * Packs the IPv4 address and port of a resolved socket address into a single key, matching {@link #sockaddrKey(MemorySegment, long)}.
+	 *
+	 * @param address the resolved IPv4 socket address
+	 * @return the address in the upper bits and the port in the lower 16 bits
+	 */
+	static long sockaddrKey(InetSocketAddress address) {
+		byte[] addressBytes = address.getAddress().getAddress();
+		long key = 0;
+		for (byte addressByte : addressBytes) {
+			key = key << 8 | (addressByte & 0xFF);
+		}
+
+		return key << 16 | address.getPort();
+	}
+
+	private static int checkResult(String call, int result, MemorySegment captureState) throws IOException {
+		if (result < 0) {
+			throw new IOException(call + "() failed with errno " + errno(captureState));
+		}
+
+		return result;
+	}
+}
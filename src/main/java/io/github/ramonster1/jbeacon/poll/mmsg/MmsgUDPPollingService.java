@@ -0,0 +1,350 @@
+package io.github.ramonster1.jbeacon.poll.mmsg;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.poll.PollTarget;
+import io.github.ramonster1.jbeacon.poll.PollingService;
+import lombok.Builder;
+import lombok.Singular;
+import org.agrona.collections.Long2LongHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MmsgUDPPollingService is a Linux-only implementation of the PollingService interface that polls a set of UDP
+ * targets with batched {@code sendmmsg} and {@code recvmmsg} system calls, made through the Foreign Function &amp;
+ * Memory API.
+ * <p>
+ * A call to {@link #poll()} sends the requests of the whole wave with as few {@code sendmmsg} calls as possible,
+ * then reaps many responses per {@code recvmmsg} call straight into off-heap memory segments. Each response is
+ * matched to its {@link PollTarget} by source address and passed to the target's command as a direct
+ * {@link ByteBuffer} view of the off-heap receive slot, without copying.
+ * <p>
+ * Key Features:
+ * - One unconnected native UDP socket serves every target in the wave.
+ * - Request data is copied into off-heap send slots on every poll, so targets may change their outBuffer contents
+ * between polls.
+ * - All native memory is allocated once at construction and released when the service is closed.
+ * - Every request sent, response received and target timed out is reported to a {@link PollEventListener}.
+ * <p>
+ * Usage Notes:
+ * - Only resolved IPv4 targets on Linux (x86_64 or aarch64) are supported. Use {@link BatchedUDPPollingServices} to
+ * create this service with an automatic fallback to the NIO based
+ * {@link io.github.ramonster1.jbeacon.poll.MultiTargetUDPPollingService}.
+ * - The FFM API is a preview API in JDK 21, so the JVM must be started with {@code --enable-preview}.
+ * - The inBuffer of each target only defines the size of the receive slots, which are as large as the largest
+ * inBuffer. The buffer passed to a command is only valid until the command returns.
+ * - Responses from unknown source addresses are dropped.
+ * - Each target is answered at most once per wave. Duplicate responses are dropped, and datagrams left over from an
+ * earlier wave are discarded before the next wave is sent.
+ * <p>
+ * Thread Safety:
+ * - The class is not inherently thread-safe. If used in a multi-threaded environment, external
+ * synchronization is required for thread safety.
+ */
+public class MmsgUDPPollingService implements PollingService {
+	private static final Logger logger = LogManager.getLogger();
+	private static final long DEFAULT_WAVE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+	private static final long RECEIVE_TIMEOUT_MICROS = TimeUnit.MILLISECONDS.toMicros(10);
+	private static final long MISSING_TARGET = -1L;
+
+	private final List<PollTarget> targets;
+	private final long waveTimeoutNanos;
+	private final int receiveBatchSize;
+	private final int receiveSlotSize;
+	private final Arena arena;
+	private final MemorySegment captureState;
+	private final int fd;
+	private final MemorySegment sendVector;
+	private final MemorySegment sendSlots;
+	private final MemorySegment sendIovecs;
+	private final ByteBuffer[] sendViews;
+	private final int sendSlotSize;
+	private final MemorySegment receiveVector;
+	private final MemorySegment receiveNames;
+	private final ByteBuffer[] receiveViews;
+	private final PollEventListener pollEventListener;
+	private final long[] sentAtNanos;
+	private final Long2LongHashMap targetIndexBySource = new Long2LongHashMap(MISSING_TARGET);
+	private final boolean[] responded;
+	private int outstandingResponses;
+	private boolean closed;
+
+	/**
+	 * Constructs a MmsgUDPPollingService, opening a native UDP socket bound to an ephemeral port and allocating the
+	 * off-heap send and receive vectors.
+	 *
+	 * @param targets           the resolved IPv4 {@link PollTarget}s polled in each wave
+	 * @param waveTimeout       the maximum time, in milliseconds, to wait for all responses of a wave. Defaults to one second
+	 * @param receiveBatchSize  the maximum number of responses reaped per recvmmsg call. Defaults to the number of targets,
+	 *                          capped at 1024
+	 * @param receiveBufferSize the socket receive buffer size (SO_RCVBUF) in bytes, or {@code null} for the system default
+	 * @param pollEventListener the {@link PollEventListener} notified of each request sent, response received and target
+	 *                          timed out. Defaults to {@link PollEventListener#NO_OP}
+	 * @throws IOException if the native socket cannot be created, configured or bound
+	 */
+	@Builder
+	MmsgUDPPollingService(@Singular List<PollTarget> targets, Long waveTimeout, Integer receiveBatchSize, Integer receiveBufferSize, PollEventListener pollEventListener) throws IOException {
+		if (targets.isEmpty()) {
+			throw new IllegalArgumentException("At least one poll target is required");
+		}
+
+		this.targets = List.copyOf(targets);
+		this.waveTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(waveTimeout == null ? DEFAULT_WAVE_TIMEOUT_MILLIS : waveTimeout);
+		this.receiveBatchSize = Math.min(receiveBatchSize == null ? this.targets.size() : receiveBatchSize, LinuxSockets.MAX_MESSAGES_PER_CALL);
+		this.receiveSlotSize = this.targets.stream().mapToInt(target -> target.inBuffer().capacity()).max().orElseThrow();
+		this.sendSlotSize = this.targets.stream().mapToInt(target -> target.outBuffer().capacity()).max().orElseThrow();
+		this.responded = new boolean[this.targets.size()];
+		this.sentAtNanos = new long[this.targets.size()];
+		this.pollEventListener = pollEventListener == null ? PollEventListener.NO_OP : pollEventListener;
+
+		this.arena = Arena.ofShared();
+		try {
+			this.captureState = arena.allocate(LinuxSockets.captureStateSize(), 8);
+			this.sendVector = arena.allocate(this.targets.size() * LinuxSockets.MMSGHDR_SIZE, 8);
+			this.sendSlots = arena.allocate((long) this.targets.size() * sendSlotSize, 8);
+			this.sendIovecs = arena.allocate(this.targets.size() * LinuxSockets.IOVEC_SIZE, 8);
+			this.sendViews = new ByteBuffer[this.targets.size()];
+			this.receiveVector = arena.allocate(this.receiveBatchSize * LinuxSockets.MMSGHDR_SIZE, 8);
+			this.receiveNames = arena.allocate(this.receiveBatchSize * LinuxSockets.SOCKADDR_IN_SIZE, 8);
+			this.receiveViews = new ByteBuffer[this.receiveBatchSize];
+
+			initSendVector();
+			initReceiveVector();
+			this.fd = openSocket(receiveBufferSize);
+		} catch (IOException | RuntimeException e) {
+			arena.close();
+			throw e;
+		}
+	}
+
+	private void initSendVector() {
+		MemorySegment sendNames = arena.allocate(targets.size() * LinuxSockets.SOCKADDR_IN_SIZE, 8);
+
+		for (int i = 0; i < targets.size(); i++) {
+			PollTarget target = targets.get(i);
+			MemorySegment name = sendNames.asSlice(i * LinuxSockets.SOCKADDR_IN_SIZE, LinuxSockets.SOCKADDR_IN_SIZE);
+			MemorySegment slot = sendSlots.asSlice((long) i * sendSlotSize, sendSlotSize);
+			MemorySegment iovec = sendIovecs.asSlice(i * LinuxSockets.IOVEC_SIZE, LinuxSockets.IOVEC_SIZE);
+			MemorySegment header = sendVector.asSlice(i * LinuxSockets.MMSGHDR_SIZE, LinuxSockets.MMSGHDR_SIZE);
+
+			LinuxSockets.writeSockaddr(name, target.serverSocketAddress());
+			targetIndexBySource.put(LinuxSockets.sockaddrKey(target.serverSocketAddress()), i);
+
+			iovec.set(ValueLayout.ADDRESS, LinuxSockets.IOVEC_BASE_OFFSET, slot);
+			header.set(ValueLayout.ADDRESS, LinuxSockets.MSGHDR_NAME_OFFSET, name);
+			header.set(ValueLayout.JAVA_INT, LinuxSockets.MSGHDR_NAME_LENGTH_OFFSET, (int) LinuxSockets.SOCKADDR_IN_SIZE);
+			header.set(ValueLayout.ADDRESS, LinuxSockets.MSGHDR_IOV_OFFSET, iovec);
+			header.set(ValueLayout.JAVA_LONG, LinuxSockets.MSGHDR_IOV_LENGTH_OFFSET, 1L);
+			sendViews[i] = slot.asByteBuffer();
+		}
+	}
+
+	private void initReceiveVector() {
+		MemorySegment receiveSlots = arena.allocate((long) receiveBatchSize * receiveSlotSize, 8);
+		MemorySegment receiveIovecs = arena.allocate(receiveBatchSize * LinuxSockets.IOVEC_SIZE, 8);
+
+		for (int i = 0; i < receiveBatchSize; i++) {
+			MemorySegment slot = receiveSlots.asSlice((long) i * receiveSlotSize, receiveSlotSize);
+			MemorySegment iovec = receiveIovecs.asSlice(i * LinuxSockets.IOVEC_SIZE, LinuxSockets.IOVEC_SIZE);
+			MemorySegment header = receiveVector.asSlice(i * LinuxSockets.MMSGHDR_SIZE, LinuxSockets.MMSGHDR_SIZE);
+
+			iovec.set(ValueLayout.ADDRESS, LinuxSockets.IOVEC_BASE_OFFSET, slot);
+			iovec.set(ValueLayout.JAVA_LONG, LinuxSockets.IOVEC_LENGTH_OFFSET, receiveSlotSize);
+			header.set(ValueLayout.ADDRESS, LinuxSockets.MSGHDR_NAME_OFFSET, receiveNames.asSlice(i * LinuxSockets.SOCKADDR_IN_SIZE, LinuxSockets.SOCKADDR_IN_SIZE));
+			header.set(ValueLayout.ADDRESS, LinuxSockets.MSGHDR_IOV_OFFSET, iovec);
+			header.set(ValueLayout.JAVA_LONG, LinuxSockets.MSGHDR_IOV_LENGTH_OFFSET, 1L);
+			receiveViews[i] = slot.asByteBuffer();
+		}
+	}
+
+	private int openSocket(Integer receiveBufferSize) throws IOException {
+		int socketFd = LinuxSockets.socket(captureState);
+		try {
+			// recvmmsg blocks for at most this long, so the wave deadline is checked regularly
+			MemorySegment timeval = arena.allocate(LinuxSockets.TIMEVAL_SIZE, 8);
+			timeval.set(ValueLayout.JAVA_LONG, 0, 0L);
+			timeval.set(ValueLayout.JAVA_LONG, 8, RECEIVE_TIMEOUT_MICROS);
+			LinuxSockets.setSocketOption(captureState, socketFd, LinuxSockets.SO_RCVTIMEO, timeval);
+
+			if (receiveBufferSize != null) {
+				MemorySegment size = arena.allocate(ValueLayout.JAVA_INT);
+				size.set(ValueLayout.JAVA_INT, 0, receiveBufferSize);
+				LinuxSockets.setSocketOption(captureState, socketFd, LinuxSockets.SO_RCVBUF, size);
+			}
+
+			MemorySegment anyAddress = arena.allocate(LinuxSockets.SOCKADDR_IN_SIZE, 8);
+			anyAddress.set(ValueLayout.JAVA_SHORT, 0, (short) LinuxSockets.AF_INET);
+			LinuxSockets.bind(captureState, socketFd, anyAddress);
+		} catch (IOException | RuntimeException e) {
+			LinuxSockets.close(captureState, socketFd);
+			throw e;
+		}
+
+		return socketFd;
+	}
+
+	/**
+	 * Sends a request to every target using batched sendmmsg calls, then reaps responses with batched recvmmsg calls
+	 * until every target has responded or the wave timeout has elapsed.
+	 *
+	 * @throws IOException if a native send or receive call fails
+	 */
+	@Override
+	public void poll() throws IOException {
+		if (closed) {
+			throw new IOException("Polling service is closed");
+		}
+
+		sendWave();
+		receiveWave();
+
+		if (outstandingResponses > 0) {
+			logger.warn("{} of {} targets did not respond within the wave timeout", outstandingResponses, targets.size());
+			for (int i = 0; i < targets.size(); i++) {
+				if (!responded[i]) {
+					pollEventListener.onTimeout(targets.get(i).serverSocketAddress(), -1);
+					targets.get(i).onPollResponseCommand().onTimeout();
+				}
+			}
+		}
+	}
+
+	private void sendWave() throws IOException {
+		for (int i = 0; i < targets.size(); i++) {
+			ByteBuffer outBuffer = targets.get(i).outBuffer();
+			int length = outBuffer.remaining();
+
+			sendViews[i].put(0, outBuffer, outBuffer.position(), length);
+			sendIovecs.set(ValueLayout.JAVA_LONG, i * LinuxSockets.IOVEC_SIZE + LinuxSockets.IOVEC_LENGTH_OFFSET, length);
+		}
+
+		discardStaleDatagrams();
+		Arrays.fill(responded, false);
+		outstandingResponses = targets.size();
+
+		int sent = 0;
+		while (sent < targets.size()) {
+			int count = Math.min(targets.size() - sent, LinuxSockets.MAX_MESSAGES_PER_CALL);
+			long sentAt = System.nanoTime();
+			int result = LinuxSockets.sendmmsg(captureState, fd, sendVector.asSlice(sent * LinuxSockets.MMSGHDR_SIZE), count);
+
+			if (result < 0) {
+				int errno = LinuxSockets.errno(captureState);
+				if (errno == LinuxSockets.EINTR) {
+					continue;
+				}
+				throw new IOException("sendmmsg() failed with errno " + errno);
+			}
+			for (int i = sent; i < sent + result; i++) {
+				sentAtNanos[i] = sentAt;
+				// sendmmsg writes the number of bytes sent for each message into its header
+				int length = sendVector.get(ValueLayout.JAVA_INT, i * LinuxSockets.MMSGHDR_SIZE + LinuxSockets.MMSGHDR_LENGTH_OFFSET);
+				pollEventListener.onSent(targets.get(i).serverSocketAddress(), length, -1);
+			}
+			sent += result;
+		}
+
+		logger.debug("Sent poll wave to {} targets", sent);
+	}
+
+	private void discardStaleDatagrams() throws IOException {
+		// Responses to an earlier wave that arrived after it timed out would otherwise answer this wave
+		int discarded = 0;
+		while (true) {
+			int received = LinuxSockets.recvmmsg(captureState, fd, receiveVector, receiveBatchSize, LinuxSockets.MSG_DONTWAIT);
+			if (received < 0) {
+				int errno = LinuxSockets.errno(captureState);
+				if (errno == LinuxSockets.EINTR) {
+					continue;
+				}
+				if (errno == LinuxSockets.EAGAIN) {
+					break;
+				}
+				throw new IOException("recvmmsg() failed with errno " + errno);
+			}
+			discarded += received;
+		}
+
+		if (discarded > 0) {
+			logger.debug("Discarded {} stale datagrams", discarded);
+		}
+	}
+
+	private void receiveWave() throws IOException {
+		final long deadline = System.nanoTime() + waveTimeoutNanos;
+
+		while (outstandingResponses > 0 && System.nanoTime() - deadline < 0) {
+			for (int i = 0; i < receiveBatchSize; i++) {
+				// recvmmsg overwrites the name length with the actual source address length
+				receiveVector.set(ValueLayout.JAVA_INT, i * LinuxSockets.MMSGHDR_SIZE + LinuxSockets.MSGHDR_NAME_LENGTH_OFFSET, (int) LinuxSockets.SOCKADDR_IN_SIZE);
+			}
+
+			int received = LinuxSockets.recvmmsg(captureState, fd, receiveVector, receiveBatchSize, LinuxSockets.MSG_WAITFORONE);
+			if (received < 0) {
+				int errno = LinuxSockets.errno(captureState);
+				if (errno == LinuxSockets.EAGAIN || errno == LinuxSockets.EINTR) {
+					continue;
+				}
+				throw new IOException("recvmmsg() failed with errno " + errno);
+			}
+
+			for (int i = 0; i < received; i++) {
+				dispatch(i);
+			}
+		}
+	}
+
+	private void dispatch(int slot) {
+		long receivedAt = System.nanoTime();
+		long key = LinuxSockets.sockaddrKey(receiveNames, slot * LinuxSockets.SOCKADDR_IN_SIZE);
+		int targetIndex = (int) targetIndexBySource.get(key);
+		if (targetIndex == MISSING_TARGET) {
+			logger.debug("Dropping response from unknown source");
+			return;
+		}
+
+		if (responded[targetIndex]) {
+			logger.debug("Dropping duplicate response from target {}", targetIndex);
+			return;
+		}
+		responded[targetIndex] = true;
+		outstandingResponses--;
+
+		int length = receiveVector.get(ValueLayout.JAVA_INT, slot * LinuxSockets.MMSGHDR_SIZE + LinuxSockets.MMSGHDR_LENGTH_OFFSET);
+		ByteBuffer buffer = receiveViews[slot];
+		buffer.clear().limit(length);
+
+		PollTarget target = targets.get(targetIndex);
+		pollEventListener.onReceived(target.serverSocketAddress(), length, receivedAt - sentAtNanos[targetIndex]);
+		target.onPollResponseCommand().execute(buffer);
+		pollEventListener.onExecuted(target.serverSocketAddress(), length, System.nanoTime() - receivedAt);
+	}
+
+	/**
+	 * Closes the native socket and releases all off-heap memory held by this service.
+	 *
+	 * @throws IOException if the native socket cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+		try {
+			LinuxSockets.close(captureState, fd);
+		} finally {
+			arena.close();
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package io.github.ramonster1.jbeacon.poll.scheduling;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.command.PayloadHash;
+import lombok.Builder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AdaptivePeriod lengthens the period of a {@link PollSchedulingService} while its responses stay the same, and snaps
+ * it back to the configured period as soon as a response changes.
+ * <p>
+ * The period of the scheduling service is the floor. Every response is compared with the previous response of the same
+ * target by its {@link PayloadHash}, and after each poll in which no response changed the effective period doubles, up
+ * to the floor multiplied by the maximum multiplier. A changed response resets the multiplier to one, so the next poll
+ * runs on the next tick of the floor period, however long the effective period had grown.
+ * <p>
+ * Usage Notes:
+ * - Decorate the response command of every target of the polling service with {@link #decorate(OnPollResponseCommand)},
+ * and pass the AdaptivePeriod to the builder of the scheduling service.
+ * - The scheduling service still ticks at the floor period, and skips the ticks that fall inside the effective period,
+ * so the effective period is always a multiple of the floor.
+ * - With several targets, a change in the response of any target resets the period of the whole polling service.
+ * Give each target its own scheduling service to adapt the period per target.
+ * - Timed out polls neither lengthen nor reset the period.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe. Responses may be executed on a different thread than the scheduled poll, such as an event
+ * loop or a response pipeline consumer. An AdaptivePeriod should only be used by one scheduling service.
+ */
+public class AdaptivePeriod {
+	private final int maxMultiplier;
+	private final AtomicBoolean changed = new AtomicBoolean();
+	private final AtomicBoolean unchanged = new AtomicBoolean();
+	private volatile int multiplier = 1;
+	// Only accessed by the scheduled poll, which never runs concurrently with itself
+	private int ticksSincePoll;
+
+	/**
+	 * Constructs an AdaptivePeriod.
+	 *
+	 * @param maxMultiplier the maximum multiple of the period of the scheduling service that the effective period grows
+	 *                      to while responses are unchanged. Defaults to 16
+	 * @throws IllegalArgumentException if the maximum multiplier is less than one
+	 */
+	@Builder
+	AdaptivePeriod(Integer maxMultiplier) {
+		this.maxMultiplier = maxMultiplier == null ? 16 : maxMultiplier;
+
+		if (this.maxMultiplier < 1) {
+			throw new IllegalArgumentException("Maximum multiplier must be at least 1: " + maxMultiplier);
+		}
+	}
+
+	/**
+	 * Wraps the response command of a target, so that a change in its responses resets the period.
+	 *
+	 * @param command the {@link OnPollResponseCommand} of the target, which is executed with every response
+	 * @return the command to give to the polling service in place of the given command
+	 */
+	public OnPollResponseCommand decorate(OnPollResponseCommand command) {
+		return new ChangeDetectingCommand(command);
+	}
+
+	/**
+	 * Returns the current multiple of the period of the scheduling service between polls.
+	 *
+	 * @return the current multiplier, between one and the maximum multiplier
+	 */
+	public int currentMultiplier() {
+		return multiplier;
+	}
+
+	/**
+	 * Called by the scheduling service on every tick of the floor period, to decide whether the tick polls. When it
+	 * does, the multiplier for the next poll is doubled if the responses to the previous poll were all unchanged.
+	 */
+	boolean isDue() {
+		if (++ticksSincePoll < multiplier) {
+			return false;
+		}
+
+		ticksSincePoll = 0;
+		// A change since the previous poll has already reset the multiplier, and takes precedence over unchanged responses
+		boolean responsesChanged = changed.getAndSet(false);
+		if (unchanged.getAndSet(false) && !responsesChanged) {
+			multiplier = Math.min(multiplier * 2, maxMultiplier);
+		}
+		return true;
+	}
+
+	private void onResponse(boolean responseChanged) {
+		if (responseChanged) {
+			changed.set(true);
+			multiplier = 1;
+		} else {
+			unchanged.set(true);
+		}
+	}
+
+	/**
+	 * The command of a single target, which remembers the hash of its previous response.
+	 */
+	private final class ChangeDetectingCommand implements OnPollResponseCommand {
+		private final OnPollResponseCommand delegate;
+		private long previousHash;
+		private boolean hasPrevious;
+
+		private ChangeDetectingCommand(OnPollResponseCommand delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void execute(ByteBuffer buffer) {
+			long hash = PayloadHash.hash(buffer);
+			// Responses of one target are never executed concurrently, so the previous hash needs no synchronization
+			onResponse(!hasPrevious || hash != previousHash);
+			previousHash = hash;
+			hasPrevious = true;
+
+			delegate.execute(buffer);
+		}
+
+		@Override
+		public void onTimeout() {
+			delegate.onTimeout();
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package io.github.ramonster1.jbeacon.poll.scheduling;
+
+/**
+ * Defines what a {@link PollSchedulingService} does with the polls whose intended start passed while an earlier poll
+ * was still running, because that poll took longer than the period.
+ */
+public enum OverrunPolicy {
+
+	/**
+	 * Runs every missed poll, back to back, until the schedule has caught up. No poll is lost, but a slow poll is
+	 * followed by a burst of polls. This is the behaviour of
+	 * {@link java.util.concurrent.ScheduledExecutorService#scheduleAtFixedRate}.
+	 */
+	CATCH_UP,
+
+	/**
+	 * Skips every missed poll, and resumes with the first poll whose intended start is after the slow poll completed.
+	 * Polls always start on the original schedule.
+	 */
+	SKIP,
+
+	/**
+	 * Coalesces the missed polls into one, which runs as soon as the slow poll completes, then resumes the original
+	 * schedule.
+	 */
+	COALESCE,
+
+	/**
+	 * Starts each poll one period after the previous poll completed, rather than on a fixed schedule, so polls can
+	 * never overrun. The schedule drifts by the duration of every poll.
+	 */
+	FIXED_DELAY
+}
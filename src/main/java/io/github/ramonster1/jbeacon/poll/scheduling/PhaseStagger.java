@@ -0,0 +1,91 @@
+package io.github.ramonster1.jbeacon.poll.scheduling;
+
+import io.github.ramonster1.jbeacon.util.SplitMix64;
+import lombok.Builder;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PhaseStagger assigns each scheduled poll a fixed phase within its period, so that polls sharing a period are spread
+ * across it rather than all firing at once.
+ * <p>
+ * Thousands of {@link PollSchedulingService}s started with the same period and no initial delay send all their requests
+ * in the same millisecond of every period. The burst overflows socket receive buffers, dropping responses, and leaves
+ * the polling threads idle for the rest of the period. Sharing a PhaseStagger between the scheduling services delays
+ * the first poll of each service by its phase offset, so the polls are spread according to a {@link StaggerStrategy}.
+ * <p>
+ * Key Features:
+ * - A phase is assigned once, when the poll is scheduled, so every poll still runs exactly one period after the one
+ * before it.
+ * - Polls with different periods are staggered independently of each other.
+ * - Optional bounded jitter shifts each phase by a pseudo-random amount, so that pollers on different hosts, staggered
+ * the same way, do not line up with each other. The jitter is also fixed when the phase is assigned.
+ * <p>
+ * Thread Safety:
+ * - The class is thread-safe, and is meant to be shared by every scheduling service whose polls should be staggered.
+ */
+public class PhaseStagger {
+	private final StaggerStrategy strategy;
+	private final long maxJitterNanos;
+	private final long seed;
+	private final Map<Long, AtomicLong> assignedPhases = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs a PhaseStagger.
+	 *
+	 * @param strategy  the {@link StaggerStrategy} used to spread polls across their period. Defaults to EVEN
+	 * @param maxJitter the maximum jitter, in milliseconds, added to each phase. Defaults to no jitter
+	 * @param seed      the seed of the hashed phases and the jitter. Defaults to a seed that differs on every run, so
+	 *                  should be set if hashed phases must survive restarts
+	 * @throws IllegalArgumentException if the maximum jitter is negative
+	 */
+	@Builder
+	PhaseStagger(StaggerStrategy strategy, Long maxJitter, Long seed) {
+		this.strategy = strategy == null ? StaggerStrategy.EVEN : strategy;
+		this.maxJitterNanos = maxJitter == null ? 0 : TimeUnit.MILLISECONDS.toNanos(maxJitter);
+		this.seed = seed == null ? SplitMix64.mix(System.nanoTime()) : seed;
+
+		if (maxJitterNanos < 0) {
+			throw new IllegalArgumentException("Maximum jitter must not be negative: " + maxJitter);
+		}
+	}
+
+	/**
+	 * Assigns the next phase for a poll with the given period.
+	 *
+	 * @param periodNanos the period of the poll, in nanoseconds
+	 * @param key         the key that a HASHED phase is derived from, such as the address of the target. Only its
+	 *                    {@link Object#hashCode()} is used, and it is ignored by the EVEN strategy
+	 * @return the phase offset, between zero inclusive and the period exclusive, to add to the initial delay of the poll
+	 * @throws IllegalArgumentException if the period is not positive
+	 */
+	public long phaseOffsetNanos(long periodNanos, Object key) {
+		if (periodNanos <= 0) {
+			throw new IllegalArgumentException("Period must be positive: " + periodNanos);
+		}
+
+		long position = switch (strategy) {
+			// The van der Corput sequence places each new point in the middle of the largest gap
+			case EVEN -> Long.reverse(assignedPhases.computeIfAbsent(periodNanos, period -> new AtomicLong()).getAndIncrement());
+			case HASHED -> SplitMix64.mix(Objects.hashCode(key) ^ seed);
+		};
+		long offset = fractionOf(periodNanos, position);
+
+		if (maxJitterNanos > 0) {
+			// The golden gamma separates the jitter hash from the phase hash
+			offset += fractionOf(Math.min(maxJitterNanos, periodNanos), SplitMix64.mix(position ^ seed ^ SplitMix64.GOLDEN_GAMMA));
+		}
+		return offset % periodNanos;
+	}
+
+	/**
+	 * Scales an unsigned 64-bit fraction of 2^64 to the same fraction of the given length.
+	 */
+	private static long fractionOf(long length, long fraction) {
+		return Math.unsignedMultiplyHigh(fraction, length);
+	}
+}
@@ -1,16 +1,20 @@
 package io.github.ramonster1.jbeacon.poll.scheduling;
 
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.jfr.PollScheduledEvent;
 import io.github.ramonster1.jbeacon.poll.PollingService;
+import io.github.ramonster1.jbeacon.poll.UDPPollingService;
 import lombok.Builder;
 import lombok.Getter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.IOException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A service for scheduling periodic polling tasks using a {@link ScheduledExecutorService}.
@@ -25,16 +29,28 @@ import java.util.concurrent.TimeUnit;
  * - Dependency on a {@link PollingService} implementation for the actual polling logic.
  * - Graceful shutdown of the executor service upon closing the instance.
  * - Thread-blocking behavior in the {@code executePeriodically} method for ensuring periodic execution.
+ * - Reports polls that take longer than the period, and so delay the next poll, to an optional {@link PollEventListener}.
+ * - Reports the intended start time of every poll to the listener, so that latency can be corrected for polls that
+ * started late.
+ * - Optionally schedules the poll on a shared {@link TimerWheelScheduler} instead of the executor, for very large
+ * numbers of polling services.
+ * - Optionally delays the first poll by a phase offset from a shared {@link PhaseStagger}, so that services sharing a
+ * period do not all poll at the same time.
+ * - An {@link OverrunPolicy} decides whether the polls missed while a slow poll was running are caught up, skipped,
+ * coalesced into one, or avoided by polling with a fixed delay. Overruns, skipped polls and failures are counted.
+ * - Optionally lengthens the period while responses stay the same, and snaps back when they change, with an
+ * {@link AdaptivePeriod}.
  * <p>
  * Usage Notes:
  * - Ensure all required fields such as {@code period}, {@code timeUnit}, and {@code pollingService}
  * are initialized before use.
- * - Properly handle exceptions during polling as they are logged and wrapped into runtime exceptions.
  * - Always close the instance after use to release resources and stop the executor service.
+ * - A steadily increasing overrun count means the period is too short for the polling service on this host.
  * <p>
  * Exception Handling:
- * - Any {@link IOException} thrown by the polling service during execution is logged and rethrown
- * as a {@link RuntimeException}.
+ * - Any exception or error thrown by the polling service is logged and counted, and the schedule carries on. Only a
+ * {@link VirtualMachineError}, such as an {@link OutOfMemoryError}, is rethrown, which cancels the schedule. After consecutive failures, polls are skipped for a backoff that doubles with every failure,
+ * up to the maximum failure backoff, and the first successful poll ends the backoff.
  * - After the service is closed, the executor will no longer accept new tasks.
  * <p>
  * Implements:
@@ -43,6 +59,7 @@ import java.util.concurrent.TimeUnit;
 @Builder
 public class PollSchedulingService implements AutoCloseable {
 	private static final Logger logger = LogManager.getLogger();
+	private static final long DEFAULT_MAX_FAILURE_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
 
 	@Getter
 	@Builder.Default
@@ -52,7 +69,17 @@ public class PollSchedulingService implements AutoCloseable {
 	private Long period;
 	private TimeUnit timeUnit;
 	private PollingService pollingService;
-
+	private PollEventListener pollEventListener;
+	private TimerWheelScheduler timerWheelScheduler;
+	private PhaseStagger phaseStagger;
+	private OverrunPolicy overrunPolicy;
+	private Long maxFailureBackoff;
+	private AdaptivePeriod adaptivePeriod;
+	private Object staggerKey;
+	private final AtomicLong overruns = new AtomicLong();
+	private final AtomicLong skippedPolls = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicReference<TimerWheelScheduler.ScheduledTask> scheduledTask = new AtomicReference<>();
 
 	/**
 	 * Constructs a new instance of PollSchedulingService with specified configurations
@@ -65,11 +92,67 @@ public class PollSchedulingService implements AutoCloseable {
 	 * @param pollingService the PollingService implementation used to perform polling operations
 	 */
 	public PollSchedulingService(ScheduledExecutorService executor, Long initialDelay, Long period, TimeUnit timeUnit, PollingService pollingService) {
+		this(executor, initialDelay, period, timeUnit, pollingService, null);
+	}
+
+	/**
+	 * Constructs a new instance of PollSchedulingService that also reports scheduled polls and schedule overruns.
+	 *
+	 * @param executor          the ScheduledExecutorService instance used to schedule and execute tasks
+	 * @param initialDelay      the delay, in the specified time unit, before the first execution of the polling task
+	 * @param period            the period, in the specified time unit, between successive executions of the polling task
+	 * @param timeUnit          the time unit for the initialDelay and period
+	 * @param pollingService    the PollingService implementation used to perform polling operations
+	 * @param pollEventListener the {@link PollEventListener} notified of the intended start of every poll, and when a poll
+	 *                          takes longer than the period. Events are not reported if it is null
+	 */
+	public PollSchedulingService(ScheduledExecutorService executor, Long initialDelay, Long period, TimeUnit timeUnit, PollingService pollingService, PollEventListener pollEventListener) {
+		this(executor, initialDelay, period, timeUnit, pollingService, pollEventListener, null, null, null, null, null, null);
+	}
+
+	/**
+	 * Constructs a new instance of PollSchedulingService that can schedule its polling task on a {@link TimerWheelScheduler},
+	 * stagger its polls with those of other services, handle overruns and failures, and adapt its period to how often
+	 * responses change.
+	 *
+	 * @param executor            the ScheduledExecutorService instance used to schedule and execute tasks, if no timer
+	 *                            wheel scheduler is given
+	 * @param initialDelay        the delay, in the specified time unit, before the first execution of the polling task
+	 * @param period              the period, in the specified time unit, between successive executions of the polling task
+	 * @param timeUnit            the time unit for the initialDelay and period
+	 * @param pollingService      the PollingService implementation used to perform polling operations
+	 * @param pollEventListener   the {@link PollEventListener} notified of the intended start of every poll, and when a
+	 *                            poll takes longer than the period. Events are not reported if it is null
+	 * @param timerWheelScheduler the running {@link TimerWheelScheduler} used to schedule the polling task instead of the
+	 *                            executor. The executor is used if it is null
+	 * @param phaseStagger        the {@link PhaseStagger} whose phase offset, keyed by the stagger key, is added to the
+	 *                            initial delay. Polls are not staggered if it is null
+	 * @param overrunPolicy       the {@link OverrunPolicy} applied to polls missed while a poll overran the period.
+	 *                            Defaults to CATCH_UP
+	 * @param maxFailureBackoff   the maximum time, in the specified time unit, that polls are skipped for after
+	 *                            consecutive failures. Defaults to one minute, and is never less than the period
+	 * @param adaptivePeriod      the {@link AdaptivePeriod} that lengthens the period while responses are unchanged.
+	 *                            The period is fixed if it is null
+	 * @param staggerKey          the key that a HASHED phase is derived from, which should stay the same across
+	 *                            restarts. Defaults to the server address of a {@link UDPPollingService}, and to the
+	 *                            polling service itself, whose phase then changes on every run, otherwise
+	 */
+	public PollSchedulingService(ScheduledExecutorService executor, Long initialDelay, Long period, TimeUnit timeUnit, PollingService pollingService, PollEventListener pollEventListener, TimerWheelScheduler timerWheelScheduler, PhaseStagger phaseStagger, OverrunPolicy overrunPolicy, Long maxFailureBackoff, AdaptivePeriod adaptivePeriod, Object staggerKey) {
 		this.executor = executor;
 		this.initialDelay = initialDelay;
 		this.period = period;
 		this.timeUnit = timeUnit;
 		this.pollingService = pollingService;
+		this.pollEventListener = pollEventListener == null ? PollEventListener.NO_OP : pollEventListener;
+		this.timerWheelScheduler = timerWheelScheduler;
+		this.phaseStagger = phaseStagger;
+		this.overrunPolicy = overrunPolicy == null ? OverrunPolicy.CATCH_UP : overrunPolicy;
+		this.maxFailureBackoff = maxFailureBackoff;
+		this.adaptivePeriod = adaptivePeriod;
+		if (staggerKey == null && pollingService instanceof UDPPollingService udpPollingService) {
+			staggerKey = udpPollingService.serverSocketAddress();
+		}
+		this.staggerKey = staggerKey == null ? pollingService : staggerKey;
 	}
 
 	/**
@@ -78,10 +161,10 @@ public class PollSchedulingService implements AutoCloseable {
 	 * <p>
 	 * The method uses a {@link ScheduledExecutorService} to schedule the execution of the
 	 * polling task provided via a {@link PollingService} implementation. The task execution begins
-	 * after an initial delay and recurs at a fixed rate defined by the period and time unit.
+	 * after an initial delay and recurs at a fixed rate defined by the period and time unit, or with a fixed delay
+	 * if the overrun policy is FIXED_DELAY.
 	 * </p><p>
-	 * If the execution of the scheduled task is interrupted or encounters an exception,
-	 * it throws a {@link RuntimeException} wrapping the underlying cause.
+	 * Exceptions thrown by the polling service are logged and back off the schedule, but never cancel it.
 	 * </p><p>
 	 * Preconditions:
 	 * - The {@code period} and {@code timeUnit} must be configured correctly prior to executing this method.
@@ -102,18 +185,169 @@ public class PollSchedulingService implements AutoCloseable {
 	 * </p>
 	 */
 	public void executePeriodically() {
-		executor.scheduleAtFixedRate(() -> {
-			try {
-				pollingService.poll();
-			} catch (IOException e) {
-				logger.error("Exception from polling service", e);
-				throw new RuntimeException(e);
-			}
-		}, initialDelay, period, timeUnit);
+		long periodNanos = timeUnit.toNanos(period);
+		long initialDelayNanos = timeUnit.toNanos(initialDelay) + (phaseStagger == null ? 0 : phaseStagger.phaseOffsetNanos(periodNanos, staggerKey));
+		long maxFailureBackoffNanos = maxFailureBackoff == null ? DEFAULT_MAX_FAILURE_BACKOFF_NANOS : timeUnit.toNanos(maxFailureBackoff);
+		ScheduledPoll scheduledPoll = new ScheduledPoll(System.nanoTime() + initialDelayNanos, periodNanos, Math.max(maxFailureBackoffNanos, periodNanos));
+		boolean fixedDelay = overrunPolicy == OverrunPolicy.FIXED_DELAY;
+
+		if (timerWheelScheduler != null) {
+			scheduledTask.set(fixedDelay
+					? timerWheelScheduler.scheduleWithFixedDelay(scheduledPoll, initialDelayNanos, periodNanos, TimeUnit.NANOSECONDS)
+					: timerWheelScheduler.scheduleAtFixedRate(scheduledPoll, initialDelayNanos, periodNanos, TimeUnit.NANOSECONDS));
+			return;
+		}
+
+		if (fixedDelay) {
+			executor.scheduleWithFixedDelay(scheduledPoll, initialDelayNanos, periodNanos, TimeUnit.NANOSECONDS);
+		} else {
+			executor.scheduleAtFixedRate(scheduledPoll, initialDelayNanos, periodNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Returns the number of polls that took longer than the period.
+	 *
+	 * @return the number of overrunning polls
+	 */
+	public long overrunCount() {
+		return overruns.get();
+	}
+
+	/**
+	 * Returns the number of polls skipped, either by the SKIP or COALESCE overrun policy, or while backing off after
+	 * failures.
+	 *
+	 * @return the number of skipped polls
+	 */
+	public long skippedPollCount() {
+		return skippedPolls.get();
+	}
+
+	/**
+	 * Returns the number of polls that failed with an exception.
+	 *
+	 * @return the number of failed polls
+	 */
+	public long failureCount() {
+		return failures.get();
 	}
 
 	@Override
 	public void close() {
+		TimerWheelScheduler.ScheduledTask task = scheduledTask.getAndSet(null);
+		if (task != null) {
+			// The timer wheel scheduler is shared, so only this service's task is cancelled
+			task.cancel();
+		}
 		executor.shutdown();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * A poll run by the executor or timer wheel scheduler, which tracks when each run was intended to start.
+	 * <p>
+	 * A fixed-rate scheduler runs the next poll late, rather than concurrently, if the previous one exceeded the period,
+	 * and then runs the delayed polls back to back until it has caught up. The intended start time therefore advances
+	 * by exactly one period per run, however late the runs are, and the overrun policy decides which of the delayed
+	 * runs actually poll. With a fixed delay, the next intended start is one period after the end of the previous poll.
+	 */
+	private final class ScheduledPoll implements Runnable {
+		private final long periodNanos;
+		private final long maxFailureBackoffNanos;
+		private long intendedStartNanos;
+		private long previousEndNanos;
+		private int consecutiveFailures;
+		private long backoffEndNanos;
+
+		private ScheduledPoll(long firstStartNanos, long periodNanos, long maxFailureBackoffNanos) {
+			this.intendedStartNanos = firstStartNanos;
+			this.previousEndNanos = firstStartNanos;
+			this.periodNanos = periodNanos;
+			this.maxFailureBackoffNanos = maxFailureBackoffNanos;
+		}
+
+		@Override
+		public void run() {
+			long startNanos = System.nanoTime();
+			long intendedStart = intendedStartNanos;
+			intendedStartNanos += periodNanos;
+
+			if (isSkipped(intendedStart, startNanos)) {
+				skippedPolls.incrementAndGet();
+				return;
+			}
+			if (adaptivePeriod != null && !adaptivePeriod.isDue()) {
+				return;
+			}
+
+			PollScheduledEvent pollScheduledEvent = new PollScheduledEvent();
+			pollScheduledEvent.begin();
+			long scheduleDelayNanos = Math.max(0, startNanos - intendedStart);
+			pollEventListener.onScheduled(intendedStart);
+
+			boolean failed = false;
+			try {
+				pollingService.poll();
+			} catch (VirtualMachineError e) {
+				throw e;
+			} catch (Throwable t) {
+				// Anything else escaping run() would silently cancel the periodic task
+				failed = true;
+				onFailure(t);
+			}
+			pollScheduledEvent.emit(scheduleDelayNanos);
+
+			long endNanos = System.nanoTime();
+			previousEndNanos = endNanos;
+			if (overrunPolicy == OverrunPolicy.FIXED_DELAY) {
+				intendedStartNanos = endNanos + periodNanos;
+			}
+			if (!failed) {
+				consecutiveFailures = 0;
+			} else {
+				// Measured on the schedule, from the intended start of the failed poll, or from its end with a fixed delay
+				backoffEndNanos = intendedStartNanos - periodNanos + backoffNanos();
+			}
+
+			long overrunNanos = endNanos - startNanos - periodNanos;
+			if (overrunNanos > 0) {
+				overruns.incrementAndGet();
+				pollEventListener.onScheduleOverrun(overrunNanos);
+			}
+		}
+
+		private boolean isSkipped(long intendedStart, long startNanos) {
+			if (consecutiveFailures > 0 && intendedStart - backoffEndNanos < 0) {
+				return true;
+			}
+
+			return switch (overrunPolicy) {
+				case CATCH_UP, FIXED_DELAY -> false;
+				// Skips every poll that was due while the previous poll was still running
+				case SKIP -> intendedStart - previousEndNanos < 0;
+				// Runs only the last of the polls that were due while the previous poll was still running
+				case COALESCE -> intendedStart + periodNanos - previousEndNanos <= 0;
+			};
+		}
+
+		private void onFailure(Throwable t) {
+			failures.incrementAndGet();
+			consecutiveFailures++;
+			logger.error("Exception from polling service, {} consecutive failures, backing off for {} ms", consecutiveFailures,
+					TimeUnit.NANOSECONDS.toMillis(backoffNanos()), t);
+		}
+
+		/**
+		 * The backoff starts at one period, and doubles with every consecutive failure. It ends at an intended start,
+		 * so a single failure does not skip any poll, a second consecutive failure skips the next poll, and a third
+		 * skips the next three.
+		 */
+		private long backoffNanos() {
+			long backoffNanos = periodNanos;
+			for (int i = 1; i < consecutiveFailures && backoffNanos < maxFailureBackoffNanos; i++) {
+				backoffNanos *= 2;
+			}
+			return Math.min(backoffNanos, maxFailureBackoffNanos);
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package io.github.ramonster1.jbeacon.poll.scheduling;
+
+/**
+ * Defines how a {@link PhaseStagger} spreads the polls that share a period across that period.
+ */
+public enum StaggerStrategy {
+
+	/**
+	 * Spreads polls evenly, in the order their phases are assigned. Each new poll is placed in the middle of the
+	 * largest gap left by the polls before it, so the polls are exactly evenly spaced whenever their number is a power
+	 * of 2, and no gap is ever more than twice the even spacing.
+	 */
+	EVEN,
+
+	/**
+	 * Places each poll at a pseudo-random phase derived from a hash of its key, such as the address of its target.
+	 * A key keeps its phase however many polls are added or removed, and across restarts with the same seed.
+	 */
+	HASHED
+}
@@ -0,0 +1,363 @@
+package io.github.ramonster1.jbeacon.poll.scheduling;
+
+import lombok.Builder;
+import org.agrona.BitUtil;
+import org.agrona.DeadlineTimerWheel;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TimerWheelScheduler runs periodic tasks, such as scheduled polls, from a hashed timing wheel driven by a single
+ * ticking thread.
+ * <p>
+ * A {@link java.util.concurrent.ScheduledExecutorService} keeps its tasks in a heap behind a lock, so every schedule,
+ * cancel and expiry costs O(log n) and contends with the threads scheduling tasks. With a hundred thousand targets
+ * and more, each with its own {@link PollSchedulingService}, that heap becomes the bottleneck. TimerWheelScheduler
+ * keeps its tasks in an Agrona {@link DeadlineTimerWheel} instead, where scheduling, cancelling and expiring a task
+ * are O(1), and every task that falls due in the same tick is expired and dispatched as one batch.
+ * <p>
+ * Key Features:
+ * - Tasks run at a fixed rate. A task that runs late is followed by its delayed runs back to back until it has
+ * caught up, like {@link java.util.concurrent.ScheduledExecutorService#scheduleAtFixedRate}.
+ * - Tasks can instead run with a fixed delay between the end of one run and the start of the next, like
+ * {@link java.util.concurrent.ScheduledExecutorService#scheduleWithFixedDelay}.
+ * - Tasks are run inline on the ticking thread, or handed to a dispatcher {@link Executor}, such as a virtual thread
+ * per task executor, so that slow tasks do not delay the rest of the tick.
+ * - With a dispatcher, a task still running from its previous run is not run concurrently with itself. The run is
+ * retried every tick until the previous one has completed.
+ * - Scheduling and cancelling are queued and applied by the ticking thread, so callers never contend with the wheel.
+ * <p>
+ * Usage Notes:
+ * - Call {@link #start()} once before scheduling tasks.
+ * - Deadlines are rounded up to the end of their tick, so tasks run up to one tick resolution late. Periods should be
+ * much longer than the tick resolution.
+ * - The ticking thread wakes up once per tick while any task is scheduled, and parks while none is.
+ * - A task that throws an exception is logged and cancelled, and its later runs are suppressed.
+ * - Closing the scheduler stops the ticking thread. Tasks already handed to the dispatcher complete on it.
+ * <p>
+ * Thread Safety:
+ * - {@link #scheduleAtFixedRate(Runnable, long, long, TimeUnit)}, {@link #scheduleWithFixedDelay(Runnable, long, long, TimeUnit)},
+ * {@link ScheduledTask#cancel()}, {@link #start()} and {@link #close()} may be called from any thread.
+ */
+public class TimerWheelScheduler implements Runnable, AutoCloseable {
+	private static final Logger logger = LogManager.getLogger();
+	private static final long DEFAULT_TICK_RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int DEFAULT_TICKS_PER_WHEEL = 1024;
+	private static final int INITIAL_TICK_ALLOCATION = 16;
+	private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+	private static final long NO_TIMER = -1L;
+
+	private final DeadlineTimerWheel timerWheel;
+	private final Executor dispatcher;
+	private final Long2ObjectHashMap<ScheduledTask> tasksByTimerId = new Long2ObjectHashMap<>();
+	private final Queue<ScheduledTask> pendingSchedules = new ConcurrentLinkedQueue<>();
+	private final Queue<ScheduledTask> pendingCancellations = new ConcurrentLinkedQueue<>();
+	private final List<ScheduledTask> expiredTasks = new ArrayList<>();
+	private final DeadlineTimerWheel.TimerHandler timerHandler = this::onTimerExpiry;
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private volatile Thread thread;
+
+	/**
+	 * Constructs a TimerWheelScheduler. The scheduler does not run tasks until it is started.
+	 *
+	 * @param tickResolution the duration of a tick in nanoseconds, rounded up to a power of 2. Defaults to about
+	 *                       one millisecond
+	 * @param ticksPerWheel  the number of ticks in one turn of the wheel, rounded up to a power of 2. Tasks due more
+	 *                       than one turn ahead are checked once per turn until they fall due. Defaults to 1024
+	 * @param dispatcher     the {@link Executor} that expired tasks are handed to. Tasks are run inline on the ticking
+	 *                       thread if it is null
+	 */
+	@Builder
+	TimerWheelScheduler(Long tickResolution, Integer ticksPerWheel, Executor dispatcher) {
+		long tickResolutionNanos = tickResolution == null ? DEFAULT_TICK_RESOLUTION_NANOS : tickResolution;
+		int ticks = ticksPerWheel == null ? DEFAULT_TICKS_PER_WHEEL : ticksPerWheel;
+		if (tickResolutionNanos < 1 || ticks < 1) {
+			throw new IllegalArgumentException("Tick resolution and ticks per wheel must be positive");
+		}
+
+		this.timerWheel = new DeadlineTimerWheel(TimeUnit.NANOSECONDS, System.nanoTime(),
+				BitUtil.findNextPositivePowerOfTwo(tickResolutionNanos), BitUtil.findNextPositivePowerOfTwo(ticks), INITIAL_TICK_ALLOCATION);
+		this.dispatcher = dispatcher;
+	}
+
+	/**
+	 * Starts the ticking thread as a daemon thread.
+	 *
+	 * @throws IllegalStateException if the scheduler has already been started
+	 */
+	public synchronized void start() {
+		if (!running.compareAndSet(false, true)) {
+			throw new IllegalStateException("Timer wheel scheduler already started");
+		}
+
+		thread = new Thread(this, "jbeacon-timer-wheel");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Returns whether the scheduler is running and able to accept tasks.
+	 *
+	 * @return {@code true} if the scheduler has been started and not yet closed
+	 */
+	public boolean isRunning() {
+		return running.get();
+	}
+
+	/**
+	 * Schedules a task to run after an initial delay, then once every period.
+	 *
+	 * @param task         the task to run
+	 * @param initialDelay the delay before the first run
+	 * @param period       the period between the intended starts of successive runs
+	 * @param timeUnit     the time unit of the initial delay and period
+	 * @return the {@link ScheduledTask}, through which the task can be cancelled
+	 * @throws IllegalArgumentException if the period is not positive
+	 * @throws IllegalStateException    if the scheduler is not running
+	 */
+	public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit timeUnit) {
+		return schedule(task, initialDelay, period, timeUnit, false);
+	}
+
+	/**
+	 * Schedules a task to run after an initial delay, then once every delay after the previous run has completed.
+	 *
+	 * @param task         the task to run
+	 * @param initialDelay the delay before the first run
+	 * @param delay        the delay between the end of a run and the start of the next
+	 * @param timeUnit     the time unit of the initial delay and delay
+	 * @return the {@link ScheduledTask}, through which the task can be cancelled
+	 * @throws IllegalArgumentException if the delay is not positive
+	 * @throws IllegalStateException    if the scheduler is not running
+	 */
+	public ScheduledTask scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit timeUnit) {
+		return schedule(task, initialDelay, delay, timeUnit, true);
+	}
+
+	private ScheduledTask schedule(Runnable task, long initialDelay, long period, TimeUnit timeUnit, boolean fixedDelay) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be positive: " + period);
+		}
+		if (!isRunning()) {
+			throw new IllegalStateException("Timer wheel scheduler is not running");
+		}
+
+		ScheduledTask scheduledTask = new ScheduledTask(task, System.nanoTime() + timeUnit.toNanos(initialDelay), timeUnit.toNanos(period), fixedDelay);
+		pendingSchedules.add(scheduledTask);
+		LockSupport.unpark(thread);
+		return scheduledTask;
+	}
+
+	/**
+	 * Runs the ticking thread until the scheduler is closed. Each tick applies pending schedules and cancellations,
+	 * expires every task due by the end of the tick, dispatches the expired tasks as one batch and reschedules them,
+	 * then parks until the next tick.
+	 */
+	@Override
+	public void run() {
+		logger.info("Timer wheel scheduler started");
+
+		while (running.get()) {
+			try {
+				long now = System.nanoTime();
+				if (timerWheel.timerCount() == 0) {
+					// An idle wheel starts again from the current tick, rather than ticking through the idle time
+					timerWheel.resetStartTime(now);
+				}
+
+				applyPendingSchedules();
+				applyPendingCancellations();
+
+				// Each poll expires the due tasks of the current tick, and advances to the next tick once it has passed
+				long tickTime;
+				do {
+					tickTime = timerWheel.currentTickTime();
+					timerWheel.poll(now, timerHandler, Integer.MAX_VALUE);
+				} while (timerWheel.currentTickTime() != tickTime);
+
+				if (dispatchExpiredTasks(now)) {
+					// A task fell behind its schedule, so its delayed runs are dispatched back to back
+					continue;
+				}
+
+				if (timerWheel.timerCount() == 0 && pendingSchedules.isEmpty()) {
+					LockSupport.park(this);
+				} else {
+					LockSupport.parkNanos(this, timerWheel.currentTickTime() - System.nanoTime());
+				}
+			} catch (RuntimeException e) {
+				logger.error("Exception in timer wheel scheduler", e);
+			}
+		}
+
+		logger.info("Timer wheel scheduler stopped");
+	}
+
+	private void applyPendingSchedules() {
+		ScheduledTask scheduledTask;
+		while ((scheduledTask = pendingSchedules.poll()) != null) {
+			if (!scheduledTask.cancelled) {
+				schedule(scheduledTask, scheduledTask.nextDeadlineNanos);
+			}
+		}
+	}
+
+	private void applyPendingCancellations() {
+		ScheduledTask scheduledTask;
+		while ((scheduledTask = pendingCancellations.poll()) != null) {
+			if (scheduledTask.timerId != NO_TIMER) {
+				timerWheel.cancelTimer(scheduledTask.timerId);
+				tasksByTimerId.remove(scheduledTask.timerId);
+				scheduledTask.timerId = NO_TIMER;
+			}
+		}
+	}
+
+	private boolean onTimerExpiry(TimeUnit timeUnit, long now, long timerId) {
+		ScheduledTask scheduledTask = tasksByTimerId.remove(timerId);
+		if (scheduledTask != null) {
+			scheduledTask.timerId = NO_TIMER;
+			expiredTasks.add(scheduledTask);
+		}
+		return true;
+	}
+
+	/**
+	 * Dispatches the tasks expired by the last tick as one batch, and schedules their next runs.
+	 *
+	 * @return whether the next run of any task is already due
+	 */
+	private boolean dispatchExpiredTasks(long now) {
+		boolean behindSchedule = false;
+		for (int i = 0; i < expiredTasks.size(); i++) {
+			ScheduledTask scheduledTask = expiredTasks.get(i);
+			if (scheduledTask.cancelled) {
+				continue;
+			}
+
+			if (dispatcher == null) {
+				scheduledTask.run();
+			} else if (scheduledTask.running.compareAndSet(false, true)) {
+				try {
+					dispatcher.execute(scheduledTask);
+				} catch (RejectedExecutionException e) {
+					logger.error("Dispatcher rejected scheduled task, cancelling it", e);
+					scheduledTask.running.set(false);
+					scheduledTask.cancel();
+					continue;
+				}
+			} else {
+				// The previous run is still in progress, so the run keeps its intended start and is retried next tick
+				schedule(scheduledTask, now);
+				continue;
+			}
+
+			if (scheduledTask.fixedDelay) {
+				// A dispatched task schedules its next run itself, once it has completed
+				if (dispatcher == null && !scheduledTask.cancelled) {
+					scheduledTask.nextDeadlineNanos = System.nanoTime() + scheduledTask.periodNanos;
+					schedule(scheduledTask, scheduledTask.nextDeadlineNanos);
+				}
+				continue;
+			}
+
+			scheduledTask.nextDeadlineNanos += scheduledTask.periodNanos;
+			if (!scheduledTask.cancelled) {
+				schedule(scheduledTask, scheduledTask.nextDeadlineNanos);
+				behindSchedule |= scheduledTask.nextDeadlineNanos - System.nanoTime() <= 0;
+			}
+		}
+		expiredTasks.clear();
+		return behindSchedule;
+	}
+
+	private void schedule(ScheduledTask scheduledTask, long deadlineNanos) {
+		scheduledTask.timerId = timerWheel.scheduleTimer(deadlineNanos);
+		tasksByTimerId.put(scheduledTask.timerId, scheduledTask);
+	}
+
+	/**
+	 * Stops the ticking thread and waits for it to finish its current tick. Scheduled tasks do not run again.
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the ticking thread to stop
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		running.set(false);
+
+		Thread tickingThread = thread;
+		if (tickingThread != null && tickingThread != Thread.currentThread()) {
+			LockSupport.unpark(tickingThread);
+			tickingThread.join(CLOSE_TIMEOUT_MILLIS);
+		}
+	}
+
+	/**
+	 * A task scheduled on a {@link TimerWheelScheduler}, which can be cancelled from any thread.
+	 */
+	public final class ScheduledTask implements Runnable {
+		private final Runnable task;
+		private final long periodNanos;
+		private final boolean fixedDelay;
+		private final AtomicBoolean running = new AtomicBoolean(false);
+		private volatile boolean cancelled;
+		// Only accessed by the ticking thread, or by a dispatched fixed-delay run before it queues its next run
+		private long nextDeadlineNanos;
+		private long timerId = NO_TIMER;
+
+		private ScheduledTask(Runnable task, long firstDeadlineNanos, long periodNanos, boolean fixedDelay) {
+			this.task = task;
+			this.nextDeadlineNanos = firstDeadlineNanos;
+			this.periodNanos = periodNanos;
+			this.fixedDelay = fixedDelay;
+		}
+
+		/**
+		 * Cancels the task. A run already in progress completes, but the task does not run again.
+		 */
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				pendingCancellations.add(this);
+				LockSupport.unpark(thread);
+			}
+		}
+
+		/**
+		 * Returns whether the task has been cancelled, either explicitly or because a run threw an exception.
+		 *
+		 * @return {@code true} if the task will not run again
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public void run() {
+			try {
+				task.run();
+			} catch (RuntimeException e) {
+				logger.error("Exception from scheduled task, cancelling it", e);
+				cancel();
+			} finally {
+				running.set(false);
+				if (fixedDelay && dispatcher != null && !cancelled) {
+					nextDeadlineNanos = System.nanoTime() + periodNanos;
+					pendingSchedules.add(this);
+					LockSupport.unpark(thread);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package io.github.ramonster1.jbeacon.util;
+
+/**
+ * SplitMix64 provides the finalizer and golden gamma of the SplitMix64 generator, which JBeacon uses to hash and
+ * spread values, such as response payloads and the keys of staggered polls.
+ * <p>
+ * It is an internal utility shared across packages, not a random number generator, and is not part of the public API.
+ */
+public final class SplitMix64 {
+	/**
+	 * The golden ratio multiplier of SplitMix64, 2^64 divided by the golden ratio.
+	 */
+	public static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private SplitMix64() {
+	}
+
+	/**
+	 * The SplitMix64 finalizer, which spreads a change in any input bit across all 64 bits, so that similar inputs,
+	 * such as neighbouring ports, have unrelated outputs.
+	 *
+	 * @param value the value to mix
+	 * @return the mixed value
+	 */
+	public static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+}
@@ -0,0 +1,177 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import io.github.ramonster1.jbeacon.poll.PollEventLoop;
+import io.aeron.Publication;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AeronOnPollResponseBatchingCommandTest {
+	private final List<byte[]> published = new ArrayList<>();
+	private final List<String> decoded = new ArrayList<>();
+	private Publication mockPublication;
+
+	@BeforeEach
+	void setUp() {
+		mockPublication = mock(Publication.class);
+		when(mockPublication.maxPayloadLength()).thenReturn(1376);
+		when(mockPublication.offer(any(DirectBuffer.class), anyInt(), anyInt())).thenAnswer(this::publish);
+	}
+
+	@Test
+	void testFlushPublishesBatchThatDecoderSplits() {
+		AeronOnPollResponseBatchingCommand command = AeronOnPollResponseBatchingCommand.builder().publication(mockPublication).build();
+
+		command.execute(response("first"));
+		command.execute(response(""));
+		command.execute(response("third"));
+		assertTrue(published.isEmpty());
+
+		command.flush();
+		command.flush();
+
+		assertEquals(1, published.size());
+		assertEquals(1, command.batchCount());
+		decode();
+		assertEquals(List.of("first", "", "third"), decoded);
+	}
+
+	@Test
+	void testBatchIsPublishedBeforeExceedingMaxBatchLength() {
+		AeronOnPollResponseBatchingCommand command = AeronOnPollResponseBatchingCommand.builder()
+				.publication(mockPublication)
+				.maxBatchLength(20)
+				.build();
+
+		command.execute(response("12345"));
+		command.execute(response("67890"));
+		command.execute(response("abcde"));
+		command.flush();
+
+		assertEquals(2, published.size());
+		assertEquals(18, published.get(0).length);
+		decode();
+		assertEquals(List.of("12345", "67890", "abcde"), decoded);
+	}
+
+	@Test
+	void testResponseLongerThanMaxBatchLengthIsPublishedAlone() {
+		AeronOnPollResponseBatchingCommand command = AeronOnPollResponseBatchingCommand.builder()
+				.publication(mockPublication)
+				.maxBatchLength(8)
+				.build();
+
+		command.execute(response("a"));
+		command.execute(response("longer than the batch"));
+
+		assertEquals(2, published.size());
+		decode();
+		assertEquals(List.of("a", "longer than the batch"), decoded);
+	}
+
+	@Test
+	void testOnlyRemainingBytesAreBatched() {
+		AeronOnPollResponseBatchingCommand command = AeronOnPollResponseBatchingCommand.builder().publication(mockPublication).build();
+		ByteBuffer direct = ByteBuffer.allocateDirect(32);
+		direct.put("skipped response".getBytes(StandardCharsets.UTF_8)).flip();
+		direct.position("skipped ".length());
+
+		command.execute(direct);
+		command.flush();
+
+		decode();
+		assertEquals(List.of("response"), decoded);
+		assertEquals("skipped ".length(), direct.position());
+	}
+
+	@Test
+	void testBatchIsPublishedAtEndOfEventLoopCycle() {
+		PollEventLoop mockEventLoop = mock(PollEventLoop.class);
+		ArgumentCaptor<BooleanSupplier> cycleTask = ArgumentCaptor.forClass(BooleanSupplier.class);
+		AeronOnPollResponseBatchingCommand command = AeronOnPollResponseBatchingCommand.builder()
+				.publication(mockPublication)
+				.pollEventLoop(mockEventLoop)
+				.build();
+		verify(mockEventLoop).addCycleTask(cycleTask.capture());
+
+		command.execute(response("first"));
+		command.execute(response("second"));
+		assertTrue(cycleTask.getValue().getAsBoolean());
+		command.execute(response("third"));
+		command.close();
+		assertFalse(cycleTask.getValue().getAsBoolean());
+
+		assertEquals(2, published.size());
+		decode();
+		assertEquals(List.of("first", "second", "third"), decoded);
+	}
+
+	@Test
+	void testBatchIsPublishedAfterMaxBatchDelay() throws InterruptedException {
+		AeronOnPollResponseBatchingCommand command = AeronOnPollResponseBatchingCommand.builder()
+				.publication(mockPublication)
+				.maxBatchDelay(10_000L)
+				.build();
+
+		command.execute(response("first"));
+		Thread.sleep(20);
+		command.execute(response("second"));
+
+		assertEquals(1, published.size());
+	}
+
+	@Test
+	void testBackPressuredBatchIsReportedAndDropped() {
+		PollEventListener mockListener = mock(PollEventListener.class);
+		when(mockPublication.offer(any(DirectBuffer.class), anyInt(), anyInt())).thenReturn(Publication.BACK_PRESSURED);
+		AeronOnPollResponseBatchingCommand command = AeronOnPollResponseBatchingCommand.builder()
+				.publication(mockPublication)
+				.pollEventListener(mockListener)
+				.build();
+
+		command.execute(response("first"));
+		command.flush();
+		command.flush();
+
+		verify(mockListener).onBackPressured(4 + "first".length());
+		verify(mockPublication, times(1)).offer(any(DirectBuffer.class), anyInt(), anyInt());
+		assertEquals(0, command.batchCount());
+	}
+
+	private Long publish(InvocationOnMock invocation) {
+		DirectBuffer buffer = invocation.getArgument(0);
+		int offset = invocation.getArgument(1);
+		int length = invocation.getArgument(2);
+		byte[] bytes = new byte[length];
+		buffer.getBytes(offset, bytes);
+		published.add(bytes);
+		return (long) published.size() * 64;
+	}
+
+	private void decode() {
+		BatchDecoder decoder = new BatchDecoder((buffer, offset, length, header) -> decoded.add(buffer.getStringWithoutLengthUtf8(offset, length)));
+		for (byte[] batch : published) {
+			ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(batch.length + 3);
+			// Decodes from a non-zero offset, as a fragment of a term buffer would be
+			buffer.putBytes(3, batch);
+			decoder.onFragment(buffer, 3, batch.length, null);
+		}
+	}
+
+	private static ByteBuffer response(String response) {
+		return ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8));
+	}
+}
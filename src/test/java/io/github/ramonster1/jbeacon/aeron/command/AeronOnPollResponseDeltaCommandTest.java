@@ -0,0 +1,168 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import io.aeron.Publication;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AeronOnPollResponseDeltaCommandTest {
+	private static final String STATUS = "{\"status\":\"ok\",\"temperature\":21.5,\"humidity\":40,\"uptime\":1000000}";
+
+	private final List<byte[]> published = new ArrayList<>();
+	private final List<String> decoded = new ArrayList<>();
+	private Publication mockPublication;
+	private DeltaDecoder decoder;
+
+	@BeforeEach
+	void setUp() {
+		mockPublication = mock(Publication.class);
+		when(mockPublication.offer(any(DirectBuffer.class), anyInt(), anyInt())).thenAnswer(this::publish);
+		when(mockPublication.offer(any(DirectBuffer.class), anyInt(), anyInt(), any(DirectBuffer.class), anyInt(), anyInt()))
+				.thenAnswer(this::publish);
+		decoder = DeltaDecoder.builder()
+				.fragmentHandler((buffer, offset, length, header) -> decoded.add(buffer.getStringWithoutLengthUtf8(offset, length)))
+				.build();
+	}
+
+	@Test
+	void testDeltasRebuildEveryResponse() {
+		AeronOnPollResponseDeltaCommand command = AeronOnPollResponseDeltaCommand.builder().publication(mockPublication).build();
+		List<String> responses = List.of(STATUS, STATUS.replace("21.5", "21.6"), STATUS.replace("ok", "degraded"), STATUS.substring(0, 20), STATUS);
+
+		for (String response : responses) {
+			command.execute(response(response));
+		}
+		deliver();
+
+		assertEquals(responses, decoded);
+		assertEquals(1, command.snapshotCount());
+		assertEquals(4, command.deltaCount());
+		assertTrue(published.get(1).length < 16);
+	}
+
+	@Test
+	void testDeltaIsAgainstRemainingBytesOfHeapAndDirectBuffers() {
+		AeronOnPollResponseDeltaCommand command = AeronOnPollResponseDeltaCommand.builder().publication(mockPublication).build();
+		ByteBuffer direct = ByteBuffer.allocateDirect(128);
+		direct.put("header".getBytes(StandardCharsets.UTF_8)).put(STATUS.replace("40", "41").getBytes(StandardCharsets.UTF_8)).flip();
+		direct.position("header".length());
+		ByteBuffer heap = ByteBuffer.wrap(("header" + STATUS).getBytes(StandardCharsets.UTF_8));
+		heap.position("header".length());
+
+		command.execute(heap);
+		command.execute(direct);
+		deliver();
+
+		assertEquals(List.of(STATUS, STATUS.replace("40", "41")), decoded);
+		assertEquals("header".length(), direct.position());
+	}
+
+	@Test
+	void testSnapshotIsPublishedEverySnapshotInterval() {
+		AeronOnPollResponseDeltaCommand command = AeronOnPollResponseDeltaCommand.builder()
+				.publication(mockPublication)
+				.snapshotInterval(3)
+				.build();
+
+		for (int i = 0; i < 7; i++) {
+			command.execute(response(STATUS.replace("1000000", "100000" + i)));
+		}
+
+		assertEquals(3, command.snapshotCount());
+		assertEquals(4, command.deltaCount());
+		assertEquals(DeltaFrame.SNAPSHOT, published.get(3)[DeltaFrame.TYPE_OFFSET]);
+		assertEquals(DeltaFrame.SNAPSHOT, published.get(6)[DeltaFrame.TYPE_OFFSET]);
+	}
+
+	@Test
+	void testSnapshotIsPublishedOnRequest() {
+		AeronOnPollResponseDeltaCommand command = AeronOnPollResponseDeltaCommand.builder().publication(mockPublication).build();
+
+		command.execute(response(STATUS));
+		command.requestSnapshot();
+		command.execute(response(STATUS));
+		command.execute(response(STATUS));
+
+		assertEquals(2, command.snapshotCount());
+		assertEquals(1, command.deltaCount());
+	}
+
+	@Test
+	void testSnapshotIsPublishedAfterBackPressure() {
+		AeronOnPollResponseDeltaCommand command = AeronOnPollResponseDeltaCommand.builder().publication(mockPublication).build();
+
+		command.execute(response(STATUS));
+		when(mockPublication.offer(any(DirectBuffer.class), anyInt(), anyInt())).thenReturn(Publication.BACK_PRESSURED);
+		command.execute(response(STATUS.replace("21.5", "21.6")));
+		command.execute(response(STATUS.replace("21.5", "21.7")));
+		deliver();
+
+		assertEquals(List.of(STATUS, STATUS.replace("21.5", "21.7")), decoded);
+		assertEquals(2, command.snapshotCount());
+	}
+
+	@Test
+	void testDecoderDropsDeltasBeforeFirstSnapshot() {
+		AeronOnPollResponseDeltaCommand command = AeronOnPollResponseDeltaCommand.builder()
+				.publication(mockPublication)
+				.snapshotInterval(3)
+				.build();
+
+		for (int i = 0; i < 4; i++) {
+			command.execute(response(STATUS.replace("1000000", "100000" + i)));
+		}
+		// Joins after the first snapshot
+		published.remove(0);
+		deliver();
+
+		assertEquals(List.of(STATUS.replace("1000000", "1000003")), decoded);
+		assertEquals(2, decoder.droppedDeltaCount());
+	}
+
+	@Test
+	void testSnapshotIntervalMustBePositive() {
+		assertThrows(IllegalArgumentException.class, () -> AeronOnPollResponseDeltaCommand.builder()
+				.publication(mockPublication)
+				.snapshotInterval(0)
+				.build());
+	}
+
+	private Long publish(InvocationOnMock invocation) {
+		Object[] arguments = invocation.getArguments();
+		ExpandableArrayBuffer message = new ExpandableArrayBuffer();
+		int length = 0;
+		for (int i = 0; i < arguments.length; i += 3) {
+			DirectBuffer buffer = (DirectBuffer) arguments[i];
+			int partLength = (Integer) arguments[i + 2];
+			message.putBytes(length, buffer, (Integer) arguments[i + 1], partLength);
+			length += partLength;
+		}
+
+		byte[] bytes = new byte[length];
+		message.getBytes(0, bytes);
+		published.add(bytes);
+		return (long) published.size() * 64;
+	}
+
+	private void deliver() {
+		for (byte[] message : published) {
+			ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(message.length);
+			buffer.putBytes(0, message);
+			decoder.onFragment(buffer, 0, message.length, null);
+		}
+	}
+
+	private static ByteBuffer response(String response) {
+		return ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -1,14 +1,25 @@
 package io.github.ramonster1.jbeacon.aeron.command;
 
+import io.github.ramonster1.jbeacon.event.PollEventListener;
 import io.aeron.Publication;
 import io.aeron.exceptions.AeronException;
+import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.ramonster1.jbeacon.aeron.command.ResponseBuffers.PAYLOAD;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verify;
@@ -18,6 +29,8 @@ class AeronOnPollResponseOfferCommandTest {
 	@Mock
 	private Publication mockPublication;
 	@Mock
+	private PollEventListener mockListener;
+	@Mock
 	private MutableDirectBuffer mockDirectBuffer;
 	private final ByteBuffer testBuffer = ByteBuffer.wrap("testData".getBytes());
 
@@ -68,4 +81,47 @@ class AeronOnPollResponseOfferCommandTest {
 				"Publication reached max position"
 		);
 	}
+
+	@Test
+	void testExecute_PublishedResponseIsReportedToListener() {
+		when(mockPublication.offer(mockDirectBuffer, 0, testBuffer.limit())).thenReturn(4096L);
+
+		AeronOnPollResponseOfferCommand command = new AeronOnPollResponseOfferCommand(mockPublication, mockDirectBuffer, mockListener);
+		command.execute(testBuffer);
+
+		verify(mockListener).onPublished(testBuffer.limit(), 4096L);
+	}
+
+	@Test
+	void testExecute_BackPressureIsReportedToListener() {
+		when(mockPublication.offer(mockDirectBuffer, 0, testBuffer.limit())).thenReturn(Publication.BACK_PRESSURED);
+
+		AeronOnPollResponseOfferCommand command = new AeronOnPollResponseOfferCommand(mockPublication, mockDirectBuffer, mockListener);
+		command.execute(testBuffer);
+
+		verify(mockListener).onBackPressured(testBuffer.limit());
+		verify(mockListener, never()).onPublished(anyInt(), anyLong());
+	}
+
+	@ParameterizedTest
+	@MethodSource("io.github.ramonster1.jbeacon.aeron.command.ResponseBuffers#responseBuffers")
+	void testExecute_RemainingBytesAreOfferedFromHeapAndDirectBuffers(ByteBuffer responseBuffer) {
+		List<byte[]> offered = new ArrayList<>();
+		when(mockPublication.offer(any(DirectBuffer.class), eq(0), eq(PAYLOAD.length))).thenAnswer(invocation -> {
+			DirectBuffer directBuffer = invocation.getArgument(0);
+			byte[] bytes = new byte[PAYLOAD.length];
+			directBuffer.getBytes(0, bytes);
+			offered.add(bytes);
+			return 1L;
+		});
+		AeronOnPollResponseOfferCommand command = new AeronOnPollResponseOfferCommand(mockPublication, new UnsafeBuffer(0, 0), mockListener);
+
+		int position = responseBuffer.position();
+		command.execute(responseBuffer);
+
+		assertEquals(1, offered.size());
+		assertArrayEquals(PAYLOAD, offered.get(0));
+		assertEquals(position, responseBuffer.position());
+		verify(mockListener).onPublished(PAYLOAD.length, 1L);
+	}
 }
@@ -1,24 +1,36 @@
 package io.github.ramonster1.jbeacon.aeron.command;
 
+import io.github.ramonster1.jbeacon.event.PollEventListener;
 import io.aeron.Publication;
 import io.aeron.exceptions.AeronException;
 import io.aeron.logbuffer.BufferClaim;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static io.github.ramonster1.jbeacon.aeron.command.ResponseBuffers.PAYLOAD;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AeronOnPollResponseTryClaimCommandTest {
+	private static final int CLAIM_OFFSET = 32;
 
 	@Mock
 	private Publication mockPublication;
 	@Mock
+	private PollEventListener mockListener;
+	@Mock
 	private BufferClaim mockBufferClaim;
 	@Mock
 	private MutableDirectBuffer mockDirectBuffer;
@@ -77,4 +89,47 @@ class AeronOnPollResponseTryClaimCommandTest {
 				"Publication reached max position"
 		);
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testExecute_PublishedResponseIsReportedToListener() {
+		when(mockPublication.tryClaim(testBuffer.limit(), mockBufferClaim)).thenReturn(4096L);
+		when(mockBufferClaim.buffer()).thenReturn(mockDirectBuffer);
+
+		AeronOnPollResponseTryClaimCommand command = new AeronOnPollResponseTryClaimCommand(mockPublication, mockBufferClaim, mockListener);
+		command.execute(testBuffer);
+
+		verify(mockListener).onPublished(testBuffer.limit(), 4096L);
+	}
+
+	@Test
+	void testExecute_BackPressureIsReportedToListener() {
+		when(mockPublication.tryClaim(testBuffer.limit(), mockBufferClaim)).thenReturn(Publication.BACK_PRESSURED);
+
+		AeronOnPollResponseTryClaimCommand command = new AeronOnPollResponseTryClaimCommand(mockPublication, mockBufferClaim, mockListener);
+		command.execute(testBuffer);
+
+		verify(mockListener).onBackPressured(testBuffer.limit());
+		verify(mockListener, never()).onPublished(anyInt(), anyLong());
+	}
+
+	@ParameterizedTest
+	@MethodSource("io.github.ramonster1.jbeacon.aeron.command.ResponseBuffers#responseBuffers")
+	void testExecute_RemainingBytesAreCopiedFromHeapAndDirectBuffers(ByteBuffer responseBuffer) {
+		UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[128]);
+		when(mockPublication.tryClaim(PAYLOAD.length, mockBufferClaim)).thenReturn(1L);
+		when(mockBufferClaim.buffer()).thenReturn(termBuffer);
+		when(mockBufferClaim.offset()).thenReturn(CLAIM_OFFSET);
+		AeronOnPollResponseTryClaimCommand command = new AeronOnPollResponseTryClaimCommand(mockPublication, mockBufferClaim);
+
+		int position = responseBuffer.position();
+		command.execute(responseBuffer);
+
+		byte[] claimed = new byte[termBuffer.capacity()];
+		termBuffer.getBytes(0, claimed);
+		assertArrayEquals(PAYLOAD, Arrays.copyOfRange(claimed, CLAIM_OFFSET, CLAIM_OFFSET + PAYLOAD.length));
+		// Nothing is written past the claimed length
+		assertArrayEquals(new byte[claimed.length - CLAIM_OFFSET - PAYLOAD.length], Arrays.copyOfRange(claimed, CLAIM_OFFSET + PAYLOAD.length, claimed.length));
+		assertEquals(position, responseBuffer.position());
+		verify(mockBufferClaim).commit();
+	}
+}
@@ -0,0 +1,38 @@
+package io.github.ramonster1.jbeacon.aeron.command;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response buffers shared by the tests of the Aeron commands, which must publish the remaining bytes of any buffer a
+ * polling service may pass them.
+ */
+final class ResponseBuffers {
+	static final byte[] PAYLOAD = "testData".getBytes(StandardCharsets.UTF_8);
+
+	private ResponseBuffers() {
+	}
+
+	/**
+	 * Returns heap, sliced heap and direct buffers holding the payload between every combination of a zero and non-zero
+	 * position, and a limit at and before the capacity. Used as a {@code @MethodSource}.
+	 */
+	static List<ByteBuffer> responseBuffers() {
+		List<ByteBuffer> buffers = new ArrayList<>();
+		for (int position : new int[]{0, 3}) {
+			for (int trailing : new int[]{0, 2}) {
+				byte[] bytes = new byte[position + PAYLOAD.length + trailing];
+				System.arraycopy(PAYLOAD, 0, bytes, position, PAYLOAD.length);
+
+				ByteBuffer sliced = ByteBuffer.wrap(new byte[bytes.length + 5], 5, bytes.length).slice();
+				ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+				for (ByteBuffer buffer : List.of(ByteBuffer.wrap(bytes), sliced.put(bytes), direct.put(bytes))) {
+					buffers.add(buffer.limit(position + PAYLOAD.length).position(position));
+				}
+			}
+		}
+		return buffers;
+	}
+}
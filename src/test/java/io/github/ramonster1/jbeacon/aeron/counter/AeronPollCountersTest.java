@@ -0,0 +1,72 @@
+package io.github.ramonster1.jbeacon.aeron.counter;
+
+import io.github.ramonster1.jbeacon.event.PollEventListener;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.agrona.concurrent.status.CountersReader;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AeronPollCountersTest {
+	private static final InetSocketAddress TARGET = new InetSocketAddress(InetAddress.getLoopbackAddress(), 5000);
+	private static final int MAX_COUNTERS = 16;
+
+	private final CountersManager countersManager = new CountersManager(
+			new UnsafeBuffer(ByteBuffer.allocateDirect(CountersReader.METADATA_LENGTH * MAX_COUNTERS)),
+			new UnsafeBuffer(ByteBuffer.allocateDirect(CountersReader.COUNTER_LENGTH * MAX_COUNTERS)));
+
+	@Test
+	void testEventsAreCounted() {
+		try (AeronPollCounters counters = AeronPollCounters.builder().countersManager(countersManager).build()) {
+			counters.onSent(TARGET, 10, 1);
+			counters.onSent(TARGET, 10, 2);
+			counters.onReceived(TARGET, 28, 1000);
+			counters.onTimeout(TARGET, 2);
+			counters.onPublished(28, 4096);
+			counters.onBackPressured(28);
+			counters.onNotConnected(28);
+			counters.onScheduleOverrun(5000);
+
+			assertEquals(new AeronPollCounters.Snapshot(2, 20, 1, 28, 1, 1, 1, 1, 1), counters.snapshot());
+		}
+	}
+
+	@Test
+	void testCountersAreLabelledAndTypedForAeronStat() {
+		try (AeronPollCounters ignored = AeronPollCounters.builder().countersManager(countersManager).name("feed-a").build()) {
+			// Counters are allocated in declaration order, starting from the first free counter id
+			assertEquals("Polls sent: feed-a", countersManager.getCounterLabel(0));
+			assertEquals(AeronPollCounters.POLLS_SENT_TYPE_ID, countersManager.getCounterTypeId(0));
+			assertEquals("Poll schedule overruns: feed-a", countersManager.getCounterLabel(8));
+			assertEquals(AeronPollCounters.SCHEDULE_OVERRUNS_TYPE_ID, countersManager.getCounterTypeId(8));
+		}
+	}
+
+	@Test
+	void testCountersAreReadableThroughCountersManager() {
+		try (AeronPollCounters counters = AeronPollCounters.builder().countersManager(countersManager).build()) {
+			PollEventListener listener = PollEventListener.of(counters, PollEventListener.NO_OP);
+			listener.onTimeout(TARGET, -1);
+
+			assertEquals(1, countersManager.getCounterValue(4));
+		}
+	}
+
+	@Test
+	void testCountersAreFreedOnClose() {
+		AeronPollCounters.builder().countersManager(countersManager).build().close();
+
+		assertEquals(CountersReader.RECORD_RECLAIMED, countersManager.getCounterState(0));
+	}
+
+	@Test
+	void testCounterSourceIsRequired() {
+		assertThrows(IllegalArgumentException.class, () -> AeronPollCounters.builder().build());
+	}
+}
@@ -0,0 +1,114 @@
+package io.github.ramonster1.jbeacon.buffer;
+
+import io.github.ramonster1.jbeacon.exception.BufferPoolExhaustedException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlabBufferPoolTest {
+
+	@Test
+	void testLeaseUsesSmallestFittingSizeClass() throws Exception {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(64).sizeClass(512).slicesPerClass(2).build();
+
+		ByteBuffer small = bufferPool.lease(10);
+		ByteBuffer large = bufferPool.lease(100);
+
+		assertTrue(small.isDirect());
+		assertEquals(64, small.capacity());
+		assertEquals(10, small.limit());
+		assertEquals(512, large.capacity());
+		assertEquals(100, large.limit());
+	}
+
+	@Test
+	void testExhaustedSizeClassFallsBackToLargerClass() throws Exception {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(64).sizeClass(512).slicesPerClass(1).build();
+
+		bufferPool.lease(10);
+		ByteBuffer fallback = bufferPool.lease(10);
+
+		assertEquals(512, fallback.capacity());
+		assertThrows(BufferPoolExhaustedException.class, () -> bufferPool.lease(10));
+		assertEquals(1, bufferPool.metrics().exhaustions());
+	}
+
+	@Test
+	void testReleasedSliceIsLeasedAgain() throws Exception {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(64).slicesPerClass(1).build();
+
+		ByteBuffer buffer = bufferPool.lease(64);
+		buffer.put((byte) 1);
+		bufferPool.release(buffer);
+
+		ByteBuffer leasedAgain = bufferPool.lease(32);
+		assertSame(buffer, leasedAgain);
+		assertEquals(0, leasedAgain.position());
+		assertEquals(32, leasedAgain.limit());
+	}
+
+	@Test
+	void testSlicesDoNotOverlap() throws Exception {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(8).slicesPerClass(2).build();
+
+		ByteBuffer first = bufferPool.lease(8);
+		ByteBuffer second = bufferPool.lease(8);
+		first.putLong(0, -1L);
+
+		assertNotSame(first, second);
+		assertEquals(0L, second.getLong(0));
+	}
+
+	@Test
+	void testMetricsReportOccupancy() throws Exception {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(64).sizeClass(256).slicesPerClass(4).build();
+
+		ByteBuffer buffer = bufferPool.lease(64);
+		bufferPool.lease(200);
+		bufferPool.release(buffer);
+
+		SlabBufferPool.Metrics metrics = bufferPool.metrics();
+		assertEquals(4 * 64 + 4 * 256, metrics.capacityBytes());
+		assertEquals(8, metrics.totalSlices());
+		assertEquals(1, metrics.leasedSlices());
+		assertEquals(256, metrics.leasedBytes());
+		assertEquals(2, metrics.peakLeasedSlices());
+	}
+
+	@Test
+	void testLongLeasesAreReportedAsLeaked() throws Exception {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(64).slicesPerClass(2).leakTimeout(10L).build();
+
+		bufferPool.lease(64);
+		assertEquals(0, bufferPool.metrics().leakedSlices());
+
+		Thread.sleep(20);
+		assertEquals(1, bufferPool.metrics().leakedSlices());
+	}
+
+	@Test
+	void testInvalidReleasesAreCounted() throws Exception {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(64).slicesPerClass(1).build();
+
+		ByteBuffer buffer = bufferPool.lease(64);
+		bufferPool.release(buffer);
+		bufferPool.release(buffer);
+		bufferPool.release(ByteBuffer.allocate(64));
+
+		assertEquals(2, bufferPool.metrics().invalidReleases());
+		assertEquals(0, bufferPool.metrics().leasedSlices());
+	}
+
+	@Test
+	void testLeaseLargerThanLargestClassFails() {
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(64).slicesPerClass(1).build();
+
+		assertThrows(IllegalArgumentException.class, () -> bufferPool.lease(65));
+	}
+}
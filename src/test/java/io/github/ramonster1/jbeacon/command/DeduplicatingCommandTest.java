@@ -0,0 +1,83 @@
+package io.github.ramonster1.jbeacon.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeduplicatingCommandTest {
+
+	@Test
+	void testOnlyChangedResponsesAreForwarded() {
+		OnPollResponseCommand delegate = mock(OnPollResponseCommand.class);
+		DeduplicatingCommand command = DeduplicatingCommand.builder().onPollResponseCommand(delegate).build();
+		ByteBuffer first = response("status=ok");
+		ByteBuffer changed = response("status=degraded");
+
+		command.execute(first);
+		command.execute(response("status=ok"));
+		command.execute(changed);
+		command.execute(response("status=degraded"));
+
+		verify(delegate).execute(first);
+		verify(delegate).execute(changed);
+		verifyNoMoreInteractions(delegate);
+		assertEquals(2, command.suppressedCount());
+	}
+
+	@Test
+	void testForwardedResponseIsUnconsumed() {
+		DeduplicatingCommand command = DeduplicatingCommand.builder()
+				.onPollResponseCommand(buffer -> assertEquals(0, buffer.position()))
+				.build();
+
+		command.execute(response("status=ok"));
+	}
+
+	@Test
+	void testUnchangedResponseIsForwardedAfterKeepaliveInterval() throws InterruptedException {
+		OnPollResponseCommand delegate = mock(OnPollResponseCommand.class);
+		DeduplicatingCommand command = DeduplicatingCommand.builder()
+				.onPollResponseCommand(delegate)
+				.keepaliveInterval(20L)
+				.build();
+
+		command.execute(response("status=ok"));
+		command.execute(response("status=ok"));
+		Thread.sleep(30);
+		command.execute(response("status=ok"));
+
+		verify(delegate, times(2)).execute(any());
+		assertEquals(1, command.suppressedCount());
+	}
+
+	@Test
+	void testResponseAfterTimeoutIsForwarded() {
+		OnPollResponseCommand delegate = mock(OnPollResponseCommand.class);
+		DeduplicatingCommand command = DeduplicatingCommand.builder().onPollResponseCommand(delegate).build();
+
+		command.execute(response("status=ok"));
+		command.onTimeout();
+		command.execute(response("status=ok"));
+
+		verify(delegate).onTimeout();
+		verify(delegate, times(2)).execute(any());
+		assertEquals(0, command.suppressedCount());
+	}
+
+	@Test
+	void testKeepaliveIntervalMustBePositive() {
+		assertThrows(IllegalArgumentException.class, () -> DeduplicatingCommand.builder()
+				.onPollResponseCommand(buffer -> {
+				})
+				.keepaliveInterval(0L)
+				.build());
+	}
+
+	private static ByteBuffer response(String payload) {
+		return ByteBuffer.wrap(payload.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,45 @@
+package io.github.ramonster1.jbeacon.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadHashTest {
+	private static final byte[] PAYLOAD = "temperature=21.5;humidity=40".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	void testEqualBytesHaveEqualHashesInAnyBuffer() {
+		ByteBuffer direct = ByteBuffer.allocateDirect(PAYLOAD.length).order(ByteOrder.LITTLE_ENDIAN);
+		direct.put(PAYLOAD).flip();
+
+		assertEquals(PayloadHash.hash(ByteBuffer.wrap(PAYLOAD)), PayloadHash.hash(direct));
+	}
+
+	@Test
+	void testChangedByteChangesHash() {
+		byte[] changed = PAYLOAD.clone();
+		changed[changed.length - 1]++;
+
+		assertNotEquals(PayloadHash.hash(ByteBuffer.wrap(PAYLOAD)), PayloadHash.hash(ByteBuffer.wrap(changed)));
+	}
+
+	@Test
+	void testOnlyRemainingBytesAreHashedWithoutMovingPosition() {
+		ByteBuffer buffer = ByteBuffer.wrap(PAYLOAD, 3, 10);
+
+		long hash = PayloadHash.hash(buffer);
+
+		assertEquals(3, buffer.position());
+		assertEquals(PayloadHash.hash(ByteBuffer.wrap(PAYLOAD, 3, 10).slice()), hash);
+		assertNotEquals(PayloadHash.hash(ByteBuffer.wrap(PAYLOAD)), hash);
+	}
+
+	@Test
+	void testTrailingZeroesChangeHash() {
+		assertNotEquals(PayloadHash.hash(ByteBuffer.wrap(new byte[3])), PayloadHash.hash(ByteBuffer.wrap(new byte[4])));
+	}
+}
@@ -0,0 +1,167 @@
+package io.github.ramonster1.jbeacon.disruptor;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisruptorResponsePipelineTest {
+
+	@Test
+	void testCommandIsExecutedOnConsumerThreadWithCopyOfResponse() throws InterruptedException {
+		CountDownLatch executed = new CountDownLatch(1);
+		List<String> responses = new CopyOnWriteArrayList<>();
+		List<String> threads = new CopyOnWriteArrayList<>();
+
+		try (DisruptorResponsePipeline pipeline = DisruptorResponsePipeline.builder().ringSize(8).build()) {
+			OnPollResponseCommand command = pipeline.decorate(buffer -> {
+				responses.add(StandardCharsets.UTF_8.decode(buffer).toString());
+				threads.add(Thread.currentThread().getName());
+				executed.countDown();
+			});
+
+			ByteBuffer response = ByteBuffer.wrap("response".getBytes(StandardCharsets.UTF_8));
+			command.execute(response);
+			// The response buffer belongs to the polling service again as soon as execute returns
+			response.put(0, (byte) 'X');
+
+			assertTrue(executed.await(5, TimeUnit.SECONDS));
+			assertEquals(8, response.remaining(), "Publishing should not drain the response buffer");
+		}
+
+		assertEquals(List.of("response"), responses);
+		assertTrue(threads.get(0).startsWith("jbeacon-response-"));
+	}
+
+	@Test
+	void testResponsesOfTargetAreExecutedInOrder() {
+		List<Integer> first = new CopyOnWriteArrayList<>();
+		List<Integer> second = new CopyOnWriteArrayList<>();
+
+		try (DisruptorResponsePipeline pipeline = DisruptorResponsePipeline.builder().ringSize(16).consumers(2).build()) {
+			OnPollResponseCommand firstCommand = pipeline.decorate(buffer -> first.add(buffer.getInt()));
+			OnPollResponseCommand secondCommand = pipeline.decorate(buffer -> second.add(buffer.getInt()));
+
+			for (int i = 0; i < 100; i++) {
+				firstCommand.execute(ByteBuffer.allocate(4).putInt(0, i));
+				secondCommand.execute(ByteBuffer.allocate(4).putInt(0, -i));
+			}
+		}
+
+		assertEquals(100, first.size());
+		assertEquals(100, second.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, first.get(i));
+			assertEquals(-i, second.get(i));
+		}
+	}
+
+	@Test
+	void testTimeoutIsForwarded() throws InterruptedException {
+		CountDownLatch timedOut = new CountDownLatch(1);
+
+		try (DisruptorResponsePipeline pipeline = DisruptorResponsePipeline.builder().ringSize(8).build()) {
+			pipeline.decorate(new OnPollResponseCommand() {
+				@Override
+				public void execute(ByteBuffer buffer) {
+				}
+
+				@Override
+				public void onTimeout() {
+					timedOut.countDown();
+				}
+			}).onTimeout();
+
+			assertTrue(timedOut.await(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	void testDropPolicyCountsResponsesThatDoNotFit() throws InterruptedException {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (DisruptorResponsePipeline pipeline = DisruptorResponsePipeline.builder()
+				.ringSize(4)
+				.fullRingPolicy(FullRingPolicy.DROP)
+				.build()) {
+			OnPollResponseCommand command = pipeline.decorate(buffer -> {
+				blocked.countDown();
+				awaitQuietly(release);
+			});
+
+			command.execute(ByteBuffer.allocate(4));
+			assertTrue(blocked.await(5, TimeUnit.SECONDS));
+			// The slot being executed is not freed until the command returns, so 3 more fit
+			for (int i = 0; i < 10; i++) {
+				command.execute(ByteBuffer.allocate(4));
+			}
+
+			assertEquals(7, pipeline.droppedResponses());
+			release.countDown();
+		}
+	}
+
+	@Test
+	void testConflatePolicyDeliversLatestResponse() throws InterruptedException {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Integer> responses = new CopyOnWriteArrayList<>();
+
+		try (DisruptorResponsePipeline pipeline = DisruptorResponsePipeline.builder()
+				.ringSize(2)
+				.fullRingPolicy(FullRingPolicy.CONFLATE)
+				.build()) {
+			OnPollResponseCommand command = pipeline.decorate(buffer -> {
+				responses.add(buffer.getInt());
+				blocked.countDown();
+				awaitQuietly(release);
+			});
+
+			command.execute(ByteBuffer.allocate(4).putInt(0, 0));
+			assertTrue(blocked.await(5, TimeUnit.SECONDS));
+			for (int i = 1; i <= 10; i++) {
+				command.execute(ByteBuffer.allocate(4).putInt(0, i));
+			}
+
+			assertEquals(9, pipeline.conflatedResponses());
+			release.countDown();
+		}
+
+		// The first response fills the slot after the one being executed, and the last overwrites those in between
+		assertEquals(List.of(0, 1, 10), responses);
+	}
+
+	@Test
+	void testOversizedResponseIsDropped() {
+		List<ByteBuffer> responses = new CopyOnWriteArrayList<>();
+
+		try (DisruptorResponsePipeline pipeline = DisruptorResponsePipeline.builder().maxResponseLength(4).build()) {
+			pipeline.decorate(responses::add).execute(ByteBuffer.allocate(5));
+
+			assertEquals(1, pipeline.oversizedResponses());
+		}
+
+		assertTrue(responses.isEmpty());
+	}
+
+	@Test
+	void testRingSizeMustBePowerOfTwo() {
+		assertThrows(IllegalArgumentException.class, () -> DisruptorResponsePipeline.builder().ringSize(1000).build());
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
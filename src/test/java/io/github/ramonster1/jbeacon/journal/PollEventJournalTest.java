@@ -0,0 +1,91 @@
+package io.github.ramonster1.jbeacon.journal;
+
+import io.github.ramonster1.jbeacon.event.PollEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollEventJournalTest {
+	private static final InetSocketAddress TARGET = new InetSocketAddress(InetAddress.getLoopbackAddress(), 5000);
+
+	@TempDir
+	private Path tempDir;
+
+	@Test
+	void testEventsAreDecodedInOrder() throws IOException {
+		Path journalPath = tempDir.resolve("poll-events.journal");
+		Instant openedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+		try (PollEventJournal journal = PollEventJournal.builder().path(journalPath).capacity(8).build()) {
+			journal.onSent(TARGET, 1, 7);
+			journal.onReceived(TARGET, 28, 1234);
+			journal.onTimeout(TARGET, 8);
+			journal.onPublished(28, 4096);
+			journal.onBackPressured(28);
+
+			assertEquals(5, journal.recordedEvents());
+		}
+
+		List<PollEventJournalDecoder.JournalRecord> journalRecords = PollEventJournalDecoder.read(journalPath);
+
+		assertEquals(List.of(PollEventType.SENT, PollEventType.RECEIVED, PollEventType.TIMEOUT, PollEventType.PUBLISHED, PollEventType.BACK_PRESSURED),
+				journalRecords.stream().map(PollEventJournalDecoder.JournalRecord::type).toList());
+		assertEquals("127.0.0.1:5000", journalRecords.get(0).target());
+		assertEquals(7, journalRecords.get(0).value());
+		assertEquals(28, journalRecords.get(1).length());
+		assertEquals(1234, journalRecords.get(1).value());
+		assertEquals("-", journalRecords.get(3).target());
+		assertEquals(4096, journalRecords.get(3).value());
+		assertFalse(journalRecords.get(0).timestamp().isBefore(openedAt));
+	}
+
+	@Test
+	void testFullRingKeepsMostRecentEvents() throws IOException {
+		Path journalPath = tempDir.resolve("poll-events.journal");
+
+		try (PollEventJournal journal = PollEventJournal.builder().path(journalPath).capacity(4).build()) {
+			for (int sequence = 0; sequence < 10; sequence++) {
+				journal.onSent(TARGET, 1, sequence);
+			}
+		}
+
+		List<PollEventJournalDecoder.JournalRecord> journalRecords = PollEventJournalDecoder.read(journalPath);
+
+		assertEquals(List.of(6L, 7L, 8L, 9L), journalRecords.stream().map(PollEventJournalDecoder.JournalRecord::value).toList());
+		assertEquals(7, journalRecords.get(0).index());
+	}
+
+	@Test
+	void testOpeningTruncatesExistingJournal() throws IOException {
+		Path journalPath = tempDir.resolve("poll-events.journal");
+
+		try (PollEventJournal journal = PollEventJournal.builder().path(journalPath).capacity(4).build()) {
+			journal.onSent(TARGET, 1, 1);
+		}
+		try (PollEventJournal ignored = PollEventJournal.builder().path(journalPath).capacity(4).build()) {
+			assertTrue(PollEventJournalDecoder.read(journalPath).isEmpty());
+		}
+	}
+
+	@Test
+	void testDecoderRejectsOtherFiles() throws IOException {
+		Path otherPath = Files.write(tempDir.resolve("other.txt"), new byte[128]);
+
+		assertThrows(IOException.class, () -> PollEventJournalDecoder.read(otherPath));
+	}
+
+	@Test
+	void testInvalidCapacityIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> PollEventJournal.builder().path(tempDir.resolve("poll-events.journal")).capacity(0).build());
+	}
+}
@@ -0,0 +1,105 @@
+package io.github.ramonster1.jbeacon.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollLatencyHistogramsTest {
+	private static final InetSocketAddress TARGET = new InetSocketAddress(InetAddress.getLoopbackAddress(), 5000);
+	private static final InetSocketAddress OTHER_TARGET = new InetSocketAddress(InetAddress.getLoopbackAddress(), 5001);
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void testLatenciesAreRecordedPerTarget() {
+		PollLatencyHistograms histograms = PollLatencyHistograms.builder().build();
+
+		for (int i = 1; i <= 100; i++) {
+			histograms.onSent(TARGET, 1, i);
+			histograms.onReceived(TARGET, 28, i * MILLIS);
+			histograms.onExecuted(TARGET, 28, 10_000);
+		}
+		histograms.onSent(OTHER_TARGET, 1, 1);
+		histograms.onReceived(OTHER_TARGET, 28, 5 * MILLIS);
+
+		Map<InetSocketAddress, PollLatencyHistograms.TargetLatencySnapshot> snapshot = histograms.snapshot();
+
+		PollLatencyHistograms.LatencySnapshot roundTrip = snapshot.get(TARGET).roundTrip();
+		assertEquals(100, roundTrip.count());
+		assertEquals(50 * MILLIS, roundTrip.p50(), MILLIS);
+		assertEquals(99 * MILLIS, roundTrip.p99(), MILLIS);
+		assertEquals(100 * MILLIS, roundTrip.max(), MILLIS);
+		assertEquals(100, snapshot.get(TARGET).publish().count());
+		assertEquals(10_000, snapshot.get(TARGET).publish().max(), 100);
+		assertEquals(1, snapshot.get(OTHER_TARGET).roundTrip().count());
+	}
+
+	@Test
+	void testUnscheduledRoundTripIsNotCorrected() {
+		PollLatencyHistograms histograms = PollLatencyHistograms.builder().build();
+
+		histograms.onSent(TARGET, 1, 1);
+		histograms.onReceived(TARGET, 28, 2 * MILLIS);
+
+		PollLatencyHistograms.TargetLatencySnapshot snapshot = histograms.snapshot().get(TARGET);
+		assertEquals(snapshot.roundTrip(), snapshot.correctedRoundTrip());
+	}
+
+	@Test
+	void testDelayedPollIsCorrectedFromItsIntendedStart() {
+		PollLatencyHistograms histograms = PollLatencyHistograms.builder().build();
+
+		// The poll was intended to start 50 ms ago, but was held up by the previous poll
+		histograms.onScheduled(System.nanoTime() - 50 * MILLIS);
+		histograms.onSent(TARGET, 1, 1);
+		// A retransmission does not restart the poll
+		histograms.onSent(TARGET, 1, 1);
+		histograms.onReceived(TARGET, 28, 2 * MILLIS);
+
+		PollLatencyHistograms.TargetLatencySnapshot snapshot = histograms.snapshot().get(TARGET);
+		assertEquals(2 * MILLIS, snapshot.roundTrip().max(), MILLIS / 10);
+		assertTrue(snapshot.correctedRoundTrip().max() >= 50 * MILLIS, "Corrected latency should include the schedule delay");
+	}
+
+	@Test
+	void testTimeoutEndsOutstandingPoll() {
+		PollLatencyHistograms histograms = PollLatencyHistograms.builder().build();
+
+		histograms.onScheduled(System.nanoTime() - 50 * MILLIS);
+		histograms.onSent(TARGET, 1, 1);
+		histograms.onTimeout(TARGET, 1);
+		histograms.onScheduled(System.nanoTime());
+		histograms.onSent(TARGET, 1, 2);
+		histograms.onReceived(TARGET, 28, 2 * MILLIS);
+
+		assertTrue(histograms.snapshot().get(TARGET).correctedRoundTrip().max() < 50 * MILLIS);
+	}
+
+	@Test
+	void testLatencyAboveHighestTrackableIsClamped() {
+		PollLatencyHistograms histograms = PollLatencyHistograms.builder().highestTrackableLatency(1000L).build();
+
+		histograms.onReceived(TARGET, 28, TimeUnit.SECONDS.toNanos(10));
+
+		assertEquals(TimeUnit.SECONDS.toNanos(1), histograms.snapshot().get(TARGET).roundTrip().max(), 10 * MILLIS);
+	}
+
+	@Test
+	void testResetClearsHistograms() {
+		PollLatencyHistograms histograms = PollLatencyHistograms.builder().build();
+
+		histograms.onReceived(TARGET, 28, MILLIS);
+		histograms.reset();
+
+		assertTrue(histograms.snapshot().isEmpty());
+	}
+
+	@Test
+	void testInvalidSignificantDigitsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> PollLatencyHistograms.builder().significantDigits(0).build());
+	}
+}
@@ -0,0 +1,66 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HedgePolicyTest {
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void testInitialDelayIsUsedUntilEnoughSamples() {
+		HedgePolicy hedgePolicy = HedgePolicy.builder().initialDelay(30L).build();
+
+		for (int i = 0; i < 15; i++) {
+			hedgePolicy.onLatencySample(MILLIS);
+		}
+
+		assertEquals(30 * MILLIS, hedgePolicy.hedgeDelayNanos());
+	}
+
+	@Test
+	void testDelayFollowsLatencyPercentile() {
+		HedgePolicy hedgePolicy = HedgePolicy.builder().percentile(0.9).sampleWindow(100).build();
+
+		for (int i = 1; i <= 100; i++) {
+			hedgePolicy.onLatencySample(i * MILLIS);
+		}
+
+		assertEquals(90 * MILLIS, hedgePolicy.hedgeDelayNanos());
+	}
+
+	@Test
+	void testOldestSamplesLeaveTheWindow() {
+		HedgePolicy hedgePolicy = HedgePolicy.builder().percentile(0.5).sampleWindow(16).build();
+
+		for (int i = 0; i < 16; i++) {
+			hedgePolicy.onLatencySample(100 * MILLIS);
+		}
+		assertEquals(100 * MILLIS, hedgePolicy.hedgeDelayNanos());
+
+		for (int i = 0; i < 16; i++) {
+			hedgePolicy.onLatencySample(10 * MILLIS);
+		}
+		assertEquals(10 * MILLIS, hedgePolicy.hedgeDelayNanos());
+	}
+
+	@Test
+	void testDelayIsBoundedBelow() {
+		HedgePolicy hedgePolicy = HedgePolicy.builder().minDelay(5L).sampleWindow(16).build();
+
+		for (int i = 0; i < 16; i++) {
+			hedgePolicy.onLatencySample(1000);
+		}
+
+		assertEquals(5 * MILLIS, hedgePolicy.hedgeDelayNanos());
+	}
+
+	@Test
+	void testInvalidPercentileFails() {
+		assertThrows(IllegalArgumentException.class, () -> HedgePolicy.builder().percentile(1.0).build());
+		assertThrows(IllegalArgumentException.class, () -> HedgePolicy.builder().maxHedges(-1).build());
+	}
+}
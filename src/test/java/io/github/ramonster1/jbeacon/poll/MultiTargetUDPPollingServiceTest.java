@@ -0,0 +1,159 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.exception.SelectorClosedException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.Selector;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class MultiTargetUDPPollingServiceTest {
+
+	private static PollTarget createTarget(InetSocketAddress address, OnPollResponseCommand command) {
+		return new PollTarget(address, ByteBuffer.allocate(1), ByteBuffer.allocate(100), command);
+	}
+
+	private static DatagramChannel openServer() throws IOException {
+		return DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+	}
+
+	private static InetSocketAddress addressOf(DatagramChannel server) throws IOException {
+		return (InetSocketAddress) server.getLocalAddress();
+	}
+
+	/**
+	 * Waits for the next request on the server and sends the given number of responses to it.
+	 */
+	private static void respond(DatagramChannel server, int responses) throws IOException {
+		SocketAddress client = server.receive(ByteBuffer.allocate(1));
+		for (int i = 0; i < responses; i++) {
+			server.send(ByteBuffer.wrap(new byte[]{1}), client);
+		}
+	}
+
+	@Test
+	void testBuildWithoutTargetsFails() {
+		assertThrows(IllegalArgumentException.class, () -> MultiTargetUDPPollingService.builder().build());
+	}
+
+	@Test
+	void testPollWithNoSelectorFails() {
+		try (var poller = MultiTargetUDPPollingService.builder()
+				.target(createTarget(new InetSocketAddress("localhost", 12345), mock(OnPollResponseCommand.class)))
+				.build()) {
+
+			assertThrows(SelectorClosedException.class, poller::poll);
+		}
+	}
+
+	@Test
+	void testUnreachableTargetDoesNotFailWave() throws IOException {
+		OnPollResponseCommand commandMock = mock(OnPollResponseCommand.class);
+
+		try (Selector selector = Selector.open();
+			 var poller = MultiTargetUDPPollingService.builder()
+					 .target(createTarget(new InetSocketAddress("invalid.host", 12345), commandMock))
+					 .target(createTarget(new InetSocketAddress("invalid.host", 12346), commandMock))
+					 .pollSelector(new PollSelector(selector, 10L))
+					 .waveTimeout(100L)
+					 .build()) {
+
+			poller.poll();
+
+			verify(commandMock, never()).execute(any());
+		}
+	}
+
+	@Test
+	void testDuplicateResponseIsExecutedOnce() throws Exception {
+		OnPollResponseCommand duplicatedCommand = mock(OnPollResponseCommand.class);
+		OnPollResponseCommand slowCommand = mock(OnPollResponseCommand.class);
+
+		try (DatagramChannel duplicatingServer = openServer();
+			 DatagramChannel slowServer = openServer();
+			 Selector selector = Selector.open();
+			 var poller = MultiTargetUDPPollingService.builder()
+					 .target(createTarget(addressOf(duplicatingServer), duplicatedCommand))
+					 .target(createTarget(addressOf(slowServer), slowCommand))
+					 .pollSelector(new PollSelector(selector, 10L))
+					 .waveTimeout(5000L)
+					 .build()) {
+
+			// The slow target keeps the wave open until the duplicate has been received
+			Thread serverThread = new Thread(() -> {
+				try {
+					respond(duplicatingServer, 2);
+					Thread.sleep(200);
+					respond(slowServer, 1);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			serverThread.start();
+
+			poller.poll();
+			serverThread.join();
+
+			verify(duplicatedCommand).execute(any());
+			verify(slowCommand).execute(any());
+			verify(duplicatedCommand, never()).onTimeout();
+		}
+	}
+
+	@Test
+	void testLateResponseToPreviousWaveIsDiscarded() throws Exception {
+		OnPollResponseCommand commandMock = mock(OnPollResponseCommand.class);
+
+		try (DatagramChannel server = openServer();
+			 Selector selector = Selector.open();
+			 var poller = MultiTargetUDPPollingService.builder()
+					 .target(createTarget(addressOf(server), commandMock))
+					 .pollSelector(new PollSelector(selector, 10L))
+					 .waveTimeout(100L)
+					 .build()) {
+
+			poller.poll();
+			verify(commandMock).onTimeout();
+
+			// The first wave is answered once it has timed out, and the second wave is never answered
+			respond(server, 1);
+			poller.poll();
+
+			verify(commandMock, never()).execute(any());
+			verify(commandMock, times(2)).onTimeout();
+		}
+	}
+
+	@Test
+	void testEventLoopTimesOutUnansweredTargets() throws Exception {
+		OnPollResponseCommand commandMock = mock(OnPollResponseCommand.class);
+
+		try (DatagramChannel server = openServer();
+			 PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 10L))) {
+			pollEventLoop.start();
+
+			try (var poller = MultiTargetUDPPollingService.builder()
+					.target(createTarget(addressOf(server), commandMock))
+					.pollEventLoop(pollEventLoop)
+					.waveTimeout(50L)
+					.build()) {
+
+				poller.poll();
+
+				verify(commandMock, timeout(5000)).onTimeout();
+				verify(commandMock, never()).execute(any());
+			}
+		}
+	}
+}
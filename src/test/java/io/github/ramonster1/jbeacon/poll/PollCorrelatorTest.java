@@ -0,0 +1,188 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PollCorrelatorTest {
+
+	@Test
+	void testStampWritesSequenceAtOffsetWithoutMovingPosition() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder()
+				.sequenceOffset(2)
+				.sequenceLength(2)
+				.byteOrder(ByteOrder.LITTLE_ENDIAN)
+				.build();
+		ByteBuffer request = ByteBuffer.allocate(8);
+
+		pollCorrelator.stamp(request);
+		long sequence = pollCorrelator.stamp(request);
+
+		assertEquals(1, sequence);
+		assertEquals(0, request.position());
+		assertEquals(1, request.get(2));
+		assertEquals(0, request.get(3));
+	}
+
+	@Test
+	void testMatchingResponseIsAcceptedOnce() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).build();
+		ByteBuffer request = ByteBuffer.allocate(4);
+
+		pollCorrelator.stamp(request);
+		assertEquals(1, pollCorrelator.inFlight());
+
+		assertTrue(pollCorrelator.accept(request.duplicate()));
+		assertFalse(pollCorrelator.accept(request.duplicate()));
+		assertEquals(0, pollCorrelator.inFlight());
+		assertEquals(1, pollCorrelator.droppedResponses());
+	}
+
+	@Test
+	void testResponsesAreAcceptedOutOfOrder() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).build();
+		ByteBuffer first = ByteBuffer.allocate(4);
+		ByteBuffer second = ByteBuffer.allocate(4);
+
+		pollCorrelator.stamp(first);
+		pollCorrelator.stamp(second);
+
+		assertTrue(pollCorrelator.accept(second));
+		assertTrue(pollCorrelator.accept(first));
+		assertEquals(0, pollCorrelator.droppedResponses());
+	}
+
+	@Test
+	void testRequestRetiredByFullWindowIsDroppedAsLate() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).maxInFlight(2).build();
+		ByteBuffer oldest = ByteBuffer.allocate(4);
+
+		pollCorrelator.stamp(oldest);
+		pollCorrelator.stamp(ByteBuffer.allocate(4));
+		pollCorrelator.stamp(ByteBuffer.allocate(4));
+
+		assertEquals(2, pollCorrelator.inFlight());
+		assertFalse(pollCorrelator.accept(oldest));
+	}
+
+	@Test
+	void testSequenceWrapsWithinFieldLength() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).sequenceLength(1).maxInFlight(4).build();
+		ByteBuffer request = ByteBuffer.allocate(1);
+
+		for (int i = 0; i < 256; i++) {
+			pollCorrelator.stamp(request);
+		}
+
+		assertEquals(0, pollCorrelator.stamp(request));
+		assertTrue(pollCorrelator.accept(request));
+	}
+
+	@Test
+	void testShortResponseIsDropped() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(4).build();
+
+		assertFalse(pollCorrelator.accept(ByteBuffer.allocate(6)));
+		assertEquals(1, pollCorrelator.droppedResponses());
+	}
+
+	@Test
+	void testCorrelatedCommandOnlyExecutesForAcceptedResponses() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).build();
+		OnPollResponseCommand commandMock = mock(OnPollResponseCommand.class);
+		OnPollResponseCommand correlatedCommand = pollCorrelator.correlate(commandMock);
+		ByteBuffer request = ByteBuffer.allocate(4);
+
+		correlatedCommand.execute(ByteBuffer.allocate(4));
+		verify(commandMock, never()).execute(any());
+
+		pollCorrelator.stamp(request);
+		correlatedCommand.execute(request);
+		correlatedCommand.execute(request);
+		verify(commandMock, times(1)).execute(request);
+	}
+
+	@Test
+	void testMatchMeasuresTimeInFlight() throws Exception {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).build();
+		ByteBuffer request = ByteBuffer.allocate(4);
+
+		pollCorrelator.stamp(request);
+		Thread.sleep(5);
+
+		assertTrue(pollCorrelator.match(request) >= TimeUnit.MILLISECONDS.toNanos(5));
+		assertEquals(PollCorrelator.NO_MATCH, pollCorrelator.match(request));
+	}
+
+	@Test
+	void testRetiredRequestIsNoLongerMatched() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).build();
+		ByteBuffer request = ByteBuffer.allocate(4);
+
+		long sequence = pollCorrelator.stamp(request);
+
+		assertTrue(pollCorrelator.retire(sequence));
+		assertFalse(pollCorrelator.retire(sequence));
+		assertFalse(pollCorrelator.accept(request));
+	}
+
+	@Test
+	void testExpireRetiresOnlyRequestsPastTimeout() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).build();
+
+		pollCorrelator.stamp(ByteBuffer.allocate(4));
+		pollCorrelator.stamp(ByteBuffer.allocate(4));
+
+		assertEquals(0, pollCorrelator.expire(System.nanoTime(), TimeUnit.SECONDS.toNanos(10)));
+		assertEquals(2, pollCorrelator.expire(System.nanoTime() + TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(10)));
+		assertEquals(0, pollCorrelator.inFlight());
+	}
+
+	@Test
+	void testInvalidSequenceLengthFails() {
+		assertThrows(IllegalArgumentException.class, () -> PollCorrelator.builder().sequenceOffset(0).sequenceLength(9).build());
+		assertThrows(IllegalArgumentException.class, () -> PollCorrelator.builder().sequenceOffset(0).sequenceLength(1).maxInFlight(256).build());
+	}
+
+	@Test
+	void testMaxInFlightThatIsNotAPowerOfTwoFails() {
+		assertThrows(IllegalArgumentException.class, () -> PollCorrelator.builder().sequenceOffset(0).maxInFlight(0).build());
+		assertThrows(IllegalArgumentException.class, () -> PollCorrelator.builder().sequenceOffset(0).sequenceLength(1).maxInFlight(3).build());
+	}
+
+	@Test
+	void testRequestsInFlightAcrossTheWraparoundAreAllMatched() {
+		PollCorrelator pollCorrelator = PollCorrelator.builder().sequenceOffset(0).sequenceLength(1).maxInFlight(4).build();
+		for (int i = 0; i < 254; i++) {
+			pollCorrelator.stamp(ByteBuffer.allocate(1));
+		}
+
+		// Stamped as 254, 255, 0 and 1
+		List<ByteBuffer> requests = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			ByteBuffer request = ByteBuffer.allocate(1);
+			pollCorrelator.stamp(request);
+			requests.add(request);
+		}
+
+		assertEquals(4, pollCorrelator.inFlight());
+		for (ByteBuffer request : requests) {
+			assertTrue(pollCorrelator.accept(request));
+		}
+	}
+}
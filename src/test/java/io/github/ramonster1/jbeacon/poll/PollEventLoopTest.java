@@ -0,0 +1,130 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.exception.SelectorClosedException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.Selector;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class PollEventLoopTest {
+
+	@Test
+	void testEventLoopProcessesSelectorRepeatedlyUntilClosed() throws Exception {
+		Selector selector = Selector.open();
+		PollSelector pollSelectorMock = mock(PollSelector.class);
+		when(pollSelectorMock.selector()).thenReturn(selector);
+
+		PollEventLoop pollEventLoop = new PollEventLoop(pollSelectorMock);
+		pollEventLoop.start();
+
+		verify(pollSelectorMock, timeout(1000).atLeast(2)).process();
+
+		pollEventLoop.close();
+
+		verify(pollSelectorMock).close();
+		selector.close();
+	}
+
+	@Test
+	void testExceptionInCycleDoesNotStopEventLoop() throws Exception {
+		Selector selector = Selector.open();
+		PollSelector pollSelectorMock = mock(PollSelector.class);
+		when(pollSelectorMock.selector()).thenReturn(selector);
+		doThrow(new IOException("Test IOException")).doNothing().when(pollSelectorMock).process();
+
+		try (PollEventLoop pollEventLoop = new PollEventLoop(pollSelectorMock)) {
+			pollEventLoop.start();
+
+			verify(pollSelectorMock, timeout(1000).atLeast(2)).process();
+			assertTrue(pollEventLoop.isRunning());
+		}
+		selector.close();
+	}
+
+	@Test
+	void testCycleTaskRunsUntilItReturnsFalse() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+
+		try (PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 1L))) {
+			pollEventLoop.addCycleTask(() -> runs.incrementAndGet() < 3);
+			pollEventLoop.start();
+
+			Thread.sleep(200);
+		}
+
+		assertEquals(3, runs.get());
+	}
+
+	@Test
+	void testExceptionInCycleTaskDoesNotRemoveIt() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+
+		try (PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 1L))) {
+			pollEventLoop.addCycleTask(() -> {
+				if (runs.incrementAndGet() == 1) {
+					throw new IllegalStateException("Test exception");
+				}
+				return runs.get() < 2;
+			});
+			pollEventLoop.start();
+
+			Thread.sleep(200);
+		}
+
+		assertEquals(2, runs.get());
+	}
+
+	@Test
+	void testStartingTwiceFails() throws Exception {
+		try (PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 10L))) {
+			pollEventLoop.start();
+
+			assertThrows(IllegalStateException.class, pollEventLoop::start);
+		}
+	}
+
+	@Test
+	void testRegisterFailsWhenEventLoopNotRunning() throws Exception {
+		PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(Selector.open(), 10L));
+		OnPollResponseCommand commandMock = mock(OnPollResponseCommand.class);
+
+		try (DatagramChannel channel = DatagramChannel.open()) {
+			channel.configureBlocking(false);
+
+			assertFalse(pollEventLoop.isRunning());
+			assertThrows(SelectorClosedException.class, () -> pollEventLoop.register(channel, new ProcessPollAttachment(commandMock, ByteBuffer.allocate(1), false)));
+		} finally {
+			pollEventLoop.close();
+		}
+	}
+
+	@Test
+	void testRegisteredChannelIsAddedToSelector() throws Exception {
+		Selector selector = Selector.open();
+		OnPollResponseCommand commandMock = mock(OnPollResponseCommand.class);
+
+		try (PollEventLoop pollEventLoop = new PollEventLoop(new PollSelector(selector, 1000L));
+			 DatagramChannel channel = DatagramChannel.open()) {
+			pollEventLoop.start();
+			channel.configureBlocking(false);
+
+			pollEventLoop.register(channel, new ProcessPollAttachment(commandMock, ByteBuffer.allocate(1), false));
+
+			long deadline = System.currentTimeMillis() + 1000;
+			while (channel.keyFor(selector) == null && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertTrue(channel.isRegistered());
+		}
+	}
+}
@@ -1,19 +1,38 @@
 package io.github.ramonster1.jbeacon.poll;
 
+import io.github.ramonster1.jbeacon.buffer.SlabBufferPool;
 import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
-import java.util.Collections;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class PollSelectorTest {
+	private static final InetSocketAddress SOURCE_ADDRESS = new InetSocketAddress("localhost", 12345);
+
+	@Test
+	void testPollSelectorsOverTheSameSelectorAndTimeoutAreEqual() {
+		Selector selectorMock = Mockito.mock(Selector.class);
+		PollSelector pollSelector = new PollSelector(selectorMock, 5000L);
+
+		assertEquals(new PollSelector(selectorMock, 5000L), pollSelector);
+		assertEquals(new PollSelector(selectorMock, 5000L).hashCode(), pollSelector.hashCode());
+		assertNotEquals(new PollSelector(selectorMock, 10L), pollSelector);
+		assertNotEquals(new PollSelector(Mockito.mock(Selector.class), 5000L), pollSelector);
+	}
 
 	@Test
 	void testProcessWhenChannelReadyForProcessing() throws IOException {
@@ -24,11 +43,11 @@ class PollSelectorTest {
 		OnPollResponseCommand commandMock = Mockito.mock(OnPollResponseCommand.class);
 		ByteBuffer inBuffer = ByteBuffer.allocate(1024);
 
-		when(selectorMock.select(anyLong())).thenReturn(1);
-		when(selectorMock.selectedKeys()).thenReturn(Collections.singleton(selectionKeyMock));
+		selectsKey(selectorMock, selectionKeyMock);
 		when(selectionKeyMock.isReadable()).thenReturn(true);
 		when(selectionKeyMock.channel()).thenReturn(channelMock);
 		when(selectionKeyMock.attachment()).thenReturn(attachmentMock);
+		when(channelMock.receive(inBuffer)).thenReturn(SOURCE_ADDRESS);
 		when(attachmentMock.buffer()).thenReturn(inBuffer);
 		when(attachmentMock.onPollResponseCommand()).thenReturn(commandMock);
 
@@ -40,13 +59,92 @@ class PollSelectorTest {
 		verify(commandMock).execute(inBuffer);
 	}
 
+	@Test
+	void testReadyKeysAreNotAddedToSelectedKeySet() throws IOException {
+		Selector selectorMock = Mockito.mock(Selector.class);
+		SelectionKey selectionKeyMock = Mockito.mock(SelectionKey.class);
+
+		selectsKey(selectorMock, selectionKeyMock);
+		when(selectionKeyMock.isReadable()).thenReturn(false);
+
+		PollSelector pollSelector = new PollSelector(selectorMock, 5000L);
+
+		pollSelector.process();
+
+		verify(selectorMock).select(any(), eq(5000L));
+		verify(selectorMock, never()).selectedKeys();
+	}
+
+	@Test
+	void testReceiveFailureIsRethrownFromProcess() throws IOException {
+		Selector selectorMock = Mockito.mock(Selector.class);
+		SelectionKey selectionKeyMock = Mockito.mock(SelectionKey.class);
+		DatagramChannel channelMock = Mockito.mock(DatagramChannel.class);
+		OnPollResponseCommand commandMock = Mockito.mock(OnPollResponseCommand.class);
+		ProcessPollAttachment attachment = new ProcessPollAttachment(commandMock, ByteBuffer.allocate(1024), false);
+		IOException receiveFailure = new IOException("Receive failed");
+
+		selectsKey(selectorMock, selectionKeyMock);
+		when(selectionKeyMock.isReadable()).thenReturn(true);
+		when(selectionKeyMock.channel()).thenReturn(channelMock);
+		when(selectionKeyMock.attachment()).thenReturn(attachment);
+		when(channelMock.receive(any(ByteBuffer.class))).thenThrow(receiveFailure);
+
+		PollSelector pollSelector = new PollSelector(selectorMock, 5000L);
+
+		assertSame(receiveFailure, assertThrows(IOException.class, pollSelector::process));
+		verify(commandMock, never()).execute(any());
+	}
+
+	@Test
+	void testPersistentChannelIsNotClosedAfterProcessing() throws IOException {
+		Selector selectorMock = Mockito.mock(Selector.class);
+		SelectionKey selectionKeyMock = Mockito.mock(SelectionKey.class);
+		DatagramChannel channelMock = Mockito.mock(DatagramChannel.class);
+		OnPollResponseCommand commandMock = Mockito.mock(OnPollResponseCommand.class);
+		ByteBuffer inBuffer = ByteBuffer.allocate(1024);
+		ProcessPollAttachment attachment = new ProcessPollAttachment(commandMock, inBuffer, false);
+
+		selectsKey(selectorMock, selectionKeyMock);
+		when(selectionKeyMock.isReadable()).thenReturn(true);
+		when(selectionKeyMock.channel()).thenReturn(channelMock);
+		when(selectionKeyMock.attachment()).thenReturn(attachment);
+		when(channelMock.receive(inBuffer)).thenReturn(SOURCE_ADDRESS);
+
+		PollSelector pollSelector = new PollSelector(selectorMock, 5000L);
+
+		pollSelector.process();
+
+		verify(commandMock).execute(inBuffer);
+		verify(channelMock, never()).close();
+	}
+
+	@Test
+	void testCommandNotExecutedWhenNoDatagramReceived() throws IOException {
+		Selector selectorMock = Mockito.mock(Selector.class);
+		SelectionKey selectionKeyMock = Mockito.mock(SelectionKey.class);
+		DatagramChannel channelMock = Mockito.mock(DatagramChannel.class);
+		OnPollResponseCommand commandMock = Mockito.mock(OnPollResponseCommand.class);
+		ProcessPollAttachment attachment = new ProcessPollAttachment(commandMock, ByteBuffer.allocate(1024), false);
+
+		selectsKey(selectorMock, selectionKeyMock);
+		when(selectionKeyMock.isReadable()).thenReturn(true);
+		when(selectionKeyMock.channel()).thenReturn(channelMock);
+		when(selectionKeyMock.attachment()).thenReturn(attachment);
+
+		PollSelector pollSelector = new PollSelector(selectorMock, 5000L);
+
+		pollSelector.process();
+
+		verify(commandMock, never()).execute(any());
+	}
+
 	@Test
 	void testNotProcessingChannelWhenKeyIsNotReadable() throws IOException {
 		Selector selectorMock = Mockito.mock(Selector.class);
 		SelectionKey selectionKeyMock = Mockito.mock(SelectionKey.class);
 
-		when(selectorMock.select(anyLong())).thenReturn(1);
-		when(selectorMock.selectedKeys()).thenReturn(Collections.singleton(selectionKeyMock));
+		selectsKey(selectorMock, selectionKeyMock);
 		when(selectionKeyMock.isReadable()).thenReturn(false);
 
 		PollSelector pollSelector = new PollSelector(selectorMock, 5000L);
@@ -55,4 +153,41 @@ class PollSelectorTest {
 
 		verify(selectionKeyMock, never()).channel();
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testPooledAttachmentLeasesBufferForEachResponse() throws IOException {
+		Selector selectorMock = Mockito.mock(Selector.class);
+		SelectionKey selectionKeyMock = Mockito.mock(SelectionKey.class);
+		DatagramChannel channelMock = Mockito.mock(DatagramChannel.class);
+		OnPollResponseCommand commandMock = Mockito.mock(OnPollResponseCommand.class);
+		SlabBufferPool bufferPool = SlabBufferPool.builder().sizeClass(128).slicesPerClass(1).build();
+		ProcessPollAttachment attachment = new ProcessPollAttachment(commandMock, bufferPool, 100, false);
+
+		selectsKey(selectorMock, selectionKeyMock);
+		when(selectionKeyMock.isReadable()).thenReturn(true);
+		when(selectionKeyMock.channel()).thenReturn(channelMock);
+		when(selectionKeyMock.attachment()).thenReturn(attachment);
+		when(channelMock.receive(any(ByteBuffer.class))).thenReturn(SOURCE_ADDRESS);
+		doAnswer(invocation -> {
+			ByteBuffer buffer = invocation.getArgument(0);
+			assertTrue(buffer.isDirect());
+			assertEquals(1, bufferPool.metrics().leasedSlices());
+			return null;
+		}).when(commandMock).execute(any(ByteBuffer.class));
+
+		PollSelector pollSelector = new PollSelector(selectorMock, 5000L);
+
+		pollSelector.process();
+
+		verify(commandMock).execute(any(ByteBuffer.class));
+		assertEquals(0, bufferPool.metrics().leasedSlices());
+	}
+
+	private static void selectsKey(Selector selectorMock, SelectionKey selectionKey) throws IOException {
+		when(selectorMock.select(any(), anyLong())).thenAnswer(invocation -> {
+			Consumer<SelectionKey> action = invocation.getArgument(0);
+			action.accept(selectionKey);
+			return 1;
+		});
+	}
+}
@@ -0,0 +1,72 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetransmitPolicyTest {
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void testInitialTimeoutIsUsedUntilFirstSample() {
+		RetransmitPolicy retransmitPolicy = RetransmitPolicy.builder().initialTimeout(300L).build();
+
+		assertEquals(300 * MILLIS, retransmitPolicy.retransmitTimeoutNanos());
+		assertEquals(0, retransmitPolicy.smoothedRttNanos());
+	}
+
+	@Test
+	void testFirstSampleInitialisesEstimates() {
+		RetransmitPolicy retransmitPolicy = RetransmitPolicy.builder().build();
+
+		retransmitPolicy.onRttSample(20 * MILLIS);
+
+		assertEquals(20 * MILLIS, retransmitPolicy.smoothedRttNanos());
+		assertEquals(10 * MILLIS, retransmitPolicy.rttVariationNanos());
+		// SRTT + 4 * RTTVAR
+		assertEquals(60 * MILLIS, retransmitPolicy.retransmitTimeoutNanos());
+	}
+
+	@Test
+	void testSubsequentSamplesAreSmoothed() {
+		RetransmitPolicy retransmitPolicy = RetransmitPolicy.builder().build();
+
+		retransmitPolicy.onRttSample(80 * MILLIS);
+		retransmitPolicy.onRttSample(16 * MILLIS);
+
+		assertEquals(72 * MILLIS, retransmitPolicy.smoothedRttNanos());
+		assertEquals(46 * MILLIS, retransmitPolicy.rttVariationNanos());
+		assertEquals(256 * MILLIS, retransmitPolicy.retransmitTimeoutNanos());
+	}
+
+	@Test
+	void testTimeoutIsBounded() {
+		RetransmitPolicy retransmitPolicy = RetransmitPolicy.builder().minTimeout(50L).maxTimeout(100L).build();
+
+		retransmitPolicy.onRttSample(MILLIS);
+		assertEquals(50 * MILLIS, retransmitPolicy.retransmitTimeoutNanos());
+
+		retransmitPolicy.onRttSample(TimeUnit.SECONDS.toNanos(1));
+		assertEquals(100 * MILLIS, retransmitPolicy.retransmitTimeoutNanos());
+	}
+
+	@Test
+	void testRetransmitTimeoutBacksOffUpToMaximum() {
+		RetransmitPolicy retransmitPolicy = RetransmitPolicy.builder().initialTimeout(40L).maxTimeout(100L).build();
+
+		retransmitPolicy.onRetransmitTimeout();
+		assertEquals(80 * MILLIS, retransmitPolicy.retransmitTimeoutNanos());
+
+		retransmitPolicy.onRetransmitTimeout();
+		assertEquals(100 * MILLIS, retransmitPolicy.retransmitTimeoutNanos());
+	}
+
+	@Test
+	void testInvalidBoundsFail() {
+		assertThrows(IllegalArgumentException.class, () -> RetransmitPolicy.builder().minTimeout(200L).maxTimeout(100L).build());
+		assertThrows(IllegalArgumentException.class, () -> RetransmitPolicy.builder().maxRetransmits(-1).build());
+	}
+}
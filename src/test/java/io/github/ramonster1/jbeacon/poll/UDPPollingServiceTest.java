@@ -3,6 +3,7 @@ package io.github.ramonster1.jbeacon.poll;
 import io.github.ramonster1.jbeacon.exception.SelectorClosedException;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.UnresolvedAddressException;
@@ -23,6 +24,18 @@ class UDPPollingServiceTest {
 		assertThrows(SelectorClosedException.class, nonBlockingPoller::poll);
 	}
 
+	@Test
+	void testHedgingOverPersistentChannelWithoutCorrelatorFails() {
+		var builder = UDPPollingService.builder()
+				.serverSocketAddress(new InetSocketAddress("localhost", 12345))
+				.hedgeEndpoint(new InetSocketAddress("localhost", 12346))
+				.outBuffer(ByteBuffer.allocate(1))
+				.inBuffer(ByteBuffer.allocate(100))
+				.persistentChannel(true);
+
+		assertThrows(IllegalArgumentException.class, builder::build);
+	}
+
 	@Test
 	void testPollWithInvalidAddress() {
 		InetSocketAddress invalidAddress = new InetSocketAddress("invalid.host", 12345);
@@ -36,4 +49,31 @@ class UDPPollingServiceTest {
 
 		assertThrows(UnresolvedAddressException.class, poller::poll);
 	}
+
+	@Test
+	void testPersistentPollWithInvalidAddress() throws IOException {
+		InetSocketAddress invalidAddress = new InetSocketAddress("invalid.host", 12345);
+
+		try (var poller = UDPPollingService.builder()
+				.serverSocketAddress(invalidAddress)
+				.outBuffer(ByteBuffer.allocate(1))
+				.inBuffer(ByteBuffer.allocate(100))
+				.persistentChannel(true)
+				.build()) {
+
+			assertThrows(UnresolvedAddressException.class, poller::poll);
+		}
+	}
+
+	@Test
+	void testClosingServiceWithoutPollingSucceeds() throws IOException {
+		var poller = UDPPollingService.builder()
+				.serverSocketAddress(new InetSocketAddress("localhost", 12345))
+				.outBuffer(ByteBuffer.allocate(1))
+				.inBuffer(ByteBuffer.allocate(100))
+				.persistentChannel(true)
+				.build();
+
+		poller.close();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package io.github.ramonster1.jbeacon.poll;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VirtualThreadPollingServiceTest {
+
+	@Test
+	void testBuildWithoutPollingServicesFails() {
+		assertThrows(IllegalArgumentException.class, () -> VirtualThreadPollingService.builder().build());
+	}
+
+	@Test
+	void testEveryServiceIsPolledOnItsOwnVirtualThread() throws IOException {
+		List<Thread> pollingThreads = new CopyOnWriteArrayList<>();
+		PollingService pollingService = () -> pollingThreads.add(Thread.currentThread());
+
+		try (var poller = VirtualThreadPollingService.builder()
+				.pollingService(pollingService)
+				.pollingService(pollingService)
+				.pollingService(pollingService)
+				.build()) {
+			poller.poll();
+		}
+
+		assertEquals(3, pollingThreads.size());
+		assertEquals(3, pollingThreads.stream().distinct().count());
+		assertTrue(pollingThreads.stream().allMatch(Thread::isVirtual));
+	}
+
+	@Test
+	void testPollsOfWaveRunConcurrently() throws IOException {
+		CountDownLatch allPolling = new CountDownLatch(2);
+		PollingService pollingService = () -> {
+			allPolling.countDown();
+			try {
+				// Only completes if the other poll is running at the same time
+				if (!allPolling.await(5, TimeUnit.SECONDS)) {
+					throw new IOException("Polls were not run concurrently");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		try (var poller = VirtualThreadPollingService.builder()
+				.pollingService(pollingService)
+				.pollingService(pollingService)
+				.build()) {
+			poller.poll();
+		}
+
+		assertEquals(0, allPolling.getCount());
+	}
+
+	@Test
+	void testFailingServiceDoesNotFailWave() throws IOException {
+		PollingService failingService = mock(PollingService.class);
+		PollingService pollingService = mock(PollingService.class);
+		doThrow(new IOException("Unreachable")).when(failingService).poll();
+
+		try (var poller = VirtualThreadPollingService.builder()
+				.pollingService(failingService)
+				.pollingService(pollingService)
+				.build()) {
+			poller.poll();
+			poller.poll();
+		}
+
+		verify(pollingService, times(2)).poll();
+	}
+
+	@Test
+	void testCloseClosesEveryService() throws IOException {
+		PollingService failingService = mock(PollingService.class);
+		PollingService pollingService = mock(PollingService.class);
+		doThrow(new IOException("Close failed")).when(failingService).close();
+
+		var poller = VirtualThreadPollingService.builder()
+				.pollingService(failingService)
+				.pollingService(pollingService)
+				.build();
+
+		assertThrows(IOException.class, poller::close);
+		verify(pollingService).close();
+	}
+}
@@ -0,0 +1,31 @@
+package io.github.ramonster1.jbeacon.poll.mmsg;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import io.github.ramonster1.jbeacon.poll.MultiTargetUDPPollingService;
+import io.github.ramonster1.jbeacon.poll.PollSelector;
+import io.github.ramonster1.jbeacon.poll.PollTarget;
+import io.github.ramonster1.jbeacon.poll.PollingService;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.Mockito.mock;
+
+class BatchedUDPPollingServicesTest {
+
+	@Test
+	void testUnresolvedTargetsFallBackToNioTransport() throws Exception {
+		PollTarget unresolvedTarget = new PollTarget(InetSocketAddress.createUnresolved("invalid.host", 12345),
+				ByteBuffer.allocate(1), ByteBuffer.allocate(100), mock(OnPollResponseCommand.class));
+
+		try (Selector selector = Selector.open();
+			 PollingService pollingService = BatchedUDPPollingServices.create(List.of(unresolvedTarget), 100L, new PollSelector(selector, 10L))) {
+
+			assertInstanceOf(MultiTargetUDPPollingService.class, pollingService);
+		}
+	}
+}
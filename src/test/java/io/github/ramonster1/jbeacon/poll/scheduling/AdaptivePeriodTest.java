@@ -0,0 +1,99 @@
+package io.github.ramonster1.jbeacon.poll.scheduling;
+
+import io.github.ramonster1.jbeacon.command.OnPollResponseCommand;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdaptivePeriodTest {
+
+	@Test
+	void testPeriodDoublesWhileResponsesAreUnchanged() {
+		AdaptivePeriod adaptivePeriod = AdaptivePeriod.builder().maxMultiplier(4).build();
+		OnPollResponseCommand command = adaptivePeriod.decorate(buffer -> {
+		});
+
+		// The first response is always a change
+		assertTrue(adaptivePeriod.isDue());
+		command.execute(response("unchanged"));
+		assertTrue(adaptivePeriod.isDue());
+		assertEquals(1, adaptivePeriod.currentMultiplier());
+
+		command.execute(response("unchanged"));
+		assertTrue(adaptivePeriod.isDue());
+		assertEquals(2, adaptivePeriod.currentMultiplier());
+
+		command.execute(response("unchanged"));
+		assertFalse(adaptivePeriod.isDue());
+		assertTrue(adaptivePeriod.isDue());
+		assertEquals(4, adaptivePeriod.currentMultiplier());
+
+		// Capped at the maximum multiplier
+		command.execute(response("unchanged"));
+		assertFalse(adaptivePeriod.isDue());
+		assertFalse(adaptivePeriod.isDue());
+		assertFalse(adaptivePeriod.isDue());
+		assertTrue(adaptivePeriod.isDue());
+		assertEquals(4, adaptivePeriod.currentMultiplier());
+	}
+
+	@Test
+	void testChangedResponseSnapsBackToThePeriod() {
+		AdaptivePeriod adaptivePeriod = AdaptivePeriod.builder().maxMultiplier(8).build();
+		OnPollResponseCommand command = adaptivePeriod.decorate(buffer -> {
+		});
+
+		for (int i = 0; i < 4; i++) {
+			command.execute(response("unchanged"));
+			while (!adaptivePeriod.isDue()) {
+				// Skip the ticks inside the effective period
+			}
+		}
+		assertEquals(8, adaptivePeriod.currentMultiplier());
+
+		command.execute(response("changed"));
+
+		assertEquals(1, adaptivePeriod.currentMultiplier());
+		assertTrue(adaptivePeriod.isDue());
+		assertEquals(1, adaptivePeriod.currentMultiplier());
+	}
+
+	@Test
+	void testDecoratedCommandReceivesUnconsumedResponse() {
+		AdaptivePeriod adaptivePeriod = AdaptivePeriod.builder().build();
+		OnPollResponseCommand delegate = mock(OnPollResponseCommand.class);
+		OnPollResponseCommand command = adaptivePeriod.decorate(delegate);
+		ByteBuffer response = response("response");
+
+		command.execute(response);
+		command.onTimeout();
+
+		verify(delegate).execute(response);
+		verify(delegate).onTimeout();
+		assertEquals(0, response.position());
+	}
+
+	@Test
+	void testTimeoutsDoNotChangeThePeriod() {
+		AdaptivePeriod adaptivePeriod = AdaptivePeriod.builder().build();
+		OnPollResponseCommand command = adaptivePeriod.decorate(buffer -> {
+		});
+
+		command.onTimeout();
+		assertTrue(adaptivePeriod.isDue());
+		assertEquals(1, adaptivePeriod.currentMultiplier());
+	}
+
+	@Test
+	void testMaxMultiplierMustBePositive() {
+		assertThrows(IllegalArgumentException.class, () -> AdaptivePeriod.builder().maxMultiplier(0).build());
+	}
+
+	private static ByteBuffer response(String payload) {
+		return ByteBuffer.wrap(payload.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,99 @@
+package io.github.ramonster1.jbeacon.poll.scheduling;
+
+import io.github.ramonster1.jbeacon.poll.PollingService;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PhaseStaggerTest {
+	private static final long PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+
+	@Test
+	void testEvenStrategySpreadsPollsEvenly() {
+		PhaseStagger phaseStagger = PhaseStagger.builder().build();
+
+		assertEquals(0, phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null));
+		assertEquals(PERIOD_NANOS / 2, phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null));
+		assertEquals(PERIOD_NANOS / 4, phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null));
+		assertEquals(PERIOD_NANOS * 3 / 4, phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null));
+	}
+
+	@Test
+	void testPeriodsAreStaggeredIndependently() {
+		PhaseStagger phaseStagger = PhaseStagger.builder().build();
+
+		phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null);
+		assertEquals(0, phaseStagger.phaseOffsetNanos(PERIOD_NANOS * 2, null));
+		assertEquals(PERIOD_NANOS / 2, phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null));
+	}
+
+	@Test
+	void testHashedPhaseIsStableForKey() {
+		InetSocketAddress target = new InetSocketAddress("127.0.0.1", 5000);
+		PhaseStagger phaseStagger = PhaseStagger.builder().strategy(StaggerStrategy.HASHED).seed(42L).build();
+		PhaseStagger restartedPhaseStagger = PhaseStagger.builder().strategy(StaggerStrategy.HASHED).seed(42L).build();
+
+		long phaseOffset = phaseStagger.phaseOffsetNanos(PERIOD_NANOS, target);
+		phaseStagger.phaseOffsetNanos(PERIOD_NANOS, new InetSocketAddress("127.0.0.1", 5001));
+
+		assertEquals(phaseOffset, phaseStagger.phaseOffsetNanos(PERIOD_NANOS, target));
+		assertEquals(phaseOffset, restartedPhaseStagger.phaseOffsetNanos(PERIOD_NANOS, target));
+	}
+
+	@Test
+	void testHashedPhasesOfNeighbouringTargetsAreSpread() {
+		PhaseStagger phaseStagger = PhaseStagger.builder().strategy(StaggerStrategy.HASHED).seed(42L).build();
+		Set<Long> occupiedTenths = new HashSet<>();
+
+		for (int port = 5000; port < 5100; port++) {
+			occupiedTenths.add(phaseStagger.phaseOffsetNanos(PERIOD_NANOS, new InetSocketAddress("127.0.0.1", port)) * 10 / PERIOD_NANOS);
+		}
+
+		assertEquals(10, occupiedTenths.size());
+	}
+
+	@Test
+	void testJitterIsBoundedAndKeepsPhasesInPeriod() {
+		long maxJitterNanos = TimeUnit.MILLISECONDS.toNanos(10);
+		PhaseStagger phaseStagger = PhaseStagger.builder().maxJitter(10L).seed(42L).build();
+
+		long first = phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null);
+		long second = phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null);
+		assertTrue(first >= 0 && first < maxJitterNanos);
+		assertTrue(second >= PERIOD_NANOS / 2 && second < PERIOD_NANOS / 2 + maxJitterNanos);
+
+		for (int i = 0; i < 100; i++) {
+			long phaseOffset = phaseStagger.phaseOffsetNanos(PERIOD_NANOS, null);
+			assertTrue(phaseOffset >= 0 && phaseOffset < PERIOD_NANOS);
+		}
+	}
+
+	@Test
+	void testPollSchedulingServiceDelaysFirstPollByPhaseOffset() {
+		ScheduledExecutorService executorMock = mock(ScheduledExecutorService.class);
+		PhaseStagger phaseStagger = PhaseStagger.builder().build();
+
+		for (int i = 0; i < 2; i++) {
+			try (var pollSchedulingService = PollSchedulingService.builder()
+					.executor(executorMock)
+					.pollingService(mock(PollingService.class))
+					.initialDelay(10L)
+					.period(1000L)
+					.timeUnit(TimeUnit.MILLISECONDS)
+					.phaseStagger(phaseStagger)
+					.build()) {
+				pollSchedulingService.executePeriodically();
+			}
+		}
+
+		verify(executorMock).scheduleAtFixedRate(any(), eq(TimeUnit.MILLISECONDS.toNanos(10)), eq(PERIOD_NANOS), eq(TimeUnit.NANOSECONDS));
+		verify(executorMock).scheduleAtFixedRate(any(), eq(TimeUnit.MILLISECONDS.toNanos(510)), eq(PERIOD_NANOS), eq(TimeUnit.NANOSECONDS));
+	}
+}
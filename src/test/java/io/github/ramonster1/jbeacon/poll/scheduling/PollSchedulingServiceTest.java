@@ -1,13 +1,20 @@
 package io.github.ramonster1.jbeacon.poll.scheduling;
 
+import io.github.ramonster1.jbeacon.event.PollEventListener;
 import io.github.ramonster1.jbeacon.poll.PollingService;
+import io.github.ramonster1.jbeacon.poll.UDPPollingService;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class PollSchedulingServiceTest {
@@ -65,6 +72,251 @@ class PollSchedulingServiceTest {
 		}
 	}
 
+	@Test
+	void testIntendedStartsAdvanceByPeriodWhenPollsRunLate() throws IOException {
+		PollingService pollingServiceMock = mock(PollingService.class);
+		PollEventListener listenerMock = mock(PollEventListener.class);
+		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+		ArgumentCaptor<Long> intendedStarts = ArgumentCaptor.forClass(Long.class);
+
+		// Each poll takes longer than the period, so every poll after the first starts late
+		doAnswer(invocation -> {
+			Thread.sleep(30);
+			return null;
+		}).when(pollingServiceMock).poll();
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executor)
+				.pollingService(pollingServiceMock)
+				.initialDelay(0L)
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.pollEventListener(listenerMock)
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+
+			verify(listenerMock, timeout(1000).atLeast(3)).onScheduled(intendedStarts.capture());
+		}
+
+		List<Long> values = intendedStarts.getAllValues();
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(10), values.get(1) - values.get(0));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(10), values.get(2) - values.get(1));
+	}
+
+	@Test
+	void testPollLongerThanPeriodIsReportedAsOverrun() throws InterruptedException, IOException {
+		PollingService pollingServiceMock = mock(PollingService.class);
+		PollEventListener listenerMock = mock(PollEventListener.class);
+		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+		// Each poll takes three times the period
+		doAnswer(invocation -> {
+			Thread.sleep(30);
+			return null;
+		}).when(pollingServiceMock).poll();
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executor)
+				.pollingService(pollingServiceMock)
+				.initialDelay(0L)
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.pollEventListener(listenerMock)
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+
+			verify(listenerMock, timeout(1000).atLeastOnce()).onScheduleOverrun(longThat(overrunNanos -> overrunNanos > 0));
+		}
+	}
+
+	@Test
+	void testSkipPolicySkipsPollsMissedByAnOverrun() throws IOException {
+		PollingService pollingServiceMock = mock(PollingService.class);
+		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+		// Each poll takes three times the period, so the two polls due during it are skipped
+		doAnswer(invocation -> {
+			Thread.sleep(30);
+			return null;
+		}).when(pollingServiceMock).poll();
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executor)
+				.pollingService(pollingServiceMock)
+				.initialDelay(0L)
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.overrunPolicy(OverrunPolicy.SKIP)
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+
+			verify(pollingServiceMock, timeout(1000).atLeast(3)).poll();
+			assertTrue(pollSchedulingService.overrunCount() >= 2);
+			assertTrue(pollSchedulingService.skippedPollCount() >= 2);
+		}
+	}
+
+	@Test
+	void testFixedDelayPolicyStartsPollsAPeriodAfterThePreviousPollEnds() throws IOException {
+		PollingService pollingServiceMock = mock(PollingService.class);
+		PollEventListener listenerMock = mock(PollEventListener.class);
+		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+		ArgumentCaptor<Long> intendedStarts = ArgumentCaptor.forClass(Long.class);
+
+		doAnswer(invocation -> {
+			Thread.sleep(30);
+			return null;
+		}).when(pollingServiceMock).poll();
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executor)
+				.pollingService(pollingServiceMock)
+				.initialDelay(0L)
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.pollEventListener(listenerMock)
+				.overrunPolicy(OverrunPolicy.FIXED_DELAY)
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+
+			verify(listenerMock, timeout(1000).atLeast(3)).onScheduled(intendedStarts.capture());
+			assertEquals(0, pollSchedulingService.skippedPollCount());
+		}
+
+		List<Long> values = intendedStarts.getAllValues();
+		assertTrue(values.get(1) - values.get(0) >= TimeUnit.MILLISECONDS.toNanos(40));
+		assertTrue(values.get(2) - values.get(1) >= TimeUnit.MILLISECONDS.toNanos(40));
+	}
+
+	@Test
+	void testSingleFailureDoesNotSkipAPoll() throws IOException {
+		PollingService pollingServiceMock = mock(PollingService.class);
+		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+		// Fails once, so the backoff of one period ends as the next poll is due
+		doThrow(new IOException("Test IOException"))
+				.doNothing()
+				.when(pollingServiceMock).poll();
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executor)
+				.pollingService(pollingServiceMock)
+				.initialDelay(0L)
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+
+			verify(pollingServiceMock, timeout(1000).atLeast(4)).poll();
+			assertEquals(1, pollSchedulingService.failureCount());
+			assertEquals(0, pollSchedulingService.skippedPollCount());
+		}
+	}
+
+	@Test
+	void testFailingPollsBackOffWithoutCancellingTheSchedule() throws IOException {
+		PollingService pollingServiceMock = mock(PollingService.class);
+		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+		// Fails twice, so the third poll is skipped for a backoff of two periods, then recovers
+		doThrow(new IOException("Test IOException"))
+				.doThrow(new IllegalStateException("Test IllegalStateException"))
+				.doNothing()
+				.when(pollingServiceMock).poll();
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executor)
+				.pollingService(pollingServiceMock)
+				.initialDelay(0L)
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.maxFailureBackoff(20L)
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+
+			verify(pollingServiceMock, timeout(1000).atLeast(5)).poll();
+			assertEquals(2, pollSchedulingService.failureCount());
+			assertEquals(1, pollSchedulingService.skippedPollCount());
+		}
+	}
+
+	@Test
+	void testErrorFromPollDoesNotCancelTheSchedule() throws IOException {
+		PollingService pollingServiceMock = mock(PollingService.class);
+		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+		doThrow(new AssertionError("Test AssertionError"))
+				.doNothing()
+				.when(pollingServiceMock).poll();
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executor)
+				.pollingService(pollingServiceMock)
+				.initialDelay(0L)
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+
+			verify(pollingServiceMock, timeout(1000).atLeast(3)).poll();
+			assertEquals(1, pollSchedulingService.failureCount());
+		}
+	}
+
+	@Test
+	void testHashedPhaseIsKeyedByTheStaggerKey() {
+		ScheduledExecutorService executorMock = mock(ScheduledExecutorService.class);
+		InetSocketAddress staggerKey = InetSocketAddress.createUnresolved("feed.example.com", 5000);
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executorMock)
+				.pollingService(mock(PollingService.class))
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.phaseStagger(PhaseStagger.builder().strategy(StaggerStrategy.HASHED).seed(42L).build())
+				.staggerKey(staggerKey)
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+		}
+
+		// A new stagger with the same seed, as after a restart, assigns the key the same phase
+		long periodNanos = TimeUnit.MILLISECONDS.toNanos(10);
+		long phaseNanos = PhaseStagger.builder().strategy(StaggerStrategy.HASHED).seed(42L).build()
+				.phaseOffsetNanos(periodNanos, InetSocketAddress.createUnresolved("feed.example.com", 5000));
+		verify(executorMock).scheduleAtFixedRate(any(Runnable.class), eq(phaseNanos), eq(periodNanos), eq(TimeUnit.NANOSECONDS));
+	}
+
+	@Test
+	void testStaggerKeyDefaultsToTheServerAddress() {
+		ScheduledExecutorService executorMock = mock(ScheduledExecutorService.class);
+		UDPPollingService pollingServiceMock = mock(UDPPollingService.class);
+		when(pollingServiceMock.serverSocketAddress()).thenReturn(InetSocketAddress.createUnresolved("feed.example.com", 5000));
+
+		try (var pollSchedulingService = PollSchedulingService.builder()
+				.executor(executorMock)
+				.pollingService(pollingServiceMock)
+				.period(10L)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.phaseStagger(PhaseStagger.builder().strategy(StaggerStrategy.HASHED).seed(42L).build())
+				.build()) {
+
+			pollSchedulingService.executePeriodically();
+		}
+
+		long periodNanos = TimeUnit.MILLISECONDS.toNanos(10);
+		long phaseNanos = PhaseStagger.builder().strategy(StaggerStrategy.HASHED).seed(42L).build()
+				.phaseOffsetNanos(periodNanos, InetSocketAddress.createUnresolved("feed.example.com", 5000));
+		verify(executorMock).scheduleAtFixedRate(any(Runnable.class), eq(phaseNanos), eq(periodNanos), eq(TimeUnit.NANOSECONDS));
+	}
+
 	@Test
 	void testShutdownBehavior() {
 		// Arrange
@@ -0,0 +1,150 @@
+package io.github.ramonster1.jbeacon.poll.scheduling;
+
+import io.github.ramonster1.jbeacon.poll.PollingService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TimerWheelSchedulerTest {
+
+	@Test
+	void testTaskRunsAtFixedRate() throws InterruptedException {
+		CountDownLatch runs = new CountDownLatch(5);
+
+		try (TimerWheelScheduler scheduler = TimerWheelScheduler.builder().build()) {
+			scheduler.start();
+			scheduler.scheduleAtFixedRate(runs::countDown, 0, 10, TimeUnit.MILLISECONDS);
+
+			assertTrue(runs.await(1, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	void testCancelledTaskDoesNotRunAgain() throws InterruptedException {
+		AtomicInteger runs = new AtomicInteger();
+
+		try (TimerWheelScheduler scheduler = TimerWheelScheduler.builder().build()) {
+			scheduler.start();
+			TimerWheelScheduler.ScheduledTask task = scheduler.scheduleAtFixedRate(runs::incrementAndGet, 0, 5, TimeUnit.MILLISECONDS);
+
+			Thread.sleep(50);
+			task.cancel();
+			// Lets a run already expired in the current tick complete
+			Thread.sleep(20);
+			int runsWhenCancelled = runs.get();
+			Thread.sleep(50);
+
+			assertTrue(task.isCancelled());
+			assertTrue(runsWhenCancelled > 0);
+			assertEquals(runsWhenCancelled, runs.get());
+		}
+	}
+
+	@Test
+	void testTasksRunInlineOnTickingThread() throws InterruptedException {
+		List<String> threads = new CopyOnWriteArrayList<>();
+		CountDownLatch runs = new CountDownLatch(100);
+
+		try (TimerWheelScheduler scheduler = TimerWheelScheduler.builder().build()) {
+			scheduler.start();
+			for (int i = 0; i < 100; i++) {
+				scheduler.scheduleAtFixedRate(() -> {
+					threads.add(Thread.currentThread().getName());
+					runs.countDown();
+				}, 20, 1000, TimeUnit.MILLISECONDS);
+			}
+
+			assertTrue(runs.await(1, TimeUnit.SECONDS));
+		}
+
+		assertEquals(List.of("jbeacon-timer-wheel"), threads.stream().distinct().toList());
+	}
+
+	@Test
+	void testFailingTaskIsCancelledWithoutStoppingOthers() throws InterruptedException {
+		CountDownLatch runs = new CountDownLatch(3);
+
+		try (TimerWheelScheduler scheduler = TimerWheelScheduler.builder().build()) {
+			scheduler.start();
+			TimerWheelScheduler.ScheduledTask failingTask = scheduler.scheduleAtFixedRate(() -> {
+				throw new IllegalStateException("Test exception");
+			}, 0, 5, TimeUnit.MILLISECONDS);
+			scheduler.scheduleAtFixedRate(runs::countDown, 0, 5, TimeUnit.MILLISECONDS);
+
+			assertTrue(runs.await(1, TimeUnit.SECONDS));
+			assertTrue(failingTask.isCancelled());
+		}
+	}
+
+	@Test
+	void testDispatcherRunsTasksWithoutOverlappingRuns() throws InterruptedException {
+		AtomicInteger concurrentRuns = new AtomicInteger();
+		AtomicInteger maxConcurrentRuns = new AtomicInteger();
+		CountDownLatch runs = new CountDownLatch(3);
+		ExecutorService dispatcher = Executors.newCachedThreadPool();
+
+		try (TimerWheelScheduler scheduler = TimerWheelScheduler.builder().dispatcher(dispatcher).build()) {
+			scheduler.start();
+			// Each run takes longer than the period
+			scheduler.scheduleAtFixedRate(() -> {
+				maxConcurrentRuns.accumulateAndGet(concurrentRuns.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				concurrentRuns.decrementAndGet();
+				runs.countDown();
+			}, 0, 5, TimeUnit.MILLISECONDS);
+
+			assertTrue(runs.await(1, TimeUnit.SECONDS));
+		} finally {
+			dispatcher.shutdownNow();
+		}
+
+		assertEquals(1, maxConcurrentRuns.get());
+	}
+
+	@Test
+	void testScheduleBeforeStartFails() {
+		TimerWheelScheduler scheduler = TimerWheelScheduler.builder().build();
+
+		assertThrows(IllegalStateException.class, () -> scheduler.scheduleAtFixedRate(() -> {
+		}, 0, 10, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void testPollSchedulingServiceOnTimerWheel() throws InterruptedException, IOException {
+		PollingService pollingServiceMock = mock(PollingService.class);
+
+		try (TimerWheelScheduler scheduler = TimerWheelScheduler.builder().build()) {
+			scheduler.start();
+
+			try (var pollSchedulingService = PollSchedulingService.builder()
+					.timerWheelScheduler(scheduler)
+					.pollingService(pollingServiceMock)
+					.initialDelay(0L)
+					.period(10L)
+					.timeUnit(TimeUnit.MILLISECONDS)
+					.build()) {
+
+				pollSchedulingService.executePeriodically();
+
+				verify(pollingServiceMock, timeout(1000).atLeast(3)).poll();
+			}
+
+			// Closing the service only cancels its own task, so the shared scheduler keeps running
+			assertTrue(scheduler.isRunning());
+		}
+	}
+}